@@ -0,0 +1,272 @@
+package vn.web.fashionshop.cache;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreUpdate;
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.entity.Category;
+import vn.web.fashionshop.entity.Image;
+import vn.web.fashionshop.entity.Product;
+import vn.web.fashionshop.entity.ProductVariant;
+import vn.web.fashionshop.entity.Review;
+
+/**
+ * JPA entity listener: khi dữ liệu catalog đổi thì xoá các trang cache liên quan và tăng
+ * {@link CatalogVersions}, sau khi commit.
+ *
+ * Các thay đổi trong cùng một transaction được gom lại và invalidate một lần. Đường ghi không qua
+ * JPA (JDBC batch) gọi trực tiếp {@link #productsChanged} / {@link #categoriesChanged}.
+ *
+ * Tồn kho không nằm trong HTML (client lấy qua API), nên product / variant chỉ đổi stock / updatedAt
+ * (đặt hàng, huỷ đơn) không xoá trang cache và không đổi ETag của trang; chỉ version tồn kho mà API
+ * variant dùng được tăng. Nếu không mỗi đơn hàng sẽ xoá trang chủ, shop, collection và trang sản phẩm.
+ */
+@Slf4j
+@Component
+public class CatalogChangeListener {
+
+    private final PageCache pageCache;
+    private final CatalogVersions catalogVersions;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    // Thuộc tính không hiện trên trang cache
+    private static final Set<String> STOCK_PROPERTIES = Set.of("stock", "updatedAt");
+
+    private static final class PendingChanges {
+        final Set<Long> productIds = new HashSet<>();
+        final Set<Long> reviewedProductIds = new HashSet<>();
+        final Set<Long> stockProductIds = new HashSet<>();
+        // Danh mục của product đổi: trang /collections/{rootSlug} liệt kê product đó
+        final Set<Long> categoryIds = new HashSet<>();
+        boolean catalog;
+        boolean categories;
+    }
+
+    public CatalogChangeListener(PageCache pageCache, CatalogVersions catalogVersions,
+            NamedParameterJdbcTemplate jdbc, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.pageCache = pageCache;
+        this.catalogVersions = catalogVersions;
+        this.jdbc = jdbc;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    // Product / variant được xét ở @PreUpdate: lúc đó persistence context vẫn giữ trạng thái đã load để so sánh
+    @PreUpdate
+    public void beforeUpdate(Object entity) {
+        if (!tracksStock(entity)) {
+            return;
+        }
+        if (onlyStockChanged(entity)) {
+            Long productId = entity instanceof ProductVariant variant
+                    ? (variant.getProduct() != null ? variant.getProduct().getId() : null)
+                    : ((Product) entity).getId();
+            record(changes -> changes.stockProductIds.add(productId));
+        } else {
+            onChange(entity);
+        }
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        if (!tracksStock(entity)) {
+            onChange(entity);
+        }
+    }
+
+    @PostPersist
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Product product) {
+            productsChanged(idSet(product.getId()),
+                    product.getCategory() != null ? idSet(product.getCategory().getId()) : Set.of());
+        } else if (entity instanceof Image image && image.getProduct() != null) {
+            // Ảnh chính hiện ở trang danh sách
+            productsChanged(idSet(image.getProduct().getId()), Set.of());
+        } else if (entity instanceof ProductVariant variant && variant.getProduct() != null) {
+            // Thêm / xoá / đổi màu, size: trang chi tiết liệt kê các lựa chọn
+            Long productId = variant.getProduct().getId();
+            record(changes -> changes.productIds.add(productId));
+        } else if (entity instanceof Review review && review.getProduct() != null) {
+            Long productId = review.getProduct().getId();
+            record(changes -> changes.reviewedProductIds.add(productId));
+        } else if (entity instanceof Category) {
+            categoriesChanged();
+        }
+    }
+
+    // Product đổi ảnh hưởng trang chi tiết, trang chủ / shop và trang collection của danh mục
+    public void productsChanged(Set<Long> productIds, Set<Long> categoryIds) {
+        record(changes -> {
+            changes.productIds.addAll(productIds);
+            changes.categoryIds.addAll(categoryIds);
+            changes.catalog = true;
+        });
+    }
+
+    // Menu danh mục có trên mọi trang
+    public void categoriesChanged() {
+        record(changes -> changes.categories = true);
+    }
+
+    // Trong transaction: gom lại tới khi commit; ngoài transaction: invalidate ngay
+    private void record(Consumer<PendingChanges> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges immediate = new PendingChanges();
+            change.accept(immediate);
+            flush(immediate);
+            return;
+        }
+        change.accept(pending());
+    }
+
+    private PendingChanges pending() {
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            PendingChanges created = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogChangeListener.this);
+                    if (status == STATUS_COMMITTED) {
+                        flush(created);
+                    }
+                }
+            });
+            changes = created;
+        }
+        return changes;
+    }
+
+    private void flush(PendingChanges changes) {
+        changes.productIds.remove(null);
+        changes.reviewedProductIds.remove(null);
+        changes.stockProductIds.remove(null);
+        bumpVersions(changes);
+
+        if (changes.categories) {
+            pageCache.clear();
+            return;
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        if (changes.catalog) {
+            tags.add(PageCacheFilter.TAG_CATALOG);
+        }
+        if (!changes.reviewedProductIds.isEmpty()) {
+            // Điểm đánh giá hiện trên trang danh sách
+            tags.add(PageCacheFilter.TAG_CATALOG);
+        }
+        for (Long productId : changes.productIds) {
+            tags.add(PageCacheFilter.productTag(productId));
+        }
+        for (Long productId : changes.reviewedProductIds) {
+            tags.add(PageCacheFilter.productTag(productId));
+        }
+        changes.categoryIds.remove(null);
+        if (!changes.categoryIds.isEmpty()) {
+            try {
+                tags.addAll(rootSlugTags(changes.categoryIds));
+            } catch (RuntimeException e) {
+                // Không tra được slug: xoá toàn bộ thay vì để trang collection cũ
+                log.warn("Could not resolve category slugs for page cache invalidation", e);
+                pageCache.clear();
+                return;
+            }
+        }
+        if (!tags.isEmpty()) {
+            pageCache.invalidateTags(tags);
+        }
+    }
+
+    private void bumpVersions(PendingChanges changes) {
+        if (changes.categories) {
+            catalogVersions.categoriesChanged();
+        }
+        if (changes.catalog) {
+            catalogVersions.catalogChanged();
+        }
+        for (Long productId : changes.productIds) {
+            catalogVersions.productChanged(productId);
+        }
+        for (Long productId : changes.reviewedProductIds) {
+            catalogVersions.reviewsChanged(productId);
+        }
+        for (Long productId : changes.stockProductIds) {
+            catalogVersions.stockChanged(productId);
+        }
+    }
+
+    private static boolean tracksStock(Object entity) {
+        return entity instanceof Product || entity instanceof ProductVariant;
+    }
+
+    // Dirty check của Hibernate trên entity đang flush: true nếu chỉ các cột tồn kho thay đổi
+    private boolean onlyStockChanged(Object entity) {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        EntityManager entityManager = factory != null
+                ? EntityManagerFactoryUtils.getTransactionalEntityManager(factory)
+                : null;
+        if (entityManager == null) {
+            return false;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityEntry entry = session.getPersistenceContextInternal().getEntry(entity);
+        if (entry == null || entry.getLoadedState() == null) {
+            return false;
+        }
+        EntityPersister persister = entry.getPersister();
+        int[] dirty = persister.findDirty(persister.getValues(entity), entry.getLoadedState(), entity, session);
+        if (dirty == null) {
+            return false;
+        }
+        String[] names = persister.getPropertyNames();
+        for (int index : dirty) {
+            if (!STOCK_PROPERTIES.contains(names[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Long> idSet(Long id) {
+        return id != null ? Set.of(id) : Set.of();
+    }
+
+    private Set<String> rootSlugTags(Set<Long> categoryIds) {
+        Set<String> tags = new HashSet<>();
+        jdbc.query("SELECT c.slug AS slug, p.slug AS parent_slug FROM categories c " +
+                "LEFT JOIN categories p ON p.id = c.parent_id WHERE c.id IN (:ids)",
+                new MapSqlParameterSource("ids", categoryIds),
+                rs -> {
+                    String slug = rs.getString("slug");
+                    String parentSlug = rs.getString("parent_slug");
+                    if (slug != null) {
+                        tags.add(PageCacheFilter.categoryTag(slug));
+                    }
+                    if (parentSlug != null) {
+                        tags.add(PageCacheFilter.categoryTag(parentSlug));
+                    }
+                });
+        return tags;
+    }
+}
@@ -0,0 +1,109 @@
+package vn.web.fashionshop.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Bộ đếm phiên bản catalog trong bộ nhớ, dùng làm validator cho conditional GET (ETag / Last-Modified).
+ *
+ * Mỗi version là một mốc thời gian (ms) tăng đơn điệu nên vừa làm ETag vừa làm Last-Modified.
+ * Giá trị khởi tạo là thời điểm khởi động: sau restart / deploy mọi ETag đều đổi, không bao giờ trả
+ * 304 cho nội dung render bởi template cũ. Được tăng bởi {@link CatalogChangeListener} sau commit.
+ */
+@Component
+public class CatalogVersions {
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final long bootVersion = clock.get();
+
+    private final AtomicLong categoryTreeVersion = new AtomicLong(bootVersion);
+    // Mọi thay đổi product / ảnh: trang danh sách
+    private final AtomicLong catalogVersion = new AtomicLong(bootVersion);
+    // Mọi thay đổi review: điểm trung bình trên trang danh sách
+    private final AtomicLong reviewsVersion = new AtomicLong(bootVersion);
+
+    // Chỉ giữ product đã đổi kể từ lúc khởi động; product khác dùng bootVersion
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> productReviewVersions = new ConcurrentHashMap<>();
+    // Tồn kho tách riêng: chỉ API variant trả stock, trang HTML không đổi khi có đơn hàng
+    private final Map<Long, Long> productStockVersions = new ConcurrentHashMap<>();
+
+    public long categoryTree() {
+        return categoryTreeVersion.get();
+    }
+
+    public long catalog() {
+        return catalogVersion.get();
+    }
+
+    public long reviews() {
+        return reviewsVersion.get();
+    }
+
+    public long product(Long productId) {
+        return productVersions.getOrDefault(productId, bootVersion);
+    }
+
+    public long productReviews(Long productId) {
+        return productReviewVersions.getOrDefault(productId, bootVersion);
+    }
+
+    public long productStock(Long productId) {
+        return productStockVersions.getOrDefault(productId, bootVersion);
+    }
+
+    public void categoriesChanged() {
+        categoryTreeVersion.set(next());
+    }
+
+    public void catalogChanged() {
+        catalogVersion.set(next());
+    }
+
+    public void productChanged(Long productId) {
+        productVersions.put(productId, next());
+    }
+
+    public void stockChanged(Long productId) {
+        productStockVersions.put(productId, next());
+    }
+
+    public void reviewsChanged(Long productId) {
+        long version = next();
+        productReviewVersions.put(productId, version);
+        reviewsVersion.set(version);
+    }
+
+    /**
+     * ETag / Last-Modified từ các version của nội dung; true nếu client đã có bản mới nhất (đã ghi 304).
+     * Controller trả về null khi true, không query DB hay render.
+     */
+    public boolean checkNotModified(WebRequest request, long... versions) {
+        long lastModified = 0;
+        StringBuilder etag = new StringBuilder("W/\"");
+        for (int i = 0; i < versions.length; i++) {
+            if (i > 0) {
+                etag.append('-');
+            }
+            etag.append(Long.toString(versions[i], 36));
+            lastModified = Math.max(lastModified, versions[i]);
+        }
+        etag.append('"');
+        // Ghi trước Spring Security để nó không thêm no-store (trình duyệt sẽ không gửi lại validator)
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return request.checkNotModified(etag.toString(), lastModified);
+    }
+
+    private long next() {
+        return clock.updateAndGet(prev -> Math.max(prev + 1, System.currentTimeMillis()));
+    }
+}
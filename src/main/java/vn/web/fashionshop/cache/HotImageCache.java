@@ -0,0 +1,67 @@
+package vn.web.fashionshop.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import vn.web.fashionshop.config.ImageServingProperties;
+
+/**
+ * LRU trong bộ nhớ cho ảnh nhỏ hay được xem (thumbnail, ảnh card ở trang danh sách), giới hạn theo
+ * tổng số byte. Entry kèm size + mtime của file: file đổi / bị xoá thì entry tự hết hiệu lực.
+ */
+@Component
+public class HotImageCache {
+
+    private record Entry(long size, long lastModified, byte[] bytes) {
+    }
+
+    private final long maxBytes;
+    private final int maxFileBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public HotImageCache(ImageServingProperties properties) {
+        this.maxBytes = properties.getMemoryCacheMaxBytes();
+        this.maxFileBytes = properties.getMemoryCacheMaxFileBytes();
+    }
+
+    public boolean accepts(long size) {
+        return size <= maxFileBytes && size <= maxBytes;
+    }
+
+    public synchronized byte[] get(String key, long size, long lastModified) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.size() != size || entry.lastModified() != lastModified) {
+            remove(key);
+            return null;
+        }
+        return entry.bytes();
+    }
+
+    public synchronized void put(String key, long lastModified, byte[] bytes) {
+        if (!accepts(bytes.length)) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(bytes.length, lastModified, bytes));
+        totalBytes += bytes.length;
+        var it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            totalBytes -= eldest.getValue().bytes().length;
+            it.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes().length;
+        }
+    }
+}
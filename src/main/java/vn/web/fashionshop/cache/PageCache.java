@@ -0,0 +1,121 @@
+package vn.web.fashionshop.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import vn.web.fashionshop.config.PageCacheProperties;
+
+/**
+ * Bộ nhớ trang HTML đã render, gắn tag để xoá theo nội dung (product:{id}, category:{slug}, ...).
+ *
+ * LRU giới hạn số trang + TTL làm chặn trên cho độ cũ. Mỗi lần invalidate tăng generation: trang bắt đầu
+ * render trước một lần invalidate sẽ không được lưu, tránh ghi đè bằng dữ liệu cũ.
+ */
+@Component
+public class PageCache {
+
+    public record CachedPage(int status, Map<String, List<String>> headers, byte[] body, Set<String> tags,
+            long expiresAt) {
+    }
+
+    private final long ttlMillis;
+    private final Map<String, CachedPage> pages;
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private long generation;
+
+    public PageCache(PageCacheProperties properties) {
+        this.ttlMillis = properties.getTtlSeconds() * 1000;
+        int maxEntries = properties.getMaxEntries();
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                if (size() > maxEntries) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized CachedPage get(String key) {
+        CachedPage page = pages.get(key);
+        if (page == null) {
+            return null;
+        }
+        if (page.expiresAt() <= System.currentTimeMillis()) {
+            pages.remove(key);
+            unindex(key, page);
+            return null;
+        }
+        return page;
+    }
+
+    // Lấy trước khi render; truyền lại cho put để bỏ qua kết quả nếu đã có invalidate trong lúc render
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String key, int status, Map<String, List<String>> headers, byte[] body,
+            Set<String> tags, long renderedAtGeneration) {
+        if (renderedAtGeneration != generation) {
+            return;
+        }
+        CachedPage old = pages.remove(key);
+        if (old != null) {
+            unindex(key, old);
+        }
+        CachedPage page = new CachedPage(status, headers, body, Set.copyOf(tags),
+                System.currentTimeMillis() + ttlMillis);
+        pages.put(key, page);
+        for (String tag : page.tags()) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+    }
+
+    public synchronized void invalidateTags(Collection<String> tags) {
+        generation++;
+        for (String tag : tags) {
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys == null) {
+                continue;
+            }
+            for (String key : keys) {
+                CachedPage page = pages.remove(key);
+                if (page != null) {
+                    unindex(key, page);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        pages.clear();
+        keysByTag.clear();
+    }
+
+    private void unindex(String key, CachedPage page) {
+        for (String tag : page.tags()) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys == null) {
+                continue;
+            }
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+}
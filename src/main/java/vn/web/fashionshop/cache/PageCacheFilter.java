@@ -0,0 +1,266 @@
+package vn.web.fashionshop.cache;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import vn.web.fashionshop.config.PageCacheProperties;
+
+/**
+ * Full-page cache cho GET ẩn danh vào các trang storefront (/, /shop, /collections/*, /product/*).
+ *
+ * HTML của các trang này không phụ thuộc người dùng: số lượng giỏ hàng, wishlist, menu tài khoản và
+ * tồn kho đều được hydrate phía client qua /api/cart/summary, /api/wishlist/*, /api/products/{id}/variants.
+ * Filter vẫn bỏ qua request có JWT / session và không lưu response có Set-Cookie, để trang riêng của
+ * một người không bao giờ bị phát cho người khác.
+ *
+ * Key = path + query đã chuẩn hoá (sắp xếp tham số, bỏ tham số rỗng và tham số tracking).
+ */
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    public static final String TAG_CATEGORIES = "categories";
+    public static final String TAG_CATALOG = "catalog";
+
+    private static final String JWT_COOKIE = "jwt_token";
+    private static final int MAX_KEY_LENGTH = 512;
+    private static final Set<String> IGNORED_PARAMS = Set.of("fbclid", "gclid", "msclkid");
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            HttpHeaders.SET_COOKIE.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.DATE.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT));
+
+    private final PageCache pageCache;
+    private final PageCacheProperties properties;
+
+    public PageCacheFilter(PageCache pageCache, PageCacheProperties properties) {
+        this.pageCache = pageCache;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !HttpMethod.GET.matches(request.getMethod())
+                || tagsFor(request.getRequestURI()) == null
+                || !isAnonymous(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = cacheKey(request);
+        if (key == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        PageCache.CachedPage cached = pageCache.get(key);
+        if (cached != null) {
+            writeCached(cached, request, response);
+            return;
+        }
+
+        long generation = pageCache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (isCacheable(wrapper)) {
+                pageCache.put(key, wrapper.getStatus(), snapshotHeaders(wrapper), wrapper.getContentAsByteArray(),
+                        tagsFor(request.getRequestURI()), generation);
+            }
+            wrapper.setHeader("X-Page-Cache", "MISS");
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // Tag theo nội dung trang; null = không cache path này. Mọi trang đều có menu danh mục.
+    static Set<String> tagsFor(String path) {
+        if (path == null) {
+            return null;
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(TAG_CATEGORIES);
+        if (path.equals("/") || path.equals("/home") || path.equals("/shop")) {
+            tags.add(TAG_CATALOG);
+            return tags;
+        }
+        if (path.startsWith("/collections/")) {
+            String slug = path.substring("/collections/".length());
+            if (slug.isEmpty() || slug.contains("/")) {
+                return null;
+            }
+            tags.add(categoryTag(slug));
+            return tags;
+        }
+        if (path.startsWith("/product/")) {
+            String id = path.substring("/product/".length());
+            if (!id.matches("\\d{1,18}")) {
+                return null;
+            }
+            tags.add(productTag(Long.parseLong(id)));
+            return tags;
+        }
+        return null;
+    }
+
+    public static String productTag(Long productId) {
+        return "product:" + productId;
+    }
+
+    public static String categoryTag(String slug) {
+        return "category:" + slug.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isAnonymous(HttpServletRequest request) {
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null || request.getSession(false) != null) {
+            return false;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (JWT_COOKIE.equals(cookie.getName())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Tham số sắp xếp theo tên, giá trị lặp (VD: color) sắp xếp theo giá trị
+    static String cacheKey(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String query = request.getQueryString();
+        if (query == null || query.isBlank()) {
+            return path;
+        }
+        Map<String, List<String>> params = new TreeMap<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = decode(eq >= 0 ? pair.substring(0, eq) : pair);
+            String value = eq >= 0 ? decode(pair.substring(eq + 1)) : "";
+            if (name == null || value == null) {
+                return null;
+            }
+            value = value.trim();
+            if (name.isEmpty() || value.isEmpty() || IGNORED_PARAMS.contains(name) || name.startsWith("utm_")) {
+                continue;
+            }
+            params.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
+        }
+        StringBuilder key = new StringBuilder(path);
+        char sep = '?';
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            List<String> values = param.getValue();
+            values.sort(null);
+            for (String value : values) {
+                key.append(sep).append(param.getKey()).append('=').append(value);
+                sep = '&';
+            }
+        }
+        // Key quá dài thường là query rác; không cho chiếm chỗ trong cache
+        return key.length() <= MAX_KEY_LENGTH ? key.toString() : null;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isCacheable(ContentCachingResponseWrapper response) {
+        String contentType = response.getContentType();
+        return response.getStatus() == HttpServletResponse.SC_OK
+                && contentType != null && contentType.startsWith("text/html")
+                && response.getHeaders(HttpHeaders.SET_COOKIE).isEmpty()
+                && response.getContentSize() <= properties.getMaxBodyBytes();
+    }
+
+    private static Map<String, List<String>> snapshotHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(response.getContentType()));
+        }
+        return headers;
+    }
+
+    private static void writeCached(PageCache.CachedPage page, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        // Trang được lưu cùng ETag của lần render (CatalogVersions); client đã có bản đó thì trả 304
+        String etag = header(page, HttpHeaders.ETAG);
+        if (etag != null && etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            String cacheControl = header(page, HttpHeaders.CACHE_CONTROL);
+            if (cacheControl != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            }
+            response.setHeader("X-Page-Cache", "HIT");
+            return;
+        }
+
+        response.setStatus(page.status());
+        for (Map.Entry<String, List<String>> header : page.headers().entrySet()) {
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+        response.setHeader("X-Page-Cache", "HIT");
+        response.setContentLength(page.body().length);
+        response.getOutputStream().write(page.body());
+    }
+
+    private static String header(PageCache.CachedPage page, String name) {
+        for (Map.Entry<String, List<String>> header : page.headers().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    // So sánh weak theo RFC 9110: bỏ tiền tố W/ ở cả hai phía
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
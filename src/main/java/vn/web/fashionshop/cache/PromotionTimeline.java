@@ -0,0 +1,155 @@
+package vn.web.fashionshop.cache;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Phần trăm giảm của khuyến mãi theo thời gian, tính sẵn cho từng product.
+ *
+ * Mỗi product có một dãy mốc chuyển (ms, tăng dần) và mức giảm áp dụng từ mốc đó tới mốc sau;
+ * tra cứu là một lần tìm nhị phân, không duyệt luật khuyến mãi trong request. Bản đang dùng là một
+ * snapshot bất biến, được thay nguyên khối khi dựng lại (PromotionService).
+ */
+public final class PromotionTimeline {
+
+    public static final PromotionTimeline EMPTY = new PromotionTimeline(Map.of(), new TreeMap<>());
+
+    private static volatile PromotionTimeline current = EMPTY;
+
+    // percents[i] áp dụng trong [times[i], times[i + 1]); null = không có khuyến mãi
+    private record Entry(long[] times, BigDecimal[] percents) {
+    }
+
+    /**
+     * Khoảng [startMillis, endMillis) của một khuyến mãi trên một product.
+     */
+    public record Window(long startMillis, long endMillis, BigDecimal percent) {
+    }
+
+    private final Map<Long, Entry> entries;
+    // Mốc chuyển -> các product đổi giá tại mốc đó (để làm mới cache đúng product)
+    private final NavigableMap<Long, Set<Long>> transitions;
+
+    private PromotionTimeline(Map<Long, Entry> entries, NavigableMap<Long, Set<Long>> transitions) {
+        this.entries = entries;
+        this.transitions = transitions;
+    }
+
+    public static PromotionTimeline current() {
+        return current;
+    }
+
+    public static void publish(PromotionTimeline timeline) {
+        current = timeline;
+    }
+
+    /**
+     * Mức giảm hiệu lực: khuyến mãi cao nhất đang chạy, không thấp hơn discount cố định của product.
+     */
+    public BigDecimal discountFor(Long productId, BigDecimal baseDiscount, long atMillis) {
+        BigDecimal base = baseDiscount != null ? baseDiscount : BigDecimal.ZERO;
+        BigDecimal promo = promotionPercent(productId, atMillis);
+        return promo != null && promo.compareTo(base) > 0 ? promo : base;
+    }
+
+    public BigDecimal promotionPercent(Long productId, long atMillis) {
+        Entry entry = productId != null ? entries.get(productId) : null;
+        if (entry == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(entry.times(), atMillis);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? entry.percents()[index] : null;
+    }
+
+    public Set<Long> productIds() {
+        return entries.keySet();
+    }
+
+    // Mốc chuyển đầu tiên sau afterMillis; null nếu không còn
+    public Long nextTransitionAfter(long afterMillis) {
+        return transitions.higherKey(afterMillis);
+    }
+
+    // Product đổi mức giảm trong (fromMillis, toMillis]
+    public Set<Long> productsChangedBetween(long fromMillis, long toMillis) {
+        if (toMillis <= fromMillis) {
+            return Set.of();
+        }
+        Set<Long> changed = new HashSet<>();
+        transitions.subMap(fromMillis, false, toMillis, true).values().forEach(changed::addAll);
+        return changed;
+    }
+
+    /**
+     * Dựng timeline từ các khoảng khuyến mãi của từng product. Khuyến mãi chồng nhau lấy mức cao nhất.
+     */
+    public static PromotionTimeline build(Map<Long, List<Window>> windowsByProduct) {
+        Map<Long, Entry> entries = new HashMap<>(windowsByProduct.size() * 2);
+        NavigableMap<Long, Set<Long>> transitions = new TreeMap<>();
+        for (Map.Entry<Long, List<Window>> product : windowsByProduct.entrySet()) {
+            Entry entry = entry(product.getValue());
+            if (entry == null) {
+                continue;
+            }
+            entries.put(product.getKey(), entry);
+            for (long time : entry.times()) {
+                // Mốc vô hạn (không có start / end) không bao giờ tới
+                if (time != Long.MIN_VALUE && time != Long.MAX_VALUE) {
+                    transitions.computeIfAbsent(time, t -> new HashSet<>()).add(product.getKey());
+                }
+            }
+        }
+        return new PromotionTimeline(Collections.unmodifiableMap(entries), transitions);
+    }
+
+    // Quét các mốc: mỗi đoạn giữa hai mốc lấy mức cao nhất của các khoảng phủ nó, gộp đoạn liền nhau cùng mức
+    private static Entry entry(List<Window> windows) {
+        TreeSet<Long> points = new TreeSet<>();
+        for (Window window : windows) {
+            if (window.endMillis() > window.startMillis()) {
+                points.add(window.startMillis());
+                points.add(window.endMillis());
+            }
+        }
+        if (points.isEmpty()) {
+            return null;
+        }
+        long[] times = new long[points.size()];
+        BigDecimal[] percents = new BigDecimal[points.size()];
+        int size = 0;
+        BigDecimal previous = null;
+        for (long point : points) {
+            BigDecimal best = null;
+            for (Window window : windows) {
+                if (window.startMillis() <= point && point < window.endMillis()
+                        && (best == null || window.percent().compareTo(best) > 0)) {
+                    best = window.percent();
+                }
+            }
+            if (size > 0 && equal(best, previous)) {
+                continue;
+            }
+            times[size] = point;
+            percents[size] = best;
+            size++;
+            previous = best;
+        }
+        return new Entry(Arrays.copyOf(times, size), Arrays.copyOf(percents, size));
+    }
+
+    private static boolean equal(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
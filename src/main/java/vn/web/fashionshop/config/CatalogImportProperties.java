@@ -0,0 +1,49 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for bulk catalog import / export.
+ */
+@ConfigurationProperties(prefix = "app.catalog.import")
+public class CatalogImportProperties {
+
+    /**
+     * Rows validated together and written in one transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Threads validating chunks ahead of the writer.
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Row errors returned in the result; further errors are only counted.
+     */
+    private int maxReportedErrors = 1000;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+
+    public int getMaxReportedErrors() {
+        return maxReportedErrors;
+    }
+
+    public void setMaxReportedErrors(int maxReportedErrors) {
+        this.maxReportedErrors = Math.max(maxReportedErrors, 0);
+    }
+}
@@ -0,0 +1,124 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the resized copies (thumb / card / detail) generated for uploaded product images.
+ */
+@ConfigurationProperties(prefix = "app.images.derivatives")
+public class ImageDerivativeProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Width in pixels of the admin / cart / gallery thumbnail.
+     */
+    private int thumbWidth = 160;
+
+    /**
+     * Width in pixels of the listing grid card.
+     */
+    private int cardWidth = 480;
+
+    /**
+     * Width in pixels of the product detail main image.
+     */
+    private int detailWidth = 1080;
+
+    /**
+     * JPEG quality (0..1) for re-encoded derivatives.
+     */
+    private float jpegQuality = 0.82f;
+
+    /**
+     * Resize threads; image scaling is CPU bound, so this stays well below the core count.
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+
+    /**
+     * Pending resize jobs; uploads beyond this are left for the startup backfill.
+     */
+    private int queueCapacity = 200;
+
+    /**
+     * Sources larger than this many pixels are not decoded (memory guard).
+     */
+    private long maxSourcePixels = 40_000_000L;
+
+    /**
+     * Generate missing derivatives for existing images in the background after startup.
+     */
+    private boolean backfill = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThumbWidth() {
+        return thumbWidth;
+    }
+
+    public void setThumbWidth(int thumbWidth) {
+        this.thumbWidth = Math.max(thumbWidth, 16);
+    }
+
+    public int getCardWidth() {
+        return cardWidth;
+    }
+
+    public void setCardWidth(int cardWidth) {
+        this.cardWidth = Math.max(cardWidth, 16);
+    }
+
+    public int getDetailWidth() {
+        return detailWidth;
+    }
+
+    public void setDetailWidth(int detailWidth) {
+        this.detailWidth = Math.max(detailWidth, 16);
+    }
+
+    public float getJpegQuality() {
+        return jpegQuality;
+    }
+
+    public void setJpegQuality(float jpegQuality) {
+        this.jpegQuality = Math.min(Math.max(jpegQuality, 0.1f), 1f);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(queueCapacity, 1);
+    }
+
+    public long getMaxSourcePixels() {
+        return maxSourcePixels;
+    }
+
+    public void setMaxSourcePixels(long maxSourcePixels) {
+        this.maxSourcePixels = Math.max(maxSourcePixels, 1L);
+    }
+
+    public boolean isBackfill() {
+        return backfill;
+    }
+
+    public void setBackfill(boolean backfill) {
+        this.backfill = backfill;
+    }
+}
@@ -0,0 +1,77 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the scheduled cleanup of uploaded image files that no row references.
+ */
+@ConfigurationProperties(prefix = "app.images.gc")
+public class ImageGcProperties {
+
+    /**
+     * Whether the scheduled run is active (a run can still be started from the admin API).
+     */
+    private boolean enabled = true;
+
+    /**
+     * Files modified more recently than this are never touched (uploads whose row is not committed yet).
+     */
+    private int minAgeMinutes = 60;
+
+    /**
+     * Orphans stay in quarantine this many days before they are deleted.
+     */
+    private int quarantineDays = 7;
+
+    /**
+     * Orphan candidates re-checked against the database and moved per batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Directory outside the served images dir that holds quarantined files.
+     */
+    private String quarantineDir = "uploads/images-quarantine";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMinAgeMinutes() {
+        return minAgeMinutes;
+    }
+
+    public void setMinAgeMinutes(int minAgeMinutes) {
+        this.minAgeMinutes = Math.max(minAgeMinutes, 1);
+    }
+
+    public int getQuarantineDays() {
+        return quarantineDays;
+    }
+
+    public void setQuarantineDays(int quarantineDays) {
+        this.quarantineDays = Math.max(quarantineDays, 0);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    public String getQuarantineDir() {
+        return quarantineDir;
+    }
+
+    public void setQuarantineDir(String quarantineDir) {
+        if (quarantineDir != null && !quarantineDir.isBlank()) {
+            this.quarantineDir = quarantineDir;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for serving uploaded images from /images/**.
+ */
+@ConfigurationProperties(prefix = "app.images.serving")
+public class ImageServingProperties {
+
+    /**
+     * Total bytes of small images kept in memory.
+     */
+    private long memoryCacheMaxBytes = 32L * 1024 * 1024;
+
+    /**
+     * Only files up to this size (thumbnails, listing cards) are kept in memory.
+     */
+    private int memoryCacheMaxFileBytes = 64 * 1024;
+
+    /**
+     * Responses at least this large are handed to the container's sendfile when it supports it.
+     */
+    private long sendfileMinBytes = 48 * 1024;
+
+    public long getMemoryCacheMaxBytes() {
+        return memoryCacheMaxBytes;
+    }
+
+    public void setMemoryCacheMaxBytes(long memoryCacheMaxBytes) {
+        this.memoryCacheMaxBytes = Math.max(memoryCacheMaxBytes, 0L);
+    }
+
+    public int getMemoryCacheMaxFileBytes() {
+        return memoryCacheMaxFileBytes;
+    }
+
+    public void setMemoryCacheMaxFileBytes(int memoryCacheMaxFileBytes) {
+        this.memoryCacheMaxFileBytes = Math.max(memoryCacheMaxFileBytes, 0);
+    }
+
+    public long getSendfileMinBytes() {
+        return sendfileMinBytes;
+    }
+
+    public void setSendfileMinBytes(long sendfileMinBytes) {
+        this.sendfileMinBytes = Math.max(sendfileMinBytes, 0L);
+    }
+}
@@ -0,0 +1,36 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for bulk product image uploads.
+ */
+@ConfigurationProperties(prefix = "app.images.upload")
+public class ImageUploadProperties {
+
+    /**
+     * Threads that hash, validate and write uploaded files concurrently.
+     */
+    private int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Maximum files accepted in one bulk upload request.
+     */
+    private int maxFilesPerRequest = 50;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+
+    public int getMaxFilesPerRequest() {
+        return maxFilesPerRequest;
+    }
+
+    public void setMaxFilesPerRequest(int maxFilesPerRequest) {
+        this.maxFilesPerRequest = Math.max(maxFilesPerRequest, 1);
+    }
+}
@@ -0,0 +1,135 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits for password hashing and login attempts.
+ */
+@ConfigurationProperties(prefix = "app.security.login")
+public class LoginProtectionProperties {
+
+    /**
+     * Threads dedicated to BCrypt (verify + encode). Defaults to half the CPU cores.
+     */
+    private int hashThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Hash requests allowed to wait for a thread; beyond that, logins are rejected immediately.
+     */
+    private int hashQueueSize = 50;
+
+    /**
+     * Maximum time a request waits for its hash result.
+     */
+    private long hashTimeoutMillis = 3000;
+
+    /**
+     * Target duration of one BCrypt hash; the cost is calibrated against it at startup.
+     */
+    private long bcryptTargetMillis = 250;
+
+    private int bcryptMinCost = 10;
+
+    private int bcryptMaxCost = 14;
+
+    /**
+     * Sliding window for the rate limiters.
+     */
+    private long windowSeconds = 300;
+
+    /**
+     * Login attempts allowed per client IP within the window.
+     */
+    private int maxAttemptsPerIp = 30;
+
+    /**
+     * Failed logins allowed per account (email) within the window.
+     */
+    private int maxFailuresPerAccount = 5;
+
+    /**
+     * Keys tracked by each limiter; the least recently used key is dropped beyond this.
+     */
+    private int maxTrackedKeys = 10_000;
+
+    public int getHashThreads() {
+        return hashThreads;
+    }
+
+    public void setHashThreads(int hashThreads) {
+        this.hashThreads = Math.max(hashThreads, 1);
+    }
+
+    public int getHashQueueSize() {
+        return hashQueueSize;
+    }
+
+    public void setHashQueueSize(int hashQueueSize) {
+        this.hashQueueSize = Math.max(hashQueueSize, 1);
+    }
+
+    public long getHashTimeoutMillis() {
+        return hashTimeoutMillis;
+    }
+
+    public void setHashTimeoutMillis(long hashTimeoutMillis) {
+        this.hashTimeoutMillis = Math.max(hashTimeoutMillis, 100);
+    }
+
+    public long getBcryptTargetMillis() {
+        return bcryptTargetMillis;
+    }
+
+    public void setBcryptTargetMillis(long bcryptTargetMillis) {
+        this.bcryptTargetMillis = bcryptTargetMillis;
+    }
+
+    public int getBcryptMinCost() {
+        return bcryptMinCost;
+    }
+
+    public void setBcryptMinCost(int bcryptMinCost) {
+        // BCrypt hợp lệ trong khoảng 4..31; dưới 10 là quá yếu cho production
+        this.bcryptMinCost = Math.min(Math.max(bcryptMinCost, 10), 31);
+    }
+
+    public int getBcryptMaxCost() {
+        return bcryptMaxCost;
+    }
+
+    public void setBcryptMaxCost(int bcryptMaxCost) {
+        this.bcryptMaxCost = Math.min(Math.max(bcryptMaxCost, 10), 31);
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(long windowSeconds) {
+        this.windowSeconds = Math.max(windowSeconds, 1);
+    }
+
+    public int getMaxAttemptsPerIp() {
+        return maxAttemptsPerIp;
+    }
+
+    public void setMaxAttemptsPerIp(int maxAttemptsPerIp) {
+        this.maxAttemptsPerIp = Math.max(maxAttemptsPerIp, 1);
+    }
+
+    public int getMaxFailuresPerAccount() {
+        return maxFailuresPerAccount;
+    }
+
+    public void setMaxFailuresPerAccount(int maxFailuresPerAccount) {
+        this.maxFailuresPerAccount = Math.max(maxFailuresPerAccount, 1);
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = Math.max(maxTrackedKeys, 100);
+    }
+}
@@ -0,0 +1,33 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for low-stock alerts.
+ */
+@ConfigurationProperties(prefix = "app.inventory.low-stock")
+public class LowStockProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Stock level at or below which a variant is low, unless the variant sets its own threshold.
+     */
+    private int defaultThreshold = 5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getDefaultThreshold() {
+        return defaultThreshold;
+    }
+
+    public void setDefaultThreshold(int defaultThreshold) {
+        this.defaultThreshold = Math.max(defaultThreshold, 0);
+    }
+}
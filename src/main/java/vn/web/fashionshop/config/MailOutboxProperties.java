@@ -0,0 +1,98 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the asynchronous email outbox worker.
+ */
+@ConfigurationProperties(prefix = "app.mail.outbox")
+public class MailOutboxProperties {
+
+    /**
+     * Parallel SMTP senders; each one sends its chunk over a single SMTP connection.
+     */
+    private int workerThreads = 2;
+
+    /**
+     * Messages claimed from the outbox per poll.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Messages sent per SMTP connection.
+     */
+    private int messagesPerConnection = 25;
+
+    /**
+     * Attempts before a message is marked FAILED.
+     */
+    private int maxAttempts = 6;
+
+    /**
+     * First retry delay; doubled on every further attempt up to maxBackoffSeconds.
+     */
+    private long baseBackoffSeconds = 30;
+
+    private long maxBackoffSeconds = 3600;
+
+    /**
+     * How long a claimed message stays reserved before another worker may take it over.
+     */
+    private long leaseSeconds = 300;
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = Math.max(workerThreads, 1);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    public int getMessagesPerConnection() {
+        return messagesPerConnection;
+    }
+
+    public void setMessagesPerConnection(int messagesPerConnection) {
+        this.messagesPerConnection = Math.max(messagesPerConnection, 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(maxAttempts, 1);
+    }
+
+    public long getBaseBackoffSeconds() {
+        return baseBackoffSeconds;
+    }
+
+    public void setBaseBackoffSeconds(long baseBackoffSeconds) {
+        this.baseBackoffSeconds = Math.max(baseBackoffSeconds, 1);
+    }
+
+    public long getMaxBackoffSeconds() {
+        return maxBackoffSeconds;
+    }
+
+    public void setMaxBackoffSeconds(long maxBackoffSeconds) {
+        this.maxBackoffSeconds = Math.max(maxBackoffSeconds, 1);
+    }
+
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(long leaseSeconds) {
+        this.leaseSeconds = Math.max(leaseSeconds, 30);
+    }
+}
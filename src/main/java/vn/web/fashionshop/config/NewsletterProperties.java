@@ -0,0 +1,50 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for newsletter campaign sending.
+ */
+@ConfigurationProperties(prefix = "app.newsletter")
+public class NewsletterProperties {
+
+    /**
+     * Subscribers read and queued per transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Default sending rate of new campaigns, in messages per second. The rate is stored on each campaign
+     * and enforced by the mail outbox when it claims campaign messages.
+     */
+    private int sendRatePerSecond = 20;
+
+    /**
+     * Absolute unsubscribe link; the subscriber token is appended as the "token" query parameter.
+     */
+    private String unsubscribeUrl = "http://localhost:8888/newsletter/unsubscribe";
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    public int getSendRatePerSecond() {
+        return sendRatePerSecond;
+    }
+
+    public void setSendRatePerSecond(int sendRatePerSecond) {
+        this.sendRatePerSecond = Math.max(sendRatePerSecond, 1);
+    }
+
+    public String getUnsubscribeUrl() {
+        return unsubscribeUrl;
+    }
+
+    public void setUnsubscribeUrl(String unsubscribeUrl) {
+        this.unsubscribeUrl = unsubscribeUrl;
+    }
+}
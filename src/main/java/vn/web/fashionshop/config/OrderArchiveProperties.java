@@ -0,0 +1,50 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for moving old finished orders out of the hot tables.
+ */
+@ConfigurationProperties(prefix = "app.archive.orders")
+public class OrderArchiveProperties {
+
+    /**
+     * Whether the scheduled archival job runs.
+     */
+    private boolean enabled = false;
+
+    /**
+     * COMPLETED/CANCELLED orders older than this many days are archived.
+     * Kept at least 62 days so admin period filters (today/week/month) never need the archive.
+     */
+    private int ageDays = 365;
+
+    /**
+     * Number of orders moved per transaction.
+     */
+    private int batchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getAgeDays() {
+        return ageDays;
+    }
+
+    public void setAgeDays(int ageDays) {
+        this.ageDays = Math.max(ageDays, 62);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+    }
+}
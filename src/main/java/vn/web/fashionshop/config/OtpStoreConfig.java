@@ -0,0 +1,41 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import vn.web.fashionshop.dto.PendingPasswordReset;
+import vn.web.fashionshop.dto.PendingRegistration;
+import vn.web.fashionshop.repository.JdbcExpiringStore;
+import vn.web.fashionshop.util.ExpiringStore;
+import vn.web.fashionshop.util.InMemoryExpiringStore;
+
+/**
+ * Kho OTP đăng ký và đặt lại mật khẩu; chọn MEMORY hoặc JDBC qua app.otp.store.type.
+ */
+@Configuration
+public class OtpStoreConfig {
+
+    @Bean
+    public ExpiringStore<PendingRegistration> pendingRegistrationStore(OtpStoreProperties properties,
+            NamedParameterJdbcTemplate jdbc, ObjectMapper objectMapper) {
+        return create("pending-registration", PendingRegistration.class, properties, jdbc, objectMapper);
+    }
+
+    @Bean
+    public ExpiringStore<PendingPasswordReset> pendingPasswordResetStore(OtpStoreProperties properties,
+            NamedParameterJdbcTemplate jdbc, ObjectMapper objectMapper) {
+        return create("pending-password-reset", PendingPasswordReset.class, properties, jdbc, objectMapper);
+    }
+
+    private static <V> ExpiringStore<V> create(String name, Class<V> type, OtpStoreProperties properties,
+            NamedParameterJdbcTemplate jdbc, ObjectMapper objectMapper) {
+        if (properties.getType() == OtpStoreProperties.Type.JDBC) {
+            return new JdbcExpiringStore<>(name, type, jdbc, objectMapper,
+                    properties.getMaxEntries(), properties.getMaxEntriesPerIp());
+        }
+        return new InMemoryExpiringStore<>(name, properties.getMaxEntries(), properties.getMaxEntriesPerIp());
+    }
+}
@@ -0,0 +1,66 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Storage limits for pending registration / password reset OTPs.
+ */
+@ConfigurationProperties(prefix = "app.otp.store")
+public class OtpStoreProperties {
+
+    public enum Type {
+        MEMORY, JDBC
+    }
+
+    /**
+     * MEMORY keeps OTPs in this instance; JDBC shares them across instances behind a load balancer.
+     */
+    private Type type = Type.MEMORY;
+
+    /**
+     * Maximum live entries per store; new requests are refused beyond this.
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * Maximum live entries created from one client IP.
+     */
+    private int maxEntriesPerIp = 5;
+
+    /**
+     * OTP emails allowed per address within one OTP lifetime (first send + resends).
+     */
+    private int maxSendsPerEmail = 5;
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(maxEntries, 1);
+    }
+
+    public int getMaxEntriesPerIp() {
+        return maxEntriesPerIp;
+    }
+
+    public void setMaxEntriesPerIp(int maxEntriesPerIp) {
+        this.maxEntriesPerIp = Math.max(maxEntriesPerIp, 1);
+    }
+
+    public int getMaxSendsPerEmail() {
+        return maxSendsPerEmail;
+    }
+
+    public void setMaxSendsPerEmail(int maxSendsPerEmail) {
+        this.maxSendsPerEmail = Math.max(maxSendsPerEmail, 1);
+    }
+}
@@ -0,0 +1,24 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import vn.web.fashionshop.cache.PageCache;
+import vn.web.fashionshop.cache.PageCacheFilter;
+
+@Configuration
+public class PageCacheConfig {
+
+    // Chạy trước Spring Security: cache hit của khách ẩn danh không đi qua filter chain
+    @Bean
+    public FilterRegistrationBean<PageCacheFilter> pageCacheFilter(PageCache pageCache,
+            PageCacheProperties properties) {
+        FilterRegistrationBean<PageCacheFilter> registration = new FilterRegistrationBean<>(
+                new PageCacheFilter(pageCache, properties));
+        registration.addUrlPatterns("/", "/home", "/shop", "/collections/*", "/product/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,59 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Full-page cache for anonymous storefront GET requests.
+ */
+@ConfigurationProperties(prefix = "app.page-cache")
+public class PageCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Cached pages kept in memory; least recently used pages are dropped first.
+     */
+    private int maxEntries = 500;
+
+    /**
+     * Rendered pages larger than this are not cached.
+     */
+    private int maxBodyBytes = 512 * 1024;
+
+    /**
+     * Upper bound on staleness for changes that are not caught by tag invalidation.
+     */
+    private long ttlSeconds = 600;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(maxEntries, 1);
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        this.maxBodyBytes = Math.max(maxBodyBytes, 1024);
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = Math.max(ttlSeconds, 1);
+    }
+}
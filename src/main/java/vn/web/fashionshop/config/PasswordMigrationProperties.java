@@ -0,0 +1,46 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the background migration of plaintext passwords to BCrypt.
+ */
+@ConfigurationProperties(prefix = "app.security.password-migration")
+public class PasswordMigrationProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Users hashed and committed per transaction.
+     */
+    private int chunkSize = 200;
+
+    /**
+     * Hashing threads; kept small so the migration does not starve login verification.
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+}
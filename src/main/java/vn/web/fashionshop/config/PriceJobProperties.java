@@ -0,0 +1,36 @@
+package vn.web.fashionshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for bulk price / discount jobs.
+ */
+@ConfigurationProperties(prefix = "app.pricing.jobs")
+public class PriceJobProperties {
+
+    /**
+     * Products updated per transaction; the page cache is invalidated once per chunk.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Products listed with their old and new values in a dry-run preview.
+     */
+    private int previewSampleSize = 50;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    public int getPreviewSampleSize() {
+        return previewSampleSize;
+    }
+
+    public void setPreviewSampleSize(int previewSampleSize) {
+        this.previewSampleSize = Math.max(previewSampleSize, 0);
+    }
+}
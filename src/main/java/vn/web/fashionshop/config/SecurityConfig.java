@@ -12,6 +12,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import vn.web.fashionshop.security.BCryptCostCalibrator;
+import vn.web.fashionshop.security.BCryptOrPlaintextPasswordEncoder;
+import vn.web.fashionshop.security.BoundedPasswordEncoder;
 import vn.web.fashionshop.security.JwtAuthFilter;
 
 @Configuration
@@ -25,9 +28,14 @@ public class SecurityConfig {
                 this.jwtAuthFilter = jwtAuthFilter;
         }
 
+        // BCrypt cost đo lại mỗi lần khởi động; verify chạy trên pool giới hạn để login storm không chiếm hết Tomcat
         @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new vn.web.fashionshop.security.BCryptOrPlaintextPasswordEncoder();
+        public PasswordEncoder passwordEncoder(LoginProtectionProperties loginProperties) {
+                int cost = BCryptCostCalibrator.calibrate(loginProperties.getBcryptTargetMillis(),
+                                loginProperties.getBcryptMinCost(), loginProperties.getBcryptMaxCost());
+                return new BoundedPasswordEncoder(new BCryptOrPlaintextPasswordEncoder(cost),
+                                loginProperties.getHashThreads(), loginProperties.getHashQueueSize(),
+                                loginProperties.getHashTimeoutMillis());
         }
 
         @Bean
@@ -27,6 +27,16 @@ public class UploadProperties {
     @NonNull
     private String imagesUrlPrefix = "/images/";
 
+    /**
+     * Uploads whose header declares more pixels than this are rejected before decoding.
+     */
+    private long maxImagePixels = 40_000_000L;
+
+    /**
+     * Maximum width or height in pixels of an uploaded image.
+     */
+    private int maxImageDimension = 12_000;
+
     @NonNull
     public String getImagesDir() {
         return imagesDir;
@@ -45,4 +55,20 @@ public class UploadProperties {
     public void setImagesUrlPrefix(String imagesUrlPrefix) {
         this.imagesUrlPrefix = Objects.requireNonNull(imagesUrlPrefix, "app.upload.images-url-prefix must not be null");
     }
+
+    public long getMaxImagePixels() {
+        return maxImagePixels;
+    }
+
+    public void setMaxImagePixels(long maxImagePixels) {
+        this.maxImagePixels = Math.max(maxImagePixels, 1L);
+    }
+
+    public int getMaxImageDimension() {
+        return maxImageDimension;
+    }
+
+    public void setMaxImageDimension(int maxImageDimension) {
+        this.maxImageDimension = Math.max(maxImageDimension, 1);
+    }
 }
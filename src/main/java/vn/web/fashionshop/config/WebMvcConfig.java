@@ -1,22 +1,80 @@
 package vn.web.fashionshop.config;
 
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private static final String[] STATIC_PATTERNS = { "/css/**", "/js/**", "/fonts/**", "/img/**", "/assets/**" };
+
+    // URL đã gắn hash nội dung (VersionResourceResolver): style-<md5>.css
+    private static final Pattern FINGERPRINTED = Pattern.compile("-[0-9a-f]{32}\\.[^/.]+$");
+
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+            .getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
     @Override
     public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/css/**").addResourceLocations("classpath:/static/css/");
-        registry.addResourceHandler("/js/**").addResourceLocations("classpath:/static/js/");
-        registry.addResourceHandler("/fonts/**").addResourceLocations("classpath:/static/fonts/");
-        registry.addResourceHandler("/assets/**").addResourceLocations("classpath:/static/assets/");
-
-        // Serve uploaded images từ thư mục uploads/images
-        registry.addResourceHandler("/images/**")
-                .addResourceLocations("file:uploads/images/");
+        // Resource chain có cache: hash nội dung chỉ tính một lần mỗi file.
+        // EncodedResourceResolver trả bản .gz / .br dựng sẵn lúc build (AssetPrecompressor) nếu client hỗ trợ.
+        registry.addResourceHandler("/css/**").addResourceLocations("classpath:/static/css/")
+                .resourceChain(true).addResolver(new EncodedResourceResolver()).addResolver(versionResolver());
+        registry.addResourceHandler("/js/**").addResourceLocations("classpath:/static/js/")
+                .resourceChain(true).addResolver(new EncodedResourceResolver()).addResolver(versionResolver());
+        registry.addResourceHandler("/fonts/**").addResourceLocations("classpath:/static/fonts/")
+                .resourceChain(true).addResolver(new EncodedResourceResolver()).addResolver(versionResolver());
+        registry.addResourceHandler("/img/**").addResourceLocations("classpath:/static/img/")
+                .resourceChain(true).addResolver(new EncodedResourceResolver()).addResolver(versionResolver());
+        registry.addResourceHandler("/assets/**").addResourceLocations("classpath:/static/assets/")
+                .resourceChain(true).addResolver(new EncodedResourceResolver()).addResolver(versionResolver());
+
+        // Ảnh upload (/images/**) do ImageController phục vụ
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        // Ghi Cache-Control trước Spring Security để nó không thêm no-store.
+        // URL có hash: cache vĩnh viễn; URL gốc (JS tham chiếu /img/... trực tiếp): revalidate bằng Last-Modified.
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                    @NonNull Object handler) {
+                boolean fingerprinted = FINGERPRINTED.matcher(request.getRequestURI()).find();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, fingerprinted ? IMMUTABLE : REVALIDATE);
+                return true;
+            }
+        }).addPathPatterns(STATIC_PATTERNS);
+    }
+
+    // Viết lại link @{/css/...} trong Thymeleaf thành URL có hash
+    @Bean
+    public FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+        FilterRegistrationBean<ResourceUrlEncodingFilter> registration = new FilterRegistrationBean<>(
+                new ResourceUrlEncodingFilter());
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    private static VersionResourceResolver versionResolver() {
+        return new VersionResourceResolver().addContentVersionStrategy("/**");
     }
 }
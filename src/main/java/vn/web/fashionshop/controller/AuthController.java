@@ -2,6 +2,7 @@ package vn.web.fashionshop.controller;
 
 import java.util.Optional;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import vn.web.fashionshop.dto.ApiResponse;
 import vn.web.fashionshop.dto.ForgotPasswordDTO;
@@ -27,6 +29,8 @@ import vn.web.fashionshop.service.UserService;
 @Controller
 public class AuthController {
 
+    private static final String OTP_LIMIT_MESSAGE = "Bạn đã yêu cầu quá nhiều mã OTP. Vui lòng thử lại sau ít phút.";
+
     private final UserService userService;
     private final OtpService otpService;
     private final PasswordResetService passwordResetService;
@@ -56,6 +60,7 @@ public class AuthController {
     @PostMapping("/register")
     public String registerUser(@Valid @ModelAttribute("registerUser") RegisterDTO registerDTO,
             BindingResult bindingResult,
+            HttpServletRequest request,
             Model model) {
 
         if (bindingResult.hasErrors()) {
@@ -82,7 +87,12 @@ public class AuthController {
         }
 
         // Create OTP and send email
-        otpService.createAndSendOtp(registerDTO);
+        try {
+            otpService.createAndSendOtp(registerDTO, request.getRemoteAddr());
+        } catch (IllegalStateException ex) {
+            model.addAttribute("error", OTP_LIMIT_MESSAGE);
+            return "register";
+        }
 
         // Redirect to verify-otp with email in URL (stateless)
         return "redirect:/verify-otp?email=" + registerDTO.getEmail();
@@ -136,8 +146,13 @@ public class AuthController {
 
     @PostMapping("/resend-otp")
     @ResponseBody
-    public ResponseEntity<?> resendOtp(@RequestParam String email) {
-        boolean success = otpService.resendOtp(email);
+    public ResponseEntity<?> resendOtp(@RequestParam String email, HttpServletRequest request) {
+        boolean success;
+        try {
+            success = otpService.resendOtp(email, request.getRemoteAddr());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ApiResponse.error(OTP_LIMIT_MESSAGE));
+        }
 
         if (success) {
             return ResponseEntity.ok(ApiResponse.success("Đã gửi lại mã OTP!"));
@@ -158,13 +173,20 @@ public class AuthController {
     @PostMapping("/forgot-password")
     public String processForgotPassword(@Valid @ModelAttribute("forgotPassword") ForgotPasswordDTO dto,
             BindingResult bindingResult,
+            HttpServletRequest request,
             Model model) {
 
         if (bindingResult.hasErrors()) {
             return "forgot-password";
         }
 
-        boolean sent = passwordResetService.createAndSendResetOtp(dto.getEmail());
+        boolean sent;
+        try {
+            sent = passwordResetService.createAndSendResetOtp(dto.getEmail(), request.getRemoteAddr());
+        } catch (IllegalStateException ex) {
+            model.addAttribute("error", OTP_LIMIT_MESSAGE);
+            return "forgot-password";
+        }
 
         if (!sent) {
             model.addAttribute("error", "Email không tồn tại trong hệ thống!");
@@ -219,8 +241,13 @@ public class AuthController {
 
     @PostMapping("/resend-reset-otp")
     @ResponseBody
-    public ResponseEntity<?> resendResetOtp(@RequestParam String email) {
-        boolean success = passwordResetService.resendResetOtp(email);
+    public ResponseEntity<?> resendResetOtp(@RequestParam String email, HttpServletRequest request) {
+        boolean success;
+        try {
+            success = passwordResetService.resendResetOtp(email, request.getRemoteAddr());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ApiResponse.error(OTP_LIMIT_MESSAGE));
+        }
 
         if (success) {
             return ResponseEntity.ok(ApiResponse.success("Đã gửi lại mã OTP!"));
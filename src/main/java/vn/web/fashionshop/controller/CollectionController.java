@@ -13,8 +13,10 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import lombok.RequiredArgsConstructor;
+import vn.web.fashionshop.cache.CatalogVersions;
 import vn.web.fashionshop.entity.Category;
 import vn.web.fashionshop.entity.Product;
 import vn.web.fashionshop.repository.ReviewRepository;
@@ -28,6 +30,7 @@ public class CollectionController {
     private final CategoryService categoryService;
     private final ProductService productService;
     private final ReviewRepository reviewRepository;
+    private final CatalogVersions catalogVersions;
 
     @GetMapping("/collections/{rootSlug}")
     public String collectionByRootSlug(
@@ -37,7 +40,12 @@ public class CollectionController {
             @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
             @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
             @RequestParam(name = "sort", required = false) String sort,
+            WebRequest webRequest,
             Model model) {
+        if (catalogVersions.checkNotModified(webRequest, catalogVersions.catalog(),
+                catalogVersions.categoryTree(), catalogVersions.reviews())) {
+            return null;
+        }
         Category rootCategory = null;
         try {
             rootCategory = categoryService.findBySlug(rootSlug);
@@ -196,7 +204,7 @@ public class CollectionController {
             return null;
         }
         BigDecimal price = product.getPrice();
-        BigDecimal discount = product.getDiscount() != null ? product.getDiscount() : BigDecimal.ZERO;
+        BigDecimal discount = product.getEffectiveDiscount();
         if (discount.compareTo(BigDecimal.ZERO) <= 0) {
             return price;
         }
@@ -6,8 +6,10 @@ import java.util.Map;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
 
 import lombok.RequiredArgsConstructor;
+import vn.web.fashionshop.cache.CatalogVersions;
 import vn.web.fashionshop.entity.Category;
 import vn.web.fashionshop.service.CategoryService;
 import vn.web.fashionshop.service.ProductService;
@@ -18,9 +20,15 @@ public class HomeController {
 
     private final CategoryService categoryService;
     private final ProductService productService;
+    private final CatalogVersions catalogVersions;
 
     @GetMapping({ "/", "/home" })
-    public String getHomePage(Model model) {
+    public String getHomePage(WebRequest webRequest, Model model) {
+        if (catalogVersions.checkNotModified(webRequest, catalogVersions.catalog(),
+                catalogVersions.categoryTree(), catalogVersions.reviews())) {
+            return null;
+        }
+
         // Lấy danh mục gốc để hiển thị "Discover Collection"
         List<Category> rootCategories = categoryService.getRootCategories();
         model.addAttribute("featuredCategories", rootCategories);
@@ -0,0 +1,238 @@
+package vn.web.fashionshop.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import vn.web.fashionshop.cache.HotImageCache;
+import vn.web.fashionshop.config.ImageServingProperties;
+import vn.web.fashionshop.config.UploadProperties;
+
+/**
+ * Phục vụ ảnh đã upload (/images/**), thay cho resource handler mặc định.
+ *
+ * - Tên theo hash nội dung (ab/cd/&lt;sha256&gt;.jpg và bản resize -w480) không bao giờ đổi nội dung:
+ * cache 1 năm, immutable. Ảnh cũ tên ngẫu nhiên: cache 1 ngày.
+ * - ETag / Last-Modified + If-None-Match / If-Modified-Since -> 304; Range một đoạn -> 206.
+ * - File lớn: giao cho Tomcat sendfile (zero-copy, thread request được trả ngay); không có sendfile
+ * thì FileChannel.transferTo. Ảnh nhỏ hay xem được giữ trong {@link HotImageCache}.
+ */
+@Controller
+public class ImageController {
+
+    private static final String IMAGES_PATH = "/images/";
+
+    private static final Pattern HASHED_NAME = Pattern.compile("^[0-9a-f]{64}(-w\\d+)?\\.[a-z0-9]+$");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+            .getHeaderValue();
+    private static final String ONE_DAY = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic().getHeaderValue();
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private final Path imagesDir;
+    private final HotImageCache hotImageCache;
+    private final ImageServingProperties properties;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public ImageController(UploadProperties uploadProperties, HotImageCache hotImageCache,
+            ImageServingProperties properties) {
+        this.imagesDir = Paths.get(uploadProperties.getImagesDir()).toAbsolutePath().normalize();
+        this.hotImageCache = hotImageCache;
+        this.properties = properties;
+    }
+
+    @RequestMapping(value = "/images/**", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(urlPathHelper.getPathWithinApplication(request));
+        BasicFileAttributes attrs;
+        try {
+            attrs = file != null ? Files.readAttributes(file, BasicFileAttributes.class) : null;
+        } catch (NoSuchFileException e) {
+            attrs = null;
+        }
+        if (attrs == null || !attrs.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = attrs.size();
+        // HTTP dates have second precision
+        long lastModified = attrs.lastModifiedTime().toMillis() / 1000 * 1000;
+        String name = file.getFileName().toString();
+        boolean hashed = HASHED_NAME.matcher(name).matches();
+        String etag = hashed
+                ? "\"" + name.substring(0, name.lastIndexOf('.')) + "\""
+                : "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        // Ghi trước Spring Security để nó không thêm no-store
+        response.setHeader(HttpHeaders.CACHE_CONTROL, hashed ? IMMUTABLE : ONE_DAY);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long start = 0;
+        long end = size - 1;
+        long[] range = ifRangeMatches(request, etag, lastModified) ? parseRange(request, size) : null;
+        if (range == UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range != null) {
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (hotImageCache.accepts(size)) {
+            String key = file.toString();
+            byte[] bytes = hotImageCache.get(key, size, lastModified);
+            if (bytes == null) {
+                bytes = Files.readAllBytes(file);
+                if (bytes.length != size) {
+                    // File bị thay trong lúc đọc: không cache, phục vụ bằng kênh file
+                    bytes = null;
+                } else {
+                    hotImageCache.put(key, lastModified, bytes);
+                }
+            }
+            if (bytes != null) {
+                response.getOutputStream().write(bytes, (int) start, (int) length);
+                return;
+            }
+        }
+
+        if (length >= properties.getSendfileMinBytes()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat gửi file sau khi handler trả về, bằng sendfile của hệ điều hành
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // /images/ab/cd/x.jpg -> <imagesDir>/ab/cd/x.jpg; bỏ file ẩn / file tạm (.upload*.tmp)
+    private Path resolve(String path) {
+        if (path == null || !path.startsWith(IMAGES_PATH)) {
+            return null;
+        }
+        String relative = StringUtils.cleanPath(path.substring(IMAGES_PATH.length()));
+        if (relative.isEmpty() || relative.startsWith(".") || relative.contains("/.")) {
+            return null;
+        }
+        Path file = imagesDir.resolve(relative).normalize();
+        return file.startsWith(imagesDir) ? file : null;
+    }
+
+    // If-Range không khớp bản hiện tại: trả toàn bộ file thay vì một đoạn của bản cũ
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Range chỉ dùng so sánh strong
+            return !etag.startsWith("W/") && ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Chỉ hỗ trợ một đoạn; nhiều đoạn (multipart/byteranges) -> trả toàn bộ file (RFC 9110 cho phép)
+    private static long[] parseRange(HttpServletRequest request, long size) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        var matcher = SINGLE_RANGE.matcher(header.trim().toLowerCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            return null;
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix == 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[] { Math.max(0, size - suffix), size - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            if (end < start) {
+                return null;
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,22 +1,21 @@
 package vn.web.fashionshop.controller;
 
-import java.time.LocalDateTime;
-
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import jakarta.servlet.http.HttpServletRequest;
-import vn.web.fashionshop.entity.NewsletterSubscription;
-import vn.web.fashionshop.repository.NewsletterSubscriptionRepository;
+import vn.web.fashionshop.service.NewsletterService;
 
 @Controller
 public class NewsletterController {
 
-    private final NewsletterSubscriptionRepository newsletterSubscriptionRepository;
+    private final NewsletterService newsletterService;
 
-    public NewsletterController(NewsletterSubscriptionRepository newsletterSubscriptionRepository) {
-        this.newsletterSubscriptionRepository = newsletterSubscriptionRepository;
+    public NewsletterController(NewsletterService newsletterService) {
+        this.newsletterService = newsletterService;
     }
 
     @PostMapping("/newsletter/subscribe")
@@ -28,17 +27,7 @@ public class NewsletterController {
         if (!email.isBlank() && email.length() <= 255) {
             // minimal email validation
             if (email.matches("^[^\\s@]+@[^\\s@]+\\.[^\\s@]+$")) {
-                NewsletterSubscription sub = newsletterSubscriptionRepository.findByEmail(email).orElse(null);
-                if (sub == null) {
-                    sub = new NewsletterSubscription();
-                    sub.setEmail(email);
-                    sub.setIsActive(true);
-                    sub.setCreatedAt(LocalDateTime.now());
-                    newsletterSubscriptionRepository.save(sub);
-                } else {
-                    sub.setIsActive(true);
-                    newsletterSubscriptionRepository.save(sub);
-                }
+                newsletterService.subscribe(email);
             }
         }
 
@@ -48,4 +37,19 @@ public class NewsletterController {
         }
         return "redirect:/";
     }
+
+    // Link huỷ đăng ký trong thư chỉ mở trang xác nhận: GET không đổi trạng thái
+    // (trình quét link / prefetch của mail server không được huỷ đăng ký thay người nhận)
+    @GetMapping("/newsletter/unsubscribe")
+    public String confirmUnsubscribe(@RequestParam(value = "token", required = false) String token, Model model) {
+        model.addAttribute("token", token);
+        return "newsletter-unsubscribe";
+    }
+
+    // Nút xác nhận trên trang trên, và POST một chạm của trình đọc mail (List-Unsubscribe-Post, RFC 8058)
+    @PostMapping("/newsletter/unsubscribe")
+    public String unsubscribe(@RequestParam(value = "token", required = false) String token, Model model) {
+        model.addAttribute("unsubscribed", newsletterService.unsubscribe(token));
+        return "newsletter-unsubscribe";
+    }
 }
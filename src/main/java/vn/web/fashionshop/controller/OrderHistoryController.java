@@ -1,7 +1,5 @@
 package vn.web.fashionshop.controller;
 
-import java.util.List;
-
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,37 +8,59 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import vn.web.fashionshop.dto.order.OrderSummaryDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Order;
 import vn.web.fashionshop.enums.EOrderCancelReason;
-import vn.web.fashionshop.repository.OrderRepository;
 import vn.web.fashionshop.service.CartService;
 import vn.web.fashionshop.service.CheckoutService;
+import vn.web.fashionshop.service.OrderArchiveService;
 import vn.web.fashionshop.service.OrderService;
 
 @Controller
 public class OrderHistoryController {
 
-    private final OrderRepository orderRepository;
+    private static final int HISTORY_PAGE_SIZE = 10;
+
     private final CheckoutService checkoutService;
     private final OrderService orderService;
     private final CartService cartService;
+    private final OrderArchiveService orderArchiveService;
 
-    public OrderHistoryController(OrderRepository orderRepository, CheckoutService checkoutService,
-            OrderService orderService, CartService cartService) {
-        this.orderRepository = orderRepository;
+    public OrderHistoryController(CheckoutService checkoutService,
+            OrderService orderService, CartService cartService, OrderArchiveService orderArchiveService) {
         this.checkoutService = checkoutService;
         this.orderService = orderService;
         this.cartService = cartService;
+        this.orderArchiveService = orderArchiveService;
     }
 
     @GetMapping("/orders")
-    public String myOrders(Model model) {
+    public String myOrders(@RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "archived", defaultValue = "false") boolean archived,
+            @RequestParam(value = "archivedCursor", required = false) Long archivedCursor,
+            Model model) {
         String email = CartService.currentUserEmailOrNull();
         if (email == null || email.isBlank()) {
             return "redirect:/login";
         }
-        List<Order> orders = orderRepository.findMyOrdersWithAddress(email);
-        model.addAttribute("orders", orders);
+        // Mỗi lần chỉ tải một trang tóm tắt; sản phẩm của từng đơn tải riêng qua /api/orders/history/{id}/items
+        CursorPage<OrderSummaryDTO> page = orderService.getMyOrderHistory(email, cursor, HISTORY_PAGE_SIZE);
+        model.addAttribute("orders", page.content());
+        model.addAttribute("ordersPage", page);
+        model.addAttribute("cursor", cursor);
+
+        // Đơn cũ đã archive: chỉ query bảng archive khi khách yêu cầu xem, phân trang như đơn hiện tại
+        boolean hasArchivedOrders = orderArchiveService.hasArchivedOrders(email);
+        model.addAttribute("hasArchivedOrders", hasArchivedOrders);
+        // Khách chỉ còn đơn cũ: hiện luôn danh sách archive thay vì trang trống
+        if (archived || (hasArchivedOrders && cursor == null && page.content().isEmpty())) {
+            CursorPage<OrderSummaryDTO> archivedPage = orderService.getMyArchivedOrderHistory(email, archivedCursor,
+                    HISTORY_PAGE_SIZE);
+            model.addAttribute("archivedOrders", archivedPage.content());
+            model.addAttribute("archivedPage", archivedPage);
+            model.addAttribute("archivedCursor", archivedCursor);
+        }
         return "orders";
     }
 
@@ -52,10 +72,17 @@ public class OrderHistoryController {
         }
 
         Order order = checkoutService.getMyOrderForSuccessPage(email, id);
+        boolean archived = false;
+        if (order == null) {
+            order = orderService.getMyArchivedOrder(email, id);
+            archived = order != null;
+        }
         if (order == null) {
             return "redirect:/orders";
         }
         model.addAttribute("order", order);
+        // Đơn đã archive chỉ để xem: không huỷ / đánh giá được
+        model.addAttribute("archived", archived);
         model.addAttribute("cancelReasons", EOrderCancelReason.values());
         return "order-detail";
     }
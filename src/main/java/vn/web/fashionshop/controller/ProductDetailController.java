@@ -11,8 +11,10 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import vn.web.fashionshop.cache.CatalogVersions;
 import vn.web.fashionshop.entity.Product;
 import vn.web.fashionshop.entity.ProductVariant;
 import vn.web.fashionshop.entity.Review;
@@ -28,24 +30,33 @@ public class ProductDetailController {
     private final ImageRepository imageRepository;
     private final ProductVariantRepository productVariantRepository;
     private final ReviewRepository reviewRepository;
+    private final CatalogVersions catalogVersions;
 
     public ProductDetailController(
             ProductRepository productRepository,
             ImageRepository imageRepository,
             ProductVariantRepository productVariantRepository,
-            ReviewRepository reviewRepository) {
+            ReviewRepository reviewRepository,
+            CatalogVersions catalogVersions) {
         this.productRepository = productRepository;
         this.imageRepository = imageRepository;
         this.productVariantRepository = productVariantRepository;
         this.reviewRepository = reviewRepository;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping("/product/{id}")
-    public String productDetail(@PathVariable("id") Long id, Model model) {
+    public String productDetail(@PathVariable("id") Long id, WebRequest webRequest, Model model) {
         if (id == null || id <= 0) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
 
+        // Validator từ version trong bộ nhớ: 304 không query DB, không render
+        if (catalogVersions.checkNotModified(webRequest, catalogVersions.product(id),
+                catalogVersions.productReviews(id), catalogVersions.categoryTree())) {
+            return null;
+        }
+
         Product product = productRepository.findByIdForDetail(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
@@ -102,7 +113,7 @@ public class ProductDetailController {
             return BigDecimal.ZERO;
         }
         BigDecimal price = product.getPrice();
-        BigDecimal discount = product.getDiscount() != null ? product.getDiscount() : BigDecimal.ZERO;
+        BigDecimal discount = product.getEffectiveDiscount();
         if (discount.compareTo(BigDecimal.ZERO) <= 0) {
             return price.setScale(2, RoundingMode.HALF_UP);
         }
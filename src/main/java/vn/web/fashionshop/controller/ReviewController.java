@@ -2,10 +2,6 @@ package vn.web.fashionshop.controller;
 
 import java.util.Map;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Review;
 import vn.web.fashionshop.service.ReviewService;
 
@@ -32,16 +29,11 @@ public class ReviewController {
     @GetMapping({ "", "/" })
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
     public String index(
-            @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Integer rating,
             Model model) {
 
-        Pageable pageable = PageRequest.of(page - 1, size, Sort.by("createdAt").descending());
-        Page<Review> reviewsPage = reviewService.searchReviews(keyword, status, rating, pageable);
-
         model.addAttribute("totalReviews", reviewService.getTotalReviews());
         model.addAttribute("pendingReviews", reviewService.getPendingReviews());
         model.addAttribute("approvedReviews", reviewService.getApprovedReviews());
@@ -69,10 +61,7 @@ public class ReviewController {
         model.addAttribute("twoStarPercentage", ratingPercentages.get(2));
         model.addAttribute("oneStarPercentage", ratingPercentages.get(1));
 
-        // Review List
-        model.addAttribute("reviews", reviewsPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", reviewsPage.getTotalPages());
+        // Danh sách review do review-search.js tải qua /admin/reviews/api/search/cursor
 
         // Filter parameters
         model.addAttribute("keyword", keyword);
@@ -82,19 +71,19 @@ public class ReviewController {
         return "admin/review/index";
     }
 
-    // AJAX Search Reviews
-    @GetMapping("/api/search")
+    // AJAX Search Reviews - keyset paging (cursor = id review cuối của trang trước)
+    @GetMapping("/api/search/cursor")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
     @ResponseBody
-    public Page<Review> searchReviewsAjax(
-            @RequestParam(defaultValue = "1") int page,
+    public CursorPage<Review> searchReviewsByCursor(
+            @RequestParam(required = false) Long cursor,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Integer rating) {
 
-        Pageable pageable = PageRequest.of(page - 1, size, Sort.by("createdAt").descending());
-        return reviewService.searchReviews(keyword, status, rating, pageable);
+        return reviewService.searchReviewsByCursor(keyword, status, rating, cursor, size, withTotal);
     }
 
     // View review details
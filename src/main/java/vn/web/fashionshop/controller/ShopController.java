@@ -12,7 +12,9 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
+import vn.web.fashionshop.cache.CatalogVersions;
 import vn.web.fashionshop.entity.Product;
 import vn.web.fashionshop.entity.Category;
 import vn.web.fashionshop.repository.ReviewRepository;
@@ -25,11 +27,14 @@ public class ShopController {
     private final CategoryService categoryService;
     private final ProductService productService;
     private final ReviewRepository reviewRepository;
+    private final CatalogVersions catalogVersions;
 
-    public ShopController(CategoryService categoryService, ProductService productService, ReviewRepository reviewRepository) {
+    public ShopController(CategoryService categoryService, ProductService productService, ReviewRepository reviewRepository,
+            CatalogVersions catalogVersions) {
         this.categoryService = categoryService;
         this.productService = productService;
         this.reviewRepository = reviewRepository;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping("/shop")
@@ -41,8 +46,15 @@ public class ShopController {
             @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
             @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
             @RequestParam(name = "sort", required = false) String sort,
+            WebRequest webRequest,
             Model model) {
 
+        // Danh sách chỉ đổi khi product / danh mục / review đổi: client còn bản mới nhất thì trả 304
+        if (catalogVersions.checkNotModified(webRequest, catalogVersions.catalog(),
+                catalogVersions.categoryTree(), catalogVersions.reviews())) {
+            return null;
+        }
+
         List<String> allowedRoots = List.of("men", "women", "accessories");
         String normalizedRoot = (rootSlug != null && allowedRoots.contains(rootSlug)) ? rootSlug : null;
 
@@ -250,7 +262,7 @@ public class ShopController {
             return null;
         }
         BigDecimal price = product.getPrice();
-        BigDecimal discount = product.getDiscount() != null ? product.getDiscount() : BigDecimal.ZERO;
+        BigDecimal discount = product.getEffectiveDiscount();
         if (discount.compareTo(BigDecimal.ZERO) <= 0) {
             return price;
         }
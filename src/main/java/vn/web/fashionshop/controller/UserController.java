@@ -3,7 +3,6 @@ package vn.web.fashionshop.controller;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -42,12 +41,11 @@ public class UserController {
 
     @GetMapping({ "", "/", "/index" })
     public String index(Model model,
-            @RequestParam(name = "page", defaultValue = "1") Integer page,
             @RequestParam(name = "keyword", required = false) String keyword,
             @RequestParam(name = "roleId", required = false) Long roleId,
             @RequestParam(name = "status", required = false) String status) {
 
-        Page<User> usersPage = userService.searchUsers(keyword, roleId, status, page);
+        // Danh sách user do user-search.js tải qua /api/admin/users/search/cursor
         List<Role> roles = roleService.getAllRoles();
 
         Long totalUser = userService.countTotalUser();
@@ -55,10 +53,6 @@ public class UserController {
         Long totalUserThisMonth = userService.countUserThisMonth();
         Long totalRoles = roleService.countTotalRoles();
 
-        model.addAttribute("users", usersPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", usersPage.getTotalPages());
-
         // Maintain filter state
         model.addAttribute("keyword", keyword);
         model.addAttribute("roleId", roleId);
@@ -2,7 +2,6 @@ package vn.web.fashionshop.controller.admin;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -16,6 +15,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import vn.web.fashionshop.service.PaymentService;
+import vn.web.fashionshop.util.DateRange;
 
 @Controller
 @RequestMapping("/admin/reports")
@@ -41,9 +41,8 @@ public class ReportsController {
         model.addAttribute("todayRevenue", todayRevenue != null ? todayRevenue : BigDecimal.ZERO);
 
         // 2. Doanh thu tuần này (7 ngày gần nhất)
-        LocalDateTime startOfWeek = LocalDateTime.now().minusDays(7).toLocalDate().atStartOfDay();
-        LocalDateTime now = LocalDateTime.now();
-        BigDecimal weeklyRevenue = paymentService.getPaymentByDateRange(startOfWeek, now);
+        DateRange lastWeek = DateRange.lastDays(7);
+        BigDecimal weeklyRevenue = paymentService.getPaymentByDateRange(lastWeek.start(), lastWeek.end());
         model.addAttribute("weeklyRevenue", weeklyRevenue != null ? weeklyRevenue : BigDecimal.ZERO);
 
         // 3. Doanh thu tháng này
@@ -3,7 +3,6 @@ package vn.web.fashionshop.controller.admin.category;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,6 +19,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import jakarta.validation.Valid;
 import vn.web.fashionshop.dto.CategoryDTO;
 import vn.web.fashionshop.dto.ChartResponse;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Category;
 import vn.web.fashionshop.service.CategoryService;
 
@@ -36,25 +36,16 @@ public class CategoryController {
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
     public String index(Model model,
-            @RequestParam(name = "page", defaultValue = "1") Integer page,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String parentSlug) {
 
-        // Get paginated categories
-        Page<Category> categoriesPage = categoryService.searchCategoryAdvanced(keyword, status, parentSlug, page);
-
         // Stats
         model.addAttribute("totalCategories", categoryService.countTotal());
         model.addAttribute("activeCategories", categoryService.countActive());
         model.addAttribute("hiddenCategories", categoryService.countHidden());
         model.addAttribute("rootCategories", categoryService.countRoots());
 
-        // Pagination data
-        model.addAttribute("categories", categoriesPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", categoriesPage.getTotalPages());
-
         // Root categories for filter dropdown
         model.addAttribute("rootCategoriesList", categoryService.getRootCategories());
 
@@ -66,17 +57,19 @@ public class CategoryController {
         return "admin/category/index";
     }
 
-    // Search category using AJAX
-    @GetMapping("/api/search")
+    // Search category using AJAX - keyset paging (cursor = id danh mục cuối của trang trước)
+    @GetMapping("/api/search/cursor")
     @ResponseBody
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
-    public Page<Category> searchCategoriesAjax(
-            @RequestParam(name = "page", defaultValue = "1") Integer page,
+    public CursorPage<Category> searchCategoriesByCursor(
+            @RequestParam(name = "cursor", required = false) Long cursor,
+            @RequestParam(name = "size", defaultValue = "6") Integer size,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal,
             @RequestParam(name = "keyword", required = false) String keyword,
             @RequestParam(name = "status", required = false) String status,
             @RequestParam(name = "parentSlug", required = false) String parentSlug) {
 
-        return categoryService.searchCategoryAdvanced(keyword, status, parentSlug, page);
+        return categoryService.searchCategoriesByCursor(keyword, status, parentSlug, cursor, size, withTotal);
     }
 
     // Category Performance Chart
@@ -3,7 +3,6 @@ package vn.web.fashionshop.controller.admin.order;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -14,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import vn.web.fashionshop.dto.OrderResponseDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Order;
 import vn.web.fashionshop.entity.OrderAddress;
 import vn.web.fashionshop.enums.EOrderStatus;
@@ -33,7 +34,6 @@ public class OrderController {
 
     @GetMapping("/admin/orders")
     public String listOrders(
-            @RequestParam(defaultValue = "1") int page,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String paymentMethod,
@@ -58,14 +58,7 @@ public class OrderController {
 
         model.addAttribute("cancelReasonStats", orderService.getCancellationReasonStats());
 
-        // Order List with Pagination
-        Page<Order> orderPage = orderService
-                .searchOrderAdvanced(keyword, status, paymentMethod, period, page);
-
-        model.addAttribute("orders", orderPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", orderPage.getTotalPages());
-        model.addAttribute("totalItems", orderPage.getTotalElements());
+        // Danh sách đơn do order-search.js tải qua /admin/orders/api/search/cursor
 
         // Filter values for form
         model.addAttribute("keyword", keyword != null ? keyword : "");
@@ -80,18 +73,19 @@ public class OrderController {
         return "admin/order/index";
     }
 
-    // AJAX Search Orders
-    @GetMapping("/admin/orders/api/search")
+    // AJAX Search Orders - keyset paging (cursor = id đơn cuối của trang trước)
+    @GetMapping("/admin/orders/api/search/cursor")
     @ResponseBody
-    public Map<String, Object> searchOrdersAjax(
-            @RequestParam(defaultValue = "1") int page,
+    public CursorPage<OrderResponseDTO> searchOrdersByCursor(
+            @RequestParam(required = false) Long cursor,
             @RequestParam(defaultValue = "6") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String paymentMethod,
             @RequestParam(required = false) String period) {
 
-        return orderService.searchOrdersForAjax(keyword, status, paymentMethod, period, page);
+        return orderService.searchOrdersByCursor(keyword, status, paymentMethod, period, cursor, size, withTotal);
     }
 
     // API endpoint for Order Trends Chart
@@ -105,8 +99,14 @@ public class OrderController {
     // View Order Details
     @GetMapping("/admin/orders/{id}")
     public String viewOrder(@PathVariable Long id, Model model) {
-        Order order = orderService.getOrderById(id);
+        // Không còn trong bảng hot: đơn đã archive, chỉ xem
+        Order order = orderService.findOrderById(id).orElse(null);
+        boolean archived = order == null;
+        if (archived) {
+            order = orderService.getArchivedOrderById(id);
+        }
         model.addAttribute("order", order);
+        model.addAttribute("archived", archived);
         return "admin/order/view";
     }
 
@@ -3,7 +3,6 @@ package vn.web.fashionshop.controller.admin.product;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,7 +19,9 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import jakarta.validation.Valid;
 import vn.web.fashionshop.dto.ChartResponse;
 import vn.web.fashionshop.dto.ProductCreateDTO;
+import vn.web.fashionshop.dto.ProductResponseDTO;
 import vn.web.fashionshop.dto.ProductUpdateDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Category;
 import vn.web.fashionshop.entity.Product;
 import vn.web.fashionshop.service.CategoryService;
@@ -46,7 +47,6 @@ public class ProductController {
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
     public String index(
-            @RequestParam(defaultValue = "1") int page,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String stock,
@@ -60,14 +60,7 @@ public class ProductController {
         model.addAttribute("productsOutOfStock", productService.countOutOfStockProduct());
         model.addAttribute("totalInventoryValue", productService.totalValueInStock());
 
-        // Get product list with pagination
-        Page<Product> productPage = productService.searchProductAdvanced(keyword, categoryId, stock, sku, isActive,
-                page);
-
-        model.addAttribute("products", productPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", productPage.getTotalPages());
-        model.addAttribute("totalElements", productPage.getTotalElements());
+        // Danh sách sản phẩm do product-search.js tải qua /admin/products/api/search/cursor
 
         // Filter values
         model.addAttribute("keyword", keyword);
@@ -82,20 +75,22 @@ public class ProductController {
         return "admin/product/index";
     }
 
-    // Search product using AJAX
-    @GetMapping("/api/search")
+    // Search product using AJAX - keyset paging (cursor = id sản phẩm cuối của trang trước)
+    @GetMapping("/api/search/cursor")
     @ResponseBody
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
-    public java.util.Map<String, Object> searchProductsAjax(
-            @RequestParam(defaultValue = "1") int page,
+    public CursorPage<ProductResponseDTO> searchProductsByCursor(
+            @RequestParam(required = false) Long cursor,
             @RequestParam(defaultValue = "6") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String stock,
             @RequestParam(required = false) String sku,
             @RequestParam(required = false) String isActive) {
 
-        return productService.searchProductsForAjax(keyword, categoryId, stock, sku, isActive, page);
+        return productService.searchProductsByCursor(keyword, categoryId, stock, sku, isActive, cursor, size,
+                withTotal);
     }
 
     // API endpoint for pie chart data
@@ -261,8 +256,18 @@ public class ProductController {
             RedirectAttributes redirectAttributes) {
 
         try {
-            productImageService.uploadImages(id, files);
-            redirectAttributes.addFlashAttribute("success", "Upload hình ảnh thành công!");
+            ProductImageService.BulkUploadResult result = productImageService.uploadImages(id, files);
+            if (result.uploaded() > 0 || result.duplicates() > 0) {
+                String message = "Upload thành công " + result.uploaded() + " hình ảnh!";
+                if (result.duplicates() > 0) {
+                    message += " Bỏ qua " + result.duplicates() + " ảnh trùng.";
+                }
+                redirectAttributes.addFlashAttribute("success", message);
+            }
+            if (!result.rejected().isEmpty()) {
+                redirectAttributes.addFlashAttribute("error",
+                        "Không thể upload: " + String.join("; ", result.rejected()));
+            }
         } catch (Exception e) {
             e.printStackTrace();
             redirectAttributes.addFlashAttribute("error", "Có lỗi xảy ra: " + e.getMessage());
@@ -1,6 +1,5 @@
 package vn.web.fashionshop.controller.admin.voucher;
 
-import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,6 +15,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.validation.Valid;
 import vn.web.fashionshop.dto.AddVoucherDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Voucher;
 import vn.web.fashionshop.service.VoucherService;
 
@@ -32,47 +32,33 @@ public class VoucherController {
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
     public String index(Model model,
-            @RequestParam(name = "page", defaultValue = "1") Integer page,
             @RequestParam(name = "keyword", required = false) String keyword,
-            @RequestParam(name = "status", required = false) String status,
-            @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
-
-        // Sử dụng search nâng cao với filter và sort
-        Page<Voucher> vouchersPage = voucherService.searchVoucherAdvanced(keyword, status, page, sortBy, sortDir);
+            @RequestParam(name = "status", required = false) String status) {
 
         model.addAttribute("totalVouchers", voucherService.countTotal());
         model.addAttribute("activeVouchers", voucherService.countActive());
         model.addAttribute("expiredVouchers", voucherService.countExpired());
         model.addAttribute("usedVouchers", voucherService.countUsed());
 
-        // Pagination data
-        model.addAttribute("vouchers", vouchersPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", vouchersPage.getTotalPages());
-
         // Filter & search params
         model.addAttribute("keyword", keyword);
         model.addAttribute("status", status);
-        model.addAttribute("sortBy", sortBy);
-        model.addAttribute("sortDir", sortDir);
-        model.addAttribute("reverseSortDir", sortDir.equals("asc") ? "desc" : "asc");
 
         return "admin/voucher/index";
     }
 
-    // Search vouchers using AJAX
-    @GetMapping("/api/search")
+    // Search vouchers using AJAX - keyset paging (cursor = id voucher cuối của trang trước)
+    @GetMapping("/api/search/cursor")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_STAFF')")
     @ResponseBody
-    public Page<Voucher> searchVouchersAjax(
-            @RequestParam(name = "page", defaultValue = "1") Integer page,
+    public CursorPage<Voucher> searchVouchersByCursor(
+            @RequestParam(name = "cursor", required = false) Long cursor,
+            @RequestParam(name = "size", defaultValue = "6") Integer size,
+            @RequestParam(name = "withTotal", defaultValue = "false") boolean withTotal,
             @RequestParam(name = "keyword", required = false) String keyword,
-            @RequestParam(name = "status", required = false) String status,
-            @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
+            @RequestParam(name = "status", required = false) String status) {
 
-        return voucherService.searchVoucherAdvanced(keyword, status, page, sortBy, sortDir);
+        return voucherService.searchVouchersByCursor(keyword, status, cursor, size, withTotal);
     }
 
     @GetMapping("/create")
@@ -13,7 +13,6 @@ import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -30,6 +29,8 @@ import vn.web.fashionshop.dto.LoginResponse;
 import vn.web.fashionshop.entity.User;
 import vn.web.fashionshop.repository.UserRepository;
 import vn.web.fashionshop.security.JwtUtil;
+import vn.web.fashionshop.security.LoginAttemptService;
+import vn.web.fashionshop.security.LoginThrottledException;
 import vn.web.fashionshop.service.WishlistService;
 import vn.web.fashionshop.util.GuestWishlistCookieUtil;
 
@@ -41,32 +42,45 @@ public class AuthApiController {
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
     private final WishlistService wishlistService;
+    private final LoginAttemptService loginAttemptService;
 
     public AuthApiController(AuthenticationManager authenticationManager,
             JwtUtil jwtUtil,
             UserRepository userRepository,
-            WishlistService wishlistService) {
+            WishlistService wishlistService,
+            LoginAttemptService loginAttemptService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
         this.wishlistService = wishlistService;
+        this.loginAttemptService = loginAttemptService;
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request,
             HttpServletRequest httpRequest,
             HttpServletResponse response) {
+        // Chặn trước khi chạy BCrypt: quá nhiều lần thử từ IP này hoặc sai quá nhiều lần cho tài khoản này
+        long retryAfter = loginAttemptService.checkAndRecordAttempt(httpRequest.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
+
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            loginAttemptService.recordSuccess(request.getEmail());
 
             // Set SecurityContext for current request so merge can work
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
+            // Claims (id, role, token version) lấy từ user vừa xác thực
+            User user = userRepository.findByEmail(authentication.getName())
+                    .orElseThrow(() -> new BadCredentialsException("User not found"));
+
             boolean rememberMe = request.getRememberMe() != null && request.getRememberMe();
-            String token = jwtUtil.generateToken(userDetails, rememberMe);
+            String token = jwtUtil.generateToken(user, rememberMe);
 
             // Save token to cookie for web browser
             // NOTE: SameSite=Lax helps mitigate CSRF when using cookie-based auth.
@@ -90,8 +104,7 @@ public class AuthApiController {
             }
 
             // Get user info
-            User user = userRepository.findByEmail(request.getEmail()).orElse(null);
-            String fullName = user != null ? user.getFullName() : "";
+            String fullName = user.getFullName() != null ? user.getFullName() : "";
             String role = jwtUtil.extractRole(token);
 
             LoginResponse loginResponse = new LoginResponse(token, request.getEmail(), role, fullName);
@@ -100,12 +113,21 @@ public class AuthApiController {
         } catch (DisabledException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Tài khoản đã bị vô hiệu hóa"));
+        } catch (LoginThrottledException e) {
+            return tooManyAttempts(e.getRetryAfterSeconds());
         } catch (BadCredentialsException e) {
+            loginAttemptService.recordFailure(request.getEmail());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Email hoặc mật khẩu không đúng"));
         }
     }
 
+    private ResponseEntity<?> tooManyAttempts(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ApiResponse.error("Bạn đã thử đăng nhập quá nhiều lần. Vui lòng thử lại sau."));
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout(HttpServletRequest httpRequest, HttpServletResponse response) {
         // Clear cookie
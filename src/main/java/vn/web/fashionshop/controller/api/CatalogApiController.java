@@ -0,0 +1,90 @@
+package vn.web.fashionshop.controller.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import vn.web.fashionshop.dto.catalog.CatalogImportResultDTO;
+import vn.web.fashionshop.service.CatalogExportService;
+import vn.web.fashionshop.service.CatalogImportService;
+import vn.web.fashionshop.service.CatalogImportService.Format;
+
+@RestController
+@RequestMapping("/api/admin/catalog")
+public class CatalogApiController {
+
+    private final CatalogImportService catalogImportService;
+    private final CatalogExportService catalogExportService;
+
+    public CatalogApiController(CatalogImportService catalogImportService,
+            CatalogExportService catalogExportService) {
+        this.catalogImportService = catalogImportService;
+        this.catalogExportService = catalogExportService;
+    }
+
+    /**
+     * Import catalog từ body (text/csv hoặc application/json), đọc dạng luồng
+     * URL: POST /api/admin/catalog/import?dryRun=true
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", MediaType.TEXT_PLAIN_VALUE,
+            MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<CatalogImportResultDTO> importBody(HttpServletRequest request,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        try (InputStream in = request.getInputStream()) {
+            return respond(catalogImportService.importCatalog(in, CatalogImportService.formatOf(contentType), dryRun));
+        }
+    }
+
+    // Import từ form upload (field "file"); định dạng theo đuôi file
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CatalogImportResultDTO> importFile(@RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : file.getContentType();
+        try (InputStream in = file.getInputStream()) {
+            return respond(catalogImportService.importCatalog(in, CatalogImportService.formatOf(name), dryRun));
+        }
+    }
+
+    /**
+     * Xuất toàn bộ catalog
+     * URL: GET /api/admin/catalog/export?format=csv|json
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format) {
+        Format exportFormat = CatalogImportService.formatOf(format);
+        String filename = "catalog-" + LocalDate.now() + (exportFormat == Format.JSON ? ".json" : ".csv");
+        MediaType mediaType = exportFormat == Format.JSON
+                ? MediaType.APPLICATION_JSON
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        StreamingResponseBody body = out -> catalogExportService.export(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // File không đọc được (thiếu cột, không phải mảng JSON...): 400 kèm lý do
+    private static ResponseEntity<CatalogImportResultDTO> respond(CatalogImportResultDTO result) {
+        if (result.getAbortedReason() != null && result.getTotalRows() == 0) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+}
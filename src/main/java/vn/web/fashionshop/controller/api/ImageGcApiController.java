@@ -0,0 +1,37 @@
+package vn.web.fashionshop.controller.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import vn.web.fashionshop.dto.image.ImageGcStatsDTO;
+import vn.web.fashionshop.service.ImageGarbageCollector;
+
+@RestController
+@RequestMapping("/api/admin/images/gc")
+public class ImageGcApiController {
+
+    private final ImageGarbageCollector imageGarbageCollector;
+
+    public ImageGcApiController(ImageGarbageCollector imageGarbageCollector) {
+        this.imageGarbageCollector = imageGarbageCollector;
+    }
+
+    // Kết quả lần chạy gần nhất (hoặc đang chạy)
+    @GetMapping
+    public ResponseEntity<ImageGcStatsDTO> stats() {
+        return ResponseEntity.ok(imageGarbageCollector.getLastRun());
+    }
+
+    // Chạy ngay ở nền; 409 nếu đang chạy
+    @PostMapping("/run")
+    public ResponseEntity<ImageGcStatsDTO> run() {
+        if (!imageGarbageCollector.startAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(imageGarbageCollector.getLastRun());
+        }
+        return ResponseEntity.accepted().body(imageGarbageCollector.getLastRun());
+    }
+}
@@ -0,0 +1,51 @@
+package vn.web.fashionshop.controller.api;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import vn.web.fashionshop.dto.inventory.LowStockItemDTO;
+import vn.web.fashionshop.service.LowStockMonitor;
+
+@RestController
+@RequestMapping("/api/admin/inventory")
+public class InventoryApiController {
+
+    private final LowStockMonitor lowStockMonitor;
+
+    public InventoryApiController(LowStockMonitor lowStockMonitor) {
+        this.lowStockMonitor = lowStockMonitor;
+    }
+
+    /**
+     * Variant ít hàng nhất (stock <= ngưỡng), tăng dần theo stock. Cập nhật realtime qua /topic/admin/inventory
+     * URL: GET /api/admin/inventory/low-stock?limit=50
+     */
+    @GetMapping("/low-stock")
+    public ResponseEntity<Map<String, Object>> lowStock(@RequestParam(defaultValue = "50") int limit) {
+        List<LowStockItemDTO> items = lowStockMonitor.lowest(Math.min(Math.max(limit, 0), 500));
+        return ResponseEntity.ok(Map.of("count", lowStockMonitor.lowStockCount(), "items", items));
+    }
+
+    // Ngưỡng riêng của variant; bỏ tham số threshold để dùng lại ngưỡng mặc định
+    @PutMapping("/variants/{variantId}/low-stock-threshold")
+    public ResponseEntity<Map<String, Object>> setThreshold(@PathVariable Long variantId,
+            @RequestParam(required = false) Integer threshold) {
+        try {
+            if (!lowStockMonitor.setThreshold(variantId, threshold)) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of("variantId", variantId, "threshold",
+                threshold != null ? threshold : "default"));
+    }
+}
@@ -0,0 +1,73 @@
+package vn.web.fashionshop.controller.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Valid;
+import vn.web.fashionshop.dto.newsletter.NewsletterCampaignRequest;
+import vn.web.fashionshop.dto.newsletter.NewsletterCampaignStatsDTO;
+import vn.web.fashionshop.entity.NewsletterCampaign;
+import vn.web.fashionshop.service.NewsletterService;
+
+@RestController
+@RequestMapping("/api/admin/newsletter/campaigns")
+public class NewsletterCampaignApiController {
+
+    private final NewsletterService newsletterService;
+
+    public NewsletterCampaignApiController(NewsletterService newsletterService) {
+        this.newsletterService = newsletterService;
+    }
+
+    /**
+     * Tạo chiến dịch (DRAFT)
+     * URL: POST /api/admin/newsletter/campaigns {"subject": "...", "bodyTemplate": "... {{unsubscribe_url}}"}
+     */
+    @PostMapping
+    public ResponseEntity<NewsletterCampaignStatsDTO> create(@Valid @RequestBody NewsletterCampaignRequest request) {
+        NewsletterCampaign campaign = newsletterService.createCampaign(request.getSubject(),
+                request.getBodyTemplate());
+        return ResponseEntity.status(HttpStatus.CREATED).body(newsletterService.getCampaignStats(campaign.getId()));
+    }
+
+    // Bắt đầu gửi ở nền; trả về ngay
+    @PostMapping("/{id}/send")
+    public ResponseEntity<NewsletterCampaignStatsDTO> send(@PathVariable Long id) {
+        try {
+            newsletterService.startCampaign(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().body(newsletterService.getCampaignStats(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<NewsletterCampaignStatsDTO> cancel(@PathVariable Long id) {
+        try {
+            newsletterService.cancelCampaign(id);
+            return ResponseEntity.ok(newsletterService.getCampaignStats(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    // Tiến độ: số thư đã xếp và trạng thái gửi trong outbox
+    @GetMapping("/{id}")
+    public ResponseEntity<NewsletterCampaignStatsDTO> stats(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(newsletterService.getCampaignStats(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package vn.web.fashionshop.controller.api;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import vn.web.fashionshop.dto.order.OrderItemLineDTO;
+import vn.web.fashionshop.dto.order.OrderSummaryDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
+import vn.web.fashionshop.service.CartService;
+import vn.web.fashionshop.service.OrderService;
+
+@RestController
+@RequestMapping("/api/orders/history")
+public class OrderHistoryApiController {
+
+    private final OrderService orderService;
+
+    public OrderHistoryApiController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    // Trang tiếp theo của lịch sử đơn hàng (cursor = nextCursor của trang trước)
+    @GetMapping
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> history(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        String email = CartService.currentUserEmailOrNull();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(orderService.getMyOrderHistory(email, cursor, size));
+    }
+
+    // Trang tiếp theo của các đơn đã archive
+    @GetMapping("/archived")
+    public ResponseEntity<CursorPage<OrderSummaryDTO>> archivedHistory(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        String email = CartService.currentUserEmailOrNull();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(orderService.getMyArchivedOrderHistory(email, cursor, size));
+    }
+
+    // Sản phẩm của một đơn (kể cả đơn đã archive), gọi khi khách mở rộng đơn đó
+    @GetMapping("/{id}/items")
+    public ResponseEntity<List<OrderItemLineDTO>> items(@PathVariable("id") Long id) {
+        String email = CartService.currentUserEmailOrNull();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        List<OrderItemLineDTO> items = orderService.getMyOrderItems(email, id);
+        if (items.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(items);
+    }
+}
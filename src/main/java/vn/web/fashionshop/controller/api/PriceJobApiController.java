@@ -0,0 +1,91 @@
+package vn.web.fashionshop.controller.api;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Valid;
+import vn.web.fashionshop.dto.pricing.PriceJobPreviewDTO;
+import vn.web.fashionshop.dto.pricing.PriceJobRequest;
+import vn.web.fashionshop.entity.PriceJob;
+import vn.web.fashionshop.service.PriceJobService;
+
+@RestController
+@RequestMapping("/api/admin/price-jobs")
+public class PriceJobApiController {
+
+    private final PriceJobService priceJobService;
+
+    public PriceJobApiController(PriceJobService priceJobService) {
+        this.priceJobService = priceJobService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PriceJob>> list() {
+        return ResponseEntity.ok(priceJobService.listJobs());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PriceJob> get(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(priceJobService.getJob(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Xem trước, không ghi
+     * URL: POST /api/admin/price-jobs/preview {"name": "Sale", "categoryId": 3, "field": "DISCOUNT",
+     * "adjustment": "SET", "value": 30}
+     */
+    @PostMapping("/preview")
+    public ResponseEntity<PriceJobPreviewDTO> preview(@Valid @RequestBody PriceJobRequest request) {
+        try {
+            return ResponseEntity.ok(priceJobService.preview(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Tạo job; không có startAt (hoặc đã qua) thì chạy ngay ở nền
+    @PostMapping
+    public ResponseEntity<PriceJob> create(@Valid @RequestBody PriceJobRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(priceJobService.createJob(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<PriceJob> cancel(@PathVariable Long id) {
+        try {
+            priceJobService.cancelJob(id);
+            return ResponseEntity.ok(priceJobService.getJob(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    // Hoàn giá cũ ngay, không chờ endAt
+    @PostMapping("/{id}/revert")
+    public ResponseEntity<PriceJob> revert(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(priceJobService.revertJob(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import vn.web.fashionshop.cache.CatalogVersions;
 import vn.web.fashionshop.dto.product.ProductVariantOptionDto;
 import vn.web.fashionshop.repository.ProductVariantRepository;
 
@@ -16,17 +18,26 @@ import vn.web.fashionshop.repository.ProductVariantRepository;
 public class ProductApiController {
 
     private final ProductVariantRepository productVariantRepository;
+    private final CatalogVersions catalogVersions;
 
-    public ProductApiController(ProductVariantRepository productVariantRepository) {
+    public ProductApiController(ProductVariantRepository productVariantRepository, CatalogVersions catalogVersions) {
         this.productVariantRepository = productVariantRepository;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping("/{productId}/variants")
-    public ResponseEntity<List<ProductVariantOptionDto>> getVariants(@PathVariable("productId") Long productId) {
+    public ResponseEntity<List<ProductVariantOptionDto>> getVariants(@PathVariable("productId") Long productId,
+            WebRequest webRequest) {
         if (productId == null || productId <= 0) {
             return ResponseEntity.badRequest().build();
         }
 
+        // Tồn kho đổi qua JPA (checkout, admin) tăng version tồn kho; đổi màu / size tăng version của product
+        if (catalogVersions.checkNotModified(webRequest, catalogVersions.product(productId),
+                catalogVersions.productStock(productId))) {
+            return null;
+        }
+
         var variants = productVariantRepository.findByProductIdOrderByIdAsc(productId);
         var dto = variants.stream()
                 .map(v -> new ProductVariantOptionDto(
@@ -0,0 +1,52 @@
+package vn.web.fashionshop.controller.api;
+
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import vn.web.fashionshop.service.ProductImageService;
+import vn.web.fashionshop.service.ProductImageService.BulkUploadResult;
+
+@RestController
+@RequestMapping("/api/admin/products/{productId}/images")
+public class ProductImageApiController {
+
+    private final ProductImageService productImageService;
+
+    public ProductImageApiController(ProductImageService productImageService) {
+        this.productImageService = productImageService;
+    }
+
+    /**
+     * Upload nhiều ảnh một lần
+     * URL: POST /api/admin/products/{productId}/images (multipart, field "files" lặp lại)
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkUploadResult> upload(@PathVariable Long productId,
+            @RequestParam("files") MultipartFile[] files) {
+        try {
+            return ResponseEntity.ok(productImageService.uploadImages(productId, files));
+        } catch (RuntimeException e) {
+            // Product không tồn tại / quá nhiều file
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Đặt ảnh chính: một câu UPDATE
+    @PostMapping("/{imageId}/main")
+    public ResponseEntity<Map<String, Object>> setMain(@PathVariable Long productId, @PathVariable Long imageId) {
+        try {
+            productImageService.setMainImage(productId, imageId);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("productId", productId, "mainImageId", imageId));
+    }
+}
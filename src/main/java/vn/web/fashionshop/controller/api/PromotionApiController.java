@@ -0,0 +1,79 @@
+package vn.web.fashionshop.controller.api;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.Valid;
+import vn.web.fashionshop.dto.promotion.PromotionRequest;
+import vn.web.fashionshop.entity.Promotion;
+import vn.web.fashionshop.service.PromotionService;
+
+@RestController
+@RequestMapping("/api/admin/promotions")
+public class PromotionApiController {
+
+    private final PromotionService promotionService;
+
+    public PromotionApiController(PromotionService promotionService) {
+        this.promotionService = promotionService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Promotion>> list() {
+        return ResponseEntity.ok(promotionService.listPromotions());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Promotion> get(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(promotionService.getPromotion(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Tạo khuyến mãi
+     * URL: POST /api/admin/promotions {"name": "Sale hè", "discountPercent": 30, "startAt": "2026-06-01T00:00:00",
+     * "endAt": "2026-06-08T00:00:00", "categoryIds": [3]}
+     */
+    @PostMapping
+    public ResponseEntity<Promotion> create(@Valid @RequestBody PromotionRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(promotionService.createPromotion(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Promotion> update(@PathVariable Long id, @Valid @RequestBody PromotionRequest request) {
+        try {
+            return ResponseEntity.ok(promotionService.updatePromotion(id, request));
+        } catch (IllegalArgumentException e) {
+            return "PROMOTION_NOT_FOUND".equals(e.getMessage())
+                    ? ResponseEntity.notFound().build()
+                    : ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        try {
+            promotionService.deletePromotion(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
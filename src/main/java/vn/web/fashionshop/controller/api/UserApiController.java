@@ -1,11 +1,5 @@
 package vn.web.fashionshop.controller.api;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,7 +7,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import vn.web.fashionshop.dto.UserListDTO;
-import vn.web.fashionshop.entity.User;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.service.UserService;
 
 @RestController
@@ -27,32 +21,18 @@ public class UserApiController {
     }
 
     /**
-     * API tìm kiếm và filter users
-     * URL: GET /api/admin/users/search?keyword=abc&roleId=1&status=active&page=1
+     * API tìm kiếm users theo keyset (không COUNT, trang sâu không chậm dần)
+     * URL: GET /api/admin/users/search/cursor?keyword=abc&cursor=120&size=6&withTotal=true
      */
-    @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchUsers(
+    @GetMapping("/search/cursor")
+    public ResponseEntity<CursorPage<UserListDTO>> searchUsersByCursor(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long roleId,
             @RequestParam(required = false) String status,
-            @RequestParam(defaultValue = "1") int page) {
-
-        // Gọi service tìm kiếm
-        Page<User> usersPage = userService.searchUsers(keyword, roleId, status, page);
-
-        // Convert sang DTO
-        List<UserListDTO> userDTOs = usersPage.getContent().stream()
-                .map(userService::userToListDTO)
-                .collect(Collectors.toList());
-
-        // Tạo response
-        Map<String, Object> response = new HashMap<>();
-        response.put("users", userDTOs);
-        response.put("currentPage", page);
-        response.put("totalPages", usersPage.getTotalPages());
-        response.put("totalElements", usersPage.getTotalElements());
-        response.put("numberOfElements", usersPage.getNumberOfElements());
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "6") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(userService.searchUsersByCursor(keyword, roleId, status, cursor, size, withTotal));
     }
 }
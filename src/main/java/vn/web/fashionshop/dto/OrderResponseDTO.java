@@ -21,4 +21,6 @@ public class OrderResponseDTO {
     private LocalDateTime createdAt;
     private String userFullName;
     private String userEmail;
+    // Đơn nằm trong bảng archive: chỉ xem, không sửa/xoá
+    private boolean archived;
 }
@@ -2,6 +2,8 @@ package vn.web.fashionshop.dto;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Holds pending password reset data in memory
  */
@@ -10,6 +12,11 @@ public class PendingPasswordReset {
     private String email;
     private String otpCode;
     private LocalDateTime expiryTime;
+    private int sendCount = 1;
+
+    // Cho Jackson (JdbcExpiringStore)
+    public PendingPasswordReset() {
+    }
 
     public PendingPasswordReset(String email, String otpCode, int expirationMinutes) {
         this.email = email;
@@ -17,6 +24,7 @@ public class PendingPasswordReset {
         this.expiryTime = LocalDateTime.now().plusMinutes(expirationMinutes);
     }
 
+    @JsonIgnore
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiryTime);
     }
@@ -32,4 +40,24 @@ public class PendingPasswordReset {
     public LocalDateTime getExpiryTime() {
         return expiryTime;
     }
+
+    public int getSendCount() {
+        return sendCount;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public void setOtpCode(String otpCode) {
+        this.otpCode = otpCode;
+    }
+
+    public void setExpiryTime(LocalDateTime expiryTime) {
+        this.expiryTime = expiryTime;
+    }
+
+    public void setSendCount(int sendCount) {
+        this.sendCount = sendCount;
+    }
 }
@@ -2,6 +2,8 @@ package vn.web.fashionshop.dto;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Data;
 import vn.web.fashionshop.enums.EGender;
 
@@ -15,6 +17,8 @@ public class PendingRegistration {
     private String encodedPassword;
     private String otpCode;
     private LocalDateTime expiryTime;
+    // Số email OTP đã gửi cho lần đăng ký này (lần đầu + gửi lại)
+    private int sendCount = 1;
 
     public PendingRegistration() {
     }
@@ -32,6 +36,7 @@ public class PendingRegistration {
         this.expiryTime = LocalDateTime.now().plusMinutes(expiryMinutes);
     }
 
+    @JsonIgnore
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiryTime);
     }
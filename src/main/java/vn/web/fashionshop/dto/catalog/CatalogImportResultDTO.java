@@ -0,0 +1,36 @@
+package vn.web.fashionshop.dto.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CatalogImportResultDTO {
+
+    private boolean dryRun;
+    private long totalRows;
+    private long productsUpserted;
+    private long variantsUpserted;
+    private long errorCount;
+    private long durationMillis;
+
+    // Lỗi đọc file làm dừng import giữa chừng; các chunk trước đó đã được ghi
+    private String abortedReason;
+
+    // Chỉ giữ tối đa app.catalog.import.max-reported-errors lỗi đầu tiên
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String sku;
+        private String skuVariant;
+        private String message;
+    }
+}
@@ -0,0 +1,32 @@
+package vn.web.fashionshop.dto.catalog;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một dòng import / export catalog: thông tin product + một variant (skuVariant trống = product
+ * không có variant). Các dòng cùng sku thuộc cùng một product. Mọi trường để dạng chuỗi, được
+ * kiểm tra và chuyển kiểu khi import.
+ */
+@Data
+@NoArgsConstructor
+public class CatalogRow {
+
+    // Thứ tự cột của file CSV
+    public static final List<String> COLUMNS = List.of("sku", "productName", "description", "price", "discount",
+            "isActive", "categorySlug", "skuVariant", "size", "color", "stock");
+
+    private String sku;
+    private String productName;
+    private String description;
+    private String price;
+    private String discount;
+    private String isActive;
+    private String categorySlug;
+    private String skuVariant;
+    private String size;
+    private String color;
+    private String stock;
+}
@@ -0,0 +1,39 @@
+package vn.web.fashionshop.dto.image;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kết quả một lần dọn ảnh mồ côi.
+ */
+@Data
+@NoArgsConstructor
+public class ImageGcStatsDTO {
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private boolean running;
+
+    // Số file (theo tên, không tính đuôi / bản resize) đang được tham chiếu
+    private long referenced;
+    private long scannedFiles;
+    private long scannedBytes;
+
+    private long quarantinedFiles;
+    private long quarantinedBytes;
+
+    // File trong quarantine quá hạn đã bị xoá hẳn
+    private long purgedFiles;
+    private long reclaimedBytes;
+
+    // Dòng trỏ tới file không tồn tại; restored = lấy lại được từ quarantine
+    private long missingFiles;
+    private long restoredFiles;
+
+    // Cộng dồn từ lúc khởi động
+    private long totalReclaimedBytes;
+
+    private String error;
+}
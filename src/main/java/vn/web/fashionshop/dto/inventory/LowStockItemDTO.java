@@ -0,0 +1,21 @@
+package vn.web.fashionshop.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LowStockItemDTO {
+
+    private Long variantId;
+    private Long productId;
+    private String productName;
+    private String skuVariant;
+    private String size;
+    private String color;
+    private Integer stock;
+    // Ngưỡng đang áp dụng (của variant hoặc mặc định)
+    private Integer threshold;
+}
@@ -0,0 +1,25 @@
+package vn.web.fashionshop.dto.inventory;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAlertDTO {
+
+    public enum Type {
+        LOW_STOCK, // Vừa xuống tới ngưỡng
+        OUT_OF_STOCK, // Vừa hết hàng
+        RESTOCKED // Vừa lên trên ngưỡng
+    }
+
+    private Type type;
+    private LowStockItemDTO item;
+    // Số variant đang ở mức thấp sau thay đổi này
+    private int lowStockCount;
+    private LocalDateTime at;
+}
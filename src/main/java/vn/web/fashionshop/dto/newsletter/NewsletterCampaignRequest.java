@@ -0,0 +1,21 @@
+package vn.web.fashionshop.dto.newsletter;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NewsletterCampaignRequest {
+
+    @NotBlank(message = "Tiêu đề không được để trống")
+    @Size(max = 255, message = "Tiêu đề tối đa 255 ký tự")
+    private String subject;
+
+    // Hỗ trợ {{email}} và {{unsubscribe_url}}
+    @NotBlank(message = "Nội dung không được để trống")
+    private String bodyTemplate;
+}
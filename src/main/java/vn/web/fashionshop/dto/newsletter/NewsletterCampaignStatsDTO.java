@@ -0,0 +1,28 @@
+package vn.web.fashionshop.dto.newsletter;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.web.fashionshop.enums.ECampaignStatus;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NewsletterCampaignStatsDTO {
+
+    private Long id;
+    private String subject;
+    private ECampaignStatus status;
+
+    // Số thư đã xếp vào outbox, và trạng thái gửi của chúng
+    private Long queued;
+    private Long pending;
+    private Long sent;
+    private Long failed;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,24 @@
+package vn.web.fashionshop.dto.order;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.web.fashionshop.enums.ESize;
+
+/**
+ * One line of an order, loaded on demand when the customer expands an order in history
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemLineDTO {
+    private Long productId;
+    private String productName;
+    private ESize size;
+    private String color;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,26 @@
+package vn.web.fashionshop.dto.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.web.fashionshop.enums.EOrderStatus;
+import vn.web.fashionshop.enums.EPaymentMethod;
+
+/**
+ * Compact order row for order history lists (no items / address loaded)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long id;
+    private LocalDateTime createdAt;
+    private EOrderStatus orderStatus;
+    private EPaymentMethod paymentMethod;
+    private BigDecimal totalAmount;
+    private Long itemCount;
+    private boolean archived;
+}
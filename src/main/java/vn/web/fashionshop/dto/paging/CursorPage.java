@@ -0,0 +1,45 @@
+package vn.web.fashionshop.dto.paging;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Trang kết quả theo keyset (cursor = id của dòng cuối trang trước, sắp xếp id giảm dần).
+ * Không chạy COUNT(*); approximateTotal chỉ có khi client yêu cầu và lấy từ thống kê đã cache.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        Long nextCursor,
+        boolean hasNext,
+        Long approximateTotal) {
+
+    public static final int DEFAULT_SIZE = 6;
+    public static final int MAX_SIZE = 100;
+
+    // Lấy dư 1 dòng để biết còn trang sau hay không mà không cần COUNT
+    public static Pageable fetchLimit(int size) {
+        return PageRequest.of(0, normalizeSize(size) + 1);
+    }
+
+    public static int normalizeSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Long> idOf, Long approximateTotal) {
+        int pageSize = normalizeSize(size);
+        boolean hasNext = fetched.size() > pageSize;
+        List<T> content = hasNext ? fetched.subList(0, pageSize) : fetched;
+        Long nextCursor = hasNext ? idOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, nextCursor, hasNext, approximateTotal);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), nextCursor, hasNext, approximateTotal);
+    }
+}
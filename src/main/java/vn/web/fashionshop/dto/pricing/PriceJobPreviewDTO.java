@@ -0,0 +1,35 @@
+package vn.web.fashionshop.dto.pricing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceJobPreviewDTO {
+
+    // Số product khớp bộ lọc, và số product thực sự đổi giá trị
+    private long matched;
+    private long changed;
+
+    // Một phần danh sách (theo id), để kiểm tra trước khi chạy
+    private List<Item> sample = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private Long productId;
+        private String sku;
+        private String productName;
+        private BigDecimal oldPrice;
+        private BigDecimal newPrice;
+        private BigDecimal oldDiscount;
+        private BigDecimal newDiscount;
+    }
+}
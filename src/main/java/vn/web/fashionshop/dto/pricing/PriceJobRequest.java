@@ -0,0 +1,45 @@
+package vn.web.fashionshop.dto.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.web.fashionshop.enums.EPriceAdjustment;
+import vn.web.fashionshop.enums.EPriceJobField;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceJobRequest {
+
+    @NotBlank(message = "Tên job không được để trống")
+    @Size(max = 255, message = "Tên job tối đa 255 ký tự")
+    private String name;
+
+    // Bộ lọc; bỏ trống = không lọc theo tiêu chí đó
+    private Long categoryId;
+
+    @Size(max = 100, message = "Mẫu SKU tối đa 100 ký tự")
+    private String skuPattern;
+
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean activeOnly = true;
+
+    @NotNull(message = "Chọn trường cần đổi (PRICE / DISCOUNT)")
+    private EPriceJobField field;
+
+    @NotNull(message = "Chọn kiểu thay đổi (PERCENT / AMOUNT / SET)")
+    private EPriceAdjustment adjustment;
+
+    @NotNull(message = "Giá trị thay đổi không được để trống")
+    private BigDecimal value;
+
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+}
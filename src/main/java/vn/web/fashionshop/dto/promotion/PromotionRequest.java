@@ -0,0 +1,38 @@
+package vn.web.fashionshop.dto.promotion;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PromotionRequest {
+
+    @NotBlank(message = "Tên khuyến mãi không được để trống")
+    @Size(max = 255, message = "Tên khuyến mãi tối đa 255 ký tự")
+    private String name;
+
+    @NotNull(message = "Phần trăm giảm không được để trống")
+    @DecimalMin(value = "0.01", message = "Phần trăm giảm phải lớn hơn 0")
+    @DecimalMax(value = "100", message = "Phần trăm giảm tối đa 100")
+    private BigDecimal discountPercent;
+
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private Boolean isActive = true;
+
+    // Ít nhất một danh mục hoặc một product
+    private Set<Long> categoryIds = new HashSet<>();
+    private Set<Long> productIds = new HashSet<>();
+}
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,8 +21,10 @@ import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vn.web.fashionshop.cache.CatalogChangeListener;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "categories", indexes = {
         @Index(name = "idx_category_name", columnList = "category_name", unique = true),
         @Index(name = "idx_category_slug", columnList = "slug", unique = true)
@@ -0,0 +1,81 @@
+package vn.web.fashionshop.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.web.fashionshop.enums.EEmailStatus;
+
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_dedupe", columnList = "dedupe_key"),
+        @Index(name = "idx_email_outbox_campaign", columnList = "campaign_id, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    // Thư giao dịch (OTP, reset mật khẩu) luôn được nhận trước thư newsletter
+    public static final int PRIORITY_TRANSACTIONAL = 0;
+    public static final int PRIORITY_BULK = 10;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false, length = 255)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false, length = 255)
+    private String subject;
+
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    // Thư cùng dedupe key chưa gửi sẽ được thay nội dung thay vì xếp thêm (VD: gửi lại OTP)
+    @Column(name = "dedupe_key", length = 191)
+    private String dedupeKey;
+
+    @Column(name = "priority", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer priority = PRIORITY_TRANSACTIONAL;
+
+    // Chiến dịch newsletter sinh ra thư này (null với thư giao dịch)
+    @Column(name = "campaign_id")
+    private Long campaignId;
+
+    // Link huỷ đăng ký một chạm (header List-Unsubscribe, RFC 8058) của thư newsletter
+    @Column(name = "list_unsubscribe_url", length = 500)
+    private String listUnsubscribeUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private EEmailStatus status = EEmailStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    // PENDING: thời điểm được gửi (retry backoff); SENDING: hết lease của worker
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
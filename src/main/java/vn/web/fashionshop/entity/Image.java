@@ -4,11 +4,18 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import vn.web.fashionshop.cache.CatalogChangeListener;
+import vn.web.fashionshop.util.ImageDerivatives;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "images")
+@EntityListeners(CatalogChangeListener.class)
+@Table(name = "images", indexes = {
+        // Đếm tham chiếu file ảnh dùng chung (ImageReferenceService)
+        @Index(name = "idx_images_url", columnList = "url_image")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,4 +44,46 @@ public class Image {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Kích thước ảnh gốc, ghi bởi ImageDerivativeService
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    // Các bản resize đã tạo, VD "160,480,1080"; null = chưa xử lý
+    @Column(name = "derivative_widths", length = 64)
+    private String derivativeWidths;
+
+    // Định dạng của bản resize: jpg hoặc png (ảnh có alpha)
+    @Column(name = "derivative_format", length = 8)
+    private String derivativeFormat;
+
+    // srcset cho thẻ img; null khi chưa có bản resize
+    public String getSrcset() {
+        List<Integer> widths = ImageDerivatives.parseWidths(derivativeWidths);
+        if (widths.isEmpty() || urlImage == null || derivativeFormat == null) {
+            return null;
+        }
+        StringBuilder srcset = new StringBuilder();
+        for (Integer w : widths) {
+            srcset.append(ImageDerivatives.derivativeUrl(urlImage, w, derivativeFormat)).append(' ').append(w)
+                    .append("w, ");
+        }
+        if (width != null) {
+            srcset.append(urlImage).append(' ').append(width).append('w');
+        } else {
+            srcset.setLength(srcset.length() - 2);
+        }
+        return srcset.toString();
+    }
+
+    // Bản resize nhỏ nhất (thumbnail); chưa có thì dùng ảnh gốc
+    public String getThumbnailUrl() {
+        List<Integer> widths = ImageDerivatives.parseWidths(derivativeWidths);
+        if (widths.isEmpty() || urlImage == null || derivativeFormat == null) {
+            return urlImage;
+        }
+        return ImageDerivatives.derivativeUrl(urlImage, widths.get(0), derivativeFormat);
+    }
 }
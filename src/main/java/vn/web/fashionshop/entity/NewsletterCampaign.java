@@ -0,0 +1,63 @@
+package vn.web.fashionshop.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.web.fashionshop.enums.ECampaignStatus;
+
+@Entity
+@Table(name = "newsletter_campaigns")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewsletterCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "subject", nullable = false, length = 255)
+    private String subject;
+
+    // Nội dung thư, hỗ trợ {{email}} và {{unsubscribe_url}}
+    @Column(name = "body_template", nullable = false, columnDefinition = "TEXT")
+    private String bodyTemplate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ECampaignStatus status = ECampaignStatus.DRAFT;
+
+    // Cursor: id subscriber cuối cùng đã được xếp thư (tiếp tục từ đây sau khi restart)
+    @Column(name = "last_subscriber_id", nullable = false)
+    private Long lastSubscriberId = 0L;
+
+    @Column(name = "queued_count", nullable = false)
+    private Long queuedCount = 0L;
+
+    // Tốc độ gửi tối đa của chiến dịch; outbox áp dụng khi nhận thư đi gửi
+    @Column(name = "send_rate_per_second", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 20")
+    private Integer sendRatePerSecond = 20;
+
+    // Thời điểm sớm nhất cho thư tiếp theo của chiến dịch (outbox cập nhật khi nhận thư)
+    @Column(name = "next_send_at")
+    private LocalDateTime nextSendAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
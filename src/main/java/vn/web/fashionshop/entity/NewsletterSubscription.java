@@ -16,9 +16,12 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "newsletter_subscriptions", uniqueConstraints = {
-        @UniqueConstraint(name = "uk_newsletter_email", columnNames = { "email" })
+        @UniqueConstraint(name = "uk_newsletter_email", columnNames = { "email" }),
+        @UniqueConstraint(name = "uk_newsletter_unsubscribe_token", columnNames = { "unsubscribe_token" })
 }, indexes = {
-        @Index(name = "idx_newsletter_email", columnList = "email")
+        @Index(name = "idx_newsletter_email", columnList = "email"),
+        // Quét người nhận của chiến dịch theo keyset (is_active, id)
+        @Index(name = "idx_newsletter_active_id", columnList = "is_active, id")
 })
 @Data
 @NoArgsConstructor
@@ -37,4 +40,8 @@ public class NewsletterSubscription {
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+
+    // Token ngẫu nhiên trong link huỷ đăng ký; dòng cũ chưa có token được cấp khi gửi chiến dịch
+    @Column(name = "unsubscribe_token", length = 64)
+    private String unsubscribeToken;
 }
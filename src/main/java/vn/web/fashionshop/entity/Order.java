@@ -34,7 +34,8 @@ import vn.web.fashionshop.enums.EPaymentMethod;
         @Index(name = "idx_order_voucher", columnList = "voucher_id"),
         @Index(name = "idx_order_status", columnList = "order_status"),
     @Index(name = "idx_order_cancel_reason", columnList = "cancel_reason"),
-        @Index(name = "idx_order_created", columnList = "created_at")
+        @Index(name = "idx_order_created", columnList = "created_at"),
+        @Index(name = "idx_order_status_created", columnList = "order_status, created_at")
 })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,104 @@
+package vn.web.fashionshop.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.web.fashionshop.enums.EPriceAdjustment;
+import vn.web.fashionshop.enums.EPriceJobField;
+import vn.web.fashionshop.enums.EPriceJobStatus;
+
+/**
+ * Job đổi giá / giảm giá hàng loạt. Giá cũ của từng product được lưu ở price_job_items khi áp dụng,
+ * để hoàn lại lúc end_at (hoặc khi admin hoàn giá).
+ */
+@Entity
+@Table(name = "price_jobs", indexes = {
+        @Index(name = "idx_price_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false, length = 255)
+    private String name;
+
+    // ===== Bộ lọc product (null = không lọc) =====
+
+    // Danh mục và các danh mục con trực tiếp
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    // Mẫu SKU, '*' khớp chuỗi bất kỳ (VD: TS-*)
+    @Column(name = "sku_pattern", length = 100)
+    private String skuPattern;
+
+    @Column(name = "min_price", precision = 15, scale = 2)
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price", precision = 15, scale = 2)
+    private BigDecimal maxPrice;
+
+    @Column(name = "active_only", nullable = false)
+    private Boolean activeOnly = true;
+
+    // ===== Thay đổi =====
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_field", nullable = false, length = 20)
+    private EPriceJobField field;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "adjustment", nullable = false, length = 20)
+    private EPriceAdjustment adjustment;
+
+    @Column(name = "adjustment_value", nullable = false, precision = 15, scale = 2)
+    private BigDecimal value;
+
+    // null = bắt đầu ngay
+    @Column(name = "start_at")
+    private LocalDateTime startAt;
+
+    // null = giữ giá mới
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private EPriceJobStatus status = EPriceJobStatus.SCHEDULED;
+
+    // Cursor của lượt áp dụng / hoàn giá đang chạy
+    @Column(name = "last_product_id", nullable = false)
+    private Long lastProductId = 0L;
+
+    @Column(name = "affected_count", nullable = false)
+    private Long affectedCount = 0L;
+
+    @Column(name = "reverted_count", nullable = false)
+    private Long revertedCount = 0L;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "applied_at")
+    private LocalDateTime appliedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
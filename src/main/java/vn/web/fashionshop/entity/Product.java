@@ -7,6 +7,7 @@ import java.util.List;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -19,8 +20,11 @@ import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vn.web.fashionshop.cache.CatalogChangeListener;
+import vn.web.fashionshop.cache.PromotionTimeline;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "products", indexes = {
         @Index(name = "idx_product_sku", columnList = "sku", unique = true)
 })
@@ -73,15 +77,36 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Mức giảm đang áp dụng: discount cố định hoặc khuyến mãi đang chạy, tra trong timeline tính sẵn
+    public BigDecimal getEffectiveDiscount() {
+        return PromotionTimeline.current().discountFor(id, discount, System.currentTimeMillis());
+    }
+
     // Helper method to get main image
     public String getMainImageUrl() {
-        if (images != null && !images.isEmpty()) {
-            return images.stream()
-                    .filter(img -> img.getIsMain() != null && img.getIsMain())
-                    .map(Image::getUrlImage)
-                    .findFirst()
-                    .orElse(images.get(0).getUrlImage()); // Return first image if no main image found
+        Image main = mainImage();
+        return main != null ? main.getUrlImage() : "/images/no-image.png"; // Default placeholder
+    }
+
+    // srcset của ảnh chính (thumb / card / detail); null nếu chưa resize
+    public String getMainImageSrcset() {
+        Image main = mainImage();
+        return main != null ? main.getSrcset() : null;
+    }
+
+    public String getMainImageThumbnailUrl() {
+        Image main = mainImage();
+        return main != null ? main.getThumbnailUrl() : "/images/no-image.png";
+    }
+
+    // Return first image if no main image found
+    private Image mainImage() {
+        if (images == null || images.isEmpty()) {
+            return null;
         }
-        return "/images/no-image.png"; // Default placeholder
+        return images.stream()
+                .filter(img -> img.getIsMain() != null && img.getIsMain())
+                .findFirst()
+                .orElse(images.get(0));
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import java.util.List;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -19,9 +20,12 @@ import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vn.web.fashionshop.cache.CatalogChangeListener;
 import vn.web.fashionshop.enums.ESize;
+import vn.web.fashionshop.service.LowStockMonitor;
 
 @Entity
+@EntityListeners({ CatalogChangeListener.class, LowStockMonitor.class })
 @Table(name = "product_variants", indexes = {
         @Index(name = "idx_variant_sku", columnList = "sku_variant", unique = true)
 })
@@ -52,6 +56,10 @@ public class ProductVariant {
     @Column(name = "sku_variant", nullable = false, unique = true)
     private String skuVariant;
 
+    // Cảnh báo khi stock <= ngưỡng; null = ngưỡng mặc định (app.inventory.low-stock.default-threshold)
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
     @OneToMany(mappedBy = "variant", fetch = FetchType.LAZY)
     private List<OrderItem> orderItems;
 
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,8 +21,10 @@ import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vn.web.fashionshop.cache.CatalogChangeListener;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "reviews", uniqueConstraints = {
                 @UniqueConstraint(name = "uk_review_order_item", columnNames = { "order_item_id" })
 }, indexes = {
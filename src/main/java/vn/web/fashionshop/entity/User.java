@@ -28,7 +28,9 @@ import vn.web.fashionshop.enums.EGender;
 @AllArgsConstructor
 @Table(name = "users", indexes = {
         @Index(name = "idx_user_email", columnList = "email", unique = true),
-        @Index(name = "idx_user_phone", columnList = "phone", unique = true)
+        @Index(name = "idx_user_phone", columnList = "phone", unique = true),
+        @Index(name = "idx_user_created", columnList = "created_at"),
+        @Index(name = "idx_user_role_created", columnList = "role_id, created_at")
 })
 public class User {
 
@@ -62,6 +64,10 @@ public class User {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // Tăng khi đổi mật khẩu / email / role hoặc khoá tài khoản: JWT mang version cũ sẽ bị từ chối
+    @Column(name = "token_version", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer tokenVersion = 0;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,8 @@
+package vn.web.fashionshop.enums;
+
+public enum ECampaignStatus {
+    DRAFT,
+    SENDING, // Đang xếp thư vào outbox; khởi động lại thì tiếp tục từ last_subscriber_id
+    COMPLETED, // Đã xếp thư cho mọi người nhận
+    CANCELLED
+}
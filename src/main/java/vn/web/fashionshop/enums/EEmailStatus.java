@@ -0,0 +1,9 @@
+package vn.web.fashionshop.enums;
+
+public enum EEmailStatus {
+    PENDING, // Chờ gửi (hoặc chờ retry)
+    SENDING, // Worker đang giữ; hết lease thì được nhận lại
+    SENT,
+    FAILED, // Hết số lần retry
+    CANCELLED // Chiến dịch newsletter bị huỷ trước khi thư được gửi
+}
@@ -0,0 +1,7 @@
+package vn.web.fashionshop.enums;
+
+public enum EPriceAdjustment {
+    PERCENT, // Tăng / giảm theo phần trăm giá trị hiện tại (VD: -20)
+    AMOUNT, // Cộng / trừ một lượng cố định
+    SET // Đặt bằng giá trị
+}
@@ -0,0 +1,6 @@
+package vn.web.fashionshop.enums;
+
+public enum EPriceJobField {
+    PRICE,
+    DISCOUNT // Phần trăm giảm giá, luôn trong khoảng 0..100
+}
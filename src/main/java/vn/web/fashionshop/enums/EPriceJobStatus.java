@@ -0,0 +1,10 @@
+package vn.web.fashionshop.enums;
+
+public enum EPriceJobStatus {
+    SCHEDULED, // Chờ start_at
+    APPLYING, // Đang cập nhật theo chunk; khởi động lại thì tiếp tục từ last_product_id
+    APPLIED, // Đã áp dụng; nếu có end_at thì chờ để hoàn giá
+    REVERTING, // Đang trả lại giá cũ theo chunk
+    REVERTED,
+    CANCELLED
+}
@@ -3,7 +3,6 @@ package vn.web.fashionshop.repository;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -48,7 +47,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
                         "ORDER BY c.categoryName ASC")
         List<Category> findActiveBySlugPrefixOrderByCategoryNameAsc(@Param("slugPrefix") String slugPrefix);
 
-        // Tìm kiếm với filter trạng thái, parent category và phân trang
+        // Tìm kiếm với filter trạng thái, parent category; keyset theo id giảm dần, không COUNT
         @Query("SELECT c FROM Category c LEFT JOIN c.parentCategory p WHERE " +
                         "(:keyword IS NULL OR :keyword = '' OR " +
                         "LOWER(c.categoryName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -56,12 +55,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
                         "AND (:status IS NULL OR :status = '' OR " +
                         "(:status = 'active' AND c.isActive = true) OR " +
                         "(:status = 'inactive' AND c.isActive = false)) " +
-                        "AND (:parentSlug IS NULL OR :parentSlug = '' OR p.slug = :parentSlug)")
-        Page<Category> searchCategoryAdvanced(
+                        "AND (:parentSlug IS NULL OR :parentSlug = '' OR p.slug = :parentSlug) " +
+                        "AND (:afterId IS NULL OR c.id < :afterId) " +
+                        "ORDER BY c.id DESC")
+        List<Category> searchCategoryKeyset(
                         @Param("keyword") String keyword,
                         @Param("status") String status,
                         @Param("parentSlug") String parentSlug,
-                        Pageable pageable);
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
 
         // Get category performance (product count per category)
         @Query("SELECT c.categoryName, COUNT(p.id) as productCount " +
@@ -0,0 +1,47 @@
+package vn.web.fashionshop.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import vn.web.fashionshop.entity.EmailOutbox;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+        // Thư đang chờ có cùng dedupe key (để thay nội dung khi gửi lại)
+        @Query("SELECT e FROM EmailOutbox e WHERE e.dedupeKey = :dedupeKey " +
+                        "AND e.status = vn.web.fashionshop.enums.EEmailStatus.PENDING")
+        Optional<EmailOutbox> findPendingByDedupeKey(@Param("dedupeKey") String dedupeKey);
+
+        // Nhận một lô thư đến hạn; SKIP LOCKED để nhiều instance / worker không nhận trùng
+        @Query(value = "SELECT id FROM email_outbox " +
+                        "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                        "ORDER BY priority, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+        List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+        // Chiến dịch của các thư đã khoá: [id, campaignId], campaignId null với thư giao dịch
+        @Query("SELECT e.id, e.campaignId FROM EmailOutbox e WHERE e.id IN :ids ORDER BY e.id")
+        List<Object[]> findCampaignIds(@Param("ids") List<Long> ids);
+
+        // Trạng thái gửi của một chiến dịch: [status, count]
+        @Query("SELECT e.status, COUNT(e) FROM EmailOutbox e WHERE e.campaignId = :campaignId GROUP BY e.status")
+        List<Object[]> countByStatusForCampaign(@Param("campaignId") Long campaignId);
+
+        // Thư đã nhận nhưng hết lease mà chưa ghi kết quả (worker chết / lỗi bất ngờ)
+        @Query("SELECT e FROM EmailOutbox e WHERE e.id IN :ids " +
+                        "AND e.status = vn.web.fashionshop.enums.EEmailStatus.SENDING")
+        List<EmailOutbox> findExpiredLeases(@Param("ids") List<Long> ids);
+
+        // Lần gửi được tính ngay khi nhận, nên lease hết hạn cũng tiêu một lần thử
+        @Modifying
+        @Query("UPDATE EmailOutbox e SET e.status = vn.web.fashionshop.enums.EEmailStatus.SENDING, " +
+                        "e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+        int markSending(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -1,8 +1,12 @@
 package vn.web.fashionshop.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.web.fashionshop.entity.Image;
@@ -13,4 +17,16 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
     List<Image> findByProductId(Long productId);
 
     void deleteByProductIdAndId(Long productId, Long imageId);
+
+    boolean existsByIdAndProductId(Long id, Long productId);
+
+    @Query("SELECT i.urlImage FROM Image i WHERE i.product.id = :productId")
+    List<String> findUrlsByProductId(@Param("productId") Long productId);
+
+    // Một câu UPDATE: ảnh được chọn thành ảnh chính, các ảnh khác của product bỏ cờ
+    @Modifying
+    @Query(value = "UPDATE images SET is_main = (id = :imageId), updated_at = :now WHERE product_id = :productId",
+            nativeQuery = true)
+    int flipMainImage(@Param("productId") Long productId, @Param("imageId") Long imageId,
+            @Param("now") LocalDateTime now);
 }
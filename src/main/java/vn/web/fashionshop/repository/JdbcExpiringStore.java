@@ -0,0 +1,160 @@
+package vn.web.fashionshop.repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import vn.web.fashionshop.util.ExpiringStore;
+
+/**
+ * {@link ExpiringStore} lưu trong bảng expiring_store_entries để nhiều instance sau load balancer
+ * dùng chung OTP mà không cần sticky session. Giá trị được serialize JSON. Bảng được tạo bởi schema.sql.
+ *
+ * Giới hạn kích thước / theo owner được kiểm tra bằng COUNT trước khi ghi nên chỉ gần đúng khi nhiều
+ * instance ghi cùng lúc; entry hết hạn bị bỏ qua khi đọc và được xoá định kỳ theo index expires_at.
+ */
+public class JdbcExpiringStore<V> implements ExpiringStore<V>, DisposableBean {
+
+    private static final int PURGE_BATCH = 1000;
+
+    private final String store;
+    private final Class<V> type;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final int maxEntriesPerOwner;
+    private final ScheduledExecutorService purger;
+
+    public JdbcExpiringStore(String store, Class<V> type, NamedParameterJdbcTemplate jdbc, ObjectMapper objectMapper,
+            int maxEntries, int maxEntriesPerOwner) {
+        this.store = store;
+        this.type = type;
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.maxEntriesPerOwner = maxEntriesPerOwner;
+
+        this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, store + "-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public boolean put(String key, V value, Duration ttl, String owner) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("store", store)
+                .addValue("key", key)
+                .addValue("owner", owner)
+                .addValue("now", now);
+
+        // Ghi đè key đã có không làm tăng kích thước kho
+        List<String> existingOwner = jdbc.queryForList(
+                "SELECT owner FROM expiring_store_entries " +
+                        "WHERE store = :store AND entry_key = :key AND expires_at > :now",
+                params, String.class);
+        boolean exists = !existingOwner.isEmpty();
+
+        if (!exists) {
+            Integer size = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM expiring_store_entries WHERE store = :store AND expires_at > :now",
+                    params, Integer.class);
+            if (size != null && size >= maxEntries) {
+                return false;
+            }
+        }
+        boolean sameOwner = exists && owner != null && owner.equals(existingOwner.get(0));
+        if (owner != null && !sameOwner) {
+            Integer owned = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM expiring_store_entries " +
+                            "WHERE store = :store AND owner = :owner AND expires_at > :now",
+                    params, Integer.class);
+            if (owned != null && owned >= maxEntriesPerOwner) {
+                return false;
+            }
+        }
+
+        params.addValue("payload", serialize(value))
+                .addValue("expiresAt", new Timestamp(now.getTime() + ttl.toMillis()));
+        jdbc.update("INSERT INTO expiring_store_entries (store, entry_key, owner, payload, expires_at) " +
+                "VALUES (:store, :key, :owner, :payload, :expiresAt) " +
+                "ON DUPLICATE KEY UPDATE owner = VALUES(owner), payload = VALUES(payload), " +
+                "expires_at = VALUES(expires_at)",
+                params);
+        return true;
+    }
+
+    @Override
+    public Optional<V> get(String key) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("store", store)
+                .addValue("key", key)
+                .addValue("now", new Timestamp(System.currentTimeMillis()));
+        List<String> payloads = jdbc.queryForList(
+                "SELECT payload FROM expiring_store_entries " +
+                        "WHERE store = :store AND entry_key = :key AND expires_at > :now",
+                params, String.class);
+        return payloads.isEmpty() ? Optional.empty() : Optional.of(deserialize(payloads.get(0)));
+    }
+
+    @Override
+    public void remove(String key) {
+        jdbc.update("DELETE FROM expiring_store_entries WHERE store = :store AND entry_key = :key",
+                new MapSqlParameterSource().addValue("store", store).addValue("key", key));
+    }
+
+    private void purgeExpired() {
+        try {
+            deleteExpiredBatches();
+        } catch (RuntimeException e) {
+            // Không để lỗi DB tạm thời huỷ lịch purge; lần sau chạy lại
+        }
+    }
+
+    private void deleteExpiredBatches() {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("store", store)
+                .addValue("now", new Timestamp(System.currentTimeMillis()))
+                .addValue("limit", PURGE_BATCH);
+        int deleted;
+        do {
+            deleted = jdbc.update("DELETE FROM expiring_store_entries " +
+                    "WHERE store = :store AND expires_at <= :now LIMIT :limit", params);
+        } while (deleted == PURGE_BATCH);
+    }
+
+    private String serialize(V value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + type.getSimpleName(), e);
+        }
+    }
+
+    private V deserialize(String payload) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize " + type.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        purger.shutdownNow();
+    }
+}
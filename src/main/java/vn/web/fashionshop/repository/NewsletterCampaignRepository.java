@@ -0,0 +1,15 @@
+package vn.web.fashionshop.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import vn.web.fashionshop.entity.NewsletterCampaign;
+import vn.web.fashionshop.enums.ECampaignStatus;
+
+@Repository
+public interface NewsletterCampaignRepository extends JpaRepository<NewsletterCampaign, Long> {
+
+    List<NewsletterCampaign> findByStatus(ECampaignStatus status);
+}
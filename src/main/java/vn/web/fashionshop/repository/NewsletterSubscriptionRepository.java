@@ -3,6 +3,9 @@ package vn.web.fashionshop.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.web.fashionshop.entity.NewsletterSubscription;
@@ -11,4 +14,9 @@ import vn.web.fashionshop.entity.NewsletterSubscription;
 public interface NewsletterSubscriptionRepository extends JpaRepository<NewsletterSubscription, Long> {
 
     Optional<NewsletterSubscription> findByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE NewsletterSubscription s SET s.isActive = false " +
+            "WHERE s.unsubscribeToken = :token AND s.isActive = true")
+    int deactivateByUnsubscribeToken(@Param("token") String token);
 }
@@ -1,10 +1,23 @@
 package vn.web.fashionshop.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import vn.web.fashionshop.dto.order.OrderItemLineDTO;
 import vn.web.fashionshop.entity.OrderItem;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // Chi tiết một đơn trong lịch sử mua hàng: chỉ lấy cột cần hiển thị, kiểm tra chủ đơn trong cùng query
+    @Query("SELECT new vn.web.fashionshop.dto.order.OrderItemLineDTO(" +
+            "p.id, p.productName, v.size, v.color, oi.quantity, oi.unitPrice, oi.totalPrice) " +
+            "FROM OrderItem oi JOIN oi.order o JOIN o.user u JOIN oi.variant v JOIN v.product p " +
+            "WHERE o.id = :orderId AND u.email = :email " +
+            "ORDER BY oi.id")
+    java.util.List<OrderItemLineDTO> findLinesByOrderIdAndUserEmail(
+            @Param("orderId") Long orderId,
+            @Param("email") String email);
 }
@@ -1,7 +1,6 @@
 package vn.web.fashionshop.repository;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.springframework.data.domain.Page;
@@ -11,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import vn.web.fashionshop.dto.order.OrderSummaryDTO;
 import vn.web.fashionshop.entity.Order;
 import vn.web.fashionshop.enums.EOrderStatus;
 import vn.web.fashionshop.enums.EPaymentMethod;
@@ -34,18 +34,31 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
                         @Param("id") Long id,
                         @Param("email") String email);
 
-        @Query("SELECT o FROM Order o " +
-                        "JOIN o.user u " +
-                        "LEFT JOIN FETCH o.orderAddress oa " +
+        // Lịch sử đơn của khách: projection gọn + keyset theo id giảm dần (dùng idx_order_user, id nằm sẵn trong index)
+        @Query("SELECT new vn.web.fashionshop.dto.order.OrderSummaryDTO(" +
+                        "o.id, o.createdAt, o.orderStatus, o.paymentMethod, o.totalAmount, " +
+                        "(SELECT COALESCE(SUM(oi.quantity), 0L) FROM OrderItem oi WHERE oi.order = o), false) " +
+                        "FROM Order o JOIN o.user u " +
                         "WHERE u.email = :email " +
-                        "ORDER BY o.createdAt DESC")
-        java.util.List<Order> findMyOrdersWithAddress(@Param("email") String email);
-
-        @Query("SELECT o.cancelReason, COUNT(o) FROM Order o WHERE o.orderStatus = 'CANCELLED' GROUP BY o.cancelReason")
+                        "AND (:afterId IS NULL OR o.id < :afterId) " +
+                        "ORDER BY o.id DESC")
+        java.util.List<OrderSummaryDTO> findMyOrderSummaries(
+                        @Param("email") String email,
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
+
+        // Các thống kê toàn lịch sử cộng cả orders_archive (UNION ALL từng nhánh, mỗi nhánh dùng index riêng)
+        @Query(value = "SELECT cancel_reason, SUM(c) FROM (" +
+                        "SELECT cancel_reason, COUNT(*) AS c FROM orders WHERE order_status = 'CANCELLED' GROUP BY cancel_reason " +
+                        "UNION ALL " +
+                        "SELECT cancel_reason, COUNT(*) FROM orders_archive WHERE order_status = 'CANCELLED' GROUP BY cancel_reason" +
+                        ") t GROUP BY cancel_reason", nativeQuery = true)
         java.util.List<Object[]> countCancelledByReason();
 
         // Tổng đơn hàng
-        @Query("SELECT COUNT(o) FROM Order o")
+        @Query(value = "SELECT SUM(c) FROM (" +
+                        "SELECT COUNT(*) AS c FROM orders UNION ALL SELECT COUNT(*) FROM orders_archive) t",
+                        nativeQuery = true)
         Long countAll();
 
         // Tổng đơn chờ Pending
@@ -57,39 +70,67 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         Long countProcessing();
 
         // Tổng doanh thu - Revenue
-        @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.orderStatus = 'COMPLETED'")
+        @Query(value = "SELECT COALESCE(SUM(s), 0) FROM (" +
+                        "SELECT SUM(total_amount) AS s FROM orders WHERE order_status = 'COMPLETED' " +
+                        "UNION ALL " +
+                        "SELECT SUM(total_amount) FROM orders_archive WHERE order_status = 'COMPLETED') t",
+                        nativeQuery = true)
         BigDecimal countRevenue();
 
-        // Tổng các trạng thái xử lý đơn
-        @Query("SELECT COUNT(o) FROM Order o WHERE o.orderStatus = :status")
-        Long countByStatus(@Param("status") EOrderStatus status);
-
-        // Tính doanh thu theo ngày
-        @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.orderStatus = 'COMPLETED' AND DATE(o.createdAt) = :date")
-        BigDecimal getRevenueByDate(@Param("date") LocalDate date);
-
-        // Đếm số đơn hàng theo ngày (cho Order Trends chart)
-        @Query("SELECT COUNT(o) FROM Order o WHERE DATE(o.createdAt) = :date")
-        Long countByDate(@Param("date") LocalDate date);
+        // Tổng các trạng thái xử lý đơn (status = EOrderStatus.name())
+        @Query(value = "SELECT SUM(c) FROM (" +
+                        "SELECT COUNT(*) AS c FROM orders WHERE order_status = :status " +
+                        "UNION ALL " +
+                        "SELECT COUNT(*) FROM orders_archive WHERE order_status = :status) t",
+                        nativeQuery = true)
+        Long countByStatus(@Param("status") String status);
+
+        // Số đơn + doanh thu (COMPLETED) theo từng ngày trong khoảng [startDate, endDate)
+        // Lọc trực tiếp trên created_at để dùng được index, chỉ GROUP BY theo DATE()
+        @Query(value = "SELECT DATE(created_at) AS date, COUNT(*) AS orders, " +
+                        "COALESCE(SUM(CASE WHEN order_status = 'COMPLETED' THEN total_amount ELSE 0 END), 0) AS revenue " +
+                        "FROM orders " +
+                        "WHERE created_at >= :startDate AND created_at < :endDate " +
+                        "GROUP BY DATE(created_at) " +
+                        "ORDER BY date ASC", nativeQuery = true)
+        java.util.List<Object[]> getDailyOrderTrends(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
+        // Lọc theo status, payment method, khoảng thời gian [startDate, endDate); keyset theo id giảm dần, không COUNT
+        @Query("SELECT o FROM Order o WHERE " +
+                        "(:status IS NULL OR o.orderStatus = :status) " +
+                        "AND (:paymentMethod IS NULL OR o.paymentMethod = :paymentMethod) " +
+                        "AND (:startDate IS NULL OR o.createdAt >= :startDate) " +
+                        "AND (:endDate IS NULL OR o.createdAt < :endDate) " +
+                        "AND (:afterId IS NULL OR o.id < :afterId) " +
+                        "ORDER BY o.id DESC")
+        java.util.List<Order> filterOrdersKeyset(
+                        @Param("status") EOrderStatus status,
+                        @Param("paymentMethod") EPaymentMethod paymentMethod,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate,
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
 
-        // Tìm kiếm đơn hàng với filter: keyword, status, payment method, date range
-        @Query("SELECT o FROM Order o LEFT JOIN o.user u WHERE " +
-                        "(:keyword IS NULL OR :keyword = '' OR " +
-                        "CAST(o.id AS string) LIKE CONCAT('%', :keyword, '%') OR " +
-                        "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+        // Tìm theo mã đơn (khớp chính xác) hoặc danh sách user đã tra từ full-text index
+        // o.id dùng PRIMARY, o.user.id dùng idx_order_user -> không join/scan bảng users
+        @Query("SELECT o FROM Order o WHERE " +
+                        "(o.id = :orderId OR o.user.id IN :userIds) " +
                         "AND (:status IS NULL OR o.orderStatus = :status) " +
                         "AND (:paymentMethod IS NULL OR o.paymentMethod = :paymentMethod) " +
                         "AND (:startDate IS NULL OR o.createdAt >= :startDate) " +
-                        "AND (:endDate IS NULL OR o.createdAt <= :endDate) " +
-                        "ORDER BY o.createdAt DESC")
-        Page<Order> searchOrders(
-                        @Param("keyword") String keyword,
+                        "AND (:endDate IS NULL OR o.createdAt < :endDate) " +
+                        "AND (:afterId IS NULL OR o.id < :afterId) " +
+                        "ORDER BY o.id DESC")
+        java.util.List<Order> searchOrdersByIdOrUsersKeyset(
+                        @Param("orderId") Long orderId,
+                        @Param("userIds") java.util.Collection<Long> userIds,
                         @Param("status") EOrderStatus status,
                         @Param("paymentMethod") EPaymentMethod paymentMethod,
                         @Param("startDate") LocalDateTime startDate,
                         @Param("endDate") LocalDateTime endDate,
-                        Pageable pageable);
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
 
         // Lấy tất cả đơn hàng với phân trang
         Page<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
@@ -98,15 +139,27 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
         java.util.List<Order> findByUserId(@Param("userId") Long userId);
 
-        // Đếm số đơn hàng theo userId
-        @Query("SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+        // Đếm số đơn hàng theo userId (gồm đơn đã archive)
+        @Query(value = "SELECT SUM(c) FROM (" +
+                        "SELECT COUNT(*) AS c FROM orders WHERE user_id = :userId " +
+                        "UNION ALL " +
+                        "SELECT COUNT(*) FROM orders_archive WHERE user_id = :userId) t",
+                        nativeQuery = true)
         Long countByUserId(@Param("userId") Long userId);
 
-        // Tổng chi tiêu (completed orders) theo userId
-        @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.user.id = :userId AND o.orderStatus = 'COMPLETED'")
+        // Tổng chi tiêu (completed orders) theo userId, gồm đơn đã archive
+        @Query(value = "SELECT COALESCE(SUM(s), 0) FROM (" +
+                        "SELECT SUM(total_amount) AS s FROM orders WHERE user_id = :userId AND order_status = 'COMPLETED' " +
+                        "UNION ALL " +
+                        "SELECT SUM(total_amount) FROM orders_archive WHERE user_id = :userId AND order_status = 'COMPLETED'" +
+                        ") t", nativeQuery = true)
         BigDecimal getTotalSpendingByUserId(@Param("userId") Long userId);
 
-        // Đếm đơn completed theo userId
-        @Query("SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId AND o.orderStatus = 'COMPLETED'")
+        // Đếm đơn completed theo userId, gồm đơn đã archive
+        @Query(value = "SELECT SUM(c) FROM (" +
+                        "SELECT COUNT(*) AS c FROM orders WHERE user_id = :userId AND order_status = 'COMPLETED' " +
+                        "UNION ALL " +
+                        "SELECT COUNT(*) FROM orders_archive WHERE user_id = :userId AND order_status = 'COMPLETED') t",
+                        nativeQuery = true)
         Long countCompletedByUserId(@Param("userId") Long userId);
 }
@@ -23,29 +23,21 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
         @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status")
         BigDecimal calculateTotalRevenue(@Param("status") EPaymentStatus status);
 
-        // Doanh thu hôm nay
-        @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status AND p.createdAt >= :startOfDay")
-        BigDecimal calculateTodayRevenue(@Param("status") EPaymentStatus status,
-                        @Param("startOfDay") LocalDateTime startOfDay);
-
-        // Doanh thu theo khoảng thời gian
-        @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status AND p.createdAt >= :startDate AND p.createdAt <= :endDate")
+        // Doanh thu theo khoảng thời gian [startDate, endDate)
+        @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status AND p.createdAt >= :startDate AND p.createdAt < :endDate")
         BigDecimal calculateRevenueByDateRange(
                         @Param("status") EPaymentStatus status,
                         @Param("startDate") LocalDateTime startDate,
                         @Param("endDate") LocalDateTime endDate);
 
-        // Đếm số đơn thanh toán thành công hôm nay
-        @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status AND p.createdAt >= :startOfDay")
-        Long countTodayPayments(@Param("status") EPaymentStatus status, @Param("startOfDay") LocalDateTime startOfDay);
-
-        // Doanh thu theo ngày (cho biểu đồ) - Native SQL
+        // Doanh thu theo ngày trong khoảng [startDate, endDate) (cho biểu đồ) - Native SQL
         @Query(value = "SELECT DATE(created_at) as date, COALESCE(SUM(amount), 0) as revenue " +
                         "FROM payments " +
-                        "WHERE status = 'SUCCESS' AND created_at >= :startDate " +
+                        "WHERE status = 'SUCCESS' AND created_at >= :startDate AND created_at < :endDate " +
                         "GROUP BY DATE(created_at) " +
                         "ORDER BY date ASC", nativeQuery = true)
-        List<Object[]> getDailyRevenue(@Param("startDate") LocalDateTime startDate);
+        List<Object[]> getDailyRevenue(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
 
         // Doanh thu tháng (theo khoảng thời gian)
         @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status AND p.createdAt >= :startDate AND p.createdAt < :endDate")
@@ -0,0 +1,22 @@
+package vn.web.fashionshop.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import vn.web.fashionshop.entity.PriceJob;
+import vn.web.fashionshop.enums.EPriceJobStatus;
+
+@Repository
+public interface PriceJobRepository extends JpaRepository<PriceJob, Long> {
+
+    List<PriceJob> findByStatus(EPriceJobStatus status);
+
+    List<PriceJob> findByStatusAndStartAtLessThanEqual(EPriceJobStatus status, LocalDateTime now);
+
+    List<PriceJob> findByStatusAndEndAtLessThanEqual(EPriceJobStatus status, LocalDateTime now);
+
+    List<PriceJob> findTop50ByOrderByIdDesc();
+}
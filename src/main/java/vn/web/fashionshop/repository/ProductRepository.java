@@ -3,7 +3,6 @@ package vn.web.fashionshop.repository;
 import java.math.BigDecimal;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -39,7 +38,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId OR p.category.parentCategory.id = :categoryId")
         Long countByCategoryId(@Param("categoryId") Long categoryId);
 
-        // Tìm kiếm product với filter keyword, category, stock, isActive và phân trang
+        // Tìm kiếm product với filter keyword, category, stock, isActive; keyset theo id giảm dần, không COUNT
         @Query("SELECT p FROM Product p LEFT JOIN p.category c WHERE " +
                         "(:keyword IS NULL OR :keyword = '' OR " +
                         "LOWER(p.productName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -52,14 +51,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                         "LOWER(p.sku) LIKE LOWER(CONCAT('%', :sku, '%'))) " +
                         "AND (:isActive IS NULL OR :isActive = '' OR " +
                         "(:isActive = 'true' AND p.isActive = true) OR " +
-                        "(:isActive = 'false' AND p.isActive = false))")
-        Page<Product> searchProductAdvanced(
+                        "(:isActive = 'false' AND p.isActive = false)) " +
+                        "AND (:afterId IS NULL OR p.id < :afterId) " +
+                        "ORDER BY p.id DESC")
+        List<Product> searchProductKeyset(
                         @Param("keyword") String keyword,
                         @Param("categoryId") Long categoryId,
                         @Param("stock") String stock,
                         @Param("sku") String sku,
                         @Param("isActive") String isActive,
-                        Pageable pageable);
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
 
         // Lấy sản phẩm mới nhất theo category slug (cho trang chủ)
         @Query("SELECT p FROM Product p JOIN p.category c WHERE " +
@@ -0,0 +1,21 @@
+package vn.web.fashionshop.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import vn.web.fashionshop.entity.Promotion;
+
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+
+    // Khuyến mãi còn hiệu lực hoặc sắp tới
+    @Query("SELECT DISTINCT p FROM Promotion p WHERE p.isActive = true AND (p.endAt IS NULL OR p.endAt > :now)")
+    List<Promotion> findCurrentAndUpcoming(@Param("now") LocalDateTime now);
+
+    List<Promotion> findAllByOrderByIdDesc();
+}
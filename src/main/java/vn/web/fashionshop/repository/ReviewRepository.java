@@ -36,7 +36,7 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
         @Query("SELECT COUNT(r) FROM Review r WHERE r.rating = :rating")
         long countByRatingValue(@Param("rating") Integer rating);
 
-        // Search and filter queries
+        // Search and filter; keyset theo id giảm dần, không COUNT
         @Query("SELECT r FROM Review r " +
                         "WHERE (:keyword IS NULL OR :keyword = '' OR " +
                         "LOWER(r.comment) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -45,12 +45,15 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
                         "AND (:status IS NULL OR :status = '' OR " +
                         "(CASE WHEN :status = 'approved' THEN r.isApproved = true " +
                         "WHEN :status = 'pending' THEN r.isApproved = false END)) " +
-                        "AND (:rating IS NULL OR r.rating = :rating)")
-        Page<Review> searchReviews(
+                        "AND (:rating IS NULL OR r.rating = :rating) " +
+                        "AND (:afterId IS NULL OR r.id < :afterId) " +
+                        "ORDER BY r.id DESC")
+        List<Review> searchReviewsKeyset(
                         @Param("keyword") String keyword,
                         @Param("status") String status,
                         @Param("rating") Integer rating,
-                        Pageable pageable);
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
 
         // Get reviews by approval status with pagination
         Page<Review> findByIsApproved(Boolean isApproved, Pageable pageable);
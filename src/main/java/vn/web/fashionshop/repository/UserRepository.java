@@ -4,7 +4,6 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import vn.web.fashionshop.entity.User;
+import vn.web.fashionshop.security.UserAuthState;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -19,6 +19,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
         // Tìm user theo email
         Optional<User> findByEmail(String email);
 
+        // Kiểm tra JWT: chỉ lấy các cột cần thiết, không load role / quan hệ
+        @Query("SELECT new vn.web.fashionshop.security.UserAuthState(u.id, u.tokenVersion, u.isActive) " +
+                        "FROM User u WHERE u.id = :id")
+        Optional<UserAuthState> findAuthStateById(@Param("id") Long id);
+
         Boolean existsByEmail(String email);
 
         Boolean existsByPhone(String phone);
@@ -28,33 +33,49 @@ public interface UserRepository extends JpaRepository<User, Long> {
         // Đếm user đang hoạt động
         Long countByIsActiveTrue();
 
-        // Đếm user có trong tháng hiện tại
-        @Query("SELECT COUNT(u) FROM User u WHERE MONTH(u.createdAt) = MONTH(CURRENT_DATE()) AND YEAR(u.createdAt) = YEAR(CURRENT_DATE())")
-        Long countUserThisMonth();
+        // Đếm user tạo trong khoảng [startDate, endDate)
+        @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :startDate AND u.createdAt < :endDate")
+        Long countCreatedBetween(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
 
-        // Đếm user là khách hàng có trong tháng hiện tại
-        @Query("SELECT COUNT(u) FROM User u WHERE u.role.roleName = 'CUSTOMER' AND MONTH(u.createdAt) = MONTH(CURRENT_DATE()) AND YEAR(u.createdAt) = YEAR(CURRENT_DATE())")
-        Long countCustomerThisMonth();
+        // Đếm user là khách hàng tạo trong khoảng [startDate, endDate)
+        @Query("SELECT COUNT(u) FROM User u WHERE u.role.roleName = 'CUSTOMER' AND u.createdAt >= :startDate AND u.createdAt < :endDate")
+        Long countCustomerCreatedBetween(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
 
-        // Đếm số lượng User thêm vào theo từng ngày
+        // Đếm số lượng User thêm vào theo từng ngày trong khoảng [startDate, endDate)
         @Query(value = "SELECT DATE(created_at) as date, COUNT(*) as count " +
                         "FROM users " +
-                        "WHERE created_at >= :startDate " +
+                        "WHERE created_at >= :startDate AND created_at < :endDate " +
                         "GROUP BY DATE(created_at) " +
                         "ORDER BY DATE(created_at)", nativeQuery = true)
-        List<Object[]> countUserByDateRange(@Param("startDate") LocalDateTime startDate);
+        List<Object[]> countUserByDateRange(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
 
         @Query("SELECT r.roleName, COUNT(u) FROM User u JOIN u.role r GROUP BY r.roleName")
         List<Object[]> countUsersByRole();
 
-        // Tìm kiếm user phân trang
+        // Tra id user qua full-text (ngram) index ft_user_search trên email, full_name, phone
+        // query ở dạng BOOLEAN MODE, bọc trong dấu nháy kép ("nguyen") để khớp chuỗi con
+        // Keyset theo id tăng dần: afterId = id cuối của lô trước
+        @Query(value = "SELECT u.id FROM users u " +
+                        "WHERE MATCH(u.email, u.full_name, u.phone) AGAINST (:query IN BOOLEAN MODE) " +
+                        "AND (:afterId IS NULL OR u.id > :afterId) " +
+                        "ORDER BY u.id LIMIT :limit", nativeQuery = true)
+        List<Long> searchIdsByFullText(@Param("query") String query, @Param("afterId") Long afterId,
+                        @Param("limit") int limit);
+
+        // Tìm kiếm user theo keyword, role, trạng thái; keyset theo id giảm dần, không COUNT
         @Query("SELECT u FROM User u WHERE " +
                         "(:keyword IS NULL OR :keyword = '' OR u.fullName LIKE %:keyword% OR u.email LIKE %:keyword% OR u.phone LIKE %:keyword%) AND "
                         +
                         "(:roleId IS NULL OR u.role.id = :roleId) AND " +
-                        "(:status IS NULL OR u.isActive = :status)")
-        Page<User> searchUsers(@Param("keyword") String keyword,
+                        "(:status IS NULL OR u.isActive = :status) AND " +
+                        "(:afterId IS NULL OR u.id < :afterId) " +
+                        "ORDER BY u.id DESC")
+        List<User> searchUsersKeyset(@Param("keyword") String keyword,
                         @Param("roleId") Long roleId,
                         @Param("status") Boolean status,
-                        Pageable pageable);
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
 }
@@ -1,9 +1,9 @@
 package vn.web.fashionshop.repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -32,7 +32,7 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long> {
         @Query("SELECT COUNT(v) FROM Voucher v WHERE v.endAt < :currentDate")
         Long countByExpired(@Param("currentDate") LocalDateTime currentDate);
 
-        // Tìm kiếm với filter trạng thái
+        // Tìm kiếm với filter trạng thái; keyset theo id giảm dần, không COUNT
         @Query("SELECT v FROM Voucher v WHERE " +
                         "(:keyword IS NULL OR :keyword = '' OR v.code LIKE %:keyword% OR v.description LIKE %:keyword%) "
                         +
@@ -40,11 +40,14 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long> {
                         "(:status = 'active' AND v.isActive = true) OR " +
                         "(:status = 'inactive' AND v.isActive = false) OR " +
                         "(:status = 'expired' AND v.endAt < :currentDate) OR " +
-                        "(:status = 'valid' AND v.isActive = true AND (v.endAt IS NULL OR v.endAt > :currentDate)))")
-        Page<Voucher> searchVoucherAdvanced(
+                        "(:status = 'valid' AND v.isActive = true AND (v.endAt IS NULL OR v.endAt > :currentDate))) " +
+                        "AND (:afterId IS NULL OR v.id < :afterId) " +
+                        "ORDER BY v.id DESC")
+        List<Voucher> searchVoucherKeyset(
                         @Param("keyword") String keyword,
                         @Param("status") String status,
                         @Param("currentDate") LocalDateTime currentDate,
-                        Pageable pageable);
+                        @Param("afterId") Long afterId,
+                        Pageable limit);
 
 }
@@ -0,0 +1,38 @@
+package vn.web.fashionshop.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chọn BCrypt cost cao nhất mà một lần hash vẫn nằm trong thời gian mục tiêu trên máy hiện tại.
+ * Mỗi bậc cost tăng gấp đôi thời gian, nên chỉ đo tiếp khi gấp đôi lần đo trước vẫn không vượt target.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-123";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        // Warm up JIT để lần đo đầu không bị phóng đại
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+
+        int cost = minCost;
+        long elapsed = measure(cost);
+        while (cost < maxCost && elapsed * 2 <= targetMillis) {
+            cost++;
+            elapsed = measure(cost);
+        }
+        log.info("BCrypt cost calibrated to {} ({} ms per hash, target {} ms)", cost, elapsed, targetMillis);
+        return cost;
+    }
+
+    private static long measure(int cost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(cost));
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -10,7 +10,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  */
 public class BCryptOrPlaintextPasswordEncoder implements PasswordEncoder {
 
-    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+    private final BCryptPasswordEncoder bcrypt;
+
+    public BCryptOrPlaintextPasswordEncoder() {
+        this(10);
+    }
+
+    public BCryptOrPlaintextPasswordEncoder(int strength) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+    }
 
     @Override
     public String encode(CharSequence rawPassword) {
@@ -1,12 +1,14 @@
 package vn.web.fashionshop.security;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,15 +19,19 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Xác thực stateless: principal được dựng từ claims đã ký (email, role, user id, token version).
+ * Không đọc bảng users mỗi request; chỉ kiểm tra thu hồi / khoá tài khoản qua {@link UserAuthStateCache}.
+ */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserAuthStateCache userAuthStateCache;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtUtil jwtUtil, UserAuthStateCache userAuthStateCache) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.userAuthStateCache = userAuthStateCache;
     }
 
     @Override
@@ -59,16 +65,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         try {
-            final String username = jwtUtil.extractUsername(jwt);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Parse + verify đúng một lần cho cả request
+                VerifiedToken token = jwtUtil.verify(jwt).orElse(null);
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                // Token cũ không có uid / ver sẽ không được chấp nhận: người dùng đăng nhập lại
+                if (token != null && token.email() != null && token.role() != null
+                        && userAuthStateCache.accepts(token.userId(), token.tokenVersion())) {
+                    UserDetails principal = User.withUsername(token.email())
+                            .password("")
+                            .authorities(List.of(new SimpleGrantedAuthority("ROLE_" + token.role())))
+                            .build();
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities());
+                            principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
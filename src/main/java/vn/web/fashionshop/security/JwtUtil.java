@@ -1,58 +1,68 @@
 package vn.web.fashionshop.security;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import vn.web.fashionshop.entity.User;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private long expiration;
-
-    @Value("${jwt.rememberExpiration:2592000000}")
-    private long rememberExpiration;
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        String role = userDetails.getAuthorities().stream()
-                .findFirst()
-                .map(a -> a.getAuthority().replace("ROLE_", ""))
-                .orElse("CUSTOMER");
-        claims.put("role", role);
-        return createToken(claims, userDetails.getUsername(), expiration);
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
+    private final long expiration;
+    private final long rememberExpiration;
+
+    // Key và parser dựng một lần; JwtParser của jjwt là immutable, dùng chung giữa các thread được
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // SHA-256(token) -> token đã verify. Không giữ token gốc trong bộ nhớ.
+    // Đọc không khoá; entry hết hạn được dọn định kỳ và khi cache đầy
+    private final Map<String, VerifiedToken> recentlyVerified = new ConcurrentHashMap<>();
+    private final int verifiedCacheSize;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+            @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.rememberExpiration:2592000000}") long rememberExpiration,
+            @Value("${jwt.verified-cache-size:10000}") int verifiedCacheSize) {
+        this.expiration = expiration;
+        this.rememberExpiration = rememberExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedCacheSize = verifiedCacheSize;
     }
 
-    public String generateToken(UserDetails userDetails, boolean rememberMe) {
+    // Token mang đủ thông tin để dựng principal mà không cần đọc bảng users mỗi request
+    public String generateToken(User user, boolean rememberMe) {
         Map<String, Object> claims = new HashMap<>();
-        String role = userDetails.getAuthorities().stream()
-                .findFirst()
-                .map(a -> a.getAuthority().replace("ROLE_", ""))
-                .orElse("CUSTOMER");
-        claims.put("role", role);
+        String role = (user.getRole() == null || user.getRole().getRoleName() == null)
+                ? "CUSTOMER"
+                : user.getRole().getRoleName().name();
+        claims.put(CLAIM_ROLE, role);
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0);
         long exp = rememberMe ? rememberExpiration : expiration;
-        return createToken(claims, userDetails.getUsername(), exp);
+        return createToken(claims, user.getEmail(), exp);
     }
 
     private String createToken(Map<String, Object> claims, String subject, long expirationMillis) {
@@ -61,50 +71,78 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationMillis))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    /**
+     * Verify token một lần (chữ ký + hạn dùng) và trả về claims đã kiểm tra cho cả request.
+     * Token vừa verify gần đây được lấy từ cache, không parse lại.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String key = hash(token);
+        VerifiedToken cached = recentlyVerified.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return Optional.of(cached);
+            }
+            recentlyVerified.remove(key);
+            return Optional.empty();
+        }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        VerifiedToken verified;
+        try {
+            verified = VerifiedToken.from(parser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (verified.isExpired()) {
+            return Optional.empty();
+        }
+        remember(key, verified);
+        return Optional.of(verified);
     }
 
-    public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
+    private void remember(String key, VerifiedToken verified) {
+        if (verifiedCacheSize <= 0) {
+            return;
+        }
+        if (recentlyVerified.size() >= verifiedCacheSize) {
+            pruneExpired();
+            // Vẫn đầy toàn token còn hạn: xoá hết, token đang dùng chỉ phải verify lại một lần
+            if (recentlyVerified.size() >= verifiedCacheSize) {
+                recentlyVerified.clear();
+            }
+        }
+        recentlyVerified.put(key, verified);
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    @Scheduled(fixedDelayString = "${jwt.verified-cache-prune-millis:60000}")
+    public void pruneExpired() {
+        recentlyVerified.values().removeIf(VerifiedToken::isExpired);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public String extractUsername(String token) {
+        return verify(token).map(VerifiedToken::email).orElse(null);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String extractRole(String token) {
+        return verify(token).map(VerifiedToken::role).orElse(null);
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public Boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
-    public Boolean validateToken(String token) {
+    private static String hash(String token) {
         try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
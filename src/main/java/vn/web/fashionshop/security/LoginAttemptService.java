@@ -0,0 +1,57 @@
+package vn.web.fashionshop.security;
+
+import java.util.Locale;
+
+import org.springframework.stereotype.Component;
+
+import vn.web.fashionshop.config.LoginProtectionProperties;
+
+/**
+ * Giới hạn đăng nhập theo IP (mọi lần thử) và theo tài khoản (chỉ lần sai).
+ * Kiểm tra trước khi chạy BCrypt nên request bị chặn không tốn CPU hash.
+ */
+@Component
+public class LoginAttemptService {
+
+    private final SlidingWindowRateLimiter ipLimiter;
+    private final SlidingWindowRateLimiter accountLimiter;
+
+    public LoginAttemptService(LoginProtectionProperties properties) {
+        long windowMillis = properties.getWindowSeconds() * 1000;
+        this.ipLimiter = new SlidingWindowRateLimiter(properties.getMaxAttemptsPerIp(), windowMillis,
+                properties.getMaxTrackedKeys());
+        this.accountLimiter = new SlidingWindowRateLimiter(properties.getMaxFailuresPerAccount(), windowMillis,
+                properties.getMaxTrackedKeys());
+    }
+
+    // Số giây phải chờ trước khi thử lại; 0 = được phép thử. Mỗi lần được phép tính là một lần thử của IP.
+    public long checkAndRecordAttempt(String ip, String email) {
+        String account = normalize(email);
+        if (ipLimiter.isLimited(ip)) {
+            return ipLimiter.retryAfterSeconds(ip);
+        }
+        if (account != null && accountLimiter.isLimited(account)) {
+            return accountLimiter.retryAfterSeconds(account);
+        }
+        ipLimiter.record(ip);
+        return 0;
+    }
+
+    public void recordFailure(String email) {
+        String account = normalize(email);
+        if (account != null) {
+            accountLimiter.record(account);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        String account = normalize(email);
+        if (account != null) {
+            accountLimiter.reset(account);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
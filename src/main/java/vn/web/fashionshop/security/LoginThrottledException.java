@@ -0,0 +1,20 @@
+package vn.web.fashionshop.security;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Đăng nhập bị từ chối vì quá tải (hàng đợi hash đầy) hoặc vượt giới hạn số lần thử.
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,57 +1,197 @@
 package vn.web.fashionshop.security;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import vn.web.fashionshop.entity.User;
-import vn.web.fashionshop.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.config.PasswordMigrationProperties;
 
 /**
  * DEV helper: if the DB already contains plaintext passwords (e.g. seeded from data.sql),
- * this will migrate them to BCrypt once on startup.
+ * this will migrate them to BCrypt in the background after startup.
  *
  * Safe guard: it only encodes when the password does NOT look like a BCrypt hash.
+ *
+ * Users được quét theo id từng chunk (chỉ các dòng chưa là BCrypt), hash song song trên một pool
+ * giới hạn, rồi commit chunk cùng tiến độ (last_id) vào background_job_progress. Bị dừng giữa chừng
+ * thì lần khởi động sau tiếp tục từ last_id; chạy xong thì cursor về 0 để lần sau quét lại dòng mới seed.
  */
+@Slf4j
 @Component
-public class PasswordMigrationRunner implements CommandLineRunner {
+public class PasswordMigrationRunner implements CommandLineRunner, DisposableBean {
+
+    private static final String JOB_NAME = "password-migration";
 
-    private final UserRepository userRepository;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordMigrationProperties properties;
+    private final ExecutorService hashers;
+
+    private volatile Thread worker;
+
+    private record PlaintextUser(Long id, String password) {
+    }
+
+    private record HashedUser(Long id, String plaintext, String hash) {
+    }
 
-    public PasswordMigrationRunner(UserRepository userRepository, PasswordEncoder passwordEncoder) {
-        this.userRepository = userRepository;
+    public PasswordMigrationRunner(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder, PasswordMigrationProperties properties) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+        AtomicInteger counter = new AtomicInteger();
+        // Hàng đợi bằng đúng một chunk: không bao giờ giữ nhiều hơn một chunk mật khẩu trong bộ nhớ
+        this.hashers = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(properties.getChunkSize()), r -> {
+                    Thread t = new Thread(r, "password-migration-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
     }
 
+    // Chỉ ghi dòng tiến độ (bảng trong schema.sql) và khởi động thread nền; startup không chờ migration
     @Override
     public void run(String... args) {
-        List<User> users = userRepository.findAll();
-        boolean changed = false;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        jdbc.update("INSERT IGNORE INTO background_job_progress (job_name) VALUES (:job)",
+                new MapSqlParameterSource("job", JOB_NAME));
+
+        Thread t = new Thread(this::migrate, "password-migration");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
 
-        for (User u : users) {
-            if (u == null) {
-                continue;
+    private void migrate() {
+        try {
+            long cursor = readCursor();
+            int migrated = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<PlaintextUser> chunk = fetchPlaintext(cursor, properties.getChunkSize());
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                List<HashedUser> hashed = hashAll(chunk);
+                cursor = chunk.get(chunk.size() - 1).id();
+                migrated += commitChunk(hashed, cursor);
             }
-            String pw = u.getPassword();
-            if (pw == null || pw.isBlank()) {
-                continue;
+            if (!Thread.currentThread().isInterrupted()) {
+                markCompleted();
+                if (migrated > 0) {
+                    log.info("Migrated {} plaintext passwords to BCrypt", migrated);
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Tiến độ đã commit được giữ lại; lần khởi động sau chạy tiếp
+            log.error("Password migration stopped", e);
+        }
+    }
 
-            // BCrypt hashes typically start with $2a$, $2b$ or $2y$ and have length around 60.
-            boolean looksLikeBcrypt = (pw.startsWith("$2a$") || pw.startsWith("$2b$") || pw.startsWith("$2y$"))
-                    && pw.length() >= 55;
+    private long readCursor() {
+        Long lastId = jdbc.queryForObject("SELECT last_id FROM background_job_progress WHERE job_name = :job",
+                new MapSqlParameterSource("job", JOB_NAME), Long.class);
+        return lastId != null ? lastId : 0L;
+    }
+
+    // Lọc bằng SQL để chỉ đọc các dòng còn plaintext
+    private List<PlaintextUser> fetchPlaintext(long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return jdbc.query(
+                "SELECT id, password FROM users " +
+                        "WHERE id > :afterId AND password IS NOT NULL AND password <> '' " +
+                        "AND NOT (LEFT(password, 4) IN ('$2a$', '$2b$', '$2y$') AND CHAR_LENGTH(password) >= 55) " +
+                        "ORDER BY id LIMIT :limit",
+                params,
+                (rs, rowNum) -> new PlaintextUser(rs.getLong("id"), rs.getString("password")));
+    }
 
-            if (!looksLikeBcrypt) {
-                u.setPassword(passwordEncoder.encode(pw));
-                changed = true;
+    private List<HashedUser> hashAll(List<PlaintextUser> chunk) throws InterruptedException {
+        List<Callable<HashedUser>> tasks = new ArrayList<>(chunk.size());
+        for (PlaintextUser user : chunk) {
+            tasks.add(() -> new HashedUser(user.id(), user.password(), passwordEncoder.encode(user.password())));
+        }
+        List<HashedUser> hashed = new ArrayList<>(chunk.size());
+        for (Future<HashedUser> future : hashers.invokeAll(tasks)) {
+            try {
+                hashed.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Password hashing failed", e.getCause());
             }
         }
+        return hashed;
+    }
+
+    // Ghi hash và cursor trong một transaction; chỉ ghi đè nếu mật khẩu chưa bị đổi trong lúc hash
+    private int commitChunk(List<HashedUser> hashed, long cursor) {
+        Integer updated = transactionTemplate.execute(status -> {
+            MapSqlParameterSource[] batch = new MapSqlParameterSource[hashed.size()];
+            for (int i = 0; i < hashed.size(); i++) {
+                HashedUser user = hashed.get(i);
+                batch[i] = new MapSqlParameterSource()
+                        .addValue("id", user.id())
+                        .addValue("hash", user.hash())
+                        .addValue("plaintext", user.plaintext());
+            }
+            int count = 0;
+            for (int rows : jdbc.batchUpdate(
+                    "UPDATE users SET password = :hash WHERE id = :id AND password = :plaintext", batch)) {
+                count += Math.max(rows, 0);
+            }
+            jdbc.update("UPDATE background_job_progress SET last_id = :cursor, processed = processed + :count, " +
+                    "updated_at = :now WHERE job_name = :job",
+                    new MapSqlParameterSource()
+                            .addValue("cursor", cursor)
+                            .addValue("count", count)
+                            .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                            .addValue("job", JOB_NAME));
+            return count;
+        });
+        return updated != null ? updated : 0;
+    }
 
-        if (changed) {
-            userRepository.saveAll(users);
+    private void markCompleted() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbc.update("UPDATE background_job_progress SET last_id = 0, updated_at = :now, completed_at = :now " +
+                "WHERE job_name = :job",
+                new MapSqlParameterSource()
+                        .addValue("now", now)
+                        .addValue("job", JOB_NAME));
+    }
+
+    @Override
+    public void destroy() {
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
         }
+        hashers.shutdownNow();
     }
 }
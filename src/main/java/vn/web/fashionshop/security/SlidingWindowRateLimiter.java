@@ -0,0 +1,71 @@
+package vn.web.fashionshop.security;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limiter cửa sổ trượt (sliding window log) giữ trong bộ nhớ.
+ *
+ * Mỗi key giữ tối đa {@code limit} mốc thời gian nên bộ nhớ mỗi key có giới hạn; số key cũng giới hạn
+ * bởi LRU (key ít dùng nhất bị bỏ khi vượt maxKeys).
+ */
+public class SlidingWindowRateLimiter {
+
+    private final int limit;
+    private final long windowMillis;
+    private final Map<String, Deque<Long>> hits;
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis, int maxKeys) {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.hits = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<Long>> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    // Key đã dùng hết hạn mức trong cửa sổ hiện tại chưa
+    public synchronized boolean isLimited(String key) {
+        Deque<Long> window = hits.get(key);
+        if (window == null) {
+            return false;
+        }
+        evictExpired(window, System.currentTimeMillis());
+        return window.size() >= limit;
+    }
+
+    public synchronized void record(String key) {
+        long now = System.currentTimeMillis();
+        Deque<Long> window = hits.computeIfAbsent(key, k -> new ArrayDeque<>());
+        evictExpired(window, now);
+        if (window.size() >= limit) {
+            window.pollFirst();
+        }
+        window.addLast(now);
+    }
+
+    // Số giây tới khi key được thử lại (0 nếu chưa bị giới hạn)
+    public synchronized long retryAfterSeconds(String key) {
+        Deque<Long> window = hits.get(key);
+        if (window == null || window.size() < limit) {
+            return 0;
+        }
+        long oldest = window.peekFirst();
+        return Math.max(1, (oldest + windowMillis - System.currentTimeMillis() + 999) / 1000);
+    }
+
+    public synchronized void reset(String key) {
+        hits.remove(key);
+    }
+
+    private void evictExpired(Deque<Long> window, long now) {
+        long cutoff = now - windowMillis;
+        while (!window.isEmpty() && window.peekFirst() <= cutoff) {
+            window.pollFirst();
+        }
+    }
+}
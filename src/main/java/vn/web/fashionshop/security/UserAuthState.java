@@ -0,0 +1,11 @@
+package vn.web.fashionshop.security;
+
+/**
+ * Phần thông tin user cần để chấp nhận một JWT: còn active không và token version hiện tại.
+ */
+public record UserAuthState(Long id, Integer tokenVersion, Boolean active) {
+
+    public boolean accepts(Integer version) {
+        return Boolean.TRUE.equals(active) && tokenVersion != null && tokenVersion.equals(version);
+    }
+}
@@ -0,0 +1,62 @@
+package vn.web.fashionshop.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import vn.web.fashionshop.repository.UserRepository;
+
+/**
+ * Cache trong bộ nhớ cho kiểm tra thu hồi / khoá tài khoản của JWT.
+ *
+ * Mỗi user chỉ query DB một lần mỗi TTL; UserService / PasswordResetService gọi {@link #evict(Long)}
+ * sau khi đổi tài khoản nên thay đổi có hiệu lực ngay trên instance này. TTL giới hạn độ trễ
+ * khi chạy nhiều instance.
+ */
+@Component
+public class UserAuthStateCache {
+
+    private static final long TTL_MILLIS = 5 * 60 * 1000L;
+    private static final int MAX_ENTRIES = 10_000;
+
+    private record Entry(UserAuthState state, long expiresAt) {
+    }
+
+    // User đã bị xoá cũng được cache để token của họ không query lại DB mỗi request
+    private static final UserAuthState MISSING = new UserAuthState(null, null, false);
+
+    private final UserRepository userRepository;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserAuthStateCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean accepts(Long userId, Integer tokenVersion) {
+        if (userId == null || tokenVersion == null) {
+            return false;
+        }
+        return get(userId).accepts(tokenVersion);
+    }
+
+    private UserAuthState get(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(userId);
+        if (entry == null || now >= entry.expiresAt()) {
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.clear();
+            }
+            UserAuthState state = userRepository.findAuthStateById(userId).orElse(MISSING);
+            entry = new Entry(state, now + TTL_MILLIS);
+            entries.put(userId, entry);
+        }
+        return entry.state();
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package vn.web.fashionshop.security;
+
+import java.util.Date;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Claims của một JWT đã verify chữ ký; immutable nên có thể cache và dùng chung giữa các request.
+ */
+public record VerifiedToken(String email, String role, Long userId, Integer tokenVersion, Date expiresAt) {
+
+    static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(JwtUtil.CLAIM_ROLE, String.class),
+                claims.get(JwtUtil.CLAIM_USER_ID, Long.class),
+                claims.get(JwtUtil.CLAIM_TOKEN_VERSION, Integer.class),
+                claims.getExpiration());
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.after(new Date());
+    }
+}
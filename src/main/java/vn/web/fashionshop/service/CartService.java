@@ -386,7 +386,7 @@ public class CartService {
             return BigDecimal.ZERO;
         }
         BigDecimal price = product.getPrice();
-        BigDecimal discount = product.getDiscount() != null ? product.getDiscount() : BigDecimal.ZERO;
+        BigDecimal discount = product.getEffectiveDiscount();
         if (discount.compareTo(BigDecimal.ZERO) <= 0) {
             return price.setScale(2, RoundingMode.HALF_UP);
         }
@@ -402,7 +402,12 @@ public class CartService {
         List<CartItemDto> items = cart.getItems().stream().map(i -> {
             ProductVariant v = i.getVariant();
             Product p = v != null ? v.getProduct() : null;
-            String imageUrl = p != null ? p.getMainImageUrl() : "/images/no-image.png";
+            String imageUrl = p != null ? p.getMainImageThumbnailUrl() : "/images/no-image.png";
+            // Giá theo thời điểm xem giỏ: khuyến mãi bắt đầu / kết thúc sau khi thêm vào giỏ vẫn đúng
+            BigDecimal unitPrice = p != null ? computeDiscountedPrice(p) : i.getUnitPrice();
+            BigDecimal totalPrice = unitPrice != null && i.getQuantity() != null
+                    ? unitPrice.multiply(BigDecimal.valueOf(i.getQuantity())).setScale(2, RoundingMode.HALF_UP)
+                    : i.getTotalPrice();
             return new CartItemDto(
                     i.getId(),
                     v != null ? v.getId() : null,
@@ -412,8 +417,8 @@ public class CartService {
                     v != null ? v.getColor() : null,
                     v != null ? v.getSize() : null,
                     i.getQuantity(),
-                    i.getUnitPrice(),
-                    i.getTotalPrice());
+                    unitPrice,
+                    totalPrice);
         }).toList();
 
         BigDecimal subtotal = items.stream()
@@ -0,0 +1,158 @@
+package vn.web.fashionshop.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import vn.web.fashionshop.dto.catalog.CatalogRow;
+import vn.web.fashionshop.service.CatalogImportService.Format;
+import vn.web.fashionshop.util.Csv;
+
+/**
+ * Xuất catalog cùng định dạng với import (một dòng mỗi variant, product không có variant là một dòng).
+ * Đọc product theo keyset từng chunk, variant của cả chunk trong một query.
+ */
+@Service
+public class CatalogExportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    private record ProductRow(long id, String sku, String name, String description, BigDecimal price,
+            BigDecimal discount, boolean active, String categorySlug, int stock) {
+    }
+
+    private record VariantRow(String skuVariant, String size, String color, int stock) {
+    }
+
+    private interface RowWriter {
+        void write(ProductRow product, VariantRow variant) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    public CatalogExportService(NamedParameterJdbcTemplate jdbc, ObjectMapper objectMapper) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(OutputStream out, Format format) throws IOException {
+        // Ghi thẳng ra response: không giữ cả catalog trong bộ nhớ
+        RowWriter writer = format == Format.JSON ? jsonWriter(out) : csvWriter(out);
+        long lastId = 0;
+        List<ProductRow> products;
+        do {
+            products = nextProducts(lastId);
+            if (products.isEmpty()) {
+                break;
+            }
+            Map<Long, List<VariantRow>> variants = variantsOf(products);
+            for (ProductRow product : products) {
+                List<VariantRow> productVariants = variants.get(product.id());
+                if (productVariants == null) {
+                    writer.write(product, null);
+                } else {
+                    for (VariantRow variant : productVariants) {
+                        writer.write(product, variant);
+                    }
+                }
+            }
+            lastId = products.get(products.size() - 1).id();
+        } while (products.size() == CHUNK_SIZE);
+        writer.close();
+    }
+
+    private List<ProductRow> nextProducts(long lastId) {
+        return jdbc.query("SELECT p.id, p.sku, p.product_name, p.description, p.price, p.discount, p.is_active, " +
+                "p.stock, c.slug AS category_slug FROM products p LEFT JOIN categories c ON c.id = p.category_id " +
+                "WHERE p.id > :lastId ORDER BY p.id LIMIT :limit",
+                new MapSqlParameterSource("lastId", lastId).addValue("limit", CHUNK_SIZE),
+                (rs, i) -> new ProductRow(rs.getLong("id"), rs.getString("sku"), rs.getString("product_name"),
+                        rs.getString("description"), rs.getBigDecimal("price"), rs.getBigDecimal("discount"),
+                        rs.getBoolean("is_active"), rs.getString("category_slug"), rs.getInt("stock")));
+    }
+
+    private Map<Long, List<VariantRow>> variantsOf(List<ProductRow> products) {
+        Map<Long, List<VariantRow>> variants = new HashMap<>();
+        List<Long> ids = products.stream().map(ProductRow::id).toList();
+        jdbc.query("SELECT product_id, sku_variant, size, color, stock FROM product_variants " +
+                "WHERE product_id IN (:ids) ORDER BY product_id, id",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    variants.computeIfAbsent(rs.getLong("product_id"), k -> new ArrayList<>())
+                            .add(new VariantRow(rs.getString("sku_variant"), rs.getString("size"),
+                                    rs.getString("color"), rs.getInt("stock")));
+                });
+        return variants;
+    }
+
+    private RowWriter csvWriter(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        Csv.CsvWriter csv = new Csv.CsvWriter(writer);
+        csv.write(CatalogRow.COLUMNS);
+        return new RowWriter() {
+            @Override
+            public void write(ProductRow p, VariantRow v) throws IOException {
+                csv.write(Arrays.asList(p.sku(), p.name(), p.description(), plain(p.price()), plain(p.discount()),
+                        Boolean.toString(p.active()), p.categorySlug(),
+                        v != null ? v.skuVariant() : null, v != null ? v.size() : null,
+                        v != null ? v.color() : null, Integer.toString(v != null ? v.stock() : p.stock())));
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    private RowWriter jsonWriter(OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.writeStartArray();
+        return new RowWriter() {
+            @Override
+            public void write(ProductRow p, VariantRow v) throws IOException {
+                json.writeStartObject();
+                json.writeStringField("sku", p.sku());
+                json.writeStringField("productName", p.name());
+                json.writeStringField("description", p.description());
+                json.writeNumberField("price", p.price());
+                json.writeNumberField("discount", p.discount());
+                json.writeBooleanField("isActive", p.active());
+                json.writeStringField("categorySlug", p.categorySlug());
+                json.writeStringField("skuVariant", v != null ? v.skuVariant() : null);
+                json.writeStringField("size", v != null ? v.size() : null);
+                json.writeStringField("color", v != null ? v.color() : null);
+                json.writeNumberField("stock", v != null ? v.stock() : p.stock());
+                json.writeEndObject();
+            }
+
+            @Override
+            public void close() throws IOException {
+                json.writeEndArray();
+                json.flush();
+            }
+        };
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+}
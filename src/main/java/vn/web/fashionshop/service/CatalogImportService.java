@@ -0,0 +1,577 @@
+package vn.web.fashionshop.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.cache.CatalogChangeListener;
+import vn.web.fashionshop.config.CatalogImportProperties;
+import vn.web.fashionshop.dto.catalog.CatalogImportResultDTO;
+import vn.web.fashionshop.dto.catalog.CatalogRow;
+import vn.web.fashionshop.enums.ESize;
+import vn.web.fashionshop.util.Csv;
+
+/**
+ * Import catalog hàng loạt (CSV / JSON), upsert product theo sku và variant theo sku_variant.
+ *
+ * File được đọc tuần tự thành các chunk; mỗi chunk được kiểm tra trên pool song song (đọc trước tối đa
+ * threads + 1 chunk), rồi ghi theo đúng thứ tự bằng JDBC batch INSERT ... ON DUPLICATE KEY UPDATE trong
+ * một transaction. Chunk ghi lỗi được ghi lại theo từng product để chỉ ra đúng dòng lỗi.
+ * Cache trang / version catalog được làm mới một lần khi import xong.
+ *
+ * Import chỉ thêm / cập nhật: product và variant không có trong file được giữ nguyên. Cột không có trong file
+ * hoặc ô trống không ghi đè giá trị hiện có (product mới lấy giá trị mặc định).
+ */
+@Slf4j
+@Service
+public class CatalogImportService implements DisposableBean {
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogChangeListener catalogChangeListener;
+    private final LowStockMonitor lowStockMonitor;
+    private final CatalogImportProperties properties;
+    private final ObjectReader rowReader;
+    private final ThreadPoolExecutor validators;
+
+    private record SourceRow(long row, CatalogRow data) {
+    }
+
+    // null: cột không có / ô trống
+    private record ProductData(String sku, String name, String description, BigDecimal price, BigDecimal discount,
+            Boolean active, Long categoryId) {
+    }
+
+    private record VariantData(String skuVariant, String size, String color, Integer stock) {
+    }
+
+    // variant == null: product không có variant, stock là tồn kho của product
+    private record ValidRow(long row, ProductData product, VariantData variant, Integer productStock) {
+    }
+
+    private record ValidatedChunk(List<ValidRow> rows, List<CatalogImportResultDTO.RowError> errors) {
+    }
+
+    private interface RowSource {
+        SourceRow next() throws IOException;
+    }
+
+    public CatalogImportService(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            CatalogChangeListener catalogChangeListener, LowStockMonitor lowStockMonitor,
+            CatalogImportProperties properties, ObjectMapper objectMapper) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogChangeListener = catalogChangeListener;
+        this.lowStockMonitor = lowStockMonitor;
+        this.properties = properties;
+        this.rowReader = objectMapper.readerFor(CatalogRow.class);
+        AtomicInteger counter = new AtomicInteger();
+        this.validators = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getThreads() * 4), r -> {
+                    Thread t = new Thread(r, "catalog-import-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public static Format formatOf(String contentTypeOrFilename) {
+        String value = contentTypeOrFilename == null ? "" : contentTypeOrFilename.toLowerCase(Locale.ROOT);
+        return value.contains("json") ? Format.JSON : Format.CSV;
+    }
+
+    /**
+     * Đọc và import toàn bộ luồng dữ liệu. dryRun: chỉ kiểm tra, không ghi.
+     */
+    public CatalogImportResultDTO importCatalog(InputStream in, Format format, boolean dryRun) {
+        long started = System.currentTimeMillis();
+        CatalogImportResultDTO result = new CatalogImportResultDTO();
+        result.setDryRun(dryRun);
+
+        Map<String, Long> categoryIds = loadCategoryIds();
+        Set<Long> changedProductIds = new HashSet<>();
+        Set<Long> changedCategoryIds = new HashSet<>();
+        ArrayDeque<Future<ValidatedChunk>> pending = new ArrayDeque<>();
+
+        try {
+            RowSource source = format == Format.JSON ? jsonSource(in) : csvSource(in);
+            List<SourceRow> chunk = new ArrayList<>(properties.getChunkSize());
+            SourceRow row;
+            while ((row = source.next()) != null) {
+                result.setTotalRows(result.getTotalRows() + 1);
+                chunk.add(row);
+                if (chunk.size() >= properties.getChunkSize()) {
+                    List<SourceRow> toValidate = chunk;
+                    pending.add(validators.submit(() -> validate(toValidate, categoryIds)));
+                    chunk = new ArrayList<>(properties.getChunkSize());
+                    // Giới hạn số chunk đã đọc nhưng chưa ghi
+                    while (pending.size() > properties.getThreads()) {
+                        write(await(pending.poll()), dryRun, result, changedProductIds, changedCategoryIds);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<SourceRow> toValidate = chunk;
+                pending.add(validators.submit(() -> validate(toValidate, categoryIds)));
+            }
+            while (!pending.isEmpty()) {
+                write(await(pending.poll()), dryRun, result, changedProductIds, changedCategoryIds);
+            }
+        } catch (IOException | RuntimeException e) {
+            // File hỏng giữa chừng: các chunk đã ghi được giữ lại, báo lý do dừng
+            pending.forEach(f -> f.cancel(true));
+            log.warn("Catalog import aborted after {} rows", result.getTotalRows(), e);
+            result.setAbortedReason(e.getMessage());
+        } finally {
+            if (!changedProductIds.isEmpty()) {
+                // Một lần cho cả lần import
+                catalogChangeListener.productsChanged(changedProductIds, changedCategoryIds);
+                // Stock variant được ghi bằng JDBC, không qua entity listener
+                lowStockMonitor.productsChanged(changedProductIds);
+            }
+            result.setDurationMillis(System.currentTimeMillis() - started);
+        }
+        return result;
+    }
+
+    private ValidatedChunk await(Future<ValidatedChunk> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Catalog validation failed", e.getCause());
+        }
+    }
+
+    // ==================== Đọc file ====================
+
+    private RowSource csvSource(InputStream in) throws IOException {
+        Csv.CsvReader reader = new Csv.CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Bỏ BOM của file lưu từ Excel
+            String name = header.get(i).replace("﻿", "").trim().toLowerCase(Locale.ROOT);
+            index.put(name, i);
+        }
+        for (String required : List.of("sku", "productname", "price")) {
+            if (!index.containsKey(required)) {
+                throw new IllegalArgumentException("Missing CSV column: " + required);
+            }
+        }
+        return () -> {
+            List<String> fields = reader.next();
+            if (fields == null) {
+                return null;
+            }
+            CatalogRow row = new CatalogRow();
+            row.setSku(field(fields, index, "sku"));
+            row.setProductName(field(fields, index, "productname"));
+            row.setDescription(field(fields, index, "description"));
+            row.setPrice(field(fields, index, "price"));
+            row.setDiscount(field(fields, index, "discount"));
+            row.setIsActive(field(fields, index, "isactive"));
+            row.setCategorySlug(field(fields, index, "categoryslug"));
+            row.setSkuVariant(field(fields, index, "skuvariant"));
+            row.setSize(field(fields, index, "size"));
+            row.setColor(field(fields, index, "color"));
+            row.setStock(field(fields, index, "stock"));
+            return new SourceRow(reader.recordLine(), row);
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> index, String column) {
+        Integer i = index.get(column);
+        return i != null && i < fields.size() ? fields.get(i) : null;
+    }
+
+    // Mảng JSON các object CatalogRow, đọc từng phần tử
+    private RowSource jsonSource(InputStream in) throws IOException {
+        JsonParser parser = rowReader.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("JSON catalog must be an array of rows");
+        }
+        long[] index = { 0 };
+        return () -> {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Row " + (index[0] + 1) + " is not an object");
+            }
+            CatalogRow row = rowReader.readValue(parser);
+            return new SourceRow(++index[0], row);
+        };
+    }
+
+    private Map<String, Long> loadCategoryIds() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbc.getJdbcTemplate().query("SELECT id, slug FROM categories", rs -> {
+            ids.put(rs.getString("slug").toLowerCase(Locale.ROOT), rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    // ==================== Kiểm tra (chạy song song) ====================
+
+    private ValidatedChunk validate(List<SourceRow> rows, Map<String, Long> categoryIds) {
+        List<ValidRow> valid = new ArrayList<>(rows.size());
+        List<CatalogImportResultDTO.RowError> errors = new ArrayList<>();
+        for (SourceRow source : rows) {
+            CatalogRow r = source.data();
+            try {
+                valid.add(validateRow(source.row(), r, categoryIds));
+            } catch (IllegalArgumentException e) {
+                errors.add(new CatalogImportResultDTO.RowError(source.row(), trim(r.getSku()), trim(r.getSkuVariant()),
+                        e.getMessage()));
+            }
+        }
+        return new ValidatedChunk(valid, errors);
+    }
+
+    private ValidRow validateRow(long row, CatalogRow r, Map<String, Long> categoryIds) {
+        String sku = required(r.getSku(), "sku", 100);
+        String name = required(r.getProductName(), "productName", 255);
+        BigDecimal price = decimal(r.getPrice(), "price", true);
+        if (price.signum() < 0 || price.precision() - price.scale() > 13) {
+            throw new IllegalArgumentException("price out of range");
+        }
+        BigDecimal discount = decimal(r.getDiscount(), "discount", false);
+        if (discount != null && (discount.signum() < 0 || discount.compareTo(BigDecimal.valueOf(100)) > 0)) {
+            throw new IllegalArgumentException("discount must be between 0 and 100");
+        }
+        Boolean active = bool(r.getIsActive());
+
+        Long categoryId = null;
+        String slug = trim(r.getCategorySlug());
+        if (slug != null) {
+            categoryId = categoryIds.get(slug.toLowerCase(Locale.ROOT));
+            if (categoryId == null) {
+                throw new IllegalArgumentException("Unknown category: " + slug);
+            }
+        }
+        ProductData product = new ProductData(sku, name, trim(r.getDescription()), price, discount, active, categoryId);
+
+        Integer stock = integer(r.getStock(), "stock");
+        String skuVariant = trim(r.getSkuVariant());
+        if (skuVariant == null) {
+            return new ValidRow(row, product, null, stock);
+        }
+        if (skuVariant.length() > 255) {
+            throw new IllegalArgumentException("skuVariant is too long");
+        }
+        String size = trim(r.getSize());
+        if (size != null) {
+            try {
+                size = ESize.valueOf(size.toUpperCase(Locale.ROOT)).name();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid size: " + size);
+            }
+        }
+        String color = trim(r.getColor());
+        if (color != null && color.length() > 50) {
+            throw new IllegalArgumentException("color is too long");
+        }
+        return new ValidRow(row, product, new VariantData(skuVariant, size, color, stock), null);
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String required(String value, String column, int maxLength) {
+        String trimmed = trim(value);
+        if (trimmed == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        if (trimmed.length() > maxLength) {
+            throw new IllegalArgumentException(column + " is too long");
+        }
+        return trimmed;
+    }
+
+    private static BigDecimal decimal(String value, String column, boolean required) {
+        String trimmed = trim(value);
+        if (trimmed == null) {
+            if (required) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return null;
+        }
+        try {
+            return new BigDecimal(trimmed).setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + trimmed);
+        }
+    }
+
+    private static Integer integer(String value, String column) {
+        String trimmed = trim(value);
+        if (trimmed == null) {
+            return null;
+        }
+        try {
+            int parsed = Integer.parseInt(trimmed);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(column + " must not be negative");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + trimmed);
+        }
+    }
+
+    private static Boolean bool(String value) {
+        String trimmed = trim(value);
+        if (trimmed == null) {
+            return null;
+        }
+        return switch (trimmed.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "y" -> true;
+            case "false", "0", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("Invalid isActive: " + trimmed);
+        };
+    }
+
+    // ==================== Ghi ====================
+
+    private void write(ValidatedChunk chunk, boolean dryRun, CatalogImportResultDTO result,
+            Set<Long> changedProductIds, Set<Long> changedCategoryIds) {
+        chunk.errors().forEach(error -> addError(result, error));
+        if (chunk.rows().isEmpty()) {
+            return;
+        }
+        if (dryRun) {
+            countRows(chunk.rows(), result);
+            return;
+        }
+        try {
+            writeRows(chunk.rows(), result, changedProductIds, changedCategoryIds);
+        } catch (DataAccessException e) {
+            // Ghi lại từng product để biết dòng nào lỗi
+            Map<String, List<ValidRow>> bySku = new LinkedHashMap<>();
+            for (ValidRow row : chunk.rows()) {
+                bySku.computeIfAbsent(row.product().sku(), k -> new ArrayList<>()).add(row);
+            }
+            for (List<ValidRow> group : bySku.values()) {
+                try {
+                    writeRows(group, result, changedProductIds, changedCategoryIds);
+                } catch (DataAccessException rowError) {
+                    String message = rowError.getMostSpecificCause().getMessage();
+                    for (ValidRow row : group) {
+                        addError(result, new CatalogImportResultDTO.RowError(row.row(), row.product().sku(),
+                                row.variant() != null ? row.variant().skuVariant() : null, message));
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeRows(List<ValidRow> rows, CatalogImportResultDTO result, Set<Long> changedProductIds,
+            Set<Long> changedCategoryIds) {
+        // Dòng sau cùng của một sku quyết định thông tin product
+        Map<String, ValidRow> products = new LinkedHashMap<>();
+        Map<String, Boolean> hasVariants = new HashMap<>();
+        Map<String, ValidRow> variants = new LinkedHashMap<>();
+        for (ValidRow row : rows) {
+            String sku = row.product().sku();
+            products.put(sku, row);
+            hasVariants.merge(sku, row.variant() != null, Boolean::logicalOr);
+            if (row.variant() != null) {
+                variants.put(row.variant().skuVariant(), row);
+            }
+        }
+
+        List<CatalogImportResultDTO.RowError> conflicts = new ArrayList<>();
+        Map<String, Long> productIds = transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            upsertProducts(products.values(), hasVariants, now);
+            Map<String, Long> ids = productIdsBySku(products.keySet());
+
+            // Variant đã thuộc product khác: không chuyển sang product này
+            Map<String, Long> owners = variantOwners(variants.keySet());
+            List<ValidRow> writable = new ArrayList<>(variants.size());
+            for (ValidRow row : variants.values()) {
+                Long owner = owners.get(row.variant().skuVariant());
+                if (owner != null && !owner.equals(ids.get(row.product().sku()))) {
+                    conflicts.add(new CatalogImportResultDTO.RowError(row.row(), row.product().sku(),
+                            row.variant().skuVariant(), "skuVariant belongs to another product"));
+                } else {
+                    writable.add(row);
+                }
+            }
+            upsertVariants(writable, ids, now);
+            recomputeStock(ids.values());
+            result.setVariantsUpserted(result.getVariantsUpserted() + writable.size());
+            return ids;
+        });
+        conflicts.forEach(error -> addError(result, error));
+
+        result.setProductsUpserted(result.getProductsUpserted() + products.size());
+        changedProductIds.addAll(productIds.values());
+        for (ValidRow row : products.values()) {
+            if (row.product().categoryId() != null) {
+                changedCategoryIds.add(row.product().categoryId());
+            }
+        }
+    }
+
+    private void upsertProducts(Iterable<ValidRow> rows, Map<String, Boolean> hasVariants, Timestamp now) {
+        List<SqlParameterSource> batch = new ArrayList<>();
+        for (ValidRow row : rows) {
+            ProductData p = row.product();
+            boolean variantsManaged = hasVariants.getOrDefault(p.sku(), false);
+            batch.add(new MapSqlParameterSource("sku", p.sku())
+                    .addValue("name", p.name())
+                    .addValue("description", p.description())
+                    .addValue("stock", variantsManaged ? Integer.valueOf(0) : row.productStock())
+                    .addValue("variantsManaged", variantsManaged)
+                    .addValue("price", p.price())
+                    .addValue("categoryId", p.categoryId())
+                    .addValue("discount", p.discount())
+                    .addValue("active", p.active())
+                    .addValue("now", now));
+        }
+        // Product có variant: stock được tính lại từ variant; không có: lấy từ file.
+        // Tham số null (cột thiếu / ô trống) giữ giá trị cũ khi update
+        jdbc.batchUpdate("INSERT INTO products (sku, product_name, description, stock, price, category_id, discount, " +
+                "is_active, created_at, updated_at) " +
+                "VALUES (:sku, :name, :description, COALESCE(:stock, 0), :price, :categoryId, COALESCE(:discount, 0), " +
+                "COALESCE(:active, TRUE), :now, :now) " +
+                "ON DUPLICATE KEY UPDATE product_name = VALUES(product_name), " +
+                "description = COALESCE(:description, description), " +
+                "stock = CASE WHEN :variantsManaged THEN stock ELSE COALESCE(:stock, stock) END, price = VALUES(price), " +
+                "category_id = COALESCE(:categoryId, category_id), discount = COALESCE(:discount, discount), " +
+                "is_active = COALESCE(:active, is_active), updated_at = VALUES(updated_at)",
+                batch.toArray(SqlParameterSource[]::new));
+    }
+
+    private Map<String, Long> productIdsBySku(Set<String> skus) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbc.query("SELECT id, sku FROM products WHERE sku IN (:skus)", new MapSqlParameterSource("skus", skus),
+                rs -> {
+                    ids.put(rs.getString("sku"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    private Map<String, Long> variantOwners(Set<String> skuVariants) {
+        Map<String, Long> owners = new HashMap<>();
+        if (skuVariants.isEmpty()) {
+            return owners;
+        }
+        jdbc.query("SELECT sku_variant, product_id FROM product_variants WHERE sku_variant IN (:skus)",
+                new MapSqlParameterSource("skus", skuVariants),
+                rs -> {
+                    owners.put(rs.getString("sku_variant"), rs.getLong("product_id"));
+                });
+        return owners;
+    }
+
+    private void upsertVariants(List<ValidRow> rows, Map<String, Long> productIds, Timestamp now) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<SqlParameterSource> batch = new ArrayList<>(rows.size());
+        for (ValidRow row : rows) {
+            VariantData v = row.variant();
+            batch.add(new MapSqlParameterSource("productId", productIds.get(row.product().sku()))
+                    .addValue("size", v.size())
+                    .addValue("color", v.color())
+                    .addValue("stock", v.stock())
+                    .addValue("skuVariant", v.skuVariant())
+                    .addValue("now", now));
+        }
+        jdbc.batchUpdate("INSERT INTO product_variants (product_id, size, color, stock, sku_variant, created_at, " +
+                "updated_at) VALUES (:productId, :size, :color, COALESCE(:stock, 0), :skuVariant, :now, :now) " +
+                "ON DUPLICATE KEY UPDATE size = COALESCE(:size, size), color = COALESCE(:color, color), " +
+                "stock = COALESCE(:stock, stock), updated_at = VALUES(updated_at)",
+                batch.toArray(SqlParameterSource[]::new));
+    }
+
+    // Tổng tồn kho = tổng variant (như ProductService.createProduct)
+    private void recomputeStock(Iterable<Long> productIds) {
+        Set<Long> ids = new HashSet<>();
+        productIds.forEach(ids::add);
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbc.update("UPDATE products p JOIN (SELECT product_id, SUM(stock) AS total FROM product_variants " +
+                "WHERE product_id IN (:ids) GROUP BY product_id) v ON v.product_id = p.id SET p.stock = v.total",
+                new MapSqlParameterSource("ids", ids));
+    }
+
+    private void countRows(List<ValidRow> rows, CatalogImportResultDTO result) {
+        Set<String> skus = new HashSet<>();
+        long variants = 0;
+        for (ValidRow row : rows) {
+            skus.add(row.product().sku());
+            if (row.variant() != null) {
+                variants++;
+            }
+        }
+        result.setProductsUpserted(result.getProductsUpserted() + skus.size());
+        result.setVariantsUpserted(result.getVariantsUpserted() + variants);
+    }
+
+    private void addError(CatalogImportResultDTO result, CatalogImportResultDTO.RowError error) {
+        result.setErrorCount(result.getErrorCount() + 1);
+        if (result.getErrors().size() < properties.getMaxReportedErrors()) {
+            result.getErrors().add(error);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        validators.shutdownNow();
+    }
+}
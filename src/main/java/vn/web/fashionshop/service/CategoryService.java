@@ -5,12 +5,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import vn.web.fashionshop.dto.CategoryDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Category;
 import vn.web.fashionshop.repository.CategoryRepository;
 
@@ -18,9 +18,11 @@ import vn.web.fashionshop.repository.CategoryRepository;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final GridStatsService gridStatsService;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, GridStatsService gridStatsService) {
         this.categoryRepository = categoryRepository;
+        this.gridStatsService = gridStatsService;
     }
 
     public List<Category> getAll() {
@@ -31,11 +33,16 @@ public class CategoryService {
         return categoryRepository.findByParentCategoryIsNull();
     }
 
-    public Page<Category> searchCategoryAdvanced(String keyword, String status, String parentSlug, int pageNo) {
-        int pageSize = 6;
-        Pageable pageable = PageRequest.of(pageNo - 1, pageSize);
+    // Keyset paging cho grid danh mục: không COUNT, trang sâu không chậm dần
+    public CursorPage<Category> searchCategoriesByCursor(String keyword, String status, String parentSlug,
+            Long cursor, int size, boolean withTotal) {
+        List<Category> fetched = categoryRepository.searchCategoryKeyset(keyword, status, parentSlug, cursor,
+                CursorPage.fetchLimit(size));
 
-        return categoryRepository.searchCategoryAdvanced(keyword, status, parentSlug, pageable);
+        boolean unfiltered = (keyword == null || keyword.isBlank()) && (status == null || status.isBlank())
+                && (parentSlug == null || parentSlug.isBlank());
+        Long approximateTotal = withTotal && unfiltered ? gridStatsService.approximateRowCount("categories") : null;
+        return CursorPage.of(fetched, size, Category::getId, approximateTotal);
     }
 
     public Category save(Category category) {
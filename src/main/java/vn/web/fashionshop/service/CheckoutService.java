@@ -180,7 +180,8 @@ public class CheckoutService {
                         + "' không đủ số lượng trong kho. Còn lại: " + productStock);
             }
 
-            BigDecimal unit = ci.getUnitPrice() != null ? ci.getUnitPrice() : BigDecimal.ZERO;
+            // Giá tại thời điểm đặt hàng (khuyến mãi có thể đã bắt đầu / kết thúc từ lúc thêm vào giỏ)
+            BigDecimal unit = computeDiscountedPrice(product);
             BigDecimal lineTotal = unit.multiply(BigDecimal.valueOf(qty)).setScale(2, RoundingMode.HALF_UP);
 
             OrderItem oi = new OrderItem();
@@ -391,7 +392,7 @@ public class CheckoutService {
             return BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
         }
         BigDecimal price = product.getPrice();
-        BigDecimal discount = product.getDiscount() != null ? product.getDiscount() : BigDecimal.ZERO;
+        BigDecimal discount = product.getEffectiveDiscount();
         if (discount.compareTo(BigDecimal.ZERO) <= 0) {
             return price.setScale(2, RoundingMode.HALF_UP);
         }
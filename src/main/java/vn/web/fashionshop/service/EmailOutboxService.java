@@ -0,0 +1,370 @@
+package vn.web.fashionshop.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.config.MailOutboxProperties;
+import vn.web.fashionshop.entity.EmailOutbox;
+import vn.web.fashionshop.enums.EEmailStatus;
+import vn.web.fashionshop.repository.EmailOutboxRepository;
+
+/**
+ * Outbox email: request chỉ ghi một dòng vào email_outbox rồi trả về; worker nền gửi qua SMTP.
+ *
+ * Mỗi lần poll worker nhận một lô thư đến hạn (FOR UPDATE SKIP LOCKED), chia thành các chunk và gửi song
+ * song; mỗi chunk đi qua một kết nối SMTP duy nhất (JavaMailSender.send(MimeMessage...)).
+ * Thư newsletter chỉ được nhận trong hạn mức tốc độ của chiến dịch (newsletter_campaigns.send_rate_per_second).
+ * Thư lỗi được retry với exponential backoff, quá maxAttempts thì chuyển FAILED. Mỗi lần nhận tính một lần
+ * thử; thư hết lease mà chưa có kết quả được xử lý như một lần gửi lỗi.
+ * Thư giao dịch (priority thấp hơn) luôn được nhận trước thư newsletter đang tồn đọng.
+ */
+@Slf4j
+@Service
+public class EmailOutboxService implements DisposableBean {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final MailOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ExecutorService senders;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    private record SendResult(Long id, String error) {
+    }
+
+    private record CampaignRate(int ratePerSecond, Timestamp nextSendAt) {
+    }
+
+    /** Một thư của lô gửi hàng loạt (newsletter). */
+    public record BulkMail(String recipient, String subject, String body, String unsubscribeUrl) {
+    }
+
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository, JavaMailSender mailSender,
+            MailOutboxProperties properties, PlatformTransactionManager transactionManager,
+            NamedParameterJdbcTemplate jdbc) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbc = jdbc;
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getWorkerThreads(), r -> {
+            Thread t = new Thread(r, "mail-outbox-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Xếp thư vào outbox. Nếu đã có thư chưa gửi cùng dedupeKey thì thay nội dung thư đó
+     * (VD: khách bấm gửi lại OTP nhiều lần chỉ nhận mã mới nhất).
+     */
+    public void enqueue(String recipient, String subject, String body, String dedupeKey) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            EmailOutbox mail = dedupeKey == null ? null
+                    : emailOutboxRepository.findPendingByDedupeKey(dedupeKey).orElse(null);
+            if (mail == null) {
+                mail = new EmailOutbox();
+                mail.setDedupeKey(dedupeKey);
+                mail.setCreatedAt(now);
+            }
+            mail.setRecipient(recipient);
+            mail.setSubject(subject);
+            mail.setBody(body);
+            mail.setStatus(EEmailStatus.PENDING);
+            mail.setAttempts(0);
+            mail.setNextAttemptAt(now);
+            emailOutboxRepository.save(mail);
+        });
+    }
+
+    /**
+     * Xếp cả lô thư hàng loạt bằng một JDBC batch insert, priority thấp hơn thư giao dịch.
+     * Chạy trong transaction của caller nếu có (để ghi cùng lúc với tiến độ chiến dịch).
+     */
+    public void enqueueBulk(List<BulkMail> mails, Long campaignId) {
+        if (mails.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[mails.size()];
+        for (int i = 0; i < mails.size(); i++) {
+            BulkMail mail = mails.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("recipient", mail.recipient())
+                    .addValue("subject", mail.subject())
+                    .addValue("body", mail.body())
+                    .addValue("priority", EmailOutbox.PRIORITY_BULK)
+                    .addValue("campaignId", campaignId)
+                    .addValue("unsubscribeUrl", mail.unsubscribeUrl())
+                    .addValue("now", now);
+        }
+        jdbc.batchUpdate("INSERT INTO email_outbox " +
+                "(recipient, subject, body, priority, campaign_id, list_unsubscribe_url, status, attempts, " +
+                "next_attempt_at, created_at) " +
+                "VALUES (:recipient, :subject, :body, :priority, :campaignId, :unsubscribeUrl, 'PENDING', 0, " +
+                ":now, :now)", batch);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-millis:1000}",
+            initialDelayString = "${app.mail.outbox.poll-millis:1000}")
+    public void dispatch() {
+        // Gửi liên tục khi còn tồn đọng, dừng khi lô nhận được không đầy
+        int claimed;
+        do {
+            claimed = drainOnce();
+        } while (claimed == properties.getBatchSize());
+    }
+
+    // Nhận và gửi một lô; trả về số thư đã nhận
+    public int drainOnce() {
+        List<EmailOutbox> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Callable<List<SendResult>>> tasks = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i += properties.getMessagesPerConnection()) {
+            List<EmailOutbox> chunk = batch.subList(i, Math.min(i + properties.getMessagesPerConnection(), batch.size()));
+            tasks.add(() -> sendChunk(chunk));
+        }
+
+        List<SendResult> results = new ArrayList<>();
+        try {
+            for (Future<List<SendResult>> future : senders.invokeAll(tasks)) {
+                try {
+                    results.addAll(future.get());
+                } catch (ExecutionException e) {
+                    log.error("Mail outbox chunk failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Thư không có kết quả (lỗi bất ngờ) sẽ được nhận lại khi hết lease
+        recordResults(results);
+        return batch.size();
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = transactionTemplate.execute(status -> {
+            List<Long> ids = emailOutboxRepository.lockDueIds(now, properties.getBatchSize());
+            if (ids.isEmpty()) {
+                return List.<EmailOutbox>of();
+            }
+            List<EmailOutbox> expired = emailOutboxRepository.findExpiredLeases(ids);
+            if (!expired.isEmpty()) {
+                ids = new ArrayList<>(ids);
+                for (EmailOutbox mail : expired) {
+                    recordFailure(mail, "Lease expired before the send result was recorded", now);
+                    ids.remove(mail.getId());
+                }
+                emailOutboxRepository.saveAll(expired);
+            }
+            ids = withinCampaignRates(ids, now);
+            if (ids.isEmpty()) {
+                return List.<EmailOutbox>of();
+            }
+            emailOutboxRepository.markSending(ids, now.plusSeconds(properties.getLeaseSeconds()));
+            return emailOutboxRepository.findAllById(ids);
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    /**
+     * Giới hạn tốc độ từng chiến dịch (GCRA): newsletter_campaigns.next_send_at là thời điểm sớm nhất cho thư
+     * tiếp theo, cho dồn tối đa một giây để poll mỗi giây vẫn đạt đủ tốc độ. Dòng chiến dịch bị khoá trong
+     * transaction nhận thư nên hạn mức đúng cả khi chạy nhiều instance. Thư vượt hạn mức giữ nguyên PENDING.
+     */
+    private List<Long> withinCampaignRates(List<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        List<Long> allowed = new ArrayList<>();
+        Map<Long, List<Long>> byCampaign = new LinkedHashMap<>();
+        for (Object[] row : emailOutboxRepository.findCampaignIds(ids)) {
+            if (row[1] == null) {
+                allowed.add((Long) row[0]);
+            } else {
+                byCampaign.computeIfAbsent((Long) row[1], k -> new ArrayList<>()).add((Long) row[0]);
+            }
+        }
+        for (Map.Entry<Long, List<Long>> entry : byCampaign.entrySet()) {
+            List<Long> campaignMails = entry.getValue();
+            allowed.addAll(campaignMails.subList(0, reserveSendSlots(entry.getKey(), campaignMails.size(), now)));
+        }
+        return allowed;
+    }
+
+    private int reserveSendSlots(Long campaignId, int wanted, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", campaignId);
+        List<CampaignRate> rows = jdbc.query(
+                "SELECT send_rate_per_second, next_send_at FROM newsletter_campaigns WHERE id = :id FOR UPDATE",
+                params, (rs, rowNum) -> new CampaignRate(rs.getInt("send_rate_per_second"),
+                        rs.getTimestamp("next_send_at")));
+        if (rows.isEmpty() || rows.get(0).ratePerSecond() <= 0) {
+            return wanted;
+        }
+        CampaignRate campaign = rows.get(0);
+        long rate = campaign.ratePerSecond();
+        long nowMillis = Timestamp.valueOf(now).getTime();
+        long next = campaign.nextSendAt() != null ? campaign.nextSendAt().getTime() : 0L;
+        long start = Math.max(next, nowMillis - 1000L);
+        int slots = (int) Math.min(wanted, (nowMillis - start) * rate / 1000L);
+        if (slots > 0) {
+            jdbc.update("UPDATE newsletter_campaigns SET next_send_at = :next WHERE id = :id",
+                    params.addValue("next", new Timestamp(start + slots * 1000L / rate)));
+        }
+        return slots;
+    }
+
+    // Gửi cả chunk qua một kết nối SMTP; MailSendException cho biết chính xác thư nào lỗi
+    private List<SendResult> sendChunk(List<EmailOutbox> chunk) {
+        List<SendResult> results = new ArrayList<>();
+        List<EmailOutbox> prepared = new ArrayList<>();
+        List<MimeMessage> messages = new ArrayList<>();
+        for (EmailOutbox mail : chunk) {
+            try {
+                messages.add(toMessage(mail));
+                prepared.add(mail);
+            } catch (MessagingException e) {
+                results.add(new SendResult(mail.getId(), describe(e)));
+            }
+        }
+        if (messages.isEmpty()) {
+            return results;
+        }
+
+        Map<Object, Exception> failed = new HashMap<>();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failed.putAll(e.getFailedMessages());
+            if (failed.isEmpty()) {
+                results.addAll(allFailed(prepared, e));
+                return results;
+            }
+        } catch (MailException e) {
+            results.addAll(allFailed(prepared, e));
+            return results;
+        }
+
+        for (int i = 0; i < prepared.size(); i++) {
+            Exception error = failed.get(messages.get(i));
+            results.add(new SendResult(prepared.get(i).getId(), error != null ? describe(error) : null));
+        }
+        return results;
+    }
+
+    private MimeMessage toMessage(EmailOutbox mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromEmail);
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody());
+        if (mail.getListUnsubscribeUrl() != null) {
+            // Trình đọc mail POST tới link này khi người nhận bấm "Unsubscribe" (RFC 8058)
+            message.addHeader("List-Unsubscribe", "<" + mail.getListUnsubscribeUrl() + ">");
+            message.addHeader("List-Unsubscribe-Post", "List-Unsubscribe=One-Click");
+        }
+        return message;
+    }
+
+    private List<SendResult> allFailed(List<EmailOutbox> chunk, Exception e) {
+        log.warn("SMTP send failed for {} messages: {}", chunk.size(), e.getMessage());
+        List<SendResult> results = new ArrayList<>();
+        for (EmailOutbox mail : chunk) {
+            results.add(new SendResult(mail.getId(), describe(e)));
+        }
+        return results;
+    }
+
+    private void recordResults(List<SendResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        Map<Long, String> errors = new HashMap<>();
+        for (SendResult result : results) {
+            errors.put(result.id(), result.error());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<EmailOutbox> mails = emailOutboxRepository.findAllById(errors.keySet());
+            for (EmailOutbox mail : mails) {
+                String error = errors.get(mail.getId());
+                if (error == null) {
+                    mail.setStatus(EEmailStatus.SENT);
+                    mail.setSentAt(now);
+                    mail.setLastError(null);
+                } else {
+                    recordFailure(mail, error, now);
+                }
+            }
+            emailOutboxRepository.saveAll(mails);
+        });
+    }
+
+    // attempts đã được tăng lúc nhận thư (markSending)
+    private void recordFailure(EmailOutbox mail, String error, LocalDateTime now) {
+        mail.setLastError(error);
+        if (mail.getAttempts() >= properties.getMaxAttempts()) {
+            mail.setStatus(EEmailStatus.FAILED);
+        } else {
+            mail.setStatus(EEmailStatus.PENDING);
+            mail.setNextAttemptAt(now.plusSeconds(backoffSeconds(mail.getAttempts())));
+        }
+    }
+
+    // base * 2^(attempts-1), tối đa maxBackoff, cộng jitter tới 20% để các thư lỗi không retry cùng lúc
+    private long backoffSeconds(int attempts) {
+        long delay = properties.getBaseBackoffSeconds() << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, properties.getMaxBackoffSeconds());
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+}
@@ -7,12 +7,17 @@ import org.springframework.web.multipart.MultipartFile;
  */
 public interface FileUploadService {
 
+    /**
+     * Stores an image under a content-addressed name; uploading identical bytes again returns the
+     * same filename / URL. Stored files never change, so callers must not delete one that other
+     * rows may still reference (see ImageReferenceService).
+     */
     UploadResult storeImage(MultipartFile file);
 
     /**
      * Deletes a previously stored image by filename.
      *
-     * @param filename the stored filename (e.g. "a1b2c3.jpg")
+     * @param filename the stored filename relative to the images dir (e.g. "ab/cd/abcd....jpg")
      * @return true if a file was deleted; false if it did not exist
      */
     boolean deleteImage(String filename);
@@ -0,0 +1,49 @@
+package vn.web.fashionshop.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tổng số dòng xấp xỉ cho các grid admin, lấy từ thống kê bảng của InnoDB
+ * (information_schema.TABLES.TABLE_ROWS) và cache trong bộ nhớ, không chạy COUNT(*).
+ */
+@Service
+public class GridStatsService {
+
+    private static final long TTL_MILLIS = 5 * 60 * 1000L;
+
+    // Chỉ cho phép các bảng của grid admin (tên bảng được nối vào query)
+    private static final Set<String> GRID_TABLES = Set.of(
+            "products", "orders", "orders_archive", "users", "reviews", "vouchers", "categories");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, CachedCount> cache = new ConcurrentHashMap<>();
+
+    public GridStatsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Long approximateRowCount(String table) {
+        if (!GRID_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Unknown grid table: " + table);
+        }
+        long now = System.currentTimeMillis();
+        CachedCount cached = cache.get(table);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.value();
+        }
+
+        Long value = jdbcTemplate.queryForObject(
+                "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Long.class, table);
+        cache.put(table, new CachedCount(value != null ? value : 0L, now + TTL_MILLIS));
+        return value != null ? value : 0L;
+    }
+
+    private record CachedCount(Long value, long expiresAt) {
+    }
+}
@@ -70,7 +70,7 @@ public class GuestCartService {
                     variantId,
                     p != null ? p.getId() : null,
                     p != null ? p.getProductName() : "",
-                    p != null ? p.getMainImageUrl() : "/images/no-image.png",
+                    p != null ? p.getMainImageThumbnailUrl() : "/images/no-image.png",
                     v.getColor(),
                     v.getSize(),
                     qty,
@@ -192,7 +192,7 @@ public class GuestCartService {
             return BigDecimal.ZERO;
         }
         BigDecimal price = product.getPrice();
-        BigDecimal discount = product.getDiscount() != null ? product.getDiscount() : BigDecimal.ZERO;
+        BigDecimal discount = product.getEffectiveDiscount();
         if (discount.compareTo(BigDecimal.ZERO) <= 0) {
             return price.setScale(2, RoundingMode.HALF_UP);
         }
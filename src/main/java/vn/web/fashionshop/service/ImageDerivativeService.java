@@ -0,0 +1,402 @@
+package vn.web.fashionshop.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.cache.CatalogChangeListener;
+import vn.web.fashionshop.config.ImageDerivativeProperties;
+import vn.web.fashionshop.config.UploadProperties;
+import vn.web.fashionshop.entity.Image;
+import vn.web.fashionshop.util.ImageDerivatives;
+
+/**
+ * Tạo các bản resize (thumb / card / detail) cho ảnh sản phẩm trên một pool nền giới hạn.
+ *
+ * Upload xong (sau commit) ảnh được đưa vào hàng đợi; worker đọc ảnh gốc một lần, thu nhỏ dần
+ * từ bản lớn nhất xuống bản nhỏ nhất, ghi file cạnh ảnh gốc ({@link ImageDerivatives}) rồi cập nhật
+ * derivative_widths của dòng images. Hàng đợi đầy hoặc server tắt giữa chừng: ảnh còn
+ * derivative_widths IS NULL và được backfill ở lần khởi động sau.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService implements CommandLineRunner, DisposableBean {
+
+    private static final int BACKFILL_CHUNK = 100;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CatalogChangeListener catalogChangeListener;
+    private final ImageDerivativeProperties properties;
+    private final Path imagesDir;
+    private final String imagesUrlPrefix;
+    private final ThreadPoolExecutor executor;
+    // Tránh xử lý trùng một ảnh giữa job upload và backfill
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile Thread backfillWorker;
+
+    private record DerivativeJob(Long imageId, String url, Long productId, Long categoryId) {
+    }
+
+    private record Generated(int width, int height, List<Integer> widths, String format) {
+    }
+
+    public ImageDerivativeService(NamedParameterJdbcTemplate jdbc, CatalogChangeListener catalogChangeListener,
+            ImageDerivativeProperties properties, UploadProperties uploadProperties) {
+        this.jdbc = jdbc;
+        this.catalogChangeListener = catalogChangeListener;
+        this.properties = properties;
+        this.imagesDir = Paths.get(uploadProperties.getImagesDir()).normalize();
+        String prefix = uploadProperties.getImagesUrlPrefix().trim();
+        this.imagesUrlPrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()), r -> {
+                    Thread t = new Thread(r, "image-derivative-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+    }
+
+    /**
+     * Gọi trong transaction upload: job chạy sau commit để worker thấy dòng images đã ghi.
+     */
+    public void schedule(Image image) {
+        if (!properties.isEnabled() || image == null || image.getId() == null || image.getUrlImage() == null) {
+            return;
+        }
+        Long productId = image.getProduct() != null ? image.getProduct().getId() : null;
+        Long categoryId = image.getProduct() != null && image.getProduct().getCategory() != null
+                ? image.getProduct().getCategory().getId()
+                : null;
+        DerivativeJob job = new DerivativeJob(image.getId(), image.getUrlImage(), productId, categoryId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(job);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(job);
+            }
+        });
+    }
+
+    /**
+     * Xoá các bản resize của ảnh (ảnh gốc do FileUploadService xoá).
+     */
+    public void deleteDerivatives(Image image) {
+        if (image == null || image.getUrlImage() == null || image.getDerivativeFormat() == null) {
+            return;
+        }
+        for (Integer width : ImageDerivatives.parseWidths(image.getDerivativeWidths())) {
+            Path file = resolve(ImageDerivatives.derivativeUrl(image.getUrlImage(), width,
+                    image.getDerivativeFormat()));
+            if (file == null) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete image derivative {}", file, e);
+            }
+        }
+    }
+
+    private void submit(DerivativeJob job) {
+        if (!inFlight.add(job.imageId())) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (process(job)) {
+                        catalogChangeListener.productsChanged(idSet(job.productId()), idSet(job.categoryId()));
+                    }
+                } finally {
+                    inFlight.remove(job.imageId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(job.imageId());
+            log.warn("Image derivative queue is full; image {} is left for the startup backfill", job.imageId());
+        }
+    }
+
+    // Chỉ khởi động thread nền; startup không chờ backfill
+    @Override
+    public void run(String... args) {
+        if (!properties.isEnabled() || !properties.isBackfill()) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "image-derivative-backfill");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        backfillWorker = thread;
+        thread.start();
+    }
+
+    private void backfill() {
+        long lastId = 0;
+        int processed = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<DerivativeJob> chunk = jdbc.query(
+                        "SELECT i.id, i.url_image, i.product_id, p.category_id FROM images i " +
+                                "JOIN products p ON p.id = i.product_id " +
+                                "WHERE i.derivative_widths IS NULL AND i.id > :lastId ORDER BY i.id LIMIT :limit",
+                        new MapSqlParameterSource("lastId", lastId).addValue("limit", BACKFILL_CHUNK),
+                        (rs, i) -> new DerivativeJob(rs.getLong("id"), rs.getString("url_image"),
+                                rs.getLong("product_id"), rs.getObject("category_id", Long.class)));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                // Gom invalidation theo chunk thay vì xoá cache sau từng ảnh
+                Set<Long> productIds = new HashSet<>();
+                Set<Long> categoryIds = new HashSet<>();
+                for (DerivativeJob job : chunk) {
+                    lastId = job.imageId();
+                    if (!inFlight.add(job.imageId())) {
+                        continue;
+                    }
+                    try {
+                        if (process(job)) {
+                            productIds.add(job.productId());
+                            if (job.categoryId() != null) {
+                                categoryIds.add(job.categoryId());
+                            }
+                        }
+                    } finally {
+                        inFlight.remove(job.imageId());
+                    }
+                }
+                processed += chunk.size();
+                if (!productIds.isEmpty()) {
+                    catalogChangeListener.productsChanged(productIds, categoryIds);
+                }
+            }
+            if (processed > 0) {
+                log.info("Image derivative backfill finished: {} images", processed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Image derivative backfill stopped after image id {}", lastId, e);
+        }
+    }
+
+    // true nếu dòng images được cập nhật (kể cả ảnh không resize được, để backfill không lặp lại)
+    private boolean process(DerivativeJob job) {
+        Generated generated;
+        try {
+            // Cùng nội dung (cùng URL theo hash) đã được xử lý cho dòng khác: dùng lại file resize
+            generated = existing(job);
+            if (generated == null) {
+                generated = generate(job.url());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate derivatives for image {} ({})", job.imageId(), job.url(), e);
+            generated = null;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("id", job.imageId())
+                .addValue("url", job.url())
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        if (generated == null) {
+            params.addValue("width", null).addValue("height", null).addValue("widths", "").addValue("format", null);
+        } else {
+            StringBuilder widths = new StringBuilder();
+            for (Integer w : generated.widths()) {
+                widths.append(widths.length() > 0 ? "," : "").append(w);
+            }
+            params.addValue("width", generated.width()).addValue("height", generated.height())
+                    .addValue("widths", widths.toString()).addValue("format", generated.format());
+        }
+        // url_image trong WHERE: ảnh bị thay / xoá trong lúc xử lý thì không ghi đè
+        return jdbc.update("UPDATE images SET width = :width, height = :height, derivative_widths = :widths, " +
+                "derivative_format = :format, updated_at = :now WHERE id = :id AND url_image = :url", params) > 0;
+    }
+
+    private Generated existing(DerivativeJob job) {
+        List<Generated> found = jdbc.query(
+                "SELECT width, height, derivative_widths, derivative_format FROM images " +
+                        "WHERE url_image = :url AND id <> :id AND derivative_widths IS NOT NULL LIMIT 1",
+                new MapSqlParameterSource("url", job.url()).addValue("id", job.imageId()),
+                (rs, i) -> new Generated(rs.getInt("width"), rs.getInt("height"),
+                        ImageDerivatives.parseWidths(rs.getString("derivative_widths")),
+                        rs.getString("derivative_format")));
+        if (found.isEmpty() || found.get(0).widths().isEmpty() || found.get(0).width() <= 0) {
+            return null;
+        }
+        return found.get(0);
+    }
+
+    private Generated generate(String url) throws IOException {
+        Path source = resolve(url);
+        if (source == null || !Files.isRegularFile(source)) {
+            return null;
+        }
+        BufferedImage original;
+        int width;
+        int height;
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                // VD: webp – JDK không đọc được, giữ ảnh gốc
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+                // GIF có thể là ảnh động; ảnh quá lớn không giải mã vào heap
+                if ("gif".equalsIgnoreCase(reader.getFormatName())
+                        || (long) width * height > properties.getMaxSourcePixels()) {
+                    return new Generated(width, height, List.of(), null);
+                }
+                original = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean alpha = original.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg";
+        List<Integer> targets = new ArrayList<>(new HashSet<>(List.of(properties.getDetailWidth(),
+                properties.getCardWidth(), properties.getThumbWidth())));
+        targets.removeIf(w -> w >= width);
+        targets.sort((a, b) -> Integer.compare(b, a));
+
+        // Thu nhỏ nối tiếp: detail từ gốc, card từ detail, thumb từ card
+        BufferedImage base = original;
+        List<Integer> written = new ArrayList<>();
+        for (Integer target : targets) {
+            BufferedImage scaled = scale(base, target, alpha);
+            Path file = resolve(ImageDerivatives.derivativeUrl(url, target, format));
+            if (file == null) {
+                continue;
+            }
+            write(scaled, format, file);
+            written.add(target);
+            base = scaled;
+        }
+        written.sort(null);
+        return new Generated(width, height, written, written.isEmpty() ? null : format);
+    }
+
+    // Giảm một nửa mỗi bước (bilinear) tới kích thước đích: chất lượng gần bicubic, nhanh hơn nhiều
+    private static BufferedImage scale(BufferedImage source, int targetWidth, boolean alpha) {
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * (double) targetWidth / source.getWidth()));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!alpha) {
+                    // Ảnh gốc có thể có kênh alpha trong suốt một phần: nền trắng thay vì đen
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    // Ghi ra file tạm rồi đổi tên: request đọc ảnh không bao giờ thấy file ghi dở
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".derivative", ".tmp");
+        try {
+            if ("png".equals(format)) {
+                ImageIO.write(image, "png", tmp.toFile());
+            } else {
+                ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+                try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+                    ImageWriteParam param = writer.getDefaultWriteParam();
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(properties.getJpegQuality());
+                    param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                    writer.setOutput(out);
+                    writer.write(null, new IIOImage(image, null, null), param);
+                } finally {
+                    writer.dispose();
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // /images/abc.jpg -> uploads/images/abc.jpg; null nếu URL không thuộc thư mục upload
+    private Path resolve(String url) {
+        if (url == null || !url.startsWith(imagesUrlPrefix)) {
+            return null;
+        }
+        String filename = StringUtils.cleanPath(url.substring(imagesUrlPrefix.length()));
+        Path file = imagesDir.resolve(filename).normalize();
+        return file.startsWith(imagesDir) && !file.equals(imagesDir) ? file : null;
+    }
+
+    private static Set<Long> idSet(Long id) {
+        return id != null ? Set.of(id) : Set.of();
+    }
+
+    @Override
+    public void destroy() {
+        Thread thread = backfillWorker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        executor.shutdownNow();
+    }
+}
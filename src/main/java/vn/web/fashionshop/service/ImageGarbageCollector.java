@@ -0,0 +1,406 @@
+package vn.web.fashionshop.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.config.ImageGcProperties;
+import vn.web.fashionshop.config.UploadProperties;
+import vn.web.fashionshop.dto.image.ImageGcStatsDTO;
+
+/**
+ * Dọn file ảnh upload không còn dòng nào tham chiếu (product bị xoá, transaction lỗi sau khi ghi file...).
+ *
+ * 1. Đọc URL từ images / categories / reviews / users (avatar) theo keyset chunk, lưu hash 64-bit của tên file (bỏ đuôi
+ * và hậu tố -wN của bản resize) vào một mảng long đã sắp xếp: ~8 byte mỗi ảnh. Hash trùng chỉ làm
+ * giữ lại file, không bao giờ làm xoá nhầm.
+ * 2. Duyệt thư mục upload (lazy); file cũ hơn min-age mà không có trong tập tham chiếu là ứng viên.
+ * 3. Mỗi batch ứng viên được kiểm tra lại với DB rồi chuyển vào quarantine/yyyyMMdd/ (ngoài thư mục
+ * được phục vụ). Thư mục quarantine quá quarantine-days ngày bị xoá hẳn, số byte thu hồi được ghi lại.
+ *
+ * Dòng images trỏ tới file không tồn tại được đếm; nếu file còn trong quarantine thì được khôi phục.
+ */
+@Slf4j
+@Service
+public class ImageGarbageCollector {
+
+    private static final int REFERENCE_CHUNK = 2000;
+    private static final Pattern DERIVATIVE_SUFFIX = Pattern.compile("-w\\d+$");
+    private static final List<String> ORIGINAL_EXTENSIONS = List.of("jpg", "jpeg", "png", "gif", "webp");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    // Tên file tạm của LocalFileUploadService / ImageDerivativeService (Files.createTempFile)
+    private static final Pattern TEMP_FILE = Pattern.compile("^\\.(upload|derivative).*\\.tmp$");
+
+    // Bảng / cột chứa URL ảnh upload (tên được nối vào query)
+    private static final List<String[]> REFERENCES = List.of(
+            new String[] { "images", "url_image" },
+            new String[] { "categories", "image_url" },
+            new String[] { "reviews", "image_url" },
+            new String[] { "users", "avatar_url" });
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ImageGcProperties properties;
+    private final Path imagesDir;
+    private final Path quarantineRoot;
+    private final String imagesUrlPrefix;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong totalReclaimedBytes = new AtomicLong();
+    private volatile ImageGcStatsDTO lastRun;
+
+    private record Candidate(Path file, String relative, long size, boolean temp) {
+    }
+
+    private record Reference(long id, String url) {
+    }
+
+    public ImageGarbageCollector(NamedParameterJdbcTemplate jdbc, ImageGcProperties properties,
+            UploadProperties uploadProperties) {
+        this.jdbc = jdbc;
+        this.properties = properties;
+        this.imagesDir = Paths.get(uploadProperties.getImagesDir()).toAbsolutePath().normalize();
+        this.quarantineRoot = Paths.get(properties.getQuarantineDir()).toAbsolutePath().normalize();
+        String prefix = uploadProperties.getImagesUrlPrefix().trim();
+        this.imagesUrlPrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    @Scheduled(cron = "${app.images.gc.cron:0 15 4 * * *}")
+    public void scheduledRun() {
+        if (properties.isEnabled() && running.compareAndSet(false, true)) {
+            runGuarded();
+        }
+    }
+
+    /**
+     * Chạy một lần ở thread nền (admin API); false nếu đang chạy.
+     */
+    public boolean startAsync() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(this::runGuarded, "image-gc");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public ImageGcStatsDTO getLastRun() {
+        ImageGcStatsDTO stats = lastRun;
+        if (stats == null) {
+            stats = new ImageGcStatsDTO();
+            stats.setTotalReclaimedBytes(totalReclaimedBytes.get());
+        }
+        return stats;
+    }
+
+    private void runGuarded() {
+        ImageGcStatsDTO stats = new ImageGcStatsDTO();
+        stats.setStartedAt(LocalDateTime.now());
+        stats.setRunning(true);
+        stats.setTotalReclaimedBytes(totalReclaimedBytes.get());
+        lastRun = stats;
+        try {
+            if (!Files.isDirectory(imagesDir)) {
+                return;
+            }
+            long cutoff = System.currentTimeMillis() - properties.getMinAgeMinutes() * 60_000L;
+            long[] references = collectReferences(stats);
+            stats.setReferenced(references.length);
+            sweep(references, cutoff, stats);
+            purgeQuarantine(stats);
+        } catch (IOException | RuntimeException e) {
+            log.error("Image garbage collection failed", e);
+            stats.setError(e.getMessage());
+        } finally {
+            stats.setTotalReclaimedBytes(totalReclaimedBytes.addAndGet(stats.getReclaimedBytes()));
+            stats.setFinishedAt(LocalDateTime.now());
+            stats.setRunning(false);
+            running.set(false);
+            log.info("Image GC: {} files scanned, {} quarantined ({} bytes), {} purged ({} bytes reclaimed), " +
+                    "{} missing, {} restored", stats.getScannedFiles(), stats.getQuarantinedFiles(),
+                    stats.getQuarantinedBytes(), stats.getPurgedFiles(), stats.getReclaimedBytes(),
+                    stats.getMissingFiles(), stats.getRestoredFiles());
+        }
+    }
+
+    // Hash tên (đã bỏ đuôi) của mọi file được tham chiếu, sắp xếp để tìm nhị phân
+    private long[] collectReferences(ImageGcStatsDTO stats) {
+        long[] hashes = new long[1024];
+        int size = 0;
+        for (String[] reference : REFERENCES) {
+            boolean images = "images".equals(reference[0]);
+            long lastId = 0;
+            while (true) {
+                List<Reference> rows = jdbc.query(
+                        "SELECT id, " + reference[1] + " AS url FROM " + reference[0] +
+                                " WHERE id > :lastId AND " + reference[1] + " IS NOT NULL ORDER BY id LIMIT :limit",
+                        new MapSqlParameterSource("lastId", lastId).addValue("limit", REFERENCE_CHUNK),
+                        (rs, i) -> new Reference(rs.getLong("id"), rs.getString("url")));
+                for (Reference row : rows) {
+                    lastId = row.id();
+                    String relative = relativeOfUrl(row.url());
+                    if (relative == null) {
+                        continue;
+                    }
+                    if (size == hashes.length) {
+                        hashes = Arrays.copyOf(hashes, size * 2);
+                    }
+                    hashes[size++] = hash(stemOf(relative));
+                    if (images) {
+                        checkMissing(relative, stats);
+                    }
+                }
+                if (rows.size() < REFERENCE_CHUNK) {
+                    break;
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(hashes, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void checkMissing(String relative, ImageGcStatsDTO stats) {
+        Path file = imagesDir.resolve(relative).normalize();
+        if (!file.startsWith(imagesDir) || Files.exists(file)) {
+            return;
+        }
+        if (restore(relative)) {
+            stats.setRestoredFiles(stats.getRestoredFiles() + 1);
+        } else {
+            stats.setMissingFiles(stats.getMissingFiles() + 1);
+            log.debug("Referenced image file is missing: {}", relative);
+        }
+    }
+
+    // Lấy lại file (và các bản resize cùng tên) từ quarantine, ngày gần nhất trước
+    private boolean restore(String relative) {
+        if (!Files.isDirectory(quarantineRoot)) {
+            return false;
+        }
+        List<Path> days = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(quarantineRoot)) {
+            stream.forEach(days::add);
+        } catch (IOException e) {
+            return false;
+        }
+        days.sort(Comparator.reverseOrder());
+        String stem = stemOf(relative);
+        for (Path day : days) {
+            Path quarantined = day.resolve(relative).normalize();
+            if (!quarantined.startsWith(day) || !Files.isRegularFile(quarantined)) {
+                continue;
+            }
+            try (DirectoryStream<Path> siblings = Files.newDirectoryStream(quarantined.getParent())) {
+                for (Path sibling : siblings) {
+                    String siblingRelative = relativeOf(day, sibling);
+                    if (Files.isRegularFile(sibling) && stemOf(siblingRelative).equals(stem)) {
+                        Path target = imagesDir.resolve(siblingRelative);
+                        Files.createDirectories(target.getParent());
+                        Files.move(sibling, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                log.info("Restored image {} from quarantine {}", relative, day.getFileName());
+                return true;
+            } catch (IOException e) {
+                log.warn("Could not restore image {} from quarantine", relative, e);
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void sweep(long[] references, long cutoff, ImageGcStatsDTO stats) throws IOException {
+        List<Candidate> batch = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(imagesDir)) {
+            Iterator<Path> files = walk.iterator();
+            while (files.hasNext()) {
+                Path file = files.next();
+                if (file.startsWith(quarantineRoot)) {
+                    continue;
+                }
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (!attrs.isRegularFile()) {
+                    continue;
+                }
+                stats.setScannedFiles(stats.getScannedFiles() + 1);
+                stats.setScannedBytes(stats.getScannedBytes() + attrs.size());
+                if (attrs.lastModifiedTime().toMillis() >= cutoff) {
+                    continue;
+                }
+                String relative = relativeOf(imagesDir, file);
+                String name = file.getFileName().toString();
+                // File tạm (.upload*.tmp / .derivative*.tmp) còn sót lại sau khi server dừng giữa chừng;
+                // dotfile khác (.gitkeep...) không phải ảnh upload nên bỏ qua
+                boolean temp = TEMP_FILE.matcher(name).matches();
+                if (!temp && name.startsWith(".")) {
+                    continue;
+                }
+                if (!temp && Arrays.binarySearch(references, hash(stemOf(relative))) >= 0) {
+                    continue;
+                }
+                batch.add(new Candidate(file, relative, attrs.size(), temp));
+                if (batch.size() >= properties.getBatchSize()) {
+                    quarantine(batch, stats);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            quarantine(batch, stats);
+        }
+    }
+
+    private void quarantine(List<Candidate> batch, ImageGcStatsDTO stats) {
+        // Kiểm tra lại: dòng có thể được thêm sau khi chụp tập tham chiếu
+        Set<String> stillReferenced = referencedStems(batch);
+        Path day = quarantineRoot.resolve(LocalDate.now().format(DAY));
+        for (Candidate candidate : batch) {
+            if (!candidate.temp() && stillReferenced.contains(stemOf(candidate.relative()))) {
+                continue;
+            }
+            try {
+                Path target = day.resolve(candidate.relative());
+                Files.createDirectories(target.getParent());
+                Files.move(candidate.file(), target, StandardCopyOption.REPLACE_EXISTING);
+                stats.setQuarantinedFiles(stats.getQuarantinedFiles() + 1);
+                stats.setQuarantinedBytes(stats.getQuarantinedBytes() + candidate.size());
+            } catch (IOException e) {
+                log.warn("Could not quarantine orphan image {}", candidate.relative(), e);
+            }
+        }
+    }
+
+    // URL có thể của mỗi ứng viên: chính nó, và ảnh gốc với mọi đuôi (bản resize có thể khác đuôi)
+    private Set<String> referencedStems(List<Candidate> batch) {
+        Set<String> urls = new HashSet<>();
+        for (Candidate candidate : batch) {
+            if (candidate.temp()) {
+                continue;
+            }
+            urls.add(imagesUrlPrefix + candidate.relative());
+            String stem = stemOf(candidate.relative());
+            for (String ext : ORIGINAL_EXTENSIONS) {
+                urls.add(imagesUrlPrefix + stem + "." + ext);
+            }
+        }
+        Set<String> stems = new HashSet<>();
+        if (urls.isEmpty()) {
+            return stems;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("urls", urls);
+        for (String[] reference : REFERENCES) {
+            List<String> found = jdbc.queryForList("SELECT " + reference[1] + " FROM " + reference[0] +
+                    " WHERE " + reference[1] + " IN (:urls)", params, String.class);
+            for (String url : found) {
+                String relative = relativeOfUrl(url);
+                if (relative != null) {
+                    stems.add(stemOf(relative));
+                }
+            }
+        }
+        return stems;
+    }
+
+    private void purgeQuarantine(ImageGcStatsDTO stats) throws IOException {
+        if (!Files.isDirectory(quarantineRoot)) {
+            return;
+        }
+        LocalDate oldestKept = LocalDate.now().minusDays(properties.getQuarantineDays());
+        List<Path> expired = new ArrayList<>();
+        try (DirectoryStream<Path> days = Files.newDirectoryStream(quarantineRoot)) {
+            for (Path day : days) {
+                try {
+                    if (LocalDate.parse(day.getFileName().toString(), DAY).isBefore(oldestKept)) {
+                        expired.add(day);
+                    }
+                } catch (DateTimeParseException e) {
+                    // không phải thư mục do GC tạo
+                }
+            }
+        }
+        for (Path day : expired) {
+            List<Path> entries;
+            try (Stream<Path> walk = Files.walk(day)) {
+                // Con trước cha
+                entries = walk.sorted(Comparator.reverseOrder()).toList();
+            }
+            for (Path entry : entries) {
+                try {
+                    if (Files.isRegularFile(entry)) {
+                        long size = Files.size(entry);
+                        Files.delete(entry);
+                        stats.setPurgedFiles(stats.getPurgedFiles() + 1);
+                        stats.setReclaimedBytes(stats.getReclaimedBytes() + size);
+                    } else {
+                        Files.deleteIfExists(entry);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not purge quarantined image {}", entry, e);
+                }
+            }
+        }
+    }
+
+    private String relativeOfUrl(String url) {
+        if (url == null || !url.startsWith(imagesUrlPrefix)) {
+            return null;
+        }
+        String relative = StringUtils.cleanPath(url.substring(imagesUrlPrefix.length()));
+        return relative.isEmpty() || relative.startsWith("..") ? null : relative;
+    }
+
+    private static String relativeOf(Path root, Path file) {
+        return root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    // ab/cd/hash-w480.jpg -> ab/cd/hash
+    private static String stemOf(String relative) {
+        int slash = relative.lastIndexOf('/');
+        int dot = relative.lastIndexOf('.');
+        String stem = dot > slash ? relative.substring(0, dot) : relative;
+        return DERIVATIVE_SUFFIX.matcher(stem).replaceFirst("");
+    }
+
+    // FNV-1a 64-bit
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,110 @@
+package vn.web.fashionshop.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.config.UploadProperties;
+import vn.web.fashionshop.entity.Image;
+
+/**
+ * Đếm tham chiếu tới file ảnh đã upload. Với lưu trữ theo hash nội dung, cùng một file có thể được
+ * nhiều dòng images / categories / reviews dùng chung, nên chỉ xoá file khi không còn dòng nào trỏ tới.
+ *
+ * Số tham chiếu được đếm trực tiếp từ các bảng (không giữ cột counter riêng nên không bao giờ lệch).
+ */
+@Slf4j
+@Service
+public class ImageReferenceService {
+
+    // Upload trùng nội dung vừa tái sử dụng file (mtime được touch) nhưng dòng images chưa commit
+    private static final Duration RECENT_UPLOAD_GRACE = Duration.ofMinutes(10);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final FileUploadService fileUploadService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final Path imagesDir;
+    private final String imagesUrlPrefix;
+
+    public ImageReferenceService(NamedParameterJdbcTemplate jdbc, FileUploadService fileUploadService,
+            ImageDerivativeService imageDerivativeService, UploadProperties uploadProperties) {
+        this.jdbc = jdbc;
+        this.fileUploadService = fileUploadService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imagesDir = Paths.get(uploadProperties.getImagesDir()).normalize();
+        String prefix = uploadProperties.getImagesUrlPrefix().trim();
+        this.imagesUrlPrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    public long countReferences(String url) {
+        Long count = jdbc.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM images WHERE url_image = :url) " +
+                        "+ (SELECT COUNT(*) FROM categories WHERE image_url = :url) " +
+                        "+ (SELECT COUNT(*) FROM reviews WHERE image_url = :url)",
+                new MapSqlParameterSource("url", url), Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Gọi sau khi xoá dòng images trong transaction: sau commit, nếu không còn tham chiếu thì xoá file
+     * gốc và các bản resize. Rollback thì không làm gì.
+     */
+    public void releaseAfterCommit(Image image) {
+        String url = image.getUrlImage();
+        if (url == null || !url.startsWith(imagesUrlPrefix)) {
+            return;
+        }
+        Image snapshot = new Image();
+        snapshot.setUrlImage(url);
+        snapshot.setDerivativeWidths(image.getDerivativeWidths());
+        snapshot.setDerivativeFormat(image.getDerivativeFormat());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(snapshot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(snapshot);
+            }
+        });
+    }
+
+    private void release(Image image) {
+        String url = image.getUrlImage();
+        String filename = StringUtils.cleanPath(url.substring(imagesUrlPrefix.length()));
+        try {
+            if (countReferences(url) > 0 || recentlyUploaded(filename)) {
+                return;
+            }
+            fileUploadService.deleteImage(filename);
+            imageDerivativeService.deleteDerivatives(image);
+        } catch (RuntimeException e) {
+            // File còn sót lại sẽ được dọn bởi lần quét file mồ côi
+            log.warn("Could not release image file {}", url, e);
+        }
+    }
+
+    private boolean recentlyUploaded(String filename) {
+        Path file = imagesDir.resolve(filename).normalize();
+        if (!file.startsWith(imagesDir)) {
+            return false;
+        }
+        try {
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+            return age < RECENT_UPLOAD_GRACE.toMillis();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
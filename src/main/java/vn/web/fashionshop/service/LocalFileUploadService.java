@@ -2,15 +2,24 @@ package vn.web.fashionshop.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Set;
-import java.util.UUID;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -25,8 +34,13 @@ public class LocalFileUploadService implements FileUploadService {
 
     private static final Set<String> ALLOWED_EXTENSIONS = Set.of("jpg", "jpeg", "png", "webp", "gif");
 
+    // Đủ cho magic bytes và kích thước trong header WebP (VP8X cần 30 byte)
+    private static final int HEADER_BYTES = 32;
+
     private final Path imagesDir;
     private final String imagesUrlPrefix;
+    private final long maxImagePixels;
+    private final int maxImageDimension;
 
     public LocalFileUploadService(UploadProperties uploadProperties) {
         // Use explicit guards so IDE null analysis can prove non-null.
@@ -42,6 +56,8 @@ public class LocalFileUploadService implements FileUploadService {
 
         this.imagesDir = Paths.get(dir);
         this.imagesUrlPrefix = normalizeUrlPrefix(prefix);
+        this.maxImagePixels = uploadProperties.getMaxImagePixels();
+        this.maxImageDimension = uploadProperties.getMaxImageDimension();
     }
 
     @Override
@@ -55,25 +71,42 @@ public class LocalFileUploadService implements FileUploadService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image uploads are allowed");
         }
 
-        // Prefer content-type to determine extension to avoid trusting client-supplied filename.
-        String ext = extensionFromContentType(contentType);
-
-        // Fallback: if content-type is generic/unknown, attempt to extract extension from filename (sanitized).
-        if (ext.isEmpty()) {
-            String originalFilename = file.getOriginalFilename();
-            String safeName = StringUtils.cleanPath(originalFilename == null ? "" : originalFilename);
-            ext = getExtension(safeName);
-        }
-
-        if (ext.isEmpty() || !ALLOWED_EXTENSIONS.contains(ext)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Invalid image type. Allowed: " + String.join(", ", ALLOWED_EXTENSIONS));
-        }
-
+        Path tmp = null;
         try {
             Files.createDirectories(imagesDir);
+            tmp = Files.createTempFile(imagesDir, ".upload", ".tmp");
+
+            // Extension comes from the magic bytes, not from the client-supplied content-type / filename.
+            // The header is checked before the rest of the body is copied, with a fixed-size buffer.
+            // SHA-256 computed in the same pass: the content hash becomes the filename
+            MessageDigest digest = sha256();
+            byte[] header;
+            String ext;
+            try (InputStream in = file.getInputStream();
+                    OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                header = in.readNBytes(HEADER_BYTES);
+                ext = sniffExtension(header);
+                if (ext == null || !ALLOWED_EXTENSIONS.contains(ext)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Invalid image type. Allowed: " + String.join(", ", ALLOWED_EXTENSIONS));
+                }
+                out.write(header);
+                in.transferTo(out);
+            }
+
+            // Validate dimensions from the image header only; the bitmap is never decoded here.
+            int[] size = "webp".equals(ext) ? webpSize(header) : headerSize(tmp);
+            if (size == null || size[0] <= 0 || size[1] <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image content");
+            }
+            if (size[0] > maxImageDimension || size[1] > maxImageDimension
+                    || (long) size[0] * size[1] > maxImagePixels) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image dimensions are too large");
+            }
 
-            String filename = UUID.randomUUID().toString().replace("-", "") + "." + ext;
+            // Content-addressed, sharded: ab/cd/abcd....jpg (at most 65536 dirs, few files per dir)
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String filename = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + ext;
             Path target = imagesDir.resolve(filename).normalize();
 
             // Prevent path traversal
@@ -81,20 +114,21 @@ public class LocalFileUploadService implements FileUploadService {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file path");
             }
 
-            // Save first, then validate it is a real image to mitigate malicious uploads.
-            try (InputStream in = file.getInputStream()) {
-                Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.exists(target)) {
+                // Same content already stored: no extra disk. Touch it so a concurrent
+                // unreferenced-file delete (ImageReferenceService) leaves it alone.
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            } else {
+                Files.createDirectories(target.getParent());
+                // Same filesystem: rename is atomic, readers never see a partially written image.
+                // Two identical uploads racing here write identical bytes, so replacing is harmless.
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
             }
-
-            // Validate that the uploaded file is actually an image
-            if (!isReadableImage(target)) {
-                Files.deleteIfExists(target);
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image content");
-            }
-
             return new UploadResult(filename, imagesUrlPrefix + filename);
         } catch (IOException ex) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store image", ex);
+        } finally {
+            deleteQuietly(tmp);
         }
     }
 
@@ -115,33 +149,94 @@ public class LocalFileUploadService implements FileUploadService {
         }
     }
 
-    private static String getExtension(String filename) {
-        int idx = filename.lastIndexOf('.');
-        if (idx < 0 || idx == filename.length() - 1) {
-            return "";
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    // Magic bytes -> extension; null if not a supported image format
+    private static String sniffExtension(byte[] h) {
+        if (h.length >= 3 && (h[0] & 0xFF) == 0xFF && (h[1] & 0xFF) == 0xD8 && (h[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (h.length >= 8 && (h[0] & 0xFF) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G'
+                && h[4] == 0x0D && h[5] == 0x0A && h[6] == 0x1A && h[7] == 0x0A) {
+            return "png";
+        }
+        if (h.length >= 6 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8'
+                && (h[4] == '7' || h[4] == '9') && h[5] == 'a') {
+            return "gif";
+        }
+        if (h.length >= 16 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    // Width / height via ImageReader: reads only up to the frame header (SOF / IHDR), not the pixels
+    private static int[] headerSize(Path file) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException ex) {
+            return null;
         }
-        return filename.substring(idx + 1).toLowerCase(Locale.ROOT);
     }
 
-    private static String extensionFromContentType(String contentType) {
-        String ct = contentType.toLowerCase(Locale.ROOT);
-        return switch (ct) {
-            case "image/jpeg" -> "jpg";
-            case "image/png" -> "png";
-            case "image/webp" -> "webp";
-            case "image/gif" -> "gif";
-            // Some browsers may send these variants
-            case "image/jpg" -> "jpg";
-            default -> "";
+    // JDK has no WebP reader: parse the VP8 / VP8L / VP8X header directly
+    private static int[] webpSize(byte[] h) {
+        if (h.length < 30) {
+            return null;
+        }
+        String chunk = new String(h, 12, 4, StandardCharsets.US_ASCII);
+        return switch (chunk) {
+            case "VP8X" -> new int[] { 1 + le24(h, 24), 1 + le24(h, 27) };
+            case "VP8L" -> {
+                if ((h[20] & 0xFF) != 0x2F) {
+                    yield null;
+                }
+                int bits = (h[21] & 0xFF) | (h[22] & 0xFF) << 8 | (h[23] & 0xFF) << 16 | (h[24] & 0xFF) << 24;
+                yield new int[] { 1 + (bits & 0x3FFF), 1 + ((bits >>> 14) & 0x3FFF) };
+            }
+            case "VP8 " -> {
+                if ((h[23] & 0xFF) != 0x9D || (h[24] & 0xFF) != 0x01 || (h[25] & 0xFF) != 0x2A) {
+                    yield null;
+                }
+                yield new int[] { ((h[26] & 0xFF) | (h[27] & 0xFF) << 8) & 0x3FFF,
+                        ((h[28] & 0xFF) | (h[29] & 0xFF) << 8) & 0x3FFF };
+            }
+            default -> null;
         };
     }
 
-    private static boolean isReadableImage(Path file) {
+    private static int le24(byte[] h, int offset) {
+        return (h[offset] & 0xFF) | (h[offset + 1] & 0xFF) << 8 | (h[offset + 2] & 0xFF) << 16;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
         try {
-            // ImageIO.read returns null if it cannot decode the input.
-            return ImageIO.read(file.toFile()) != null;
+            Files.deleteIfExists(file);
         } catch (IOException ex) {
-            return false;
+            // best effort: temp file in the images dir
         }
     }
 
@@ -0,0 +1,266 @@
+package vn.web.fashionshop.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.config.LowStockProperties;
+import vn.web.fashionshop.dto.inventory.LowStockItemDTO;
+import vn.web.fashionshop.dto.inventory.StockAlertDTO;
+import vn.web.fashionshop.entity.ProductVariant;
+import vn.web.fashionshop.util.IndexedMinHeap;
+
+/**
+ * Theo dõi variant sắp hết hàng và báo cho admin qua STOMP ({@link #TOPIC}).
+ *
+ * Là JPA entity listener của ProductVariant nên mọi thay đổi tồn kho qua JPA (đặt hàng, huỷ đơn, admin
+ * sửa / nhập hàng) đều được thấy; các variant đổi trong một transaction được đọc lại một lần sau commit.
+ * Đường ghi JDBC (import catalog) gọi trực tiếp {@link #productsChanged}. Variant có stock <= ngưỡng nằm
+ * trong một min-heap theo stock, nên danh sách ít hàng nhất có sẵn mà không quét bảng; cảnh báo chỉ gửi
+ * khi variant vượt qua ngưỡng (xuống thấp, hết hàng, có hàng lại); variant bị xoá chỉ rời heap.
+ */
+@Slf4j
+@Service
+public class LowStockMonitor implements CommandLineRunner {
+
+    public static final String TOPIC = "/topic/admin/inventory";
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final LowStockProperties properties;
+
+    // Variant đang ở mức thấp, stock nhỏ nhất ở đỉnh
+    private final IndexedMinHeap<Long, LowStockItemDTO> lowStock = new IndexedMinHeap<>(
+            Comparator.comparing(LowStockItemDTO::getStock).thenComparing(LowStockItemDTO::getVariantId));
+    // Chỉ mục phụ product -> variant trong heap, để đường ghi JDBC tìm variant đã bị xoá mà không duyệt heap
+    private final Map<Long, Set<Long>> lowStockByProduct = new HashMap<>();
+
+    public LowStockMonitor(NamedParameterJdbcTemplate jdbc, ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+            LowStockProperties properties) {
+        this.jdbc = jdbc;
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+    }
+
+    // Nạp các variant đang ở mức thấp theo keyset
+    @Override
+    public synchronized void run(String... args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long cursor = 0;
+        List<LowStockItemDTO> chunk;
+        do {
+            chunk = new ArrayList<>(query("v.stock <= COALESCE(v.low_stock_threshold, :defaultThreshold) " +
+                    "AND v.id > :cursor ORDER BY v.id LIMIT :limit",
+                    new MapSqlParameterSource("cursor", cursor).addValue("limit", LOAD_CHUNK_SIZE)).values());
+            for (LowStockItemDTO item : chunk) {
+                track(item);
+            }
+            if (!chunk.isEmpty()) {
+                cursor = chunk.get(chunk.size() - 1).getVariantId();
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+        log.info("Low-stock monitor loaded {} variants", lowStock.size());
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof ProductVariant variant && variant.getId() != null) {
+            record(variant.getId());
+        }
+    }
+
+    // Trong transaction: gom tới khi commit; ngoài transaction: xử lý ngay
+    private void record(Long variantId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            variantsChanged(Set.of(variantId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LowStockMonitor.this);
+                    if (status == STATUS_COMMITTED) {
+                        try {
+                            variantsChanged(created);
+                        } catch (RuntimeException e) {
+                            log.warn("Low-stock refresh failed for variants {}", created, e);
+                        }
+                    }
+                }
+            });
+            pending = created;
+        }
+        pending.add(variantId);
+    }
+
+    /**
+     * Đọc lại stock của các variant và cập nhật heap / gửi cảnh báo.
+     */
+    public void variantsChanged(Collection<Long> variantIds) {
+        if (!properties.isEnabled() || variantIds.isEmpty()) {
+            return;
+        }
+        List<StockAlertDTO> alerts;
+        synchronized (this) {
+            // Đọc trong khoá: hai lần cập nhật không thể áp dụng ngược thứ tự
+            Map<Long, LowStockItemDTO> current = query("v.id IN (:ids)", new MapSqlParameterSource("ids", variantIds));
+            alerts = apply(variantIds, current);
+        }
+        publish(alerts);
+    }
+
+    // Đường ghi JDBC: mọi variant của các product, từng nhóm để giới hạn độ dài IN (...)
+    public void productsChanged(Collection<Long> productIds) {
+        if (!properties.isEnabled() || productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int i = 0; i < ids.size(); i += LOAD_CHUNK_SIZE) {
+            refreshProducts(new HashSet<>(ids.subList(i, Math.min(i + LOAD_CHUNK_SIZE, ids.size()))));
+        }
+    }
+
+    private void refreshProducts(Set<Long> productIds) {
+        List<StockAlertDTO> alerts;
+        synchronized (this) {
+            Map<Long, LowStockItemDTO> current = query("v.product_id IN (:ids)",
+                    new MapSqlParameterSource("ids", productIds));
+            Set<Long> variantIds = new HashSet<>(current.keySet());
+            // Variant đang thấp mà không còn: đã bị xoá
+            for (Long productId : productIds) {
+                variantIds.addAll(lowStockByProduct.getOrDefault(productId, Set.of()));
+            }
+            alerts = apply(variantIds, current);
+        }
+        publish(alerts);
+    }
+
+    private List<StockAlertDTO> apply(Collection<Long> variantIds, Map<Long, LowStockItemDTO> current) {
+        List<StockAlertDTO> alerts = new ArrayList<>();
+        for (Long variantId : variantIds) {
+            LowStockItemDTO now = current.get(variantId);
+            LowStockItemDTO before = lowStock.get(variantId);
+            if (now != null && now.getStock() <= now.getThreshold()) {
+                track(now);
+                if (now.getStock() <= 0 && (before == null || before.getStock() > 0)) {
+                    alerts.add(alert(StockAlertDTO.Type.OUT_OF_STOCK, now));
+                } else if (before == null) {
+                    alerts.add(alert(StockAlertDTO.Type.LOW_STOCK, now));
+                }
+            } else if (before != null) {
+                untrack(before);
+                // Không còn dòng: variant đã bị xoá, không phải có hàng lại
+                if (now != null) {
+                    alerts.add(alert(StockAlertDTO.Type.RESTOCKED, now));
+                }
+            }
+        }
+        return alerts;
+    }
+
+    private void track(LowStockItemDTO item) {
+        lowStock.put(item.getVariantId(), item);
+        lowStockByProduct.computeIfAbsent(item.getProductId(), id -> new HashSet<>()).add(item.getVariantId());
+    }
+
+    private void untrack(LowStockItemDTO item) {
+        lowStock.remove(item.getVariantId());
+        Set<Long> variants = lowStockByProduct.get(item.getProductId());
+        if (variants != null) {
+            variants.remove(item.getVariantId());
+            if (variants.isEmpty()) {
+                lowStockByProduct.remove(item.getProductId());
+            }
+        }
+    }
+
+    private StockAlertDTO alert(StockAlertDTO.Type type, LowStockItemDTO item) {
+        return new StockAlertDTO(type, item, 0, LocalDateTime.now());
+    }
+
+    private void publish(List<StockAlertDTO> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        SimpMessagingTemplate template = messagingTemplate.getIfAvailable();
+        int count = lowStockCount();
+        for (StockAlertDTO alert : alerts) {
+            alert.setLowStockCount(count);
+            if (template != null) {
+                template.convertAndSend(TOPIC, alert);
+            }
+        }
+    }
+
+    public synchronized int lowStockCount() {
+        return lowStock.size();
+    }
+
+    // Các variant ít hàng nhất, tăng dần theo stock
+    public synchronized List<LowStockItemDTO> lowest(int limit) {
+        return lowStock.smallest(limit);
+    }
+
+    /**
+     * Đặt ngưỡng riêng cho variant (null = dùng ngưỡng mặc định); false nếu không có variant.
+     */
+    public boolean setThreshold(Long variantId, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new IllegalArgumentException("INVALID_THRESHOLD");
+        }
+        int updated = jdbc.update("UPDATE product_variants SET low_stock_threshold = :threshold WHERE id = :id",
+                new MapSqlParameterSource("threshold", threshold).addValue("id", variantId));
+        if (updated == 0) {
+            return false;
+        }
+        variantsChanged(Set.of(variantId));
+        return true;
+    }
+
+    private Map<Long, LowStockItemDTO> query(String where, MapSqlParameterSource params) {
+        params.addValue("defaultThreshold", properties.getDefaultThreshold());
+        Map<Long, LowStockItemDTO> items = new LinkedHashMap<>();
+        jdbc.query("SELECT v.id, v.product_id, p.product_name, v.sku_variant, v.size, v.color, v.stock, " +
+                "COALESCE(v.low_stock_threshold, :defaultThreshold) AS threshold " +
+                "FROM product_variants v JOIN products p ON p.id = v.product_id WHERE " + where,
+                params,
+                rs -> {
+                    LowStockItemDTO item = new LowStockItemDTO(rs.getLong("id"), rs.getLong("product_id"),
+                            rs.getString("product_name"), rs.getString("sku_variant"), rs.getString("size"),
+                            rs.getString("color"), rs.getInt("stock"), rs.getInt("threshold"));
+                    items.put(item.getVariantId(), item);
+                });
+        return items;
+    }
+}
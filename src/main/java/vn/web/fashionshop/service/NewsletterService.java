@@ -0,0 +1,304 @@
+package vn.web.fashionshop.service;
+
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.config.NewsletterProperties;
+import vn.web.fashionshop.dto.newsletter.NewsletterCampaignStatsDTO;
+import vn.web.fashionshop.entity.NewsletterCampaign;
+import vn.web.fashionshop.entity.NewsletterSubscription;
+import vn.web.fashionshop.enums.ECampaignStatus;
+import vn.web.fashionshop.enums.EEmailStatus;
+import vn.web.fashionshop.repository.EmailOutboxRepository;
+import vn.web.fashionshop.repository.NewsletterCampaignRepository;
+import vn.web.fashionshop.repository.NewsletterSubscriptionRepository;
+import vn.web.fashionshop.util.MailTemplate;
+
+/**
+ * Đăng ký / huỷ đăng ký newsletter và gửi chiến dịch.
+ *
+ * Chiến dịch được gửi trên một thread nền: đọc subscriber theo keyset (id tăng dần) từng chunk, render
+ * template đã compile sẵn cho từng người nhận, rồi trong cùng một transaction batch-insert thư vào
+ * email_outbox và lưu cursor (last_subscriber_id). Bộ nhớ chỉ giữ một chunk, và restart giữa chừng
+ * tiếp tục đúng chỗ mà không gửi trùng. Trạng thái gửi của từng thư nằm ở email_outbox.campaign_id.
+ * Việc xếp thư không bị hãm; tốc độ gửi của chiến dịch (send_rate_per_second) do outbox áp khi nhận thư.
+ */
+@Slf4j
+@Service
+public class NewsletterService implements CommandLineRunner, DisposableBean {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final NewsletterSubscriptionRepository subscriptionRepository;
+    private final NewsletterCampaignRepository campaignRepository;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final NewsletterProperties properties;
+
+    // Một thread xếp thư cho mọi chiến dịch: các chiến dịch xếp hàng nhau
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "newsletter-sender");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+    private record Recipient(Long id, String email, String unsubscribeToken) {
+    }
+
+    public NewsletterService(NewsletterSubscriptionRepository subscriptionRepository,
+            NewsletterCampaignRepository campaignRepository, EmailOutboxRepository emailOutboxRepository,
+            EmailOutboxService emailOutboxService, NamedParameterJdbcTemplate jdbc,
+            PlatformTransactionManager transactionManager, NewsletterProperties properties) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.campaignRepository = campaignRepository;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @Transactional
+    public void subscribe(String email) {
+        NewsletterSubscription sub = subscriptionRepository.findByEmail(email).orElse(null);
+        if (sub == null) {
+            sub = new NewsletterSubscription();
+            sub.setEmail(email);
+            sub.setCreatedAt(LocalDateTime.now());
+        }
+        sub.setIsActive(true);
+        if (sub.getUnsubscribeToken() == null) {
+            sub.setUnsubscribeToken(newUnsubscribeToken());
+        }
+        subscriptionRepository.save(sub);
+    }
+
+    // Tra theo unique index unsubscribe_token; true nếu có subscription bị tắt
+    @Transactional
+    public boolean unsubscribe(String token) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        return subscriptionRepository.deactivateByUnsubscribeToken(token.trim()) > 0;
+    }
+
+    public NewsletterCampaign createCampaign(String subject, String bodyTemplate) {
+        NewsletterCampaign campaign = new NewsletterCampaign();
+        campaign.setSubject(subject.trim());
+        campaign.setBodyTemplate(bodyTemplate);
+        campaign.setStatus(ECampaignStatus.DRAFT);
+        campaign.setSendRatePerSecond(properties.getSendRatePerSecond());
+        campaign.setCreatedAt(LocalDateTime.now());
+        return campaignRepository.save(campaign);
+    }
+
+    public NewsletterCampaign startCampaign(Long campaignId) {
+        NewsletterCampaign campaign = campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new IllegalArgumentException("CAMPAIGN_NOT_FOUND"));
+        if (campaign.getStatus() != ECampaignStatus.DRAFT) {
+            throw new IllegalStateException("CAMPAIGN_NOT_DRAFT");
+        }
+        campaign.setStatus(ECampaignStatus.SENDING);
+        campaign.setStartedAt(LocalDateTime.now());
+        campaign = campaignRepository.save(campaign);
+        schedule(campaignId);
+        return campaign;
+    }
+
+    // Dừng xếp thêm thư và huỷ các thư chưa gửi trong outbox; thư đang gửi vẫn hoàn tất
+    public void cancelCampaign(Long campaignId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", campaignId)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        transactionTemplate.executeWithoutResult(status -> {
+            int updated = jdbc.update("UPDATE newsletter_campaigns SET status = 'CANCELLED', finished_at = :now " +
+                    "WHERE id = :id AND status IN ('DRAFT', 'SENDING')", params);
+            if (updated == 0) {
+                throw new IllegalStateException("CAMPAIGN_NOT_CANCELLABLE");
+            }
+            jdbc.update("UPDATE email_outbox SET status = 'CANCELLED' WHERE campaign_id = :id AND status = 'PENDING'",
+                    params);
+        });
+    }
+
+    public NewsletterCampaignStatsDTO getCampaignStats(Long campaignId) {
+        NewsletterCampaign campaign = campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new IllegalArgumentException("CAMPAIGN_NOT_FOUND"));
+        Map<EEmailStatus, Long> counts = new HashMap<>();
+        for (Object[] row : emailOutboxRepository.countByStatusForCampaign(campaignId)) {
+            counts.put((EEmailStatus) row[0], (Long) row[1]);
+        }
+        return new NewsletterCampaignStatsDTO(
+                campaign.getId(),
+                campaign.getSubject(),
+                campaign.getStatus(),
+                campaign.getQueuedCount(),
+                counts.getOrDefault(EEmailStatus.PENDING, 0L) + counts.getOrDefault(EEmailStatus.SENDING, 0L),
+                counts.getOrDefault(EEmailStatus.SENT, 0L),
+                counts.getOrDefault(EEmailStatus.FAILED, 0L),
+                campaign.getCreatedAt(),
+                campaign.getStartedAt(),
+                campaign.getFinishedAt());
+    }
+
+    // Tiếp tục các chiến dịch đang gửi dở khi ứng dụng khởi động lại
+    @Override
+    public void run(String... args) {
+        for (NewsletterCampaign campaign : campaignRepository.findByStatus(ECampaignStatus.SENDING)) {
+            log.info("Resuming newsletter campaign {} after subscriber {}", campaign.getId(),
+                    campaign.getLastSubscriberId());
+            schedule(campaign.getId());
+        }
+    }
+
+    private void schedule(Long campaignId) {
+        if (scheduled.add(campaignId)) {
+            sender.submit(() -> {
+                try {
+                    sendCampaign(campaignId);
+                } catch (RuntimeException e) {
+                    // Giữ SENDING: lần khởi động sau sẽ tiếp tục từ cursor đã lưu
+                    log.error("Newsletter campaign {} stopped", campaignId, e);
+                } finally {
+                    scheduled.remove(campaignId);
+                }
+            });
+        }
+    }
+
+    private void sendCampaign(Long campaignId) {
+        NewsletterCampaign campaign = campaignRepository.findById(campaignId).orElse(null);
+        if (campaign == null || campaign.getStatus() != ECampaignStatus.SENDING) {
+            return;
+        }
+        // Compile một lần cho cả chiến dịch
+        MailTemplate template = MailTemplate.compile(campaign.getBodyTemplate());
+        String subject = campaign.getSubject();
+        long cursor = campaign.getLastSubscriberId();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Recipient> chunk = fetchRecipients(cursor, properties.getChunkSize());
+            if (chunk.isEmpty()) {
+                complete(campaignId, cursor);
+                return;
+            }
+            if (!enqueueChunk(campaignId, cursor, chunk, subject, template)) {
+                // Chiến dịch bị huỷ hoặc instance khác đã nhận
+                return;
+            }
+            cursor = chunk.get(chunk.size() - 1).id();
+        }
+    }
+
+    private List<Recipient> fetchRecipients(long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return jdbc.query(
+                "SELECT id, email, unsubscribe_token FROM newsletter_subscriptions " +
+                        "WHERE is_active = TRUE AND id > :afterId ORDER BY id LIMIT :limit",
+                params,
+                (rs, rowNum) -> new Recipient(rs.getLong("id"), rs.getString("email"),
+                        rs.getString("unsubscribe_token")));
+    }
+
+    // Xếp thư cho một chunk và lưu cursor trong cùng transaction; false nếu không còn được phép gửi
+    private boolean enqueueChunk(Long campaignId, long expectedCursor, List<Recipient> chunk, String subject,
+            MailTemplate template) {
+        Boolean advanced = transactionTemplate.execute(status -> {
+            Map<String, Object> row = jdbc.queryForMap(
+                    "SELECT status, last_subscriber_id FROM newsletter_campaigns WHERE id = :id FOR UPDATE",
+                    new MapSqlParameterSource("id", campaignId));
+            if (!ECampaignStatus.SENDING.name().equals(row.get("status"))
+                    || ((Number) row.get("last_subscriber_id")).longValue() != expectedCursor) {
+                return false;
+            }
+
+            List<Recipient> recipients = assignMissingTokens(chunk);
+            List<EmailOutboxService.BulkMail> mails = new ArrayList<>(recipients.size());
+            Map<String, String> values = new HashMap<>();
+            for (Recipient recipient : recipients) {
+                String unsubscribeUrl = properties.getUnsubscribeUrl() + "?token=" + recipient.unsubscribeToken();
+                values.put("email", recipient.email());
+                values.put("unsubscribe_url", unsubscribeUrl);
+                mails.add(new EmailOutboxService.BulkMail(recipient.email(), subject, template.render(values),
+                        unsubscribeUrl));
+            }
+            emailOutboxService.enqueueBulk(mails, campaignId);
+
+            jdbc.update("UPDATE newsletter_campaigns SET last_subscriber_id = :cursor, " +
+                    "queued_count = queued_count + :count WHERE id = :id",
+                    new MapSqlParameterSource()
+                            .addValue("cursor", chunk.get(chunk.size() - 1).id())
+                            .addValue("count", mails.size())
+                            .addValue("id", campaignId));
+            return true;
+        });
+        return Boolean.TRUE.equals(advanced);
+    }
+
+    // Subscriber cũ (trước khi có cột token) được cấp token ngay trong chunk, bằng một batch update
+    private List<Recipient> assignMissingTokens(List<Recipient> chunk) {
+        List<Recipient> result = new ArrayList<>(chunk.size());
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        for (Recipient recipient : chunk) {
+            if (recipient.unsubscribeToken() != null) {
+                result.add(recipient);
+                continue;
+            }
+            String token = newUnsubscribeToken();
+            updates.add(new MapSqlParameterSource()
+                    .addValue("token", token)
+                    .addValue("id", recipient.id()));
+            result.add(new Recipient(recipient.id(), recipient.email(), token));
+        }
+        if (!updates.isEmpty()) {
+            jdbc.batchUpdate("UPDATE newsletter_subscriptions SET unsubscribe_token = :token WHERE id = :id",
+                    updates.toArray(new MapSqlParameterSource[0]));
+        }
+        return result;
+    }
+
+    private void complete(Long campaignId, long cursor) {
+        jdbc.update("UPDATE newsletter_campaigns SET status = 'COMPLETED', finished_at = :now " +
+                "WHERE id = :id AND status = 'SENDING' AND last_subscriber_id = :cursor",
+                new MapSqlParameterSource()
+                        .addValue("id", campaignId)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                        .addValue("cursor", cursor));
+    }
+
+    private static String newUnsubscribeToken() {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,407 @@
+package vn.web.fashionshop.service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import vn.web.fashionshop.config.OrderArchiveProperties;
+import vn.web.fashionshop.dto.OrderResponseDTO;
+import vn.web.fashionshop.dto.order.OrderItemLineDTO;
+import vn.web.fashionshop.dto.order.OrderSummaryDTO;
+import vn.web.fashionshop.entity.Order;
+import vn.web.fashionshop.entity.OrderAddress;
+import vn.web.fashionshop.entity.OrderItem;
+import vn.web.fashionshop.entity.Payment;
+import vn.web.fashionshop.entity.ProductVariant;
+import vn.web.fashionshop.enums.EOrderCancelReason;
+import vn.web.fashionshop.enums.EOrderStatus;
+import vn.web.fashionshop.enums.EPaymentMethod;
+import vn.web.fashionshop.enums.EPaymentStatus;
+import vn.web.fashionshop.enums.ESize;
+import vn.web.fashionshop.repository.ProductVariantRepository;
+import vn.web.fashionshop.repository.UserRepository;
+
+/**
+ * Hot/cold split cho đơn hàng.
+ *
+ * Đơn COMPLETED/CANCELLED cũ hơn app.archive.orders.age-days được chuyển (cùng items, address,
+ * payment, payment transactions) sang các bảng *_archive có cùng cấu trúc (tạo bởi schema.sql).
+ * Bảng hot và index của nó vì vậy chỉ chứa dữ liệu gần đây; các read path gọi
+ * {@link #needsArchive(LocalDateTime)} và chỉ đọc archive khi khoảng thời gian yêu cầu chạm tới phần
+ * đã archive. Các tổng toàn lịch sử (OrderRepository.countAll, countByStatus, theo user...) cộng
+ * orders_archive bằng UNION ALL.
+ *
+ * Không dùng MySQL partition vì InnoDB không hỗ trợ foreign key trên bảng partition.
+ * Đơn có item đã được review bị bỏ qua (reviews.order_item_id là FK bắt buộc tới order_items).
+ */
+@Service
+public class OrderArchiveService {
+
+    // Thứ tự copy: bảng cha trước; thứ tự xoá: ngược lại
+    private static final List<String> ARCHIVED_TABLES = List.of(
+            "orders", "order_items", "order_addresses", "payments", "payment_transactions");
+
+    private static final long WATERMARK_TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderArchiveProperties properties;
+    private final UserRepository userRepository;
+    private final ProductVariantRepository productVariantRepository;
+
+    // Cột chung giữa bảng hot và bảng archive (bảng hot có thể được ddl-auto thêm cột sau này)
+    private final Map<String, String> copyColumns = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime watermark;
+    private volatile long watermarkExpiresAt;
+
+    public OrderArchiveService(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            OrderArchiveProperties properties, UserRepository userRepository,
+            ProductVariantRepository productVariantRepository) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.userRepository = userRepository;
+        this.productVariantRepository = productVariantRepository;
+    }
+
+    @Scheduled(cron = "${app.archive.orders.cron:0 30 3 * * *}")
+    public void archiveOldOrders() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getAgeDays());
+
+        List<Long> ids;
+        do {
+            ids = findArchivableOrderIds(cutoff, properties.getBatchSize());
+            if (!ids.isEmpty()) {
+                archiveBatch(ids);
+            }
+        } while (ids.size() == properties.getBatchSize());
+
+        watermarkExpiresAt = 0;
+    }
+
+    private List<Long> findArchivableOrderIds(LocalDateTime cutoff, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", limit);
+        return jdbc.queryForList(
+                "SELECT o.id FROM orders o " +
+                        "WHERE o.order_status IN ('COMPLETED', 'CANCELLED') AND o.created_at < :cutoff " +
+                        "AND NOT EXISTS (SELECT 1 FROM order_items oi JOIN reviews r ON r.order_item_id = oi.id " +
+                        "WHERE oi.order_id = o.id) " +
+                        "ORDER BY o.id LIMIT :limit",
+                params, Long.class);
+    }
+
+    private void archiveBatch(List<Long> orderIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", orderIds);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String table : ARCHIVED_TABLES) {
+                String columns = columnsFor(table);
+                jdbc.update("INSERT INTO " + table + "_archive (" + columns + ") " +
+                        "SELECT " + prefixed("t", columns) + " FROM " + table + " t " + batchJoin(table), params);
+            }
+            List<String> reversed = new ArrayList<>(ARCHIVED_TABLES);
+            Collections.reverse(reversed);
+            for (String table : reversed) {
+                jdbc.update("DELETE t FROM " + table + " t " + batchJoin(table), params);
+            }
+        });
+    }
+
+    // Điều kiện chọn các dòng thuộc batch cho từng bảng
+    private String batchJoin(String table) {
+        return switch (table) {
+            case "orders" -> "WHERE t.id IN (:ids)";
+            case "payment_transactions" -> "JOIN payments p ON p.id = t.payment_id WHERE p.order_id IN (:ids)";
+            default -> "WHERE t.order_id IN (:ids)";
+        };
+    }
+
+    private String columnsFor(String table) {
+        return copyColumns.computeIfAbsent(table, t -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("hot", t)
+                    .addValue("archive", t + "_archive");
+            List<String> columns = jdbc.queryForList(
+                    "SELECT h.COLUMN_NAME FROM information_schema.COLUMNS h " +
+                            "JOIN information_schema.COLUMNS a ON a.TABLE_SCHEMA = h.TABLE_SCHEMA " +
+                            "AND a.TABLE_NAME = :archive AND a.COLUMN_NAME = h.COLUMN_NAME " +
+                            "WHERE h.TABLE_SCHEMA = DATABASE() AND h.TABLE_NAME = :hot " +
+                            "ORDER BY h.ORDINAL_POSITION",
+                    params, String.class);
+            List<String> quoted = new ArrayList<>();
+            for (String column : columns) {
+                quoted.add("`" + column + "`");
+            }
+            return String.join(", ", quoted);
+        });
+    }
+
+    private String prefixed(String alias, String columns) {
+        List<String> result = new ArrayList<>();
+        for (String column : columns.split(", ")) {
+            result.add(alias + "." + column);
+        }
+        return String.join(", ", result);
+    }
+
+    // READ PATHS
+
+    // created_at mới nhất trong archive; null nếu archive rỗng
+    public LocalDateTime getWatermark() {
+        long now = System.currentTimeMillis();
+        if (now >= watermarkExpiresAt) {
+            Timestamp max = jdbc.getJdbcTemplate().queryForObject(
+                    "SELECT MAX(created_at) FROM orders_archive", Timestamp.class);
+            watermark = max != null ? max.toLocalDateTime() : null;
+            watermarkExpiresAt = now + WATERMARK_TTL_MILLIS;
+        }
+        return watermark;
+    }
+
+    // Khoảng thời gian bắt đầu từ start (null = toàn bộ lịch sử) có chạm tới phần đã archive không
+    public boolean needsArchive(LocalDateTime start) {
+        LocalDateTime current = getWatermark();
+        return current != null && (start == null || !start.isAfter(current));
+    }
+
+    // Cùng dạng dòng với OrderRepository.getDailyOrderTrends
+    public List<Object[]> getArchivedDailyOrderTrends(LocalDateTime startDate, LocalDateTime endDate) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("startDate", Timestamp.valueOf(startDate))
+                .addValue("endDate", Timestamp.valueOf(endDate));
+        return jdbc.query(
+                "SELECT DATE(created_at) AS date, COUNT(*) AS orders, " +
+                        "COALESCE(SUM(CASE WHEN order_status = 'COMPLETED' THEN total_amount ELSE 0 END), 0) AS revenue " +
+                        "FROM orders_archive " +
+                        "WHERE created_at >= :startDate AND created_at < :endDate " +
+                        "GROUP BY DATE(created_at)",
+                params,
+                (rs, rowNum) -> new Object[] { rs.getDate("date"), rs.getLong("orders"), rs.getBigDecimal("revenue") });
+    }
+
+    public BigDecimal getArchivedSuccessPaymentRevenue() {
+        BigDecimal revenue = jdbc.getJdbcTemplate().queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM payments_archive WHERE status = 'SUCCESS'",
+                BigDecimal.class);
+        return revenue != null ? revenue : BigDecimal.ZERO;
+    }
+
+    public boolean hasArchivedOrders(String email) {
+        if (getWatermark() == null) {
+            return false;
+        }
+        Boolean exists = jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM orders_archive o JOIN users u ON u.id = o.user_id WHERE u.email = :email)",
+                new MapSqlParameterSource("email", email), Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    // Lịch sử đơn đã archive của khách: cùng keyset (id giảm dần) với OrderRepository.findMyOrderSummaries
+    public List<OrderSummaryDTO> findArchivedOrderSummaries(String email, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT o.id, o.created_at, o.order_status, o.payment_method, o.total_amount, " +
+                        "(SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items_archive oi WHERE oi.order_id = o.id) AS item_count "
+                        +
+                        "FROM orders_archive o JOIN users u ON u.id = o.user_id " +
+                        "WHERE u.email = :email");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", email)
+                .addValue("limit", limit);
+        if (afterId != null) {
+            sql.append(" AND o.id < :afterId");
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY o.id DESC LIMIT :limit");
+        return jdbc.query(sql.toString(), params,
+                (rs, rowNum) -> new OrderSummaryDTO(
+                        rs.getLong("id"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        EOrderStatus.valueOf(rs.getString("order_status")),
+                        EPaymentMethod.valueOf(rs.getString("payment_method")),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getLong("item_count"),
+                        true));
+    }
+
+    // Sản phẩm của một đơn đã archive, cùng dạng với OrderItemRepository.findLinesByOrderIdAndUserEmail
+    public List<OrderItemLineDTO> findArchivedOrderItemLines(String email, Long orderId) {
+        if (getWatermark() == null) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", email)
+                .addValue("orderId", orderId);
+        return jdbc.query(
+                "SELECT p.id AS product_id, p.product_name, v.size, v.color, oi.quantity, oi.unit_price, oi.total_price " +
+                        "FROM order_items_archive oi JOIN orders_archive o ON o.id = oi.order_id " +
+                        "JOIN users u ON u.id = o.user_id " +
+                        "JOIN product_variants v ON v.id = oi.variant_id JOIN products p ON p.id = v.product_id " +
+                        "WHERE o.id = :orderId AND u.email = :email ORDER BY oi.id",
+                params,
+                (rs, rowNum) -> {
+                    String size = rs.getString("size");
+                    return new OrderItemLineDTO(
+                            rs.getLong("product_id"),
+                            rs.getString("product_name"),
+                            size != null ? ESize.valueOf(size) : null,
+                            rs.getString("color"),
+                            rs.getInt("quantity"),
+                            rs.getBigDecimal("unit_price"),
+                            rs.getBigDecimal("total_price"));
+                });
+    }
+
+    // Grid đơn hàng admin: cùng filter và keyset (id giảm dần) với OrderRepository.filterOrdersKeyset /
+    // searchOrdersByIdOrUsersKeyset; userIds rỗng = không tìm theo keyword
+    public List<OrderResponseDTO> findArchivedOrders(EOrderStatus status, EPaymentMethod paymentMethod,
+            LocalDateTime startDate, LocalDateTime endDate, Long orderId, List<Long> userIds, Long afterId,
+            int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT o.id, o.total_amount, o.order_status, o.payment_method, o.created_at, u.full_name, u.email " +
+                        "FROM orders_archive o LEFT JOIN users u ON u.id = o.user_id WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        if (!userIds.isEmpty()) {
+            sql.append(" AND (o.id = :orderId OR o.user_id IN (:userIds))");
+            params.addValue("orderId", orderId).addValue("userIds", userIds);
+        }
+        if (status != null) {
+            sql.append(" AND o.order_status = :status");
+            params.addValue("status", status.name());
+        }
+        if (paymentMethod != null) {
+            sql.append(" AND o.payment_method = :paymentMethod");
+            params.addValue("paymentMethod", paymentMethod.name());
+        }
+        if (startDate != null) {
+            sql.append(" AND o.created_at >= :startDate");
+            params.addValue("startDate", Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND o.created_at < :endDate");
+            params.addValue("endDate", Timestamp.valueOf(endDate));
+        }
+        if (afterId != null) {
+            sql.append(" AND o.id < :afterId");
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY o.id DESC LIMIT :limit");
+
+        return jdbc.query(sql.toString(), params, (rs, rowNum) -> new OrderResponseDTO(
+                rs.getLong("id"),
+                rs.getBigDecimal("total_amount"),
+                rs.getString("order_status"),
+                rs.getString("payment_method"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getString("full_name"),
+                rs.getString("email"),
+                true));
+    }
+
+    // Chi tiết đơn đã archive, dựng thành Order tách rời (không managed) để dùng chung trang xem chi tiết
+    public Optional<Order> findArchivedOrder(Long id) {
+        if (getWatermark() == null) {
+            return Optional.empty();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        List<Order> orders = jdbc.query("SELECT * FROM orders_archive WHERE id = :id", params, (rs, rowNum) -> {
+            Order order = new Order();
+            order.setId(rs.getLong("id"));
+            order.setUser(userRepository.findById(rs.getLong("user_id")).orElse(null));
+            order.setSubTotal(rs.getBigDecimal("sub_total"));
+            order.setDiscountAmount(rs.getBigDecimal("discount_amount"));
+            order.setTotalAmount(rs.getBigDecimal("total_amount"));
+            order.setVoucherCode(rs.getString("voucher_code"));
+            order.setVoucherDiscountPercent(rs.getObject("voucher_discount_percent", Integer.class));
+            order.setPaymentMethod(EPaymentMethod.valueOf(rs.getString("payment_method")));
+            order.setOrderStatus(EOrderStatus.valueOf(rs.getString("order_status")));
+            String cancelReason = rs.getString("cancel_reason");
+            order.setCancelReason(cancelReason != null ? EOrderCancelReason.valueOf(cancelReason) : null);
+            order.setCancelReasonNote(rs.getString("cancel_reason_note"));
+            order.setCancelledAt(toLocalDateTime(rs.getTimestamp("cancelled_at")));
+            order.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+            order.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+            return order;
+        });
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+        Order order = orders.get(0);
+
+        List<OrderItem> items = jdbc.query("SELECT * FROM order_items_archive WHERE order_id = :id ORDER BY id",
+                params, (rs, rowNum) -> {
+                    OrderItem item = new OrderItem();
+                    item.setId(rs.getLong("id"));
+                    item.setOrder(order);
+                    // Variant vẫn nằm ở bảng hot; tạm giữ id, gán entity bên dưới
+                    ProductVariant variant = new ProductVariant();
+                    variant.setId(rs.getLong("variant_id"));
+                    item.setVariant(variant);
+                    item.setQuantity(rs.getInt("quantity"));
+                    item.setUnitPrice(rs.getBigDecimal("unit_price"));
+                    item.setTotalPrice(rs.getBigDecimal("total_price"));
+                    item.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                    item.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+                    return item;
+                });
+        Map<Long, ProductVariant> variants = productVariantRepository
+                .findAllById(items.stream().map(item -> item.getVariant().getId()).toList())
+                .stream().collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+        items.forEach(item -> item.setVariant(variants.getOrDefault(item.getVariant().getId(), item.getVariant())));
+        order.setOrderItems(items);
+
+        jdbc.query("SELECT * FROM order_addresses_archive WHERE order_id = :id", params, (rs, rowNum) -> {
+            OrderAddress address = new OrderAddress();
+            address.setId(rs.getLong("id"));
+            address.setOrder(order);
+            address.setRecipientName(rs.getString("recipient_name"));
+            address.setPhone(rs.getString("phone"));
+            address.setAddressLine(rs.getString("address_line"));
+            address.setWard(rs.getString("ward"));
+            address.setDistrict(rs.getString("district"));
+            address.setCity(rs.getString("city"));
+            address.setNote(rs.getString("note"));
+            address.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+            address.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+            return address;
+        }).stream().findFirst().ifPresent(order::setOrderAddress);
+
+        jdbc.query("SELECT * FROM payments_archive WHERE order_id = :id", params, (rs, rowNum) -> {
+            Payment payment = new Payment();
+            payment.setId(rs.getLong("id"));
+            payment.setOrder(order);
+            payment.setMethod(EPaymentMethod.valueOf(rs.getString("method")));
+            payment.setStatus(EPaymentStatus.valueOf(rs.getString("status")));
+            payment.setAmount(rs.getBigDecimal("amount"));
+            payment.setPaidAt(toLocalDateTime(rs.getTimestamp("paid_at")));
+            payment.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+            payment.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+            return payment;
+        }).stream().findFirst().ifPresent(order::setPayment);
+
+        return Optional.of(order);
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -7,18 +7,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import jakarta.transaction.Transactional;
 import vn.web.fashionshop.dto.ChartResponse;
 import vn.web.fashionshop.dto.OrderResponseDTO;
+import vn.web.fashionshop.dto.order.OrderItemLineDTO;
+import vn.web.fashionshop.dto.order.OrderSummaryDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Order;
 import vn.web.fashionshop.entity.OrderAddress;
 import vn.web.fashionshop.entity.OrderItem;
@@ -28,29 +31,45 @@ import vn.web.fashionshop.enums.EOrderCancelReason;
 import vn.web.fashionshop.enums.EOrderStatus;
 import vn.web.fashionshop.enums.EPaymentMethod;
 import vn.web.fashionshop.enums.EPaymentStatus;
+import vn.web.fashionshop.repository.OrderItemRepository;
 import vn.web.fashionshop.repository.OrderRepository;
 import vn.web.fashionshop.repository.ProductVariantRepository;
 import vn.web.fashionshop.repository.UserRepository;
 import vn.web.fashionshop.repository.VoucherRepository;
+import vn.web.fashionshop.util.DateRange;
 import vn.web.fashionshop.util.InventoryManager;
 import vn.web.fashionshop.util.OrderCalculator;
 
 @Service
 public class OrderService {
 
+    // ngram_token_size mặc định của MySQL
+    private static final int NGRAM_TOKEN_SIZE = 2;
+    // Số id user khớp keyword tra mỗi lô khi tìm đơn hàng (giữ IN (...) ngắn)
+    private static final int USER_ID_BATCH = 500;
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final ProductVariantRepository productVariantRepository;
     private final VoucherRepository voucherRepository;
+    private final GridStatsService gridStatsService;
+    private final OrderArchiveService orderArchiveService;
 
     public OrderService(OrderRepository orderRepository,
+            OrderItemRepository orderItemRepository,
             UserRepository userRepository,
             ProductVariantRepository productVariantRepository,
-            VoucherRepository voucherRepository) {
+            VoucherRepository voucherRepository,
+            GridStatsService gridStatsService,
+            OrderArchiveService orderArchiveService) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.userRepository = userRepository;
         this.productVariantRepository = productVariantRepository;
         this.voucherRepository = voucherRepository;
+        this.gridStatsService = gridStatsService;
+        this.orderArchiveService = orderArchiveService;
     }
 
     // Get order by ID
@@ -59,6 +78,16 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
     }
 
+    public Optional<Order> findOrderById(Long id) {
+        return orderRepository.findById(id);
+    }
+
+    // Đơn đã chuyển sang bảng archive (chỉ xem, không sửa)
+    public Order getArchivedOrderById(Long id) {
+        return orderArchiveService.findArchivedOrder(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+    }
+
     @Transactional
     public void cancelMyOrder(String email, Long orderId, EOrderCancelReason reason, String note) {
         if (email == null || email.isBlank() || orderId == null) {
@@ -117,10 +146,10 @@ public class OrderService {
             if (row == null || row.length < 2) {
                 continue;
             }
-            EOrderCancelReason reason = (EOrderCancelReason) row[0];
-            Long count = (Long) row[1];
-            if (reason != null) {
-                stats.put(reason, count != null ? count : 0L);
+            // Native query: cancel_reason là chuỗi, SUM trả về BigDecimal
+            if (row[0] != null) {
+                EOrderCancelReason reason = EOrderCancelReason.valueOf(row[0].toString());
+                stats.put(reason, row[1] != null ? ((Number) row[1]).longValue() : 0L);
             }
         }
         return stats;
@@ -181,7 +210,7 @@ public class OrderService {
         return orderRepository.countProcessing();
     }
 
-    // Tổng doanh thu - Revenue
+    // Tổng doanh thu - Revenue (toàn bộ lịch sử, gồm cả đơn đã archive)
     public BigDecimal countRevenue() {
         BigDecimal revenue = orderRepository.countRevenue();
         return revenue != null ? revenue : BigDecimal.ZERO;
@@ -190,7 +219,8 @@ public class OrderService {
     // Count orders by status for Pie Chart
     public Long countByStatus(String status) {
         EOrderStatus enumStatus = EOrderStatus.valueOf(status);
-        return orderRepository.countByStatus(enumStatus);
+        Long count = orderRepository.countByStatus(enumStatus.name());
+        return count != null ? count : 0L;
     }
 
     // Get Order Trends data for chart (số đơn hàng + doanh thu theo ngày)
@@ -202,49 +232,172 @@ public class OrderService {
         LocalDate today = LocalDate.now();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM");
 
+        // Một query cho cả khoảng thay vì 2 query mỗi ngày
+        DateRange range = DateRange.sinceStartOf(today.minusDays(days - 1));
+        Map<LocalDate, Object[]> rowsByDate = new HashMap<>();
+        for (Object[] row : orderRepository.getDailyOrderTrends(range.start(), range.end())) {
+            if (row[0] != null) {
+                rowsByDate.put(toLocalDate(row[0]), row);
+            }
+        }
+        // Chỉ đọc archive khi khoảng thời gian chạm tới phần đã archive
+        if (orderArchiveService.needsArchive(range.start())) {
+            for (Object[] row : orderArchiveService.getArchivedDailyOrderTrends(range.start(), range.end())) {
+                if (row[0] != null) {
+                    rowsByDate.merge(toLocalDate(row[0]), row, this::sumTrendRows);
+                }
+            }
+        }
+
         for (int i = days - 1; i >= 0; i--) {
             LocalDate date = today.minusDays(i);
             labels.add(date.format(formatter));
 
+            Object[] row = rowsByDate.get(date);
             // Số đơn hàng
-            Long count = orderRepository.countByDate(date);
-            orderData.add(count != null ? count : 0L);
-
+            orderData.add(row != null && row[1] != null ? ((Number) row[1]).longValue() : 0L);
             // Doanh thu
-            java.math.BigDecimal revenue = orderRepository.getRevenueByDate(date);
-            revenueData.add(revenue != null ? revenue.doubleValue() : 0.0);
+            revenueData.add(row != null && row[2] != null ? ((Number) row[2]).doubleValue() : 0.0);
         }
 
         return new ChartResponse(labels, orderData, revenueData);
     }
 
-    public Page<Order> searchOrderAdvanced(String keyword, String status, String paymentMethod, String period,
-            int pageNo) {
-        int pageSize = 6;
-        Pageable pageable = PageRequest.of(pageNo - 1, pageSize);
+    private Object[] sumTrendRows(Object[] a, Object[] b) {
+        long orders = ((Number) a[1]).longValue() + ((Number) b[1]).longValue();
+        BigDecimal revenue = new BigDecimal(a[2].toString()).add(new BigDecimal(b[2].toString()));
+        return new Object[] { a[0], orders, revenue };
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    // Keyset paging cho grid đơn hàng: không COUNT, trang sâu không chậm dần
+    public CursorPage<OrderResponseDTO> searchOrdersByCursor(String keyword, String status, String paymentMethod,
+            String period, Long cursor, int size, boolean withTotal) {
+        Pageable limit = CursorPage.fetchLimit(size);
+        OrderCriteria criteria = buildCriteria(keyword, status, paymentMethod, period);
+
+        // Chỉ đọc archive khi bộ lọc có thể khớp đơn đã archive; trộn hai nguồn theo id giảm dần
+        boolean searchArchive = !criteria.matchesNothing() && criteria.mayMatchArchived()
+                && orderArchiveService.needsArchive(criteria.startDate());
+
+        List<OrderResponseDTO> rows = new ArrayList<>();
+        if (!criteria.hasKeyword()) {
+            orderRepository.filterOrdersKeyset(criteria.status(), criteria.paymentMethod(),
+                    criteria.startDate(), criteria.endDate(), cursor, limit)
+                    .forEach(order -> rows.add(toOrderResponseDTO(order)));
+            if (searchArchive) {
+                rows.addAll(orderArchiveService.findArchivedOrders(criteria.status(), criteria.paymentMethod(),
+                        criteria.startDate(), criteria.endDate(), null, List.of(), cursor, limit.getPageSize()));
+            }
+        } else if (!criteria.matchesNothing()) {
+            searchByIdOrUsers(criteria, cursor, limit, searchArchive, rows);
+        }
+        rows.sort(Comparator.comparing(OrderResponseDTO::getId).reversed());
+        List<OrderResponseDTO> page = rows.size() > limit.getPageSize() ? rows.subList(0, limit.getPageSize()) : rows;
+
+        // Tổng xấp xỉ chỉ có nghĩa khi không lọc
+        Long approximateTotal = null;
+        if (withTotal && criteria.isUnfiltered()) {
+            approximateTotal = gridStatsService.approximateRowCount("orders")
+                    + (searchArchive ? gridStatsService.approximateRowCount("orders_archive") : 0);
+        }
+        return CursorPage.of(page, size, OrderResponseDTO::getId, approximateTotal);
+    }
+
+    // Duyệt hết user khớp keyword theo từng lô id (keyset), mỗi lô lấy tối đa một trang đơn;
+    // trang cuối là các đơn có id lớn nhất trong mọi lô nên không mất kết quả khi nhiều user khớp
+    private void searchByIdOrUsers(OrderCriteria criteria, Long cursor, Pageable limit, boolean searchArchive,
+            List<OrderResponseDTO> rows) {
+        Long orderId = criteria.orderId();
+        Long afterUserId = null;
+        List<Long> userIds;
+        do {
+            userIds = criteria.userQuery() == null ? List.of()
+                    : userRepository.searchIdsByFullText(criteria.userQuery(), afterUserId, USER_ID_BATCH);
+            if (userIds.isEmpty() && orderId == null) {
+                return;
+            }
+            // Không có user khớp: id 0 không tồn tại (IDENTITY bắt đầu từ 1), tránh IN () rỗng
+            List<Long> batch = userIds.isEmpty() ? List.of(0L) : userIds;
+            orderRepository.searchOrdersByIdOrUsersKeyset(orderId, batch, criteria.status(),
+                    criteria.paymentMethod(), criteria.startDate(), criteria.endDate(), cursor, limit)
+                    .forEach(order -> rows.add(toOrderResponseDTO(order)));
+            if (searchArchive) {
+                rows.addAll(orderArchiveService.findArchivedOrders(criteria.status(), criteria.paymentMethod(),
+                        criteria.startDate(), criteria.endDate(), orderId, batch, cursor, limit.getPageSize()));
+            }
+            // Mã đơn chỉ cần khớp ở lô đầu
+            orderId = null;
+            if (!userIds.isEmpty()) {
+                afterUserId = userIds.get(userIds.size() - 1);
+            }
+        } while (userIds.size() == USER_ID_BATCH);
+    }
+
+    // Lịch sử đơn hàng của khách, mỗi trang một query projection (không load entity / items / address)
+    public CursorPage<OrderSummaryDTO> getMyOrderHistory(String email, Long cursor, int size) {
+        List<OrderSummaryDTO> fetched = orderRepository.findMyOrderSummaries(email, cursor,
+                CursorPage.fetchLimit(size));
+        return CursorPage.of(fetched, size, OrderSummaryDTO::getId, null);
+    }
+
+    // Đơn đã archive của khách, cùng cách phân trang với getMyOrderHistory
+    public CursorPage<OrderSummaryDTO> getMyArchivedOrderHistory(String email, Long cursor, int size) {
+        List<OrderSummaryDTO> fetched = orderArchiveService.findArchivedOrderSummaries(email, cursor,
+                CursorPage.normalizeSize(size) + 1);
+        return CursorPage.of(fetched, size, OrderSummaryDTO::getId, null);
+    }
+
+    // Sản phẩm của một đơn, chỉ tải khi khách mở đơn đó; không có ở bảng hot thì tìm trong archive
+    public List<OrderItemLineDTO> getMyOrderItems(String email, Long orderId) {
+        List<OrderItemLineDTO> items = orderItemRepository.findLinesByOrderIdAndUserEmail(orderId, email);
+        if (items.isEmpty()) {
+            items = orderArchiveService.findArchivedOrderItemLines(email, orderId);
+        }
+        return items;
+    }
+
+    // Chi tiết đơn đã archive của khách (null nếu không có hoặc không phải đơn của khách)
+    public Order getMyArchivedOrder(String email, Long orderId) {
+        return orderArchiveService.findArchivedOrder(orderId)
+                .filter(order -> order.getUser() != null && email.equals(order.getUser().getEmail()))
+                .orElse(null);
+    }
 
+    private OrderCriteria buildCriteria(String keyword, String status, String paymentMethod, String period) {
         // Calculate start and end dates based on period
         LocalDateTime startDateTime = null;
         LocalDateTime endDateTime = null;
 
         if (period != null && !period.isEmpty()) {
             LocalDate now = LocalDate.now();
+            // Khoảng nửa mở [start, 00:00 ngày mai)
+            LocalDateTime endOfToday = now.plusDays(1).atStartOfDay();
             switch (period) {
                 case "today":
                     startDateTime = now.atStartOfDay();
-                    endDateTime = now.atTime(23, 59, 59);
+                    endDateTime = endOfToday;
                     break;
                 case "week":
                     // Start of current week (Monday)
                     LocalDate startOfWeek = now.with(DayOfWeek.MONDAY);
                     startDateTime = startOfWeek.atStartOfDay();
-                    endDateTime = now.atTime(23, 59, 59);
+                    endDateTime = endOfToday;
                     break;
                 case "month":
                     // Start of current month
                     LocalDate startOfMonth = now.withDayOfMonth(1);
                     startDateTime = startOfMonth.atStartOfDay();
-                    endDateTime = now.atTime(23, 59, 59);
+                    endDateTime = endOfToday;
                     break;
             }
         }
@@ -269,43 +422,73 @@ public class OrderService {
             }
         }
 
-        return orderRepository.searchOrders(keyword, statusEnum, paymentMethodEnum, startDateTime, endDateTime,
-                pageable);
+        String trimmedKeyword = keyword != null ? keyword.trim() : "";
+        if (trimmedKeyword.isEmpty()) {
+            return new OrderCriteria(statusEnum, paymentMethodEnum, startDateTime, endDateTime, false, null,
+                    List.of());
+        }
+
+        // Mã đơn: khớp chính xác theo id (cho phép gõ "#123")
+        Long orderId = parseOrderId(trimmedKeyword);
+        // Email / tên / SĐT khách hàng: tra qua full-text index trên bảng users
+        String userQuery = toFullTextQuery(trimmedKeyword);
+        return new OrderCriteria(statusEnum, paymentMethodEnum, startDateTime, endDateTime, true, orderId,
+                userQuery);
+    }
+
+    private Long parseOrderId(String keyword) {
+        String digits = keyword.startsWith("#") ? keyword.substring(1) : keyword;
+        if (digits.isEmpty() || digits.length() > 18 || !digits.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.parseLong(digits);
     }
 
-    // Search orders and convert to DTO for AJAX response
-    public Map<String, Object> searchOrdersForAjax(String keyword, String status, String paymentMethod,
-            String period, int page) {
+    // null nếu keyword quá ngắn để khớp full-text
+    private String toFullTextQuery(String keyword) {
+        // Tìm theo cụm trong dấu nháy kép nên chỉ cần bỏ dấu nháy kép trong keyword
+        String cleaned = keyword.replace("\"", " ").trim();
+        if (cleaned.length() < NGRAM_TOKEN_SIZE) {
+            return null;
+        }
+        return "\"" + cleaned + "\"";
+    }
 
-        Page<Order> orderPage = searchOrderAdvanced(keyword, status, paymentMethod, period, page);
+    private record OrderCriteria(
+            EOrderStatus status,
+            EPaymentMethod paymentMethod,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            boolean hasKeyword,
+            Long orderId,
+            String userQuery) {
+
+        boolean matchesNothing() {
+            return hasKeyword && orderId == null && userQuery == null;
+        }
 
-        // Convert to DTO to avoid circular reference
-        List<OrderResponseDTO> orderDTOs = new ArrayList<>();
-        for (Order order : orderPage.getContent()) {
-            OrderResponseDTO dto = new OrderResponseDTO();
-            dto.setId(order.getId());
-            dto.setTotalAmount(order.getTotalAmount());
-            dto.setOrderStatus(order.getOrderStatus().name());
-            dto.setPaymentMethod(order.getPaymentMethod().name());
-            dto.setCreatedAt(order.getCreatedAt());
-            if (order.getUser() != null) {
-                dto.setUserFullName(order.getUser().getFullName());
-                dto.setUserEmail(order.getUser().getEmail());
-            }
-            orderDTOs.add(dto);
+        boolean isUnfiltered() {
+            return !hasKeyword && status == null && paymentMethod == null && startDate == null;
         }
 
-        // Build response similar to Spring Page structure
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", orderDTOs);
-        response.put("number", orderPage.getNumber());
-        response.put("numberOfElements", orderPage.getNumberOfElements());
-        response.put("totalPages", orderPage.getTotalPages());
-        response.put("totalElements", orderPage.getTotalElements());
-        response.put("first", orderPage.isFirst());
-        response.put("last", orderPage.isLast());
+        // Archive chỉ chứa đơn COMPLETED / CANCELLED
+        boolean mayMatchArchived() {
+            return status == null || status == EOrderStatus.COMPLETED || status == EOrderStatus.CANCELLED;
+        }
+    }
 
-        return response;
+    private OrderResponseDTO toOrderResponseDTO(Order order) {
+        OrderResponseDTO dto = new OrderResponseDTO();
+        dto.setId(order.getId());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setOrderStatus(order.getOrderStatus().name());
+        dto.setPaymentMethod(order.getPaymentMethod().name());
+        dto.setCreatedAt(order.getCreatedAt());
+        if (order.getUser() != null) {
+            dto.setUserFullName(order.getUser().getFullName());
+            dto.setUserEmail(order.getUser().getEmail());
+        }
+        return dto;
     }
 
     // ORDER CALCULATION METHODS
@@ -1,36 +1,36 @@
 package vn.web.fashionshop.service;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import vn.web.fashionshop.config.OtpStoreProperties;
 import vn.web.fashionshop.dto.PendingRegistration;
 import vn.web.fashionshop.dto.RegisterDTO;
+import vn.web.fashionshop.util.ExpiringStore;
 
 import java.security.SecureRandom;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class OtpService {
 
-    // In-Memory storage: Key = email, Value = PendingRegistration
-    private final Map<String, PendingRegistration> pendingRegistrations = new ConcurrentHashMap<>();
+    // Key = email, Value = PendingRegistration (giới hạn kích thước, tự hết hạn)
+    private final ExpiringStore<PendingRegistration> pendingRegistrations;
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
     private final PasswordEncoder passwordEncoder;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final OtpStoreProperties storeProperties;
 
     @Value("${app.otp.expiration-minutes:5}")
     private int otpExpirationMinutes;
 
-    public OtpService(JavaMailSender mailSender, PasswordEncoder passwordEncoder) {
-        this.mailSender = mailSender;
+    public OtpService(EmailOutboxService emailOutboxService, PasswordEncoder passwordEncoder,
+            ExpiringStore<PendingRegistration> pendingRegistrations, OtpStoreProperties storeProperties) {
+        this.emailOutboxService = emailOutboxService;
         this.passwordEncoder = passwordEncoder;
+        this.pendingRegistrations = pendingRegistrations;
+        this.storeProperties = storeProperties;
     }
 
     // Generate 6-digit OTP
@@ -41,7 +41,16 @@ public class OtpService {
     }
 
     // Create OTP, store pending registration, and send email
-    public void createAndSendOtp(RegisterDTO dto) {
+    // IllegalStateException("OTP_LIMIT_REACHED") khi email / IP đã yêu cầu quá nhiều hoặc kho đầy
+    public void createAndSendOtp(RegisterDTO dto, String clientIp) {
+        // Đăng ký lại cùng email vẫn tính tiếp số lần gửi của yêu cầu trước
+        int sendCount = pendingRegistrations.get(dto.getEmail())
+                .map(existing -> existing.getSendCount() + 1)
+                .orElse(1);
+        if (sendCount > storeProperties.getMaxSendsPerEmail()) {
+            throw new IllegalStateException("OTP_LIMIT_REACHED");
+        }
+
         String otpCode = generateOtp();
 
         PendingRegistration pending = new PendingRegistration(
@@ -53,9 +62,11 @@ public class OtpService {
                 passwordEncoder.encode(dto.getPassword()), // Encode password now
                 otpCode,
                 otpExpirationMinutes);
+        pending.setSendCount(sendCount);
 
-        // Store in memory
-        pendingRegistrations.put(dto.getEmail(), pending);
+        if (!pendingRegistrations.put(dto.getEmail(), pending, otpTtl(), clientIp)) {
+            throw new IllegalStateException("OTP_LIMIT_REACHED");
+        }
 
         // Send OTP email
         sendOtpEmail(dto.getEmail(), otpCode);
@@ -63,17 +74,13 @@ public class OtpService {
 
     // Verify OTP
     public Optional<PendingRegistration> verifyOtp(String email, String otpCode) {
-        PendingRegistration pending = pendingRegistrations.get(email);
+        PendingRegistration pending = pendingRegistrations.get(email).orElse(null);
 
+        // Entry hết hạn không được store trả về
         if (pending == null) {
             return Optional.empty();
         }
 
-        if (pending.isExpired()) {
-            pendingRegistrations.remove(email); // Cleanup expired
-            return Optional.empty();
-        }
-
         if (!pending.getOtpCode().equals(otpCode)) {
             return Optional.empty();
         }
@@ -84,12 +91,16 @@ public class OtpService {
     }
 
     // Resend OTP with new code
-    public boolean resendOtp(String email) {
-        PendingRegistration existing = pendingRegistrations.get(email);
+    // IllegalStateException("OTP_LIMIT_REACHED") khi đã gửi quá số lần cho phép
+    public boolean resendOtp(String email, String clientIp) {
+        PendingRegistration existing = pendingRegistrations.get(email).orElse(null);
 
         if (existing == null) {
             return false;
         }
+        if (existing.getSendCount() >= storeProperties.getMaxSendsPerEmail()) {
+            throw new IllegalStateException("OTP_LIMIT_REACHED");
+        }
 
         // Generate new OTP and update expiry
         String newOtpCode = generateOtp();
@@ -102,29 +113,34 @@ public class OtpService {
                 existing.getEncodedPassword(),
                 newOtpCode,
                 otpExpirationMinutes);
+        updated.setSendCount(existing.getSendCount() + 1);
 
-        pendingRegistrations.put(email, updated);
+        if (!pendingRegistrations.put(email, updated, otpTtl(), clientIp)) {
+            throw new IllegalStateException("OTP_LIMIT_REACHED");
+        }
         sendOtpEmail(email, newOtpCode);
         return true;
     }
 
     // Check if email has pending registration
     public boolean hasPendingRegistration(String email) {
-        return pendingRegistrations.containsKey(email);
+        return pendingRegistrations.contains(email);
+    }
+
+    private Duration otpTtl() {
+        return Duration.ofMinutes(otpExpirationMinutes);
     }
 
-    // Send OTP email
+    // Send OTP email (qua outbox: request không chờ SMTP; gửi lại chỉ thay thư chưa gửi)
     private void sendOtpEmail(String toEmail, String otpCode) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Fashion Shop - Mã xác thực OTP");
-        message.setText(
+        emailOutboxService.enqueue(
+                toEmail,
+                "Fashion Shop - Mã xác thực OTP",
                 "Xin chào,\n\n" +
                         "Mã OTP của bạn là: " + otpCode + "\n\n" +
                         "Mã này có hiệu lực trong " + otpExpirationMinutes + " phút.\n\n" +
                         "Nếu bạn không yêu cầu mã này, vui lòng bỏ qua email.\n\n" +
-                        "Trân trọng,\nFashion Shop");
-        mailSender.send(message);
+                        "Trân trọng,\nFashion Shop",
+                "otp-register:" + toEmail);
     }
 }
\ No newline at end of file
@@ -1,41 +1,44 @@
 package vn.web.fashionshop.service;
 
 import java.security.SecureRandom;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import vn.web.fashionshop.config.OtpStoreProperties;
 import vn.web.fashionshop.dto.PendingPasswordReset;
 import vn.web.fashionshop.entity.User;
 import vn.web.fashionshop.repository.UserRepository;
+import vn.web.fashionshop.security.UserAuthStateCache;
+import vn.web.fashionshop.util.ExpiringStore;
 
 @Service
 public class PasswordResetService {
 
-    // In-Memory storage: Key = email, Value = PendingPasswordReset
-    private final Map<String, PendingPasswordReset> pendingResets = new ConcurrentHashMap<>();
+    // Key = email, Value = PendingPasswordReset (giới hạn kích thước, tự hết hạn)
+    private final ExpiringStore<PendingPasswordReset> pendingResets;
+    private final OtpStoreProperties storeProperties;
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final UserAuthStateCache userAuthStateCache;
 
     @Value("${app.otp.expiration-minutes:5}")
     private int otpExpirationMinutes;
 
-    public PasswordResetService(JavaMailSender mailSender, PasswordEncoder passwordEncoder,
-            UserRepository userRepository) {
-        this.mailSender = mailSender;
+    public PasswordResetService(EmailOutboxService emailOutboxService, PasswordEncoder passwordEncoder,
+            UserRepository userRepository, UserAuthStateCache userAuthStateCache,
+            ExpiringStore<PendingPasswordReset> pendingResets, OtpStoreProperties storeProperties) {
+        this.emailOutboxService = emailOutboxService;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.userAuthStateCache = userAuthStateCache;
+        this.pendingResets = pendingResets;
+        this.storeProperties = storeProperties;
     }
 
     // Generate 6-digit OTP
@@ -46,17 +49,28 @@ public class PasswordResetService {
     }
 
     // Create OTP and send email for password reset
-    public boolean createAndSendResetOtp(String email) {
+    // IllegalStateException("OTP_LIMIT_REACHED") khi email / IP đã yêu cầu quá nhiều hoặc kho đầy
+    public boolean createAndSendResetOtp(String email, String clientIp) {
         // Check if email exists
         Optional<User> user = userRepository.findByEmail(email);
         if (user.isEmpty()) {
             return false;
         }
 
+        int sendCount = pendingResets.get(email)
+                .map(existing -> existing.getSendCount() + 1)
+                .orElse(1);
+        if (sendCount > storeProperties.getMaxSendsPerEmail()) {
+            throw new IllegalStateException("OTP_LIMIT_REACHED");
+        }
+
         String otpCode = generateOtp();
 
         PendingPasswordReset pending = new PendingPasswordReset(email, otpCode, otpExpirationMinutes);
-        pendingResets.put(email, pending);
+        pending.setSendCount(sendCount);
+        if (!pendingResets.put(email, pending, otpTtl(), clientIp)) {
+            throw new IllegalStateException("OTP_LIMIT_REACHED");
+        }
 
         sendResetOtpEmail(email, otpCode, user.get().getFullName());
         return true;
@@ -64,17 +78,13 @@ public class PasswordResetService {
 
     // Verify OTP for password reset
     public boolean verifyResetOtp(String email, String otpCode) {
-        PendingPasswordReset pending = pendingResets.get(email);
+        PendingPasswordReset pending = pendingResets.get(email).orElse(null);
 
+        // Entry hết hạn không được store trả về
         if (pending == null) {
             return false;
         }
 
-        if (pending.isExpired()) {
-            pendingResets.remove(email);
-            return false;
-        }
-
         return pending.getOtpCode().equals(otpCode);
     }
 
@@ -91,7 +101,10 @@ public class PasswordResetService {
 
         User user = userOpt.get();
         user.setPassword(passwordEncoder.encode(newPassword));
+        // Đăng xuất mọi phiên đang dùng mật khẩu cũ
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        userAuthStateCache.evict(user.getId());
 
         // Remove pending reset
         pendingResets.remove(email);
@@ -100,52 +113,31 @@ public class PasswordResetService {
     }
 
     // Resend OTP for password reset
-    public boolean resendResetOtp(String email) {
-        PendingPasswordReset existing = pendingResets.get(email);
-
-        if (existing == null) {
-            // Start fresh
-            return createAndSendResetOtp(email);
-        }
-
-        // Generate new OTP
-        String newOtpCode = generateOtp();
-        PendingPasswordReset updated = new PendingPasswordReset(email, newOtpCode, otpExpirationMinutes);
-        pendingResets.put(email, updated);
-
-        Optional<User> user = userRepository.findByEmail(email);
-        String fullName = user.map(User::getFullName).orElse("Khách hàng");
-        sendResetOtpEmail(email, newOtpCode, fullName);
-
-        return true;
+    public boolean resendResetOtp(String email, String clientIp) {
+        // createAndSendResetOtp tính tiếp số lần gửi của yêu cầu đang chờ (nếu có)
+        return createAndSendResetOtp(email, clientIp);
     }
 
     // Check if email has pending reset
     public boolean hasPendingReset(String email) {
-        PendingPasswordReset pending = pendingResets.get(email);
-        if (pending == null) {
-            return false;
-        }
-        if (pending.isExpired()) {
-            pendingResets.remove(email);
-            return false;
-        }
-        return true;
+        return pendingResets.contains(email);
+    }
+
+    private Duration otpTtl() {
+        return Duration.ofMinutes(otpExpirationMinutes);
     }
 
-    // Send password reset OTP email
+    // Send password reset OTP email (qua outbox)
     private void sendResetOtpEmail(String toEmail, String otpCode, String fullName) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Fashion Shop - Đặt lại mật khẩu");
-        message.setText(
+        emailOutboxService.enqueue(
+                toEmail,
+                "Fashion Shop - Đặt lại mật khẩu",
                 "Xin chào " + fullName + ",\n\n" +
                         "Bạn đã yêu cầu đặt lại mật khẩu cho tài khoản Fashion Shop.\n\n" +
                         "Mã OTP của bạn là: " + otpCode + "\n\n" +
                         "Mã này có hiệu lực trong " + otpExpirationMinutes + " phút.\n\n" +
                         "Nếu bạn không yêu cầu đặt lại mật khẩu, vui lòng bỏ qua email này.\n\n" +
-                        "Trân trọng,\nFashion Shop");
-        mailSender.send(message);
+                        "Trân trọng,\nFashion Shop",
+                "otp-reset:" + toEmail);
     }
 }
@@ -2,6 +2,7 @@ package vn.web.fashionshop.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.springframework.data.domain.Page;
@@ -12,63 +13,68 @@ import org.springframework.stereotype.Service;
 import vn.web.fashionshop.entity.Payment;
 import vn.web.fashionshop.enums.EPaymentStatus;
 import vn.web.fashionshop.repository.PaymentRepository;
+import vn.web.fashionshop.util.DateRange;
 
 @Service
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final OrderArchiveService orderArchiveService;
 
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, OrderArchiveService orderArchiveService) {
         this.paymentRepository = paymentRepository;
+        this.orderArchiveService = orderArchiveService;
     }
 
     // Tổng doanh thu SUCCESS
     public BigDecimal getTotalPayment() {
-        return paymentRepository.calculateTotalRevenue(EPaymentStatus.SUCCESS);
+        BigDecimal total = paymentRepository.calculateTotalRevenue(EPaymentStatus.SUCCESS);
+        // Gồm cả payment đã archive
+        if (orderArchiveService.needsArchive(null)) {
+            total = total.add(orderArchiveService.getArchivedSuccessPaymentRevenue());
+        }
+        return total;
     }
 
     // Doanh thu hôm nay
     public BigDecimal getTodayPayment() {
-        LocalDateTime startOfToday = LocalDateTime.now().toLocalDate().atStartOfDay();
-        return paymentRepository.calculateTodayRevenue(EPaymentStatus.SUCCESS, startOfToday);
+        DateRange today = DateRange.ofDay(LocalDate.now());
+        return paymentRepository.calculateRevenueByDateRange(EPaymentStatus.SUCCESS, today.start(), today.end());
     }
 
-    // Doanh thu theo khoảng thời gian
+    // Doanh thu theo khoảng thời gian [startDate, endDate)
     public BigDecimal getPaymentByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return paymentRepository.calculateRevenueByDateRange(EPaymentStatus.SUCCESS, startDate, endDate);
     }
 
     // Đếm số đơn thanh toán thành công hôm nay
     public Long getTodayPaymentCount() {
-        LocalDateTime startOfToday = LocalDateTime.now().toLocalDate().atStartOfDay();
-        return paymentRepository.countTodayPayments(EPaymentStatus.SUCCESS, startOfToday);
+        DateRange today = DateRange.ofDay(LocalDate.now());
+        return paymentRepository.countPaymentsByDateRange(EPaymentStatus.SUCCESS, today.start(), today.end());
     }
 
     // Doanh thu 7 ngày gần nhất (cho biểu đồ tuần)
     public java.util.List<Object[]> getWeeklyRevenueData() {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(7).toLocalDate().atStartOfDay();
-        return paymentRepository.getDailyRevenue(startDate);
+        DateRange range = DateRange.lastDays(7);
+        return paymentRepository.getDailyRevenue(range.start(), range.end());
     }
 
     // Doanh thu 30 ngày gần nhất (cho biểu đồ tháng)
     public java.util.List<Object[]> getMonthlyRevenueData() {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(30).toLocalDate().atStartOfDay();
-        return paymentRepository.getDailyRevenue(startDate);
+        DateRange range = DateRange.lastDays(30);
+        return paymentRepository.getDailyRevenue(range.start(), range.end());
     }
 
     // Doanh thu tháng này
     public BigDecimal getThisMonthRevenue() {
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay();
-        LocalDateTime startOfNextMonth = startOfMonth.plusMonths(1);
-        return paymentRepository.calculateMonthlyRevenue(EPaymentStatus.SUCCESS, startOfMonth, startOfNextMonth);
+        DateRange month = DateRange.thisMonth();
+        return paymentRepository.calculateMonthlyRevenue(EPaymentStatus.SUCCESS, month.start(), month.end());
     }
 
     // Doanh thu tháng trước
     public BigDecimal getLastMonthRevenue() {
-        LocalDateTime startOfLastMonth = LocalDateTime.now().withDayOfMonth(1).minusMonths(1).toLocalDate()
-                .atStartOfDay();
-        LocalDateTime startOfThisMonth = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay();
-        return paymentRepository.calculateMonthlyRevenue(EPaymentStatus.SUCCESS, startOfLastMonth, startOfThisMonth);
+        DateRange month = DateRange.lastMonth();
+        return paymentRepository.calculateMonthlyRevenue(EPaymentStatus.SUCCESS, month.start(), month.end());
     }
 
     // Tính % tăng trưởng so tháng trước
@@ -88,13 +94,12 @@ public class PaymentService {
 
     // Giá trị đơn trung bình (tháng này)
     public BigDecimal getAverageOrderValue() {
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay();
-        LocalDateTime startOfNextMonth = startOfMonth.plusMonths(1);
+        DateRange month = DateRange.thisMonth();
 
-        BigDecimal totalRevenue = paymentRepository.calculateMonthlyRevenue(EPaymentStatus.SUCCESS, startOfMonth,
-                startOfNextMonth);
-        Long orderCount = paymentRepository.countPaymentsByDateRange(EPaymentStatus.SUCCESS, startOfMonth,
-                startOfNextMonth);
+        BigDecimal totalRevenue = paymentRepository.calculateMonthlyRevenue(EPaymentStatus.SUCCESS, month.start(),
+                month.end());
+        Long orderCount = paymentRepository.countPaymentsByDateRange(EPaymentStatus.SUCCESS, month.start(),
+                month.end());
 
         if (orderCount == null || orderCount == 0) {
             return BigDecimal.ZERO;
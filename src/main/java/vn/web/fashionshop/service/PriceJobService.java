@@ -0,0 +1,402 @@
+package vn.web.fashionshop.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.cache.CatalogChangeListener;
+import vn.web.fashionshop.config.PriceJobProperties;
+import vn.web.fashionshop.dto.pricing.PriceJobPreviewDTO;
+import vn.web.fashionshop.dto.pricing.PriceJobRequest;
+import vn.web.fashionshop.entity.PriceJob;
+import vn.web.fashionshop.enums.EPriceAdjustment;
+import vn.web.fashionshop.enums.EPriceJobField;
+import vn.web.fashionshop.enums.EPriceJobStatus;
+import vn.web.fashionshop.repository.PriceJobRepository;
+
+/**
+ * Đổi giá / giảm giá hàng loạt theo bộ lọc (danh mục, mẫu SKU, khoảng giá), thay cho việc sửa từng product.
+ *
+ * Job chạy trên một thread nền, từng chunk product (keyset theo id) trong một transaction: giá cũ và mới
+ * được tính bằng một câu INSERT ... SELECT vào price_job_items, rồi một câu UPDATE ... JOIN ghi vào
+ * products. Cursor (last_product_id) được lưu cùng chunk nên restart giữa chừng tiếp tục đúng chỗ.
+ * Cache trang được làm mới một lần mỗi chunk. Job có end_at được hoàn giá cũ theo cùng cách, bỏ qua
+ * product đã bị sửa giá sau khi job áp dụng.
+ */
+@Slf4j
+@Service
+public class PriceJobService implements DisposableBean {
+
+    // Giới hạn của cột price DECIMAL(15,2)
+    private static final BigDecimal MAX_PRICE = new BigDecimal("9999999999999.99");
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final PriceJobRepository priceJobRepository;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogChangeListener catalogChangeListener;
+    private final PriceJobProperties properties;
+
+    // Một thread cho mọi job: hai job cùng lúc không tranh khoá trên cùng product
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "price-jobs");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+    public PriceJobService(PriceJobRepository priceJobRepository, NamedParameterJdbcTemplate jdbc,
+            PlatformTransactionManager transactionManager, CatalogChangeListener catalogChangeListener,
+            PriceJobProperties properties) {
+        this.priceJobRepository = priceJobRepository;
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogChangeListener = catalogChangeListener;
+        this.properties = properties;
+    }
+
+    public List<PriceJob> listJobs() {
+        return priceJobRepository.findTop50ByOrderByIdDesc();
+    }
+
+    public PriceJob getJob(Long jobId) {
+        return priceJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("PRICE_JOB_NOT_FOUND"));
+    }
+
+    /**
+     * Dry-run: số product khớp / sẽ đổi và danh sách mẫu giá cũ - mới, không ghi gì.
+     */
+    public PriceJobPreviewDTO preview(PriceJobRequest request) {
+        PriceJob job = toJob(request);
+        MapSqlParameterSource params = params(job);
+        String where = filterSql(job, params);
+        String newPrice = newValueSql(job, EPriceJobField.PRICE);
+        String newDiscount = newValueSql(job, EPriceJobField.DISCOUNT);
+
+        PriceJobPreviewDTO preview = new PriceJobPreviewDTO();
+        Map<String, Object> counts = jdbc.queryForMap("SELECT COUNT(*) AS matched, " +
+                "COALESCE(SUM(" + changedSql(newPrice, newDiscount) + "), 0) AS changed " +
+                "FROM products p WHERE " + where, params);
+        preview.setMatched(((Number) counts.get("matched")).longValue());
+        preview.setChanged(((Number) counts.get("changed")).longValue());
+
+        params.addValue("limit", properties.getPreviewSampleSize());
+        preview.setSample(jdbc.query("SELECT p.id, p.sku, p.product_name, p.price, p.discount, " +
+                newPrice + " AS new_price, " + newDiscount + " AS new_discount " +
+                "FROM products p WHERE " + where + " ORDER BY p.id LIMIT :limit",
+                params,
+                (rs, i) -> new PriceJobPreviewDTO.Item(rs.getLong("id"), rs.getString("sku"),
+                        rs.getString("product_name"), rs.getBigDecimal("price"), rs.getBigDecimal("new_price"),
+                        rs.getBigDecimal("discount"), rs.getBigDecimal("new_discount"))));
+        return preview;
+    }
+
+    public PriceJob createJob(PriceJobRequest request) {
+        PriceJob job = toJob(request);
+        job.setStatus(EPriceJobStatus.SCHEDULED);
+        job.setCreatedAt(LocalDateTime.now());
+        job = priceJobRepository.save(job);
+        if (job.getStartAt() == null || !job.getStartAt().isAfter(LocalDateTime.now())) {
+            claim(job.getId(), EPriceJobStatus.SCHEDULED, EPriceJobStatus.APPLYING);
+            schedule(job.getId());
+            return getJob(job.getId());
+        }
+        return job;
+    }
+
+    // Chỉ huỷ được job chưa bắt đầu; job đã chạy thì dùng revertJob
+    public void cancelJob(Long jobId) {
+        int updated = jdbc.update("UPDATE price_jobs SET status = 'CANCELLED', finished_at = :now " +
+                "WHERE id = :id AND status = 'SCHEDULED'",
+                new MapSqlParameterSource()
+                        .addValue("id", jobId)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+        if (updated == 0) {
+            getJob(jobId);
+            throw new IllegalStateException("PRICE_JOB_NOT_CANCELLABLE");
+        }
+    }
+
+    // Hoàn giá ngay (kể cả khi đang áp dụng dở): lượt áp dụng dừng ở chunk kế tiếp
+    public PriceJob revertJob(Long jobId) {
+        int updated = jdbc.update("UPDATE price_jobs SET status = 'REVERTING', last_product_id = 0 " +
+                "WHERE id = :id AND status IN ('APPLYING', 'APPLIED')",
+                new MapSqlParameterSource("id", jobId));
+        if (updated == 0) {
+            getJob(jobId);
+            throw new IllegalStateException("PRICE_JOB_NOT_REVERTIBLE");
+        }
+        schedule(jobId);
+        return getJob(jobId);
+    }
+
+    /**
+     * Bắt đầu job đến start_at, hoàn giá job đến end_at, và tiếp tục job đang chạy dở
+     * (sau restart hoặc do instance khác bỏ dở).
+     */
+    @Scheduled(fixedDelayString = "${app.pricing.jobs.poll-millis:30000}",
+            initialDelayString = "${app.pricing.jobs.poll-millis:30000}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        for (PriceJob job : priceJobRepository.findByStatusAndStartAtLessThanEqual(EPriceJobStatus.SCHEDULED, now)) {
+            claim(job.getId(), EPriceJobStatus.SCHEDULED, EPriceJobStatus.APPLYING);
+        }
+        for (PriceJob job : priceJobRepository.findByStatusAndEndAtLessThanEqual(EPriceJobStatus.APPLIED, now)) {
+            claim(job.getId(), EPriceJobStatus.APPLIED, EPriceJobStatus.REVERTING);
+        }
+        for (EPriceJobStatus status : List.of(EPriceJobStatus.APPLYING, EPriceJobStatus.REVERTING)) {
+            for (PriceJob job : priceJobRepository.findByStatus(status)) {
+                schedule(job.getId());
+            }
+        }
+    }
+
+    private void claim(Long jobId, EPriceJobStatus from, EPriceJobStatus to) {
+        jdbc.update("UPDATE price_jobs SET status = :to, last_product_id = 0 WHERE id = :id AND status = :from",
+                new MapSqlParameterSource()
+                        .addValue("id", jobId)
+                        .addValue("from", from.name())
+                        .addValue("to", to.name()));
+    }
+
+    private void schedule(Long jobId) {
+        if (scheduled.add(jobId)) {
+            worker.submit(() -> {
+                try {
+                    process(jobId);
+                } catch (RuntimeException e) {
+                    // Giữ trạng thái: lần tick sau tiếp tục từ cursor đã lưu
+                    log.error("Price job {} stopped", jobId, e);
+                } finally {
+                    scheduled.remove(jobId);
+                }
+            });
+        }
+    }
+
+    // Đọc lại job sau mỗi chunk để thấy thay đổi trạng thái (hoàn giá, instance khác đã xử lý)
+    private void process(Long jobId) {
+        while (!Thread.currentThread().isInterrupted()) {
+            PriceJob job = priceJobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                return;
+            }
+            if (job.getStatus() == EPriceJobStatus.APPLYING) {
+                applyChunk(job);
+            } else if (job.getStatus() == EPriceJobStatus.REVERTING) {
+                revertChunk(job);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void applyChunk(PriceJob job) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!lockJob(job, EPriceJobStatus.APPLYING)) {
+                return;
+            }
+            MapSqlParameterSource params = params(job)
+                    .addValue("jobId", job.getId())
+                    .addValue("cursor", job.getLastProductId())
+                    .addValue("limit", properties.getChunkSize())
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            // Khoá các product của chunk tới khi commit: không ai sửa giữa lúc đọc giá cũ và ghi giá mới
+            List<Long> ids = jdbc.queryForList("SELECT p.id FROM products p WHERE " + filterSql(job, params) +
+                    " AND p.id > :cursor ORDER BY p.id LIMIT :limit FOR UPDATE", params, Long.class);
+            if (ids.isEmpty()) {
+                jdbc.update("UPDATE price_jobs SET status = 'APPLIED', last_product_id = 0, applied_at = :now, " +
+                        "finished_at = CASE WHEN end_at IS NULL THEN :now ELSE NULL END WHERE id = :jobId", params);
+                log.info("Price job {} applied to {} products", job.getId(), job.getAffectedCount());
+                return;
+            }
+            params.addValue("ids", ids);
+
+            String newPrice = newValueSql(job, EPriceJobField.PRICE);
+            String newDiscount = newValueSql(job, EPriceJobField.DISCOUNT);
+            // Product không đổi giá trị thì không ghi, không cần hoàn
+            int affected = jdbc.update("INSERT IGNORE INTO price_job_items " +
+                    "(job_id, product_id, old_price, old_discount, new_price, new_discount) " +
+                    "SELECT :jobId, p.id, p.price, p.discount, " + newPrice + ", " + newDiscount + " " +
+                    "FROM products p WHERE p.id IN (:ids) AND " + changedSql(newPrice, newDiscount), params);
+            if (affected > 0) {
+                jdbc.update("UPDATE products p JOIN price_job_items i ON i.product_id = p.id AND i.job_id = :jobId " +
+                        "SET p.price = i.new_price, p.discount = i.new_discount, p.updated_at = :now " +
+                        "WHERE p.id IN (:ids)", params);
+                productsChanged(params);
+            }
+            advance(job, ids.get(ids.size() - 1), "affected_count", affected);
+        });
+    }
+
+    private void revertChunk(PriceJob job) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!lockJob(job, EPriceJobStatus.REVERTING)) {
+                return;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("jobId", job.getId())
+                    .addValue("cursor", job.getLastProductId())
+                    .addValue("limit", properties.getChunkSize())
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            List<Long> ids = jdbc.queryForList("SELECT product_id FROM price_job_items WHERE job_id = :jobId " +
+                    "AND product_id > :cursor ORDER BY product_id LIMIT :limit", params, Long.class);
+            if (ids.isEmpty()) {
+                jdbc.update("UPDATE price_jobs SET status = 'REVERTED', last_product_id = 0, finished_at = :now " +
+                        "WHERE id = :jobId", params);
+                log.info("Price job {} reverted on {} products", job.getId(), job.getRevertedCount());
+                return;
+            }
+            params.addValue("ids", ids);
+            // Product đã bị sửa giá sau khi job áp dụng: giữ giá đó
+            int reverted = jdbc.update("UPDATE products p JOIN price_job_items i ON i.product_id = p.id " +
+                    "SET p.price = i.old_price, p.discount = i.old_discount, p.updated_at = :now " +
+                    "WHERE i.job_id = :jobId AND i.product_id IN (:ids) " +
+                    "AND p.price = i.new_price AND p.discount <=> i.new_discount", params);
+            if (reverted > 0) {
+                productsChanged(params);
+            }
+            advance(job, ids.get(ids.size() - 1), "reverted_count", reverted);
+        });
+    }
+
+    // Khoá dòng job; false nếu trạng thái / cursor đã đổi (bị hoàn giá, instance khác đã xử lý chunk)
+    private boolean lockJob(PriceJob job, EPriceJobStatus expected) {
+        Map<String, Object> row = jdbc.queryForMap(
+                "SELECT status, last_product_id FROM price_jobs WHERE id = :id FOR UPDATE",
+                new MapSqlParameterSource("id", job.getId()));
+        return expected.name().equals(row.get("status"))
+                && ((Number) row.get("last_product_id")).longValue() == job.getLastProductId();
+    }
+
+    private void advance(PriceJob job, long cursor, String counter, int count) {
+        jdbc.update("UPDATE price_jobs SET last_product_id = :cursor, " + counter + " = " + counter + " + :count " +
+                "WHERE id = :id",
+                new MapSqlParameterSource()
+                        .addValue("cursor", cursor)
+                        .addValue("count", count)
+                        .addValue("id", job.getId()));
+    }
+
+    // Gom vào transaction của chunk: cache được làm mới một lần sau commit
+    private void productsChanged(MapSqlParameterSource params) {
+        Set<Long> categoryIds = new HashSet<>(jdbc.queryForList("SELECT DISTINCT category_id FROM products " +
+                "WHERE id IN (:ids) AND category_id IS NOT NULL", params, Long.class));
+        @SuppressWarnings("unchecked")
+        List<Long> ids = (List<Long>) params.getValue("ids");
+        catalogChangeListener.productsChanged(new HashSet<>(ids), categoryIds);
+    }
+
+    // ==================== SQL ====================
+
+    private static MapSqlParameterSource params(PriceJob job) {
+        return new MapSqlParameterSource("value", job.getValue());
+    }
+
+    private static String filterSql(PriceJob job, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (job.getCategoryId() != null) {
+            where.append(" AND p.category_id IN (SELECT c.id FROM categories c " +
+                    "WHERE c.id = :categoryId OR c.parent_id = :categoryId)");
+            params.addValue("categoryId", job.getCategoryId());
+        }
+        if (job.getSkuPattern() != null) {
+            where.append(" AND p.sku LIKE :skuPattern");
+            params.addValue("skuPattern", likePattern(job.getSkuPattern()));
+        }
+        if (job.getMinPrice() != null) {
+            where.append(" AND p.price >= :minPrice");
+            params.addValue("minPrice", job.getMinPrice());
+        }
+        if (job.getMaxPrice() != null) {
+            where.append(" AND p.price <= :maxPrice");
+            params.addValue("maxPrice", job.getMaxPrice());
+        }
+        if (Boolean.TRUE.equals(job.getActiveOnly())) {
+            where.append(" AND p.is_active = TRUE");
+        }
+        return where.toString();
+    }
+
+    // '*' = chuỗi bất kỳ; % và _ trong mẫu được hiểu theo nghĩa đen
+    private static String likePattern(String pattern) {
+        return pattern.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_").replace('*', '%');
+    }
+
+    // Giá trị mới của cột; cột không thuộc job giữ nguyên. Luôn kẹp trong giới hạn của cột.
+    private static String newValueSql(PriceJob job, EPriceJobField column) {
+        if (job.getField() != column) {
+            return column == EPriceJobField.PRICE ? "p.price" : "p.discount";
+        }
+        String current = column == EPriceJobField.PRICE ? "p.price" : "COALESCE(p.discount, 0)";
+        String value = switch (job.getAdjustment()) {
+            case PERCENT -> "ROUND(" + current + " * (100 + :value) / 100, 2)";
+            case AMOUNT -> current + " + :value";
+            case SET -> ":value";
+        };
+        String max = column == EPriceJobField.PRICE ? MAX_PRICE.toPlainString() : "100";
+        return "LEAST(GREATEST(" + value + ", 0), " + max + ")";
+    }
+
+    private static String changedSql(String newPrice, String newDiscount) {
+        return "(p.price <> " + newPrice + " OR NOT (p.discount <=> " + newDiscount + "))";
+    }
+
+    private static PriceJob toJob(PriceJobRequest request) {
+        BigDecimal value = request.getValue();
+        if (request.getAdjustment() == EPriceAdjustment.PERCENT
+                && (value.compareTo(HUNDRED.negate()) < 0 || value.compareTo(BigDecimal.valueOf(1000)) > 0)) {
+            throw new IllegalArgumentException("PERCENT_OUT_OF_RANGE");
+        }
+        if (request.getAdjustment() == EPriceAdjustment.SET && (value.signum() < 0
+                || value.compareTo(request.getField() == EPriceJobField.DISCOUNT ? HUNDRED : MAX_PRICE) > 0)) {
+            throw new IllegalArgumentException("VALUE_OUT_OF_RANGE");
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("INVALID_PRICE_RANGE");
+        }
+        if (request.getEndAt() != null && (!request.getEndAt().isAfter(LocalDateTime.now())
+                || (request.getStartAt() != null && !request.getEndAt().isAfter(request.getStartAt())))) {
+            throw new IllegalArgumentException("INVALID_SCHEDULE");
+        }
+
+        PriceJob job = new PriceJob();
+        job.setName(request.getName() != null ? request.getName().trim() : null);
+        job.setCategoryId(request.getCategoryId());
+        String skuPattern = request.getSkuPattern() != null ? request.getSkuPattern().trim() : null;
+        job.setSkuPattern(skuPattern == null || skuPattern.isEmpty() ? null : skuPattern);
+        job.setMinPrice(request.getMinPrice());
+        job.setMaxPrice(request.getMaxPrice());
+        job.setActiveOnly(request.getActiveOnly() == null || request.getActiveOnly());
+        job.setField(request.getField());
+        job.setAdjustment(request.getAdjustment());
+        job.setValue(value.setScale(2, RoundingMode.HALF_UP));
+        job.setStartAt(request.getStartAt());
+        job.setEndAt(request.getEndAt());
+        return job;
+    }
+
+    @Override
+    public void destroy() {
+        worker.shutdownNow();
+    }
+}
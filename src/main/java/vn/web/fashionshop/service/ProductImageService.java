@@ -1,12 +1,35 @@
 package vn.web.fashionshop.service;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import vn.web.fashionshop.cache.CatalogChangeListener;
+import vn.web.fashionshop.config.ImageUploadProperties;
 import vn.web.fashionshop.entity.Image;
 import vn.web.fashionshop.entity.Product;
 import vn.web.fashionshop.repository.ImageRepository;
@@ -14,18 +37,52 @@ import vn.web.fashionshop.repository.ProductRepository;
 import vn.web.fashionshop.service.FileUploadService.UploadResult;
 
 @Service
-public class ProductImageService {
+public class ProductImageService implements DisposableBean {
 
     private final ImageRepository imageRepository;
     private final ProductRepository productRepository;
     private final FileUploadService fileUploadService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageReferenceService imageReferenceService;
+    private final CatalogChangeListener catalogChangeListener;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageUploadProperties properties;
+    private final ExecutorService uploadPool;
+
+    /**
+     * Kết quả upload nhiều ảnh: số ảnh đã thêm, số ảnh trùng (product đã có cùng nội dung) và các file
+     * bị từ chối kèm lý do.
+     */
+    public record BulkUploadResult(int uploaded, int duplicates, List<String> rejected) {
+    }
 
     public ProductImageService(ImageRepository imageRepository,
             ProductRepository productRepository,
-            FileUploadService fileUploadService) {
+            FileUploadService fileUploadService,
+            ImageDerivativeService imageDerivativeService,
+            ImageReferenceService imageReferenceService,
+            CatalogChangeListener catalogChangeListener,
+            NamedParameterJdbcTemplate jdbc,
+            PlatformTransactionManager transactionManager,
+            ImageUploadProperties properties) {
         this.imageRepository = imageRepository;
         this.productRepository = productRepository;
         this.fileUploadService = fileUploadService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageReferenceService = imageReferenceService;
+        this.catalogChangeListener = catalogChangeListener;
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        AtomicInteger counter = new AtomicInteger();
+        // Hàng đợi đầy (nhiều admin upload cùng lúc) thì thread request tự xử lý file: tự giới hạn tải
+        this.uploadPool = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(properties.getMaxFilesPerRequest()), r -> {
+                    Thread t = new Thread(r, "image-upload-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     /**
@@ -36,37 +93,48 @@ public class ProductImageService {
     }
 
     /**
-     * Upload multiple images for a product
+     * Upload multiple images for a product.
+     *
+     * File được hash / kiểm tra / ghi song song trên pool giới hạn, ngoài transaction; sau đó toàn bộ
+     * dòng images được insert bằng một JDBC batch. File lỗi không làm hỏng các file còn lại.
      */
-    @Transactional
-    public void uploadImages(Long productId, MultipartFile[] files) {
+    public BulkUploadResult uploadImages(Long productId, MultipartFile[] files) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) {
-                continue;
+        List<MultipartFile> nonEmpty = new ArrayList<>();
+        if (files != null) {
+            for (MultipartFile file : files) {
+                if (file != null && !file.isEmpty()) {
+                    nonEmpty.add(file);
+                }
             }
+        }
+        if (nonEmpty.size() > properties.getMaxFilesPerRequest()) {
+            throw new RuntimeException("Too many files, at most " + properties.getMaxFilesPerRequest() + " per upload");
+        }
 
-            // Upload file
-            UploadResult result = fileUploadService.storeImage(file);
-
-            // Create image entity
-            Image image = new Image();
-            image.setProduct(product);
-            image.setUrlImage(result.url());
-            image.setAltText(product.getProductName());
-            image.setIsMain(false); // Default not main
-            image.setCreatedAt(LocalDateTime.now());
+        List<String> rejected = new ArrayList<>();
+        List<UploadResult> stored = storeAll(nonEmpty, rejected);
 
-            imageRepository.save(image);
+        // Nội dung trùng (cùng URL theo hash) trong lần upload này hoặc đã gắn với product: bỏ qua
+        Set<String> seen = new HashSet<>(imageRepository.findUrlsByProductId(productId));
+        List<String> urls = new ArrayList<>();
+        for (UploadResult result : stored) {
+            if (seen.add(result.url())) {
+                urls.add(result.url());
+            }
+        }
+        int duplicates = stored.size() - urls.size();
+        if (!urls.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> insertImages(product, urls, false));
         }
+        return new BulkUploadResult(urls.size(), duplicates, rejected);
     }
 
     /**
      * Upload a single image and set it as the main image for the product.
      */
-    @Transactional
     public void uploadMainImage(Long productId, MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("File is empty");
@@ -75,29 +143,14 @@ public class ProductImageService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
-        // Upload file
+        // Upload file (ngoài transaction)
         UploadResult result = fileUploadService.storeImage(file);
 
-        // Unset existing main images
-        List<Image> existingImages = imageRepository.findByProductId(productId);
-        for (Image img : existingImages) {
-            if (Boolean.TRUE.equals(img.getIsMain())) {
-                img.setIsMain(false);
-                img.setUpdatedAt(LocalDateTime.now());
-                imageRepository.save(img);
-            }
-        }
-
-        // Create image entity
-        Image image = new Image();
-        image.setProduct(product);
-        image.setUrlImage(result.url());
-        image.setAltText(product.getProductName());
-        image.setIsMain(true);
-        image.setCreatedAt(LocalDateTime.now());
-        image.setUpdatedAt(LocalDateTime.now());
-
-        imageRepository.save(image);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = insertImages(product, List.of(result.url()), true);
+            // Bỏ cờ ảnh chính cũ
+            imageRepository.flipMainImage(productId, ids.get(0), LocalDateTime.now());
+        });
     }
 
     /**
@@ -105,17 +158,12 @@ public class ProductImageService {
      */
     @Transactional
     public void setMainImage(Long productId, Long imageId) {
-        List<Image> images = imageRepository.findByProductId(productId);
-
-        for (Image img : images) {
-            if (img.getId().equals(imageId)) {
-                img.setIsMain(true);
-            } else {
-                img.setIsMain(false);
-            }
-            img.setUpdatedAt(LocalDateTime.now());
-            imageRepository.save(img);
+        if (!imageRepository.existsByIdAndProductId(imageId, productId)) {
+            throw new RuntimeException("Image not found with id: " + imageId);
         }
+        imageRepository.flipMainImage(productId, imageId, LocalDateTime.now());
+        // UPDATE native không qua entity listener
+        catalogChangeListener.productsChanged(Set.of(productId), categoryIds(productId));
     }
 
     /**
@@ -126,27 +174,85 @@ public class ProductImageService {
         Image image = imageRepository.findById(imageId)
                 .orElseThrow(() -> new RuntimeException("Image not found with id: " + imageId));
 
-        // Delete file from storage
-        String filename = extractFilename(image.getUrlImage());
-        if (filename != null) {
-            fileUploadService.deleteImage(filename);
-        }
-
         // Delete from database
         imageRepository.delete(image);
+
+        // File có thể được dùng chung (cùng nội dung): chỉ xoá khi không còn tham chiếu, sau commit
+        imageReferenceService.releaseAfterCommit(image);
     }
 
-    /**
-     * Extract filename from URL
-     */
-    private String extractFilename(String url) {
-        if (url == null || url.isEmpty()) {
-            return null;
+    private List<UploadResult> storeAll(List<MultipartFile> files, List<String> rejected) {
+        List<Callable<UploadResult>> tasks = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            tasks.add(() -> fileUploadService.storeImage(file));
+        }
+        List<Future<UploadResult>> futures;
+        try {
+            futures = uploadPool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Image upload interrupted", e);
         }
-        int lastSlash = url.lastIndexOf('/');
-        if (lastSlash >= 0 && lastSlash < url.length() - 1) {
-            return url.substring(lastSlash + 1);
+
+        // Giữ thứ tự file như lúc chọn: id tăng dần theo thứ tự đó
+        List<UploadResult> stored = new ArrayList<>(files.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                stored.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                String reason = cause instanceof ResponseStatusException rse ? rse.getReason() : cause.getMessage();
+                rejected.add(files.get(i).getOriginalFilename() + ": " + reason);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Image upload interrupted", e);
+            }
+        }
+        return stored;
+    }
+
+    // Một batch INSERT; trả về id theo thứ tự urls. Gọi trong transaction.
+    private List<Long> insertImages(Product product, List<String> urls, boolean main) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        SqlParameterSource[] batch = new SqlParameterSource[urls.size()];
+        for (int i = 0; i < urls.size(); i++) {
+            batch[i] = new MapSqlParameterSource("productId", product.getId())
+                    .addValue("url", urls.get(i))
+                    .addValue("alt", product.getProductName())
+                    .addValue("main", main)
+                    .addValue("now", now);
         }
-        return url;
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate("INSERT INTO images (product_id, url_image, alt_text, is_main, created_at, updated_at) " +
+                "VALUES (:productId, :url, :alt, :main, :now, :now)", batch, keys, new String[] { "id" });
+
+        List<Long> ids = new ArrayList<>(urls.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            ids.add(((Number) row.values().iterator().next()).longValue());
+        }
+
+        // Insert JDBC không qua entity listener / JPA: tự invalidate cache và lên lịch resize sau commit
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        catalogChangeListener.productsChanged(Set.of(product.getId()),
+                categoryId != null ? Set.of(categoryId) : Set.of());
+        for (int i = 0; i < ids.size(); i++) {
+            Image image = new Image();
+            image.setId(ids.get(i));
+            image.setProduct(product);
+            image.setUrlImage(urls.get(i));
+            imageDerivativeService.schedule(image);
+        }
+        return ids;
+    }
+
+    private Set<Long> categoryIds(Long productId) {
+        List<Long> ids = jdbc.queryForList("SELECT category_id FROM products WHERE id = :id AND category_id IS NOT NULL",
+                new MapSqlParameterSource("id", productId), Long.class);
+        return new HashSet<>(ids);
+    }
+
+    @Override
+    public void destroy() {
+        uploadPool.shutdownNow();
     }
 }
@@ -3,11 +3,8 @@ package vn.web.fashionshop.service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -17,6 +14,7 @@ import vn.web.fashionshop.dto.ProductCreateDTO;
 import vn.web.fashionshop.dto.ProductResponseDTO;
 import vn.web.fashionshop.dto.ProductUpdateDTO;
 import vn.web.fashionshop.dto.ProductVariantUpdateDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Category;
 import vn.web.fashionshop.entity.Product;
 import vn.web.fashionshop.entity.ProductVariant;
@@ -29,10 +27,13 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final GridStatsService gridStatsService;
 
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+            GridStatsService gridStatsService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.gridStatsService = gridStatsService;
     }
 
     // Get product by ID
@@ -173,48 +174,35 @@ public class ProductService {
         return productRepository.findActiveByCategorySlugFiltered(categorySlug, colors, minPrice, maxPrice);
     }
 
-    public Page<Product> searchProductAdvanced(String keyword, Long category, String stock, String sku, String isActive,
-            int pageNo) {
-        int pageSize = 6;
-        Pageable pageable = PageRequest.of(pageNo - 1, pageSize);
-
-        return productRepository.searchProductAdvanced(keyword, category, stock, sku, isActive, pageable);
-    }
-
     /**
-     * Search products and convert to DTO for AJAX response
+     * Keyset paging cho grid sản phẩm: không COUNT, trang sâu không chậm dần
      */
-    public Map<String, Object> searchProductsForAjax(String keyword, Long categoryId, String stock, String sku,
-            String isActive,
-            int page) {
-        Page<Product> productPage = searchProductAdvanced(keyword, categoryId, stock, sku, isActive, page);
-
-        // Convert to DTO to avoid circular reference
-        List<ProductResponseDTO> productDTOs = new ArrayList<>();
-        for (Product product : productPage.getContent()) {
-            ProductResponseDTO dto = new ProductResponseDTO();
-            dto.setId(product.getId());
-            dto.setSku(product.getSku());
-            dto.setProductName(product.getProductName());
-            dto.setCategoryName(product.getCategory() != null ? product.getCategory().getCategoryName() : "N/A");
-            dto.setPrice(product.getPrice());
-            dto.setStock(product.getStock());
-            dto.setMainImageUrl(product.getMainImageUrl());
-            dto.setIsActive(product.getIsActive());
-            productDTOs.add(dto);
-        }
+    public CursorPage<ProductResponseDTO> searchProductsByCursor(String keyword, Long categoryId, String stock,
+            String sku, String isActive, Long cursor, int size, boolean withTotal) {
+        List<Product> fetched = productRepository.searchProductKeyset(keyword, categoryId, stock, sku, isActive,
+                cursor, CursorPage.fetchLimit(size));
+
+        boolean unfiltered = isBlank(keyword) && categoryId == null && isBlank(stock) && isBlank(sku)
+                && isBlank(isActive);
+        Long approximateTotal = withTotal && unfiltered ? gridStatsService.approximateRowCount("products") : null;
+        return CursorPage.of(fetched, size, Product::getId, approximateTotal).map(this::toProductResponseDTO);
+    }
+
+    private ProductResponseDTO toProductResponseDTO(Product product) {
+        ProductResponseDTO dto = new ProductResponseDTO();
+        dto.setId(product.getId());
+        dto.setSku(product.getSku());
+        dto.setProductName(product.getProductName());
+        dto.setCategoryName(product.getCategory() != null ? product.getCategory().getCategoryName() : "N/A");
+        dto.setPrice(product.getPrice());
+        dto.setStock(product.getStock());
+        dto.setMainImageUrl(product.getMainImageUrl());
+        dto.setIsActive(product.getIsActive());
+        return dto;
+    }
 
-        // Build response similar to Spring Page structure
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", productDTOs);
-        response.put("number", productPage.getNumber());
-        response.put("numberOfElements", productPage.getNumberOfElements());
-        response.put("totalPages", productPage.getTotalPages());
-        response.put("totalElements", productPage.getTotalElements());
-        response.put("first", productPage.isFirst());
-        response.put("last", productPage.isLast());
-
-        return response;
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     @Transactional
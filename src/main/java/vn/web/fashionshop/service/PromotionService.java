@@ -0,0 +1,219 @@
+package vn.web.fashionshop.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import vn.web.fashionshop.cache.CatalogChangeListener;
+import vn.web.fashionshop.cache.PromotionTimeline;
+import vn.web.fashionshop.dto.promotion.PromotionRequest;
+import vn.web.fashionshop.entity.Promotion;
+import vn.web.fashionshop.repository.PromotionRepository;
+
+/**
+ * Quản lý khuyến mãi theo thời gian và dựng {@link PromotionTimeline}.
+ *
+ * Timeline được dựng lại khi khuyến mãi thay đổi, khi khởi động và định kỳ (product mới / đổi danh mục).
+ * Giá đổi đúng tại mốc bắt đầu / kết thúc mà không cần dựng lại: tra cứu theo thời điểm hiện tại. Một
+ * timer chạy tại mỗi mốc chỉ làm mới cache trang của các product đổi giá ở mốc đó, thay vì xoá toàn bộ.
+ */
+@Slf4j
+@Service
+public class PromotionService implements CommandLineRunner, DisposableBean {
+
+    private final PromotionRepository promotionRepository;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CatalogChangeListener catalogChangeListener;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "promotion-transitions");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> nextTransition;
+    // Các mốc <= thời điểm này đã được làm mới cache
+    private long transitionsHandledUntil = System.currentTimeMillis();
+
+    public PromotionService(PromotionRepository promotionRepository, NamedParameterJdbcTemplate jdbc,
+            CatalogChangeListener catalogChangeListener) {
+        this.promotionRepository = promotionRepository;
+        this.jdbc = jdbc;
+        this.catalogChangeListener = catalogChangeListener;
+    }
+
+    @Override
+    public void run(String... args) {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.promotions.refresh-millis:300000}",
+            initialDelayString = "${app.promotions.refresh-millis:300000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public List<Promotion> listPromotions() {
+        return promotionRepository.findAllByOrderByIdDesc();
+    }
+
+    public Promotion getPromotion(Long id) {
+        return promotionRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("PROMOTION_NOT_FOUND"));
+    }
+
+    public Promotion createPromotion(PromotionRequest request) {
+        Promotion promotion = new Promotion();
+        promotion.setCreatedAt(LocalDateTime.now());
+        apply(promotion, request);
+        promotion = promotionRepository.save(promotion);
+        rebuild();
+        return promotion;
+    }
+
+    public Promotion updatePromotion(Long id, PromotionRequest request) {
+        Promotion promotion = getPromotion(id);
+        apply(promotion, request);
+        promotion.setUpdatedAt(LocalDateTime.now());
+        promotion = promotionRepository.save(promotion);
+        rebuild();
+        return promotion;
+    }
+
+    public void deletePromotion(Long id) {
+        promotionRepository.delete(getPromotion(id));
+        rebuild();
+    }
+
+    private static void apply(Promotion promotion, PromotionRequest request) {
+        if (request.getStartAt() != null && request.getEndAt() != null
+                && !request.getEndAt().isAfter(request.getStartAt())) {
+            throw new IllegalArgumentException("INVALID_SCHEDULE");
+        }
+        Set<Long> categoryIds = request.getCategoryIds() != null ? request.getCategoryIds() : Set.of();
+        Set<Long> productIds = request.getProductIds() != null ? request.getProductIds() : Set.of();
+        if (categoryIds.isEmpty() && productIds.isEmpty()) {
+            throw new IllegalArgumentException("EMPTY_SCOPE");
+        }
+        promotion.setName(request.getName().trim());
+        promotion.setDiscountPercent(request.getDiscountPercent());
+        promotion.setStartAt(request.getStartAt());
+        promotion.setEndAt(request.getEndAt());
+        promotion.setIsActive(request.getIsActive() == null || request.getIsActive());
+        promotion.setCategoryIds(new HashSet<>(categoryIds));
+        promotion.setProductIds(new HashSet<>(productIds));
+    }
+
+    // ==================== Timeline ====================
+
+    /**
+     * Dựng lại timeline, thay snapshot và làm mới cache của các product có mức giảm hiện tại thay đổi.
+     */
+    public synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        Map<Long, List<PromotionTimeline.Window>> windows = new HashMap<>();
+        for (Promotion promotion : promotionRepository.findCurrentAndUpcoming(LocalDateTime.now())) {
+            PromotionTimeline.Window window = new PromotionTimeline.Window(
+                    promotion.getStartAt() != null ? millis(promotion.getStartAt()) : Long.MIN_VALUE,
+                    promotion.getEndAt() != null ? millis(promotion.getEndAt()) : Long.MAX_VALUE,
+                    promotion.getDiscountPercent());
+            for (Long productId : scopeProductIds(promotion)) {
+                windows.computeIfAbsent(productId, id -> new ArrayList<>()).add(window);
+            }
+        }
+
+        PromotionTimeline previous = PromotionTimeline.current();
+        PromotionTimeline timeline = PromotionTimeline.build(windows);
+        PromotionTimeline.publish(timeline);
+
+        Set<Long> changed = new HashSet<>();
+        Set<Long> candidates = new HashSet<>(previous.productIds());
+        candidates.addAll(timeline.productIds());
+        for (Long productId : candidates) {
+            BigDecimal before = previous.promotionPercent(productId, now);
+            BigDecimal after = timeline.promotionPercent(productId, now);
+            if (before == null ? after != null : after == null || before.compareTo(after) != 0) {
+                changed.add(productId);
+            }
+        }
+        transitionsHandledUntil = now;
+        invalidate(changed);
+        scheduleNextTransition();
+    }
+
+    // Danh mục được chọn và danh mục con trực tiếp
+    private Set<Long> scopeProductIds(Promotion promotion) {
+        Set<Long> ids = new HashSet<>(promotion.getProductIds());
+        if (!promotion.getCategoryIds().isEmpty()) {
+            ids.addAll(jdbc.queryForList("SELECT p.id FROM products p JOIN categories c ON c.id = p.category_id " +
+                    "WHERE c.id IN (:ids) OR c.parent_id IN (:ids)",
+                    new MapSqlParameterSource("ids", promotion.getCategoryIds()), Long.class));
+        }
+        return ids;
+    }
+
+    private synchronized void scheduleNextTransition() {
+        if (nextTransition != null) {
+            nextTransition.cancel(false);
+            nextTransition = null;
+        }
+        Long next = PromotionTimeline.current().nextTransitionAfter(transitionsHandledUntil);
+        if (next == null) {
+            return;
+        }
+        long delay = Math.max(0, next - System.currentTimeMillis());
+        nextTransition = timer.schedule(this::onTransition, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Chạy sau mốc (timer không bao giờ chạy sớm): trang render lại từ đây đã thấy giá mới
+    private synchronized void onTransition() {
+        try {
+            long now = System.currentTimeMillis();
+            Set<Long> changed = PromotionTimeline.current().productsChangedBetween(transitionsHandledUntil, now);
+            transitionsHandledUntil = now;
+            invalidate(changed);
+        } catch (RuntimeException e) {
+            log.warn("Promotion transition cache refresh failed", e);
+        } finally {
+            scheduleNextTransition();
+        }
+    }
+
+    private void invalidate(Set<Long> productIds) {
+        productIds.remove(null);
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Set<Long> categoryIds = new HashSet<>(jdbc.queryForList("SELECT DISTINCT category_id FROM products " +
+                "WHERE id IN (:ids) AND category_id IS NOT NULL",
+                new MapSqlParameterSource("ids", productIds), Long.class));
+        catalogChangeListener.productsChanged(productIds, categoryIds);
+        log.info("Promotion prices changed for {} products", productIds.size());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.OrderItem;
 import vn.web.fashionshop.entity.Review;
 import vn.web.fashionshop.entity.User;
@@ -27,13 +28,16 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
+    private final GridStatsService gridStatsService;
 
     public ReviewService(ReviewRepository reviewRepository,
             OrderItemRepository orderItemRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            GridStatsService gridStatsService) {
         this.reviewRepository = reviewRepository;
         this.orderItemRepository = orderItemRepository;
         this.userRepository = userRepository;
+        this.gridStatsService = gridStatsService;
     }
 
     // Stats Widget Methods
@@ -132,9 +136,16 @@ public class ReviewService {
         return reviewRepository.findAll(pageable);
     }
 
-    // Search reviews with filters
-    public Page<Review> searchReviews(String keyword, String status, Integer rating, Pageable pageable) {
-        return reviewRepository.searchReviews(keyword, status, rating, pageable);
+    // Keyset paging for admin grid (no COUNT query, constant cost for deep pages)
+    public CursorPage<Review> searchReviewsByCursor(String keyword, String status, Integer rating, Long cursor,
+            int size, boolean withTotal) {
+        List<Review> fetched = reviewRepository.searchReviewsKeyset(keyword, status, rating, cursor,
+                CursorPage.fetchLimit(size));
+
+        boolean unfiltered = (keyword == null || keyword.isBlank()) && (status == null || status.isBlank())
+                && rating == null;
+        Long approximateTotal = withTotal && unfiltered ? gridStatsService.approximateRowCount("reviews") : null;
+        return CursorPage.of(fetched, size, Review::getId, approximateTotal);
     }
 
     // Get review by ID
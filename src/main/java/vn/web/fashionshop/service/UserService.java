@@ -1,5 +1,6 @@
 package vn.web.fashionshop.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -14,11 +15,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import vn.web.fashionshop.dto.RegisterDTO;
 import vn.web.fashionshop.dto.UserDTO;
 import vn.web.fashionshop.dto.UserListDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Role;
 import vn.web.fashionshop.entity.User;
 import vn.web.fashionshop.enums.ERoleName;
 import vn.web.fashionshop.repository.RoleRepository;
 import vn.web.fashionshop.repository.UserRepository;
+import vn.web.fashionshop.security.UserAuthStateCache;
+import vn.web.fashionshop.util.DateRange;
 
 @Service
 public class UserService {
@@ -26,11 +30,16 @@ public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final GridStatsService gridStatsService;
+    private final UserAuthStateCache userAuthStateCache;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+            GridStatsService gridStatsService, UserAuthStateCache userAuthStateCache) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.gridStatsService = gridStatsService;
+        this.userAuthStateCache = userAuthStateCache;
     }
 
     public Page<User> getAllUsers(int pageNo) {
@@ -116,6 +125,11 @@ public class UserService {
 
         User existingUser = getUserById(user.getId());
         if (existingUser != null) {
+            // Giá trị cũ của các trường nằm trong JWT, để biết có cần thu hồi token không
+            String oldEmail = existingUser.getEmail();
+            Role oldRole = existingUser.getRole();
+            Boolean oldActive = existingUser.getIsActive();
+
             // Check Duplicate Email
             if (!Objects.equals(existingUser.getEmail(), newEmail)) {
                 if (checkEmailExist(newEmail)) {
@@ -155,11 +169,22 @@ public class UserService {
             existingUser.setIsActive(user.getIsActive());
             existingUser.setUpdatedAt(java.time.LocalDateTime.now());
 
-            if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+            boolean passwordChanged = user.getPassword() != null && !user.getPassword().isEmpty();
+            if (passwordChanged) {
                 existingUser.setPassword(passwordEncoder.encode(user.getPassword()));
             }
 
-            return userRepository.save(existingUser);
+            boolean revokeTokens = passwordChanged
+                    || !Objects.equals(oldEmail, existingUser.getEmail())
+                    || !Objects.equals(roleName(oldRole), roleName(existingUser.getRole()))
+                    || !Objects.equals(oldActive, existingUser.getIsActive());
+            if (revokeTokens) {
+                existingUser.setTokenVersion(existingUser.getTokenVersion() + 1);
+            }
+
+            User saved = userRepository.save(existingUser);
+            userAuthStateCache.evict(saved.getId());
+            return saved;
         }
         return null;
     }
@@ -169,6 +194,11 @@ public class UserService {
             return;
         }
         userRepository.deleteById(id);
+        userAuthStateCache.evict(id);
+    }
+
+    private static ERoleName roleName(Role role) {
+        return role != null ? role.getRoleName() : null;
     }
 
     public User registerDTOtoUser(RegisterDTO registerDTO) {
@@ -206,36 +236,46 @@ public class UserService {
     }
 
     public Long countUserThisMonth() {
-        return userRepository.countUserThisMonth();
+        DateRange month = DateRange.thisMonth();
+        return userRepository.countCreatedBetween(month.start(), month.end());
     }
 
     public Long countCustomerThisMonth() {
-        return userRepository.countCustomerThisMonth();
+        DateRange month = DateRange.thisMonth();
+        return userRepository.countCustomerCreatedBetween(month.start(), month.end());
     }
 
+    // Giữ nghĩa cũ (created_at >= now - days): cận trên là đầu ngày mai nên vẫn gồm trọn hôm nay
     public List<Object[]> countUserByDateRange(int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        return userRepository.countUserByDateRange(startDate);
+        return userRepository.countUserByDateRange(startDate, LocalDate.now().plusDays(1).atStartOfDay());
     }
 
     public List<Object[]> countUsersByRole() {
         return userRepository.countUsersByRole();
     }
 
-    public Page<User> searchUsers(String keyword, Long roleId, String statusStr, int pageNo) {
-        int pageSize = 6;
-        Pageable pageable = PageRequest.of(pageNo - 1, pageSize);
+    // Keyset paging cho grid user: không COUNT, trang sâu không chậm dần
+    public CursorPage<UserListDTO> searchUsersByCursor(String keyword, Long roleId, String statusStr, Long cursor,
+            int size, boolean withTotal) {
+        Boolean status = parseActiveStatus(statusStr);
+        List<User> fetched = userRepository.searchUsersKeyset(keyword, roleId, status, cursor,
+                CursorPage.fetchLimit(size));
+
+        boolean unfiltered = (keyword == null || keyword.isBlank()) && roleId == null && status == null;
+        Long approximateTotal = withTotal && unfiltered ? gridStatsService.approximateRowCount("users") : null;
+        return CursorPage.of(fetched, size, User::getId, approximateTotal).map(this::userToListDTO);
+    }
 
-        Boolean status = null;
+    private Boolean parseActiveStatus(String statusStr) {
         if (statusStr != null && !statusStr.isEmpty()) {
             if ("active".equalsIgnoreCase(statusStr)) {
-                status = true;
+                return true;
             } else if ("inactive".equalsIgnoreCase(statusStr)) {
-                status = false;
+                return false;
             }
         }
-
-        return userRepository.searchUsers(keyword, roleId, status, pageable);
+        return null;
     }
 
     // Convert User entity sang UserListDTO cho API response
@@ -3,13 +3,11 @@ package vn.web.fashionshop.service;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import vn.web.fashionshop.dto.AddVoucherDTO;
+import vn.web.fashionshop.dto.paging.CursorPage;
 import vn.web.fashionshop.entity.Voucher;
 import vn.web.fashionshop.repository.VoucherRepository;
 
@@ -17,9 +15,11 @@ import vn.web.fashionshop.repository.VoucherRepository;
 public class VoucherService {
 
     private final VoucherRepository voucherRepository;
+    private final GridStatsService gridStatsService;
 
-    public VoucherService(VoucherRepository voucherRepository) {
+    public VoucherService(VoucherRepository voucherRepository, GridStatsService gridStatsService) {
         this.voucherRepository = voucherRepository;
+        this.gridStatsService = gridStatsService;
     }
 
     public List<Voucher> getAll() {
@@ -90,25 +90,15 @@ public class VoucherService {
         }
     }
 
-    public Page<Voucher> searchVoucherAdvanced(String keyword, String status, int pageNo, String sortBy,
-            String sortDir) {
-        int pageSize = 6;
+    // Keyset paging cho grid voucher (sắp xếp cố định theo id giảm dần), không COUNT
+    public CursorPage<Voucher> searchVouchersByCursor(String keyword, String status, Long cursor, int size,
+            boolean withTotal) {
+        List<Voucher> fetched = voucherRepository.searchVoucherKeyset(keyword, status, LocalDateTime.now(), cursor,
+                CursorPage.fetchLimit(size));
 
-        // Xử lý sorting
-        Sort sort = Sort.unsorted();
-        if (sortBy != null && !sortBy.isEmpty()) {
-            Sort.Direction direction = (sortDir != null && sortDir.equalsIgnoreCase("desc"))
-                    ? Sort.Direction.DESC
-                    : Sort.Direction.ASC;
-            sort = Sort.by(direction, sortBy);
-        } else {
-            // Default sort by createdAt DESC
-            sort = Sort.by(Sort.Direction.DESC, "createdAt");
-        }
-
-        Pageable pageable = PageRequest.of(pageNo - 1, pageSize, sort);
-
-        return voucherRepository.searchVoucherAdvanced(keyword, status, LocalDateTime.now(), pageable);
+        boolean unfiltered = (keyword == null || keyword.isBlank()) && (status == null || status.isBlank());
+        Long approximateTotal = withTotal && unfiltered ? gridStatsService.approximateRowCount("vouchers") : null;
+        return CursorPage.of(fetched, size, Voucher::getId, approximateTotal);
     }
 
     public Voucher findById(Long id) {
@@ -0,0 +1,92 @@
+package vn.web.fashionshop.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bước build (exec-maven-plugin, phase process-classes): tạo file .gz cạnh mỗi asset tĩnh dạng text
+ * trong target/classes/static, nén mức cao nhất một lần thay vì nén mỗi response.
+ * EncodedResourceResolver trả file .gz (hoặc .br nếu có) khi trình duyệt gửi Accept-Encoding phù hợp.
+ */
+@Slf4j
+public final class AssetPrecompressor {
+
+    // Ảnh / font woff đã nén sẵn, gzip thêm không có lợi
+    private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "svg", "json", "txt", "map", "ttf",
+            "otf", "eot", "ico");
+
+    // Chỉ giữ bản nén nếu nhỏ hơn đáng kể
+    private static final double MAX_RATIO = 0.9;
+
+    private AssetPrecompressor() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path root = Paths.get(args.length > 0 ? args[0] : "target/classes/static");
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).filter(AssetPrecompressor::isCompressible).toList();
+        }
+        int written = 0;
+        for (Path file : files) {
+            if (gzip(file)) {
+                written++;
+            }
+        }
+        log.info("Wrote {} gzip variants under {}", written, root);
+    }
+
+    private static boolean isCompressible(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSIBLE.contains(name.substring(dot + 1));
+    }
+
+    private static boolean gzip(Path file) throws IOException {
+        Path target = file.resolveSibling(file.getFileName() + ".gz");
+        if (Files.exists(target) && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(file)) >= 0) {
+            return false;
+        }
+        byte[] original = Files.readAllBytes(file);
+        Path tmp = Files.createTempFile(file.getParent(), ".precompress", ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 8192) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                out.write(original);
+            }
+            if (Files.size(tmp) > original.length * MAX_RATIO) {
+                Files.deleteIfExists(target);
+                return false;
+            }
+            try {
+                Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(file));
+            } catch (UnsupportedOperationException e) {
+                // Windows: giữ quyền mặc định
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            // Cùng Last-Modified với file gốc để conditional GET không phụ thuộc bản được chọn
+            Files.setLastModifiedTime(target, Files.getLastModifiedTime(file));
+            return true;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package vn.web.fashionshop.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV tối giản theo RFC 4180: phân cách bằng dấu phẩy, trường trong ngoặc kép ("" là một dấu "),
+ * cho phép xuống dòng trong ngoặc kép. Đọc / ghi từng bản ghi, không giữ cả file trong bộ nhớ.
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    public static final class CsvReader {
+
+        private final Reader in;
+        private int pushback = -2;
+        private long line = 1;
+        private long recordLine;
+
+        // Reader nên được buffer (BufferedReader)
+        public CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * Bản ghi tiếp theo, hoặc null khi hết dữ liệu. Dòng trống bị bỏ qua.
+         */
+        public List<String> next() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    return null;
+                }
+                if (c == '\r' || c == '\n') {
+                    consumeNewline(c);
+                    continue;
+                }
+                unread(c);
+                return readRecord();
+            }
+        }
+
+        // Số dòng (tính từ 1) nơi bản ghi vừa đọc bắt đầu
+        public long recordLine() {
+            return recordLine;
+        }
+
+        private List<String> readRecord() throws IOException {
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean fieldStart = true;
+            while (true) {
+                int c = read();
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field starting at line " + recordLine);
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            unread(next);
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                    continue;
+                }
+                if (c == '"' && fieldStart) {
+                    quoted = true;
+                    fieldStart = false;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    fieldStart = true;
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    if (c != -1) {
+                        consumeNewline(c);
+                    }
+                    return fields;
+                } else {
+                    field.append((char) c);
+                    fieldStart = false;
+                }
+            }
+        }
+
+        private void consumeNewline(int c) throws IOException {
+            line++;
+            if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    unread(next);
+                }
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushback != -2) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        private void unread(int c) {
+            pushback = c;
+        }
+    }
+
+    public static final class CsvWriter {
+
+        private final Writer out;
+
+        public CsvWriter(Writer out) {
+            this.out = out;
+        }
+
+        public void write(List<String> fields) throws IOException {
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeField(fields.get(i));
+            }
+            out.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0 || Character.isWhitespace(value.charAt(0))
+                    || Character.isWhitespace(value.charAt(value.length() - 1));
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package vn.web.fashionshop.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Khoảng thời gian nửa mở [start, end) dùng cho các query báo cáo.
+ * Luôn so sánh trực tiếp cột created_at với start/end để MySQL dùng được index
+ * (không bọc cột trong DATE()/MONTH()/YEAR()).
+ */
+public record DateRange(LocalDateTime start, LocalDateTime end) {
+
+    public DateRange {
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new IllegalArgumentException("Invalid date range: " + start + " - " + end);
+        }
+    }
+
+    // Trọn một ngày: [00:00 hôm đó, 00:00 hôm sau)
+    public static DateRange ofDay(LocalDate date) {
+        return new DateRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    // Trọn một tháng: [ngày 1, ngày 1 tháng sau)
+    public static DateRange ofMonth(YearMonth month) {
+        return new DateRange(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    // Tháng hiện tại
+    public static DateRange thisMonth() {
+        return ofMonth(YearMonth.now());
+    }
+
+    // Tháng trước
+    public static DateRange lastMonth() {
+        return ofMonth(YearMonth.now().minusMonths(1));
+    }
+
+    // Từ đầu ngày (today - days) đến hết hôm nay
+    public static DateRange lastDays(int days) {
+        LocalDate today = LocalDate.now();
+        return new DateRange(today.minusDays(days).atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
+
+    // Từ đầu ngày chứa from đến hết hôm nay
+    public static DateRange sinceStartOf(LocalDate from) {
+        return new DateRange(from.atStartOfDay(), LocalDate.now().plusDays(1).atStartOfDay());
+    }
+}
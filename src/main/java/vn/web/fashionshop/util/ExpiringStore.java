@@ -0,0 +1,23 @@
+package vn.web.fashionshop.util;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Kho key-value có hạn dùng và giới hạn kích thước, dùng cho dữ liệu tạm như OTP đăng ký / đặt lại mật khẩu.
+ *
+ * put() trả về false khi kho đã đầy hoặc owner (IP client) đã giữ quá nhiều entry còn hiệu lực;
+ * entry hết hạn không bao giờ được trả về và được dọn nền.
+ */
+public interface ExpiringStore<V> {
+
+    boolean put(String key, V value, Duration ttl, String owner);
+
+    Optional<V> get(String key);
+
+    void remove(String key);
+
+    default boolean contains(String key) {
+        return get(key).isPresent();
+    }
+}
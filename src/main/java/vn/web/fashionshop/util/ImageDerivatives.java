@@ -0,0 +1,37 @@
+package vn.web.fashionshop.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quy ước tên file ảnh resize: /images/abc.png -> /images/abc-w480.jpg (cùng thư mục với ảnh gốc).
+ */
+public final class ImageDerivatives {
+
+    private ImageDerivatives() {
+    }
+
+    public static String derivativeUrl(String url, int width, String format) {
+        int slash = url.lastIndexOf('/');
+        int dot = url.lastIndexOf('.');
+        String stem = dot > slash ? url.substring(0, dot) : url;
+        return stem + "-w" + width + "." + format;
+    }
+
+    // "160,480,1080" -> [160, 480, 1080]; giá trị hỏng bị bỏ qua
+    public static List<Integer> parseWidths(String csv) {
+        List<Integer> widths = new ArrayList<>();
+        if (csv == null || csv.isBlank()) {
+            return widths;
+        }
+        for (String part : csv.split(",")) {
+            try {
+                widths.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException e) {
+                // bỏ qua
+            }
+        }
+        widths.sort(null);
+        return widths;
+    }
+}
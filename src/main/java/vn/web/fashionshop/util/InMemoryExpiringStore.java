@@ -0,0 +1,134 @@
+package vn.web.fashionshop.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * {@link ExpiringStore} trong bộ nhớ với hashed time wheel.
+ *
+ * Mỗi entry được gắn vào slot ứng với thời điểm hết hạn; mỗi tick chỉ duyệt một slot nên chi phí dọn dẹp
+ * tỉ lệ với số entry sắp hết hạn chứ không phải toàn bộ kho. Entry có TTL dài hơn một vòng wheel vẫn nằm
+ * trong slot cho tới vòng của nó.
+ */
+public class InMemoryExpiringStore<V> implements ExpiringStore<V>, DisposableBean {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private record Entry<V>(V value, long expiresAt, String owner) {
+    }
+
+    private final int maxEntries;
+    private final int maxEntriesPerOwner;
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ownerCounts = new ConcurrentHashMap<>();
+    private final Set<String>[] wheel;
+    private final ScheduledExecutorService ticker;
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryExpiringStore(String name, int maxEntries, int maxEntriesPerOwner) {
+        this.maxEntries = maxEntries;
+        this.maxEntriesPerOwner = maxEntriesPerOwner;
+        this.wheel = new Set[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = System.currentTimeMillis() / TICK_MILLIS;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized boolean put(String key, V value, Duration ttl, String owner) {
+        Entry<V> existing = entries.get(key);
+        if (existing == null && entries.size() >= maxEntries) {
+            return false;
+        }
+        boolean sameOwner = existing != null && owner != null && owner.equals(existing.owner());
+        if (owner != null && !sameOwner && ownerCounts.getOrDefault(owner, 0) >= maxEntriesPerOwner) {
+            return false;
+        }
+
+        if (existing != null) {
+            removeInternal(key);
+        }
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        entries.put(key, new Entry<>(value, expiresAt, owner));
+        if (owner != null) {
+            ownerCounts.merge(owner, 1, Integer::sum);
+        }
+        wheel[slotOf(expiresAt)].add(key);
+        return true;
+    }
+
+    @Override
+    public Optional<V> get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.expiresAt() <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.value());
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        removeInternal(key);
+    }
+
+    private void removeInternal(String key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed == null) {
+            return;
+        }
+        wheel[slotOf(removed.expiresAt())].remove(key);
+        if (removed.owner() != null) {
+            ownerCounts.computeIfPresent(removed.owner(), (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    // Xử lý mọi slot từ lần tick trước tới hiện tại (bù lại nếu ticker bị trễ)
+    private void tick() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / TICK_MILLIS;
+        long from = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1);
+        for (long t = from; t <= currentTick; t++) {
+            expireSlot((int) (t % WHEEL_SIZE), now);
+        }
+        lastTick = currentTick;
+    }
+
+    private synchronized void expireSlot(int slot, long now) {
+        for (String key : wheel[slot]) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || slotOf(entry.expiresAt()) != slot) {
+                wheel[slot].remove(key);
+            } else if (entry.expiresAt() <= now) {
+                removeInternal(key);
+            }
+        }
+    }
+
+    // Làm tròn lên: khi tick của slot chạy thì entry chắc chắn đã hết hạn
+    private static int slotOf(long expiresAt) {
+        return (int) (((expiresAt + TICK_MILLIS - 1) / TICK_MILLIS) % WHEEL_SIZE);
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+    }
+}
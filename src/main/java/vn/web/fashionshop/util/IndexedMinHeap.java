@@ -0,0 +1,147 @@
+package vn.web.fashionshop.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Min-heap nhị phân có chỉ mục theo key: thêm, cập nhật và xoá một key đều O(log n), xem phần tử nhỏ
+ * nhất O(1). Không thread-safe.
+ */
+public final class IndexedMinHeap<K, V> {
+
+    private final Comparator<? super V> comparator;
+    private final List<K> keys = new ArrayList<>();
+    private final List<V> values = new ArrayList<>();
+    private final Map<K, Integer> positions = new HashMap<>();
+
+    public IndexedMinHeap(Comparator<? super V> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public boolean contains(K key) {
+        return positions.containsKey(key);
+    }
+
+    public V get(K key) {
+        Integer index = positions.get(key);
+        return index != null ? values.get(index) : null;
+    }
+
+    public V peek() {
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    // Thêm hoặc thay giá trị của key
+    public void put(K key, V value) {
+        Integer index = positions.get(key);
+        if (index == null) {
+            keys.add(key);
+            values.add(value);
+            positions.put(key, keys.size() - 1);
+            siftUp(keys.size() - 1);
+            return;
+        }
+        V old = values.get(index);
+        values.set(index, value);
+        if (comparator.compare(value, old) < 0) {
+            siftUp(index);
+        } else {
+            siftDown(index);
+        }
+    }
+
+    public V remove(K key) {
+        Integer index = positions.remove(key);
+        if (index == null) {
+            return null;
+        }
+        V removed = values.get(index);
+        int last = keys.size() - 1;
+        if (index != last) {
+            move(last, index);
+        }
+        keys.remove(last);
+        values.remove(last);
+        if (index != last) {
+            siftDown(index);
+            siftUp(index);
+        }
+        return removed;
+    }
+
+    /**
+     * limit phần tử nhỏ nhất theo thứ tự tăng dần, không làm thay đổi heap: O(limit log limit).
+     */
+    public List<V> smallest(int limit) {
+        List<V> result = new ArrayList<>(Math.min(limit, keys.size()));
+        if (limit <= 0 || keys.isEmpty()) {
+            return result;
+        }
+        // Duyệt heap bằng một heap phụ chứa chỉ số các nút biên
+        IndexedMinHeap<Integer, V> frontier = new IndexedMinHeap<>(comparator);
+        frontier.put(0, values.get(0));
+        while (result.size() < limit && frontier.size() > 0) {
+            int index = frontier.keys.get(0);
+            result.add(frontier.remove(index));
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < keys.size(); child++) {
+                frontier.put(child, values.get(child));
+            }
+        }
+        return result;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (comparator.compare(values.get(index), values.get(parent)) >= 0) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        int size = keys.size();
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && comparator.compare(values.get(left), values.get(smallest)) < 0) {
+                smallest = left;
+            }
+            if (right < size && comparator.compare(values.get(right), values.get(smallest)) < 0) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        K keyA = keys.get(a);
+        V valueA = values.get(a);
+        keys.set(a, keys.get(b));
+        values.set(a, values.get(b));
+        keys.set(b, keyA);
+        values.set(b, valueA);
+        positions.put(keys.get(a), a);
+        positions.put(keys.get(b), b);
+    }
+
+    private void move(int from, int to) {
+        keys.set(to, keys.get(from));
+        values.set(to, values.get(from));
+        positions.put(keys.get(to), to);
+    }
+}
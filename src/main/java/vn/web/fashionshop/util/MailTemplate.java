@@ -0,0 +1,61 @@
+package vn.web.fashionshop.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template thư với placeholder dạng {{name}}.
+ *
+ * Template được tách thành các đoạn cố định và placeholder một lần khi compile; mỗi người nhận chỉ
+ * còn nối chuỗi, không phải tìm/replace lại trên toàn bộ nội dung.
+ */
+public final class MailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // Đoạn chẵn là văn bản cố định, đoạn lẻ là tên placeholder
+    private final List<String> parts;
+    private final int fixedLength;
+
+    private MailTemplate(List<String> parts) {
+        this.parts = parts;
+        int length = 0;
+        for (int i = 0; i < parts.size(); i += 2) {
+            length += parts.get(i).length();
+        }
+        this.fixedLength = length;
+    }
+
+    public static MailTemplate compile(String template) {
+        List<String> parts = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = template.indexOf(OPEN, pos);
+            int close = open < 0 ? -1 : template.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                parts.add(template.substring(pos));
+                return new MailTemplate(parts);
+            }
+            parts.add(template.substring(pos, open));
+            parts.add(template.substring(open + OPEN.length(), close).trim());
+            pos = close + CLOSE.length();
+        }
+    }
+
+    // Placeholder không có trong values được giữ nguyên
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(fixedLength + 64);
+        for (int i = 0; i < parts.size(); i++) {
+            String part = parts.get(i);
+            if (i % 2 == 0) {
+                out.append(part);
+            } else {
+                String value = values.get(part);
+                out.append(value != null ? value : OPEN + part + CLOSE);
+            }
+        }
+        return out.toString();
+    }
+}
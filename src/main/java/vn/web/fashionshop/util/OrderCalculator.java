@@ -17,7 +17,7 @@ public class OrderCalculator {
     private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
 
     /**
-     * Tính giá sau khi áp dụng discount của Product
+     * Tính giá sau khi áp dụng discount của Product (kể cả khuyến mãi đang chạy)
      * Formula: price - (price × discount / 100)
      * 
      * @param product Product entity
@@ -29,7 +29,7 @@ public class OrderCalculator {
         }
 
         BigDecimal price = product.getPrice();
-        BigDecimal discount = product.getDiscount();
+        BigDecimal discount = product.getEffectiveDiscount();
 
         // Nếu không có discount hoặc discount = 0
         if (discount == null || discount.compareTo(BigDecimal.ZERO) == 0) {
@@ -0,0 +1,51 @@
+-- Bang / index khong khai bao bang entity JPA. Chay sau ddl-auto (spring.jpa.defer-datasource-initialization)
+-- nen cac bang hot da ton tai; moi cau lenh idempotent vi script chay o moi lan khoi dong.
+
+-- OTP / token dung chung giua cac instance (JdbcExpiringStore)
+CREATE TABLE IF NOT EXISTS expiring_store_entries (
+    store VARCHAR(40) NOT NULL,
+    entry_key VARCHAR(191) NOT NULL,
+    owner VARCHAR(64) NULL,
+    payload TEXT NOT NULL,
+    expires_at DATETIME(3) NOT NULL,
+    PRIMARY KEY (store, entry_key),
+    INDEX idx_expiring_store_expires (expires_at),
+    INDEX idx_expiring_store_owner (store, owner, expires_at)
+);
+
+-- Gia cu / moi cua tung product trong mot price job (PriceJobService)
+CREATE TABLE IF NOT EXISTS price_job_items (
+    job_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    old_price DECIMAL(15,2) NULL,
+    old_discount DECIMAL(5,2) NULL,
+    new_price DECIMAL(15,2) NOT NULL,
+    new_discount DECIMAL(5,2) NULL,
+    PRIMARY KEY (job_id, product_id)
+);
+
+-- Tien do cac job nen chay tiep duoc sau restart (PasswordMigrationRunner)
+CREATE TABLE IF NOT EXISTS background_job_progress (
+    job_name VARCHAR(100) NOT NULL PRIMARY KEY,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    processed BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME NULL,
+    completed_at DATETIME NULL
+);
+
+-- Bang archive cung cau truc bang hot (OrderArchiveService); tao san de read path luon query duoc
+CREATE TABLE IF NOT EXISTS orders_archive LIKE orders;
+CREATE TABLE IF NOT EXISTS order_items_archive LIKE order_items;
+CREATE TABLE IF NOT EXISTS order_addresses_archive LIKE order_addresses;
+CREATE TABLE IF NOT EXISTS payments_archive LIKE payments;
+CREATE TABLE IF NOT EXISTS payment_transactions_archive LIKE payment_transactions;
+
+-- FULLTEXT ngram cho o tim kiem don hang admin (email / ten / SDT khach hang); @Index khong khai bao duoc.
+-- MySQL khong co ADD INDEX IF NOT EXISTS nen kiem tra information_schema roi chay lenh dong
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users' AND INDEX_NAME = 'ft_user_search') = 0,
+    'ALTER TABLE users ADD FULLTEXT INDEX ft_user_search (email, full_name, phone) WITH PARSER ngram',
+    'DO 0');
+PREPARE create_ft_user_search FROM @ddl;
+EXECUTE create_ft_user_search;
+DEALLOCATE PREPARE create_ft_user_search;
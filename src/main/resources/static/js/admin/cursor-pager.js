@@ -0,0 +1,79 @@
+/**
+ * Phân trang keyset cho các grid admin (endpoint .../api/search/cursor)
+ * Giữ cursor của các trang đã mở để quay lại trang trước; server không cần COUNT
+ */
+(function (window) {
+  function CursorPager(container, onChange, options) {
+    this.container = container;
+    this.onChange = onChange;
+    this.listClass = (options && options.listClass) || 'pagination pagination-sm mb-0';
+    this.reset();
+
+    if (container) {
+      container.addEventListener('click', (e) => {
+        const link = e.target.closest('a[data-pager]');
+        if (!link || link.parentElement.classList.contains('disabled')) return;
+        e.preventDefault();
+        if (link.dataset.pager === 'next' && this.nextCursor != null) {
+          this.cursors.push(this.nextCursor);
+        } else if (link.dataset.pager === 'prev' && this.cursors.length > 1) {
+          this.cursors.pop();
+        } else {
+          return;
+        }
+        this.onChange();
+      });
+    }
+  }
+
+  // Về trang đầu (đổi bộ lọc / từ khoá)
+  CursorPager.prototype.reset = function () {
+    this.cursors = [null];
+    this.nextCursor = null;
+    this.approximateTotal = null;
+  };
+
+  CursorPager.prototype.isFirstPage = function () {
+    return this.cursors.length === 1;
+  };
+
+  // Thêm cursor vào query; tổng xấp xỉ chỉ xin ở trang đầu
+  CursorPager.prototype.apply = function (params) {
+    const cursor = this.cursors[this.cursors.length - 1];
+    if (cursor != null) params.append('cursor', cursor);
+    if (this.isFirstPage()) params.append('withTotal', 'true');
+    return params;
+  };
+
+  CursorPager.prototype.render = function (page) {
+    this.nextCursor = page.hasNext ? page.nextCursor : null;
+    if (this.isFirstPage()) this.approximateTotal = page.approximateTotal;
+    if (!this.container) return;
+    if (this.isFirstPage() && !page.hasNext) {
+      this.container.innerHTML = '';
+      return;
+    }
+    this.container.innerHTML = `
+      <ul class="${this.listClass}">
+        <li class="page-item ${this.isFirstPage() ? 'disabled' : ''}">
+          <a class="page-link" href="#" data-pager="prev">Trước</a>
+        </li>
+        <li class="page-item active"><span class="page-link">${this.cursors.length}</span></li>
+        <li class="page-item ${page.hasNext ? '' : 'disabled'}">
+          <a class="page-link" href="#" data-pager="next">Sau</a>
+        </li>
+      </ul>
+    `;
+  };
+
+  // "Hiển thị 6 trên khoảng 1.234 đơn hàng"; tổng chỉ có khi không lọc
+  CursorPager.prototype.summary = function (page, noun) {
+    let html = 'Hiển thị <strong>' + page.content.length + '</strong>';
+    if (this.approximateTotal != null) {
+      html += ' trên khoảng <strong>' + new Intl.NumberFormat('vi-VN').format(this.approximateTotal) + '</strong>';
+    }
+    return html + ' ' + noun;
+  };
+
+  window.CursorPager = CursorPager;
+})(window);
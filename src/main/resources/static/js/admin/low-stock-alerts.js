@@ -0,0 +1,90 @@
+/**
+ * Cảnh báo tồn kho realtime cho admin
+ * Nhận từ /topic/admin/inventory (LowStockMonitor) và hiện toast góc màn hình
+ */
+(function () {
+  if (typeof SockJS === "undefined" || typeof Stomp === "undefined") {
+    return;
+  }
+
+  const LABELS = {
+    LOW_STOCK: { text: "Sắp hết hàng", css: "bg-warning text-dark" },
+    OUT_OF_STOCK: { text: "Hết hàng", css: "bg-danger text-white" },
+    RESTOCKED: { text: "Đã có hàng lại", css: "bg-success text-white" },
+  };
+
+  let container = null;
+
+  function ensureContainer() {
+    if (!container) {
+      container = document.createElement("div");
+      container.className = "toast-container position-fixed bottom-0 end-0 p-3";
+      container.style.zIndex = "1080";
+      document.body.appendChild(container);
+    }
+    return container;
+  }
+
+  function escapeHtml(value) {
+    const div = document.createElement("div");
+    div.textContent = value == null ? "" : String(value);
+    return div.innerHTML;
+  }
+
+  function showAlert(alert) {
+    const label = LABELS[alert.type];
+    const item = alert.item || {};
+    if (!label) {
+      return;
+    }
+    const variant = [item.size, item.color].filter(Boolean).join(" / ");
+    const toast = document.createElement("div");
+    toast.className = "toast border-0 shadow";
+    toast.setAttribute("role", "alert");
+    toast.innerHTML =
+      '<div class="toast-header ' + label.css + '">' +
+      '<i class="bi bi-box-seam me-2"></i>' +
+      '<strong class="me-auto">' + label.text + "</strong>" +
+      "<small>Còn " + escapeHtml(item.stock) + "</small>" +
+      '<button type="button" class="btn-close ms-2" data-bs-dismiss="toast"></button>' +
+      "</div>" +
+      '<div class="toast-body">' +
+      '<a href="/admin/products/' + encodeURIComponent(item.productId) + '">' +
+      escapeHtml(item.productName) + "</a>" +
+      '<div class="small text-muted">' + escapeHtml(item.skuVariant) +
+      (variant ? " · " + escapeHtml(variant) : "") + "</div>" +
+      '<div class="small text-muted">' + escapeHtml(alert.lowStockCount) + " biến thể đang ở mức thấp</div>" +
+      "</div>";
+    ensureContainer().appendChild(toast);
+    if (window.bootstrap && bootstrap.Toast) {
+      const instance = new bootstrap.Toast(toast, { delay: 10000 });
+      toast.addEventListener("hidden.bs.toast", function () {
+        toast.remove();
+      });
+      instance.show();
+    }
+  }
+
+  function connect() {
+    const client = Stomp.over(new SockJS("/ws"));
+    client.debug = null;
+    client.connect(
+      {},
+      function () {
+        client.subscribe("/topic/admin/inventory", function (message) {
+          try {
+            showAlert(JSON.parse(message.body));
+          } catch (e) {
+            console.error("Invalid stock alert", e);
+          }
+        });
+      },
+      function () {
+        // Mất kết nối: thử lại sau
+        setTimeout(connect, 5000);
+      }
+    );
+  }
+
+  connect();
+})();
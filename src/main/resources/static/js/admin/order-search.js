@@ -20,7 +20,7 @@
   console.log('Order AJAX Search initialized!');
   
   let debounceTimer;
-  let currentPage = 1;
+  const pager = new CursorPager(paginationContainer, () => searchOrders());
   
   // Debounce function
   function debounce(func, delay) {
@@ -42,23 +42,24 @@
     if (status) params.append('status', status);
     if (paymentMethod) params.append('paymentMethod', paymentMethod);
     if (period) params.append('period', period);
-    params.append('page', currentPage);
+    const query = params.toString();
+    pager.apply(params);
     
     // Show loading
     tableBody.innerHTML = '<tr><td colspan="7" class="text-center py-4"><div class="spinner-border spinner-border-sm text-primary"></div> Đang tìm kiếm...</td></tr>';
     
     try {
-      const response = await fetch('/admin/orders/api/search?' + params.toString());
+      const response = await fetch('/admin/orders/api/search/cursor?' + params.toString());
       const data = await response.json();
       
       renderOrders(data.content);
+      pager.render(data);
       if (resultInfo) {
-        resultInfo.innerHTML = 'Hiển thị <strong>' + data.numberOfElements + '</strong> trên tổng số <strong>' + data.totalElements +' </strong> đơn hàng';
+        resultInfo.innerHTML = pager.summary(data, 'đơn hàng');
       }
-      renderPagination(data.number + 1, data.totalPages);
       
-      // Update URL
-      const newUrl = params.toString() ? window.location.pathname + '?' + params.toString() : window.location.pathname;
+      // Update URL (chỉ bộ lọc, cursor không cần giữ)
+      const newUrl = query ? window.location.pathname + '?' + query : window.location.pathname;
       window.history.replaceState({}, '', newUrl);
       
     } catch (error) {
@@ -156,6 +157,7 @@
                   <i class="bi bi-eye text-info me-2"></i>Xem chi tiết
                 </a>
               </li>
+              ${order.archived ? '' : `
               <li>
                 <a class="dropdown-item d-flex align-items-center py-2 px-3" href="/admin/orders/edit/${order.id}">
                   <i class="bi bi-pencil-square text-primary me-2"></i>Chỉnh sửa
@@ -166,7 +168,7 @@
                 <a class="dropdown-item d-flex align-items-center py-2 px-3 text-danger" href="/admin/orders/delete/${order.id}" onclick="return confirm('Bạn có chắc chắn muốn xóa?')">
                   <i class="bi bi-trash3 me-2"></i>Xóa
                 </a>
-              </li>
+              </li>`}
             </ul>
           </div>
         </td>
@@ -174,78 +176,34 @@
     `).join('');
   }
   
-  // Render pagination
-  function renderPagination(current, total) {
-    if (!paginationContainer || total <= 1) {
-      if (paginationContainer) paginationContainer.innerHTML = '';
-      return;
-    }
-    
-    let html = '<ul class="pagination pagination-sm mb-0">';
-    
-    // Previous button
-    html += `
-      <li class="page-item ${current === 1 ? 'disabled' : ''}">
-        <a class="page-link" href="#" data-page="${current - 1}">Trước</a>
-      </li>
-    `;
-    
-    // Page numbers
-    for (let i = 1; i <= total; i++) {
-      html += `
-        <li class="page-item ${i === current ? 'active' : ''}">
-          <a class="page-link" href="#" data-page="${i}">${i}</a>
-        </li>
-      `;
-    }
-    
-    // Next button
-    html += `
-      <li class="page-item ${current === total ? ' disabled' : ''}">
-        <a class="page-link" href="#" data-page="${current + 1}">Sau</a>
-      </li>
-    `;
-    
-    html += '</ul>';
-    paginationContainer.innerHTML = html;
-  }
-  
   // Event listeners
   searchInput.addEventListener('input', debounce(() => {
-    currentPage = 1;
+    pager.reset();
     searchOrders();
   }, 500));
   
   if (statusFilter) {
     statusFilter.addEventListener('change', () => {
-      currentPage = 1;
+      pager.reset();
       searchOrders();
     });
   }
   
   if (paymentMethodFilter) {
     paymentMethodFilter.addEventListener('change', () => {
-      currentPage = 1;
+      pager.reset();
       searchOrders();
     });
   }
   
   if (periodFilter) {
     periodFilter.addEventListener('change', () => {
-      currentPage = 1;
+      pager.reset();
       searchOrders();
     });
   }
   
-  // Pagination clicks
-  if (paginationContainer) {
-    paginationContainer.addEventListener('click', (e) => {
-      if (e.target.tagName === 'A' && e.target.dataset.page) {
-        e.preventDefault();
-        currentPage = parseInt(e.target.dataset.page);
-        searchOrders();
-      }
-    });
-  }
+  // Trang đầu tải qua cursor endpoint
+  searchOrders();
   
 })();
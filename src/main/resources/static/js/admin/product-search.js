@@ -20,7 +20,8 @@
   console.log('Product AJAX Search initialized!');
   
   let debounceTimer;
-  let currentPage = 1;
+  const pager = new CursorPager(paginationContainer, () => searchProducts(),
+      { listClass: 'pagination justify-content-end mb-0' });
   
   // Debounce function
   function debounce(func, delay) {
@@ -42,23 +43,24 @@
     if (categoryId) params.append('categoryId', categoryId);
     if (stock) params.append('stock', stock);
     if (isActive) params.append('isActive', isActive);
-    params.append('page', currentPage);
+    const query = params.toString();
+    pager.apply(params);
     
     // Show loading
     tableBody.innerHTML = '<tr><td colspan="7" class="text-center py-4"><div class="spinner-border spinner-border-sm text-primary"></div> Đang tìm kiếm...</td></tr>';
     
     try {
-      const response = await fetch('/admin/products/api/search?' + params.toString());
+      const response = await fetch('/admin/products/api/search/cursor?' + params.toString());
       const data = await response.json();
       
       renderProducts(data.content);
+      pager.render(data);
       if (resultInfo) {
-        resultInfo.innerHTML = 'Hiển thị <strong>' + data.numberOfElements + '</strong> trong tổng số <strong>' + data.totalElements +' </strong> sản phẩm';
+        resultInfo.innerHTML = pager.summary(data, 'sản phẩm');
       }
-      renderPagination(data.number + 1, data.totalPages);
       
-      // Update URL
-      const newUrl = params.toString() ? window.location.pathname + '?' + params.toString() : window.location.pathname;
+      // Update URL (chỉ bộ lọc, cursor không cần giữ)
+      const newUrl = query ? window.location.pathname + '?' + query : window.location.pathname;
       window.history.replaceState({}, '', newUrl);
       
     } catch (error) {
@@ -147,82 +149,34 @@
     `).join('');
   }
   
-  // Render pagination
-  function renderPagination(current, total) {
-    if (!paginationContainer || total <= 1) {
-      if (paginationContainer) paginationContainer.innerHTML = '';
-      return;
-    }
-    
-    let html = '<ul class="pagination justify-content-end mb-0">';
-    
-    // Previous button
-    html += `
-      <li class="page-item ${current === 1 ? 'disabled' : ''}">
-        <a class="page-link" href="#" data-page="${current - 1}">
-          <i class="bi bi-chevron-left"></i>
-        </a>
-      </li>
-    `;
-    
-    // Page numbers
-    for (let i = 1; i <= total; i++) {
-      html += `
-        <li class="page-item ${i === current ? 'active' : ''}">
-          <a class="page-link" href="#" data-page="${i}">${i}</a>
-        </li>
-      `;
-    }
-    
-    // Next button
-    html += `
-      <li class="page-item ${current === total ? 'disabled' : ''}">
-        <a class="page-link" href="#" data-page="${current + 1}">
-          <i class="bi bi-chevron-right"></i>
-        </a>
-      </li>
-    `;
-    
-    html += '</ul>';
-    paginationContainer.innerHTML = html;
-  }
-  
   // Event listeners
   searchInput.addEventListener('input', debounce(() => {
-    currentPage = 1;
+    pager.reset();
     searchProducts();
   }, 500));
   
   if (categoryFilter) {
     categoryFilter.addEventListener('change', () => {
-      currentPage = 1;
+      pager.reset();
       searchProducts();
     });
   }
   
   if (stockFilter) {
     stockFilter.addEventListener('change', () => {
-      currentPage = 1;
+      pager.reset();
       searchProducts();
     });
   }
   
   if (statusFilter) {
     statusFilter.addEventListener('change', () => {
-      currentPage = 1;
+      pager.reset();
       searchProducts();
     });
   }
   
-  // Pagination clicks
-  if (paginationContainer) {
-    paginationContainer.addEventListener('click', (e) => {
-      if (e.target.tagName === 'A' && e.target.dataset.page) {
-        e.preventDefault();
-        currentPage = parseInt(e.target.dataset.page);
-        searchProducts();
-      }
-    });
-  }
+  // Trang đầu tải qua cursor endpoint
+  searchProducts();
   
 })();
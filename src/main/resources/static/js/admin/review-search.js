@@ -19,7 +19,7 @@
   console.log('Review AJAX Search initialized!');
   
   let debounceTimer;
-  let currentPage = 1;
+  const pager = new CursorPager(paginationContainer, () => searchReviews());
   
   // Debounce function
   function debounce(func, delay) {
@@ -39,23 +39,24 @@
     if (keyword) params.append('keyword', keyword);
     if (status) params.append('status', status);
     if (rating) params.append('rating', rating);
-    params.append('page', currentPage);
+    const query = params.toString();
+    pager.apply(params);
     
     // Show loading
     tableBody.innerHTML = '<tr><td colspan="8" class="text-center py-4"><div class="spinner-border spinner-border-sm text-primary"></div> Đang tìm kiếm...</td></tr>';
     
     try {
-      const response = await fetch('/admin/reviews/api/search?' + params.toString());
+      const response = await fetch('/admin/reviews/api/search/cursor?' + params.toString());
       const data = await response.json();
       
       renderReviews(data.content);
+      pager.render(data);
       if (resultInfo) {
-        resultInfo.innerHTML = 'Hiển thị <strong>' + data.numberOfElements + '</strong> trên tổng số <strong>' + data.totalElements + '</strong> đánh giá';
+        resultInfo.innerHTML = pager.summary(data, 'đánh giá');
       }
-      renderPagination(data.number + 1, data.totalPages);
       
-      // Update URL
-      const newUrl = params.toString() ? window.location.pathname + '?' + params.toString() : window.location.pathname;
+      // Update URL (chỉ bộ lọc, cursor không cần giữ)
+      const newUrl = query ? window.location.pathname + '?' + query : window.location.pathname;
       window.history.replaceState({}, '', newUrl);
       
     } catch (error) {
@@ -126,39 +127,9 @@
     tableBody.innerHTML = html;
   }
   
-  // Render pagination
-  function renderPagination(current, totalPages) {
-    if (!paginationContainer || totalPages <= 1) {
-      if (paginationContainer) paginationContainer.innerHTML = '';
-      return;
-    }
-    
-    let html = '<nav><ul class="pagination pagination-sm mb-0">';
-    html += '<li class="page-item ' + (current <= 1 ? 'disabled' : '') + '"><a class="page-link" href="#" data-page="' + (current - 1) + '">Trước</a></li>';
-    for (let i = 1; i <= totalPages; i++) {
-      html += '<li class="page-item ' + (current === i ? 'active' : '') + '"><a class="page-link" href="#" data-page="' + i + '">' + i + '</a></li>';
-    }
-    html += '<li class="page-item ' + (current >= totalPages ? 'disabled' : '') + '"><a class="page-link" href="#" data-page="' + (current + 1) + '">Sau</a></li>';
-    html += '</ul></nav>';
-    
-    paginationContainer.innerHTML = html;
-    
-    // Add click handlers
-    paginationContainer.querySelectorAll('.page-link').forEach(function(link) {
-      link.addEventListener('click', function(e) {
-        e.preventDefault();
-        const page = parseInt(this.dataset.page);
-        if (page >= 1 && page <= totalPages) {
-          currentPage = page;
-          searchReviews();
-        }
-      });
-    });
-  }
-  
   // Event listeners
   const debouncedSearch = debounce(function() {
-    currentPage = 1;
+    pager.reset();
     searchReviews();
   }, 300);
   
@@ -167,22 +138,25 @@
   searchInput.addEventListener('keypress', function(e) {
     if (e.key === 'Enter') {
       e.preventDefault();
-      currentPage = 1;
+      pager.reset();
       searchReviews();
     }
   });
   
   if (statusFilter) {
     statusFilter.addEventListener('change', function() {
-      currentPage = 1;
+      pager.reset();
       searchReviews();
     });
   }
   
   if (ratingFilter) {
     ratingFilter.addEventListener('change', function() {
-      currentPage = 1;
+      pager.reset();
       searchReviews();
     });
   }
+  
+  // Trang đầu tải qua cursor endpoint
+  searchReviews();
 })();
@@ -19,7 +19,7 @@
   console.log('AJAX Search initialized!');
   
   let debounceTimer;
-  let currentPage = 1;
+  const pager = new CursorPager(paginationContainer, () => searchUsers());
   
   // Debounce function
   function debounce(func, delay) {
@@ -39,23 +39,24 @@
     if (keyword) params.append('keyword', keyword);
     if (status) params.append('status', status);
     if (roleId) params.append('roleId', roleId);
-    params.append('page', currentPage);
+    const query = params.toString();
+    pager.apply(params);
     
     // Show loading
     tableBody.innerHTML = '<tr><td colspan="7" class="text-center py-4"><div class="spinner-border spinner-border-sm text-primary"></div> Đang tìm kiếm...</td></tr>';
     
     try {
-      const response = await fetch('/api/admin/users/search?' + params.toString());
+      const response = await fetch('/api/admin/users/search/cursor?' + params.toString());
       const data = await response.json();
       
-      renderUsers(data.users);
+      renderUsers(data.content);
+      pager.render(data);
       if (resultInfo) {
-        resultInfo.innerHTML = 'Hiển thị <strong>' + data.numberOfElements + '</strong> trên tổng số <strong>' + data.totalElements + '</strong> người dùng';
+        resultInfo.innerHTML = pager.summary(data, 'người dùng');
       }
-      renderPagination(data.currentPage, data.totalPages);
       
-      // Update URL
-      const newUrl = params.toString() ? window.location.pathname + '?' + params.toString() : window.location.pathname;
+      // Update URL (chỉ bộ lọc, cursor không cần giữ)
+      const newUrl = query ? window.location.pathname + '?' + query : window.location.pathname;
       window.history.replaceState({}, '', newUrl);
       
     } catch (error) {
@@ -104,39 +105,9 @@
     tableBody.innerHTML = html;
   }
   
-  // Render pagination
-  function renderPagination(current, totalPages) {
-    if (!paginationContainer || totalPages <= 1) {
-      if (paginationContainer) paginationContainer.innerHTML = '';
-      return;
-    }
-    
-    let html = '<nav><ul class="pagination pagination-sm mb-0">';
-    html += '<li class="page-item ' + (current <= 1 ? 'disabled' : '') + '"><a class="page-link" href="#" data-page="' + (current - 1) + '">Trước</a></li>';
-    for (let i = 1; i <= totalPages; i++) {
-      html += '<li class="page-item ' + (current === i ? 'active' : '') + '"><a class="page-link" href="#" data-page="' + i + '">' + i + '</a></li>';
-    }
-    html += '<li class="page-item ' + (current >= totalPages ? 'disabled' : '') + '"><a class="page-link" href="#" data-page="' + (current + 1) + '">Sau</a></li>';
-    html += '</ul></nav>';
-    
-    paginationContainer.innerHTML = html;
-    
-    // Add click handlers
-    paginationContainer.querySelectorAll('.page-link').forEach(function(link) {
-      link.addEventListener('click', function(e) {
-        e.preventDefault();
-        const page = parseInt(this.dataset.page);
-        if (page >= 1 && page <= totalPages) {
-          currentPage = page;
-          searchUsers();
-        }
-      });
-    });
-  }
-  
   // Event listeners
   const debouncedSearch = debounce(function() {
-    currentPage = 1;
+    pager.reset();
     searchUsers();
   }, 300);
   
@@ -145,22 +116,25 @@
   searchInput.addEventListener('keypress', function(e) {
     if (e.key === 'Enter') {
       e.preventDefault();
-      currentPage = 1;
+      pager.reset();
       searchUsers();
     }
   });
   
   if (statusFilter) {
     statusFilter.addEventListener('change', function() {
-      currentPage = 1;
+      pager.reset();
       searchUsers();
     });
   }
   
   if (roleFilter) {
     roleFilter.addEventListener('change', function() {
-      currentPage = 1;
+      pager.reset();
       searchUsers();
     });
   }
+  
+  // Trang đầu tải qua cursor endpoint
+  searchUsers();
 })();
@@ -6,15 +6,18 @@
   // DOM Elements
   const searchForm = document.querySelector('form[action*="/admin/vouchers"]');
   const tableBody = document.querySelector("#vouchersTable tbody");
-  const paginationContainer = document.querySelector(".pagination");
-  const resultsInfo = document.querySelector(".card-footer small");
+  const paginationContainer = document.getElementById("paginationContainer");
+  const resultsInfo = document.getElementById("resultInfo");
 
   if (!searchForm || !tableBody) return;
 
+  const pager = new CursorPager(paginationContainer, () => performSearch());
+
   // Prevent default form submission
   searchForm.addEventListener("submit", function (e) {
     e.preventDefault();
-    performSearch(1); // Reset to page 1 on new search
+    pager.reset(); // Về trang đầu khi tìm kiếm mới
+    performSearch();
   });
 
   // Handle input changes (optional: search while typing với debounce)
@@ -24,7 +27,8 @@
     keywordInput.addEventListener("input", function () {
       clearTimeout(debounceTimer);
       debounceTimer = setTimeout(() => {
-        performSearch(1);
+        pager.reset();
+        performSearch();
       }, 500); // Wait 500ms after user stops typing
     });
   }
@@ -33,14 +37,15 @@
   const statusSelect = searchForm.querySelector('select[name="status"]');
   if (statusSelect) {
     statusSelect.addEventListener("change", function () {
-      performSearch(1);
+      pager.reset();
+      performSearch();
     });
   }
 
   /**
    * Perform AJAX search
    */
-  function performSearch(page = 1) {
+  function performSearch() {
     // Get form data
     const formData = new FormData(searchForm);
     const keyword = formData.get("keyword") || "";
@@ -48,16 +53,16 @@
 
     // Build URL parameters
     const params = new URLSearchParams({
-      page: page,
       keyword: keyword,
       status: status,
     });
+    pager.apply(params);
 
     // Show loading state
     showLoading();
 
     // Fetch data
-    fetch(`/admin/vouchers/api/search?${params.toString()}`, {
+    fetch(`/admin/vouchers/api/search/cursor?${params.toString()}`, {
       method: "GET",
       headers: {
         Accept: "application/json",
@@ -71,7 +76,7 @@
       })
       .then((data) => {
         updateTable(data);
-        updatePagination(data, keyword, status);
+        pager.render(data);
         updateResultsInfo(data);
         hideLoading();
       })
@@ -200,63 +205,12 @@
     `;
   }
 
-  /**
-   * Update pagination
-   */
-  function updatePagination(data, keyword, status) {
-    if (!paginationContainer || data.totalPages <= 1) {
-      if (paginationContainer) paginationContainer.innerHTML = "";
-      return;
-    }
-
-    const currentPage = data.number + 1; // Spring Data JPA uses 0-based index
-    const totalPages = data.totalPages;
-
-    let paginationHTML = `
-      <li class="page-item ${currentPage === 1 ? "disabled" : ""}">
-        <a class="page-link" href="#" data-page="${currentPage - 1}">Trước</a>
-      </li>
-    `;
-
-    for (let i = 1; i <= totalPages; i++) {
-      paginationHTML += `
-        <li class="page-item ${currentPage === i ? "active" : ""}">
-          <a class="page-link" href="#" data-page="${i}">${i}</a>
-        </li>
-      `;
-    }
-
-    paginationHTML += `
-      <li class="page-item ${currentPage === totalPages ? "disabled" : ""}">
-        <a class="page-link" href="#" data-page="${currentPage + 1}">Sau</a>
-      </li>
-    `;
-
-    paginationContainer.innerHTML = paginationHTML;
-
-    // Add click handlers to pagination links
-    paginationContainer.querySelectorAll(".page-link").forEach((link) => {
-      link.addEventListener("click", function (e) {
-        e.preventDefault();
-        if (
-          !this.parentElement.classList.contains("disabled") &&
-          !this.parentElement.classList.contains("active")
-        ) {
-          const page = parseInt(this.dataset.page);
-          performSearch(page);
-        }
-      });
-    });
-  }
-
   /**
    * Update results info
    */
   function updateResultsInfo(data) {
     if (resultsInfo) {
-      resultsInfo.innerHTML = `
-        Hiển thị <strong>${data.numberOfElements}</strong> trên tổng số <strong>${data.totalElements}</strong> voucher
-      `;
+      resultsInfo.innerHTML = pager.summary(data, "voucher");
     }
   }
 
@@ -302,4 +256,7 @@
       `;
     }
   }
+
+  // Trang đầu tải qua cursor endpoint
+  performSearch();
 })();
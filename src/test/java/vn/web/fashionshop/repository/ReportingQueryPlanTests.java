@@ -0,0 +1,219 @@
+package vn.web.fashionshop.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+import vn.web.fashionshop.enums.EPaymentStatus;
+
+/**
+ * EXPLAIN đúng câu SQL mà Hibernate sinh ra cho các query báo cáo: gọi method repository thật,
+ * bắt SQL qua StatementInspector và bind cùng tham số. Mỗi query phải dùng index mong đợi
+ * (cột key) và không full scan (type = ALL).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "vn.web.fashionshop.repository.ReportingQueryPlanTests$CapturingStatementInspector")
+class ReportingQueryPlanTests {
+
+    private static final LocalDateTime START = LocalDate.now().minusDays(30).atStartOfDay();
+    private static final LocalDateTime END = LocalDate.now().plusDays(1).atStartOfDay();
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void orderDailyTrendsUsesCreatedIndex() {
+        assertUsesIndex(orderRepository, OrderRepository.class, "getDailyOrderTrends", "idx_order_created",
+                START, END);
+    }
+
+    @Test
+    void paymentDailyRevenueUsesStatusCreatedIndex() {
+        assertUsesIndex(paymentRepository, PaymentRepository.class, "getDailyRevenue", "idx_payment_status_created",
+                START, END);
+    }
+
+    @Test
+    void paymentRevenueByRangeUsesStatusCreatedIndex() {
+        assertUsesIndex(paymentRepository, PaymentRepository.class, "calculateRevenueByDateRange",
+                "idx_payment_status_created", EPaymentStatus.SUCCESS, START, END);
+    }
+
+    @Test
+    void paymentMonthlyRevenueUsesStatusCreatedIndex() {
+        assertUsesIndex(paymentRepository, PaymentRepository.class, "calculateMonthlyRevenue",
+                "idx_payment_status_created", EPaymentStatus.SUCCESS, START, END);
+    }
+
+    @Test
+    void paymentCountByRangeUsesStatusCreatedIndex() {
+        assertUsesIndex(paymentRepository, PaymentRepository.class, "countPaymentsByDateRange",
+                "idx_payment_status_created", EPaymentStatus.SUCCESS, START, END);
+    }
+
+    @Test
+    void userCreatedBetweenUsesCreatedIndex() {
+        assertUsesIndex(userRepository, UserRepository.class, "countCreatedBetween", "idx_user_created",
+                START, END);
+    }
+
+    // role_name là unique nên roles được đọc như hằng số; users lọc theo (role_id, created_at)
+    @Test
+    void customerCreatedBetweenUsesRoleCreatedIndex() {
+        assertUsesIndex(userRepository, UserRepository.class, "countCustomerCreatedBetween", "idx_user_role_created",
+                START, END);
+    }
+
+    @Test
+    void userGrowthByDayUsesCreatedIndex() {
+        assertUsesIndex(userRepository, UserRepository.class, "countUserByDateRange", "idx_user_created",
+                START, END);
+    }
+
+    private void assertUsesIndex(Object repository, Class<?> repositoryType, String methodName, String expectedKey,
+            Object... args) {
+        Method method = Arrays.stream(repositoryType.getMethods())
+                .filter(m -> m.getName().equals(methodName) && m.getParameterCount() == args.length)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No repository method " + methodName));
+
+        String sql = captureSql(repository, method, args);
+        List<Object> bindValues = bindValues(method, args);
+        assertEquals(bindValues.size(), sql.chars().filter(c -> c == '?').count(), "Bind count mismatch: " + sql);
+
+        List<Map<String, Object>> plan = explain(sql, bindValues);
+        for (Map<String, Object> row : plan) {
+            assertFalse("ALL".equalsIgnoreCase(String.valueOf(row.get("type"))),
+                    "Full scan on " + row.get("table") + ": " + sql);
+        }
+        assertTrue(plan.stream().anyMatch(row -> expectedKey.equals(row.get("key"))),
+                "Expected " + expectedKey + " in " + plan + ": " + sql);
+    }
+
+    // Gọi method repository và lấy câu SELECT Hibernate thực sự gửi xuống DB
+    private String captureSql(Object repository, Method method, Object[] args) {
+        List<String> statements;
+        CapturingStatementInspector.start();
+        try {
+            method.invoke(repository, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            statements = CapturingStatementInspector.stop();
+        }
+        assertEquals(1, statements.size(), "Expected one statement: " + statements);
+        return statements.get(0);
+    }
+
+    // Giá trị bind theo thứ tự xuất hiện của :param trong @Query (cùng thứ tự dấu ? trong SQL)
+    private List<Object> bindValues(Method method, Object[] args) {
+        Map<String, Object> byName = new HashMap<>();
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            byName.put(parameters[i].getAnnotation(Param.class).value(), toJdbcValue(args[i]));
+        }
+        List<Object> values = new ArrayList<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(method.getAnnotation(Query.class).value());
+        while (matcher.find()) {
+            values.add(byName.get(matcher.group(1)));
+        }
+        return values;
+    }
+
+    private Object toJdbcValue(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return Timestamp.valueOf(dateTime);
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value;
+    }
+
+    // Bảng test ít dòng nên optimizer có thể chọn full scan dù có index;
+    // max_seeks_for_key thấp buộc nó ưu tiên index như khi bảng lớn
+    private List<Map<String, Object>> explain(String sql, List<Object> bindValues) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Map<String, Object>>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION max_seeks_for_key = 1");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < bindValues.size(); i++) {
+                    statement.setObject(i + 1, bindValues.get(i));
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    return new RowMapperResultSetExtractor<>(new ColumnMapRowMapper()).extractData(rs);
+                }
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET SESSION max_seeks_for_key = DEFAULT");
+                }
+            }
+        });
+    }
+
+    /**
+     * Ghi lại SQL của thread đang bật capture; các thread khác (scheduler) không bị ảnh hưởng.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        static void start() {
+            CAPTURED.set(new ArrayList<>());
+        }
+
+        static List<String> stop() {
+            List<String> statements = CAPTURED.get();
+            CAPTURED.remove();
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = CAPTURED.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
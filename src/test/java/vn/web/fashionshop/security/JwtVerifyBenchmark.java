@@ -0,0 +1,93 @@
+package vn.web.fashionshop.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import vn.web.fashionshop.entity.Role;
+import vn.web.fashionshop.entity.User;
+import vn.web.fashionshop.enums.ERoleName;
+
+/**
+ * So sánh chi phí xác thực JWT mỗi request.
+ *
+ * legacyPerRequest: cách cũ (dựng key + parser mỗi lần, parse 3 lần cho username / expiration / claims).
+ * verifyUncached: parse một lần với key + parser dựng sẵn. verifyCached: token đã có trong cache.
+ *
+ * Chạy: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=vn.web.fashionshop.security.JwtVerifyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyForJWTMustBeAtLeast256BitsLongForHS256";
+
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtil = new JwtUtil(SECRET, 86_400_000L, 2_592_000_000L, 10_000);
+        uncachedJwtUtil = new JwtUtil(SECRET, 86_400_000L, 2_592_000_000L, 0);
+
+        Role role = new Role();
+        role.setRoleName(ERoleName.CUSTOMER);
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("bench@example.com");
+        user.setRole(role);
+        token = cachedJwtUtil.generateToken(user, false);
+        cachedJwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Object legacyPerRequest() {
+        String username = legacyClaims(token).getSubject();
+        boolean expired = legacyClaims(token).getExpiration().before(new java.util.Date());
+        Claims claims = legacyClaims(token);
+        return username != null && !expired ? claims : null;
+    }
+
+    @Benchmark
+    public Object verifyUncached() {
+        return uncachedJwtUtil.verify(token).orElse(null);
+    }
+
+    @Benchmark
+    public Object verifyCached() {
+        return cachedJwtUtil.verify(token).orElse(null);
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerifyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
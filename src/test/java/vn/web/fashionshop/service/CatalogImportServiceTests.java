@@ -0,0 +1,70 @@
+package vn.web.fashionshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.web.fashionshop.dto.catalog.CatalogImportResultDTO;
+
+/**
+ * Import lại file thiếu cột / ô trống không được ghi đè dữ liệu đã có.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TEST_DB_URL:jdbc:mysql://localhost:3306/DoAnCntt_test?createDatabaseIfNotExist=true"
+                + "&useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true}"
+})
+class CatalogImportServiceTests {
+
+    private static final String SKU = "TEST-PARTIAL-IMPORT";
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteImportedProduct() {
+        jdbcTemplate.update("DELETE v FROM product_variants v JOIN products p ON p.id = v.product_id WHERE p.sku = ?", SKU);
+        jdbcTemplate.update("DELETE FROM products WHERE sku = ?", SKU);
+    }
+
+    @Test
+    void partialReimportKeepsOmittedAndBlankColumns() {
+        importCsv("sku,productName,price,description,discount,isActive,stock\n"
+                + SKU + ",Linen shirt,250000,Breathable linen,15,false,12\n");
+
+        CatalogImportResultDTO result = importCsv("sku,productName,price\n" + SKU + ",Linen shirt v2,260000\n");
+        assertEquals(0, result.getErrorCount());
+        assertProduct("Linen shirt v2", "260000.00", "Breathable linen", "15.00", false, 12);
+
+        importCsv("sku,productName,price,description,discount,isActive,stock\n" + SKU + ",Linen shirt v3,270000,,,,\n");
+        assertProduct("Linen shirt v3", "270000.00", "Breathable linen", "15.00", false, 12);
+    }
+
+    private CatalogImportResultDTO importCsv(String csv) {
+        return catalogImportService.importCatalog(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                CatalogImportService.Format.CSV, false);
+    }
+
+    private void assertProduct(String name, String price, String description, String discount, boolean active,
+            int stock) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT product_name, price, description, discount, is_active, stock FROM products WHERE sku = ?", SKU);
+        assertEquals(name, row.get("product_name"));
+        assertEquals(0, new BigDecimal(price).compareTo((BigDecimal) row.get("price")));
+        assertEquals(description, row.get("description"));
+        assertEquals(0, new BigDecimal(discount).compareTo(new BigDecimal(row.get("discount").toString())));
+        assertEquals(active, row.get("is_active"));
+        assertEquals(stock, ((Number) row.get("stock")).intValue());
+    }
+}
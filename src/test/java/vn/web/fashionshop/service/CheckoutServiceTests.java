@@ -0,0 +1,122 @@
+package vn.web.fashionshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.web.fashionshop.cache.CatalogVersions;
+import vn.web.fashionshop.cache.PageCache;
+import vn.web.fashionshop.cache.PageCacheFilter;
+import vn.web.fashionshop.dto.checkout.CheckoutForm;
+import vn.web.fashionshop.entity.Role;
+import vn.web.fashionshop.enums.EPaymentMethod;
+import vn.web.fashionshop.enums.ERoleName;
+import vn.web.fashionshop.repository.RoleRepository;
+
+/**
+ * Đặt hàng chỉ trừ tồn kho: không được làm mất các trang storefront đã cache hay đổi ETag của chúng,
+ * chỉ version tồn kho (API variant) thay đổi.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TEST_DB_URL:jdbc:mysql://localhost:3306/DoAnCntt_test?createDatabaseIfNotExist=true"
+                + "&useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true}"
+})
+class CheckoutServiceTests {
+
+    private static final String EMAIL = "checkout-cache@test.local";
+    private static final String SKU = "TEST-CHECKOUT-CACHE";
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long productId;
+
+    @BeforeEach
+    void createCartWithOneItem() {
+        Role role = roleRepository.findByRoleName(ERoleName.CUSTOMER);
+        if (role == null) {
+            role = new Role();
+            role.setRoleName(ERoleName.CUSTOMER);
+            role.setCreatedAt(LocalDateTime.now());
+            role = roleRepository.save(role);
+        }
+        jdbcTemplate.update("INSERT INTO users (full_name, email, phone, password, is_active, token_version, created_at, "
+                + "role_id) VALUES ('Checkout Cache', ?, '0900000998', 'x', true, 0, NOW(), ?)", EMAIL, role.getId());
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, EMAIL);
+
+        jdbcTemplate.update("INSERT INTO products (sku, product_name, stock, price, discount, is_active, created_at) "
+                + "VALUES (?, 'Cotton tee', 10, 150000, 0, true, NOW())", SKU);
+        productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = ?", Long.class, SKU);
+        jdbcTemplate.update("INSERT INTO product_variants (product_id, size, color, stock, sku_variant, created_at) "
+                + "VALUES (?, 'M', 'White', 10, ?, NOW())", productId, SKU + "-M");
+        Long variantId = jdbcTemplate.queryForObject("SELECT id FROM product_variants WHERE sku_variant = ?",
+                Long.class, SKU + "-M");
+
+        jdbcTemplate.update("INSERT INTO carts (user_id, created_at) VALUES (?, NOW())", userId);
+        Long cartId = jdbcTemplate.queryForObject("SELECT id FROM carts WHERE user_id = ?", Long.class, userId);
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, variant_id, quantity, unit_price, total_price, created_at) "
+                + "VALUES (?, ?, 1, 150000, 150000, NOW())", cartId, variantId);
+    }
+
+    @AfterEach
+    void deleteTestData() {
+        jdbcTemplate.update("DELETE p FROM payments p JOIN orders o ON o.id = p.order_id WHERE o.user_id = ?", userId);
+        jdbcTemplate.update("DELETE a FROM order_addresses a JOIN orders o ON o.id = a.order_id WHERE o.user_id = ?",
+                userId);
+        jdbcTemplate.update("DELETE i FROM order_items i JOIN orders o ON o.id = i.order_id WHERE o.user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE i FROM cart_items i JOIN carts c ON c.id = i.cart_id WHERE c.user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM carts WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM product_variants WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        pageCache.clear();
+    }
+
+    @Test
+    void checkoutKeepsCatalogPagesCached() {
+        pageCache.put("/shop", 200, Map.of(), new byte[0], Set.of(PageCacheFilter.TAG_CATALOG), pageCache.generation());
+        pageCache.put("/product/" + productId, 200, Map.of(), new byte[0],
+                Set.of(PageCacheFilter.productTag(productId)), pageCache.generation());
+        long catalogVersion = catalogVersions.catalog();
+        long productVersion = catalogVersions.product(productId);
+        long stockVersion = catalogVersions.productStock(productId);
+
+        CheckoutForm form = new CheckoutForm();
+        form.setRecipientName("Checkout Cache");
+        form.setPhone("0900000998");
+        form.setAddressLine("1 Test street");
+        form.setPaymentMethod(EPaymentMethod.COD);
+        checkoutService.placeOrder(EMAIL, form, null, null);
+
+        assertNotNull(pageCache.get("/shop"));
+        assertNotNull(pageCache.get("/product/" + productId));
+        assertEquals(catalogVersion, catalogVersions.catalog());
+        assertEquals(productVersion, catalogVersions.product(productId));
+        assertNotEquals(stockVersion, catalogVersions.productStock(productId));
+    }
+}
@@ -0,0 +1,135 @@
+package vn.web.fashionshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.internet.MimeMessage;
+import vn.web.fashionshop.config.MailOutboxProperties;
+import vn.web.fashionshop.entity.EmailOutbox;
+import vn.web.fashionshop.entity.NewsletterCampaign;
+import vn.web.fashionshop.enums.ECampaignStatus;
+import vn.web.fashionshop.enums.EEmailStatus;
+import vn.web.fashionshop.repository.EmailOutboxRepository;
+import vn.web.fashionshop.repository.NewsletterCampaignRepository;
+
+/**
+ * Gửi thư qua outbox tới GreenMail (SMTP nhúng) thay cho Gmail.
+ * Worker định kỳ bị đẩy lùi (poll-millis lớn) để test tự gọi drainOnce().
+ * Chạy trên schema riêng (TEST_DB_URL) vì test xoá outbox và drainOnce() gửi mọi thư đến hạn.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TEST_DB_URL:jdbc:mysql://localhost:3306/DoAnCntt_test?createDatabaseIfNotExist=true"
+                + "&useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true}",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=shop@localhost",
+        "spring.mail.password=secret",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        "app.mail.outbox.poll-millis=3600000"
+})
+class EmailOutboxServiceTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("shop@localhost", "secret"));
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private MailOutboxProperties properties;
+
+    @Autowired
+    private NewsletterCampaignRepository campaignRepository;
+
+    @BeforeEach
+    void clearOutbox() {
+        emailOutboxRepository.deleteAllInBatch();
+        campaignRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void enqueuedMailIsDeliveredByWorker() {
+        emailOutboxService.enqueue("customer@localhost", "Hello", "Order shipped", null);
+
+        emailOutboxService.drainOnce();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("Order shipped", GreenMailUtil.getBody(received).trim());
+    }
+
+    @Test
+    void resendReplacesPendingMailWithSameDedupeKey() {
+        emailOutboxService.enqueue("customer@localhost", "OTP", "Code 111111", "otp-register:customer@localhost");
+        emailOutboxService.enqueue("customer@localhost", "OTP", "Code 222222", "otp-register:customer@localhost");
+
+        emailOutboxService.drainOnce();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertTrue(GreenMailUtil.getBody(greenMail.getReceivedMessages()[0]).contains("222222"));
+    }
+
+    @Test
+    void campaignMailIsClaimedWithinCampaignRate() throws Exception {
+        NewsletterCampaign campaign = new NewsletterCampaign();
+        campaign.setSubject("News");
+        campaign.setBodyTemplate("Hi {{email}}");
+        campaign.setStatus(ECampaignStatus.SENDING);
+        campaign.setSendRatePerSecond(2);
+        campaign.setCreatedAt(LocalDateTime.now());
+        campaign = campaignRepository.save(campaign);
+        emailOutboxService.enqueueBulk(List.of(
+                new EmailOutboxService.BulkMail("a@localhost", "News", "Hi a", "http://shop/unsubscribe?token=a"),
+                new EmailOutboxService.BulkMail("b@localhost", "News", "Hi b", "http://shop/unsubscribe?token=b"),
+                new EmailOutboxService.BulkMail("c@localhost", "News", "Hi c", "http://shop/unsubscribe?token=c"),
+                new EmailOutboxService.BulkMail("d@localhost", "News", "Hi d", "http://shop/unsubscribe?token=d"),
+                new EmailOutboxService.BulkMail("e@localhost", "News", "Hi e", "http://shop/unsubscribe?token=e")),
+                campaign.getId());
+
+        // Rate 2/s với tối đa một giây dồn: lần nhận đầu chỉ được 2 thư
+        assertEquals(2, emailOutboxService.drainOnce());
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertTrue(received.getHeader("List-Unsubscribe", null).startsWith("<http://shop/unsubscribe?token="));
+        assertEquals("List-Unsubscribe=One-Click", received.getHeader("List-Unsubscribe-Post", null));
+        assertEquals(3, emailOutboxRepository.findAll().stream()
+                .filter(mail -> mail.getStatus() == EEmailStatus.PENDING).count());
+    }
+
+    @Test
+    void expiredLeaseCountsAsFailedAttempt() {
+        emailOutboxService.enqueue("customer@localhost", "Hello", "Stuck", null);
+        EmailOutbox mail = emailOutboxRepository.findAll().get(0);
+        mail.setStatus(EEmailStatus.SENDING);
+        mail.setAttempts(properties.getMaxAttempts());
+        mail.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+        emailOutboxRepository.save(mail);
+
+        emailOutboxService.drainOnce();
+
+        EmailOutbox reclaimed = emailOutboxRepository.findById(mail.getId()).orElseThrow();
+        assertEquals(EEmailStatus.FAILED, reclaimed.getStatus());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+}
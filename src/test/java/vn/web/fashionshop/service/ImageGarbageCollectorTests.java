@@ -0,0 +1,97 @@
+package vn.web.fashionshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import vn.web.fashionshop.config.ImageGcProperties;
+import vn.web.fashionshop.config.UploadProperties;
+
+/**
+ * GC trên thư mục tạm; DB được giả lập: chỉ bảng users có một avatar được tham chiếu.
+ */
+class ImageGarbageCollectorTests {
+
+    private static final String AVATAR_URL = "/images/avatars/avatar_1_abc.jpg";
+
+    @TempDir
+    Path root;
+
+    private Path imagesDir;
+    private ImageGarbageCollector collector;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        imagesDir = Files.createDirectories(root.resolve("images"));
+
+        NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(1L);
+        when(row.getString("url")).thenReturn(AVATAR_URL);
+        when(jdbc.query(contains("FROM users"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> List.of(invocation.getArgument(2, RowMapper.class).mapRow(row, 0)));
+        when(jdbc.queryForList(contains("FROM users"), any(SqlParameterSource.class), eq(String.class)))
+                .thenReturn(List.of(AVATAR_URL));
+
+        ImageGcProperties properties = new ImageGcProperties();
+        properties.setQuarantineDir(root.resolve("quarantine").toString());
+        UploadProperties uploadProperties = new UploadProperties();
+        uploadProperties.setImagesDir(imagesDir.toString());
+        collector = new ImageGarbageCollector(jdbc, properties, uploadProperties);
+    }
+
+    @Test
+    void referencedAvatarSurvivesGcPass() throws IOException {
+        Path avatar = oldFile("avatars/avatar_1_abc.jpg");
+        Path orphan = oldFile("ab/cd/orphan.jpg");
+
+        collector.scheduledRun();
+
+        assertTrue(Files.exists(avatar));
+        assertFalse(Files.exists(orphan));
+        assertEquals(1, collector.getLastRun().getQuarantinedFiles());
+    }
+
+    @Test
+    void onlyUploadTempFilesAreTreatedAsTemp() throws IOException {
+        Path gitkeep = oldFile(".gitkeep");
+        Path uploadTemp = oldFile(".upload123.tmp");
+        Path derivativeTemp = oldFile("ab/cd/.derivative456.tmp");
+
+        collector.scheduledRun();
+
+        assertTrue(Files.exists(gitkeep));
+        assertFalse(Files.exists(uploadTemp));
+        assertFalse(Files.exists(derivativeTemp));
+    }
+
+    private Path oldFile(String relative) throws IOException {
+        Path file = imagesDir.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[] { 1, 2, 3 });
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        return file;
+    }
+}
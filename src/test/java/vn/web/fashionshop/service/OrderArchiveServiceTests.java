@@ -0,0 +1,104 @@
+package vn.web.fashionshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import vn.web.fashionshop.entity.Role;
+import vn.web.fashionshop.enums.ERoleName;
+import vn.web.fashionshop.repository.RoleRepository;
+
+/**
+ * Chuyển đơn sang bảng archive không được làm thay đổi các tổng toàn lịch sử (dashboard, thống kê khách hàng).
+ * Chạy trên schema riêng (TEST_DB_URL) vì archiveOldOrders() chuyển mọi đơn đủ tuổi.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TEST_DB_URL:jdbc:mysql://localhost:3306/DoAnCntt_test?createDatabaseIfNotExist=true"
+                + "&useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true}",
+        "app.archive.orders.enabled=true"
+})
+class OrderArchiveServiceTests {
+
+    private static final String EMAIL = "archive-totals@test.local";
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void createCustomerWithOldOrders() {
+        Role role = roleRepository.findByRoleName(ERoleName.CUSTOMER);
+        if (role == null) {
+            role = new Role();
+            role.setRoleName(ERoleName.CUSTOMER);
+            role.setCreatedAt(LocalDateTime.now());
+            role = roleRepository.save(role);
+        }
+        jdbcTemplate.update("INSERT INTO users (full_name, email, phone, password, is_active, token_version, created_at, "
+                + "role_id) VALUES ('Archive Totals', ?, '0900000999', 'x', true, 0, NOW(), ?)", EMAIL, role.getId());
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, EMAIL);
+
+        Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusYears(2));
+        insertOrder("COMPLETED", "350000.00", old);
+        insertOrder("CANCELLED", "120000.00", old);
+        insertOrder("COMPLETED", "90000.00", Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @AfterEach
+    void deleteCustomer() {
+        jdbcTemplate.update("DELETE FROM orders_archive WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void archivingKeepsOrderTotals() {
+        List<Object> before = totals();
+
+        orderArchiveService.archiveOldOrders();
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders_archive WHERE user_id = ?", Integer.class, userId));
+        assertEquals(before, totals());
+        assertEquals(3L, orderService.countOrdersByUserId(userId));
+        assertEquals(0, new BigDecimal("440000").compareTo(orderService.getTotalSpendingByUserId(userId)));
+    }
+
+    private List<Object> totals() {
+        return List.of(
+                orderService.countAll(),
+                orderService.countByStatus("COMPLETED"),
+                orderService.countByStatus("CANCELLED"),
+                orderService.countRevenue().stripTrailingZeros(),
+                orderService.getCancellationReasonStats(),
+                orderService.countOrdersByUserId(userId),
+                orderService.countCompletedOrdersByUserId(userId),
+                orderService.getTotalSpendingByUserId(userId).stripTrailingZeros());
+    }
+
+    private void insertOrder(String status, String total, Timestamp createdAt) {
+        jdbcTemplate.update("INSERT INTO orders (user_id, sub_total, discount_amount, total_amount, payment_method, "
+                + "order_status, created_at) VALUES (?, ?, 0, ?, 'COD', ?, ?)",
+                userId, new BigDecimal(total), new BigDecimal(total), status, createdAt);
+    }
+}